@@ -0,0 +1,92 @@
+package online.ityura.springdigitallibrary.cache;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+
+/**
+ * Resource поверх ByteBuffer (в том числе direct-буфера вне кучи).
+ * Каждый вызов getInputStream() работает со своей копией позиции (duplicate),
+ * поэтому один буфер можно безопасно отдавать нескольким запросам одновременно.
+ */
+public class ByteBufferResource extends AbstractResource {
+
+    private final ByteBuffer buffer;
+    private final URI sourceUri;
+
+    public ByteBufferResource(ByteBuffer buffer, URI sourceUri) {
+        this.buffer = buffer;
+        this.sourceUri = sourceUri;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Cached bytes of [" + sourceUri + "]";
+    }
+
+    @Override
+    public String getFilename() {
+        String path = sourceUri.getPath();
+        return path != null ? path.substring(path.lastIndexOf('/') + 1) : null;
+    }
+
+    @Override
+    public URI getURI() {
+        // Контроллеры определяют MediaType по расширению исходного файла
+        return sourceUri;
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long contentLength() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package online.ityura.springdigitallibrary.cache;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import online.ityura.springdigitallibrary.model.Author;
+import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.service.AuthorResolver;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Слушает уведомления {@link ChangeNotificationPublisher} (LISTEN entity_changes) и сбрасывает локальные кэши пода:
+ * кэш второго уровня Hibernate, кэш изображений и кэш авторов.
+ * Держит отдельное соединение с основной БД, не из пула. Если соединение рвется, уведомления за это время теряются,
+ * поэтому после переподключения под досбрасывает все, что есть в журнале entity_changes с момента последней связи.
+ * Если разрыв дольше срока хранения журнала или изменений слишком много, кэши сбрасываются целиком.
+ * <p>
+ * С репликами сброса в момент уведомления мало: NOTIFY приходит при коммите на основной БД, и следующее чтение
+ * readOnly-транзакции с отстающей реплики вернет старую строку и снова положит ее в кэш второго уровня.
+ * Поэтому каждый сброс повторяется через max-lag + lag-check-interval: к этому моменту реплика, которую еще
+ * разрешено читать, уже применила изменение.
+ */
+@Component
+public class ChangeNotificationListener {
+
+    static final String BOOK_QUERY_REGION = "query.bookWithAuthor";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ImageByteCache imageByteCache;
+
+    @Autowired
+    private AuthorResolver authorResolver;
+
+    @Autowired
+    private ChangeNotificationPublisher publisher;
+
+    @Value("${app.cache.notifications.enabled:true}")
+    private boolean enabled;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${app.cache.notifications.poll-timeout:PT10S}")
+    private Duration pollTimeout;
+
+    @Value("${app.cache.notifications.reconnect-delay:PT5S}")
+    private Duration reconnectDelay;
+
+    @Value("${app.cache.notifications.retention:P1D}")
+    private Duration retention;
+
+    @Value("${app.cache.notifications.sweep-grace:PT1M}")
+    private Duration sweepGrace;
+
+    @Value("${app.cache.notifications.max-sweep-changes:10000}")
+    private int maxSweepChanges;
+
+    @Value("${app.datasource.replicas.enabled:false}")
+    private boolean replicasEnabled;
+
+    @Value("${app.datasource.replicas.max-lag:PT2S}")
+    private Duration replicaMaxLag;
+
+    @Value("${app.datasource.replicas.lag-check-interval:PT1S}")
+    private Duration replicaLagCheckInterval;
+
+    private ScheduledExecutorService delayedEvictions = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "entity-changes-delayed-eviction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean running;
+    private Thread thread;
+
+    // Время, до которого все изменения уже учтены. До первого соединения - момент запуска:
+    // кэши могли заполниться раньше, чем начали приходить уведомления
+    private volatile Instant lastContact = Instant.now();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listenLoop, "entity-changes-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        delayedEvictions.shutdownNow();
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                listen(connection);
+            } catch (SQLException e) {
+                if (running) {
+                    System.err.println("Entity change listener disconnected: " + e.getMessage());
+                }
+            }
+            try {
+                Thread.sleep(reconnectDelay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void listen(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + ChangeNotificationPublisher.CHANNEL);
+        }
+        // Журнал читаем уже после LISTEN: изменение, закоммиченное между ними, придет хотя бы одним из путей
+        catchUp(connection, lastContact);
+
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+            if (notifications != null) {
+                for (PGNotification notification : notifications) {
+                    handle(notification.getParameter());
+                }
+            }
+            // Заодно проверяет, что соединение живо
+            lastContact = databaseNow(connection);
+        }
+    }
+
+    /**
+     * Обрабатывает одно уведомление {@code СУЩНОСТЬ:ID:версия:под}.
+     */
+    public void handle(String payload) {
+        String[] parts = payload.split(":", 4);
+        if (parts.length != 4) {
+            System.err.println("Ignoring malformed entity change notification: " + payload);
+            return;
+        }
+        if (parts[3].equals(publisher.getInstanceId())) {
+            return;
+        }
+        try {
+            evict(ChangedEntity.valueOf(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ignoring malformed entity change notification: " + payload);
+        }
+    }
+
+    /**
+     * Сбрасывает кэши по изменениям из журнала, сделанным начиная с {@code since} (с запасом на долгие транзакции:
+     * в журнале время начала транзакции, а уведомление уходит при коммите).
+     */
+    public void catchUp(Connection connection, Instant since) throws SQLException {
+        Instant from = since.minus(sweepGrace);
+        if (Duration.between(from, databaseNow(connection)).compareTo(retention) >= 0) {
+            evictAll("no contact for longer than the change journal retention");
+            return;
+        }
+
+        List<Object[]> changes = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT DISTINCT entity, entity_id FROM entity_changes WHERE changed_at >= ? LIMIT ?")) {
+            statement.setObject(1, OffsetDateTime.ofInstant(from, ZoneOffset.UTC));
+            statement.setInt(2, maxSweepChanges + 1);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    changes.add(new Object[]{rs.getString("entity"), rs.getLong("entity_id")});
+                }
+            }
+        }
+        if (changes.size() > maxSweepChanges) {
+            evictAll("more than " + maxSweepChanges + " changes missed");
+            return;
+        }
+        for (Object[] change : changes) {
+            evict(ChangedEntity.valueOf((String) change[0]), (Long) change[1]);
+        }
+        if (!changes.isEmpty()) {
+            System.out.println("Entity change listener caught up on " + changes.size() + " missed changes");
+        }
+    }
+
+    private void evict(ChangedEntity entity, Long id) {
+        evictNow(entity, id);
+        afterReplicaLag(() -> evictNow(entity, id));
+    }
+
+    private void evictNow(ChangedEntity entity, Long id) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        switch (entity) {
+            case BOOK -> {
+                cache.evictEntityData(Book.class, id);
+                // Кэш запросов сверяется с временем изменения таблиц только на своем поде
+                cache.evictQueryRegion(BOOK_QUERY_REGION);
+                imageByteCache.invalidate(id);
+            }
+            case AUTHOR -> {
+                cache.evictEntityData(Author.class, id);
+                authorResolver.forget(id);
+            }
+        }
+    }
+
+    private void evictAll(String reason) {
+        System.out.println("Clearing local caches: " + reason);
+        evictAllNow();
+        afterReplicaLag(this::evictAllNow);
+    }
+
+    private void evictAllNow() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        imageByteCache.clear();
+        authorResolver.forgetAll();
+    }
+
+    /**
+     * Повторяет сброс, когда допустимое отставание реплик уже прошло. Монитор отставания проверяет реплики раз
+     * в lag-check-interval, поэтому реплика может отстать на max-lag плюс этот интервал, прежде чем ее исключат.
+     */
+    private void afterReplicaLag(Runnable eviction) {
+        if (!replicasEnabled) {
+            return;
+        }
+        try {
+            delayedEvictions.schedule(() -> {
+                try {
+                    eviction.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Delayed cache eviction failed: " + e.getMessage());
+                }
+            }, replicaMaxLag.plus(replicaLagCheckInterval).toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Приложение останавливается
+        }
+    }
+
+    private static Instant databaseNow(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT now()")) {
+            rs.next();
+            return rs.getObject(1, OffsetDateTime.class).toInstant();
+        }
+    }
+}
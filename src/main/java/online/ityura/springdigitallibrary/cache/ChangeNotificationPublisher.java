@@ -0,0 +1,73 @@
+package online.ityura.springdigitallibrary.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Сообщает всем подам об изменении книги или автора, чтобы они сбросили свои локальные кэши.
+ * Запись в журнал entity_changes и NOTIFY выполняются в текущей транзакции: PostgreSQL доставляет
+ * уведомление слушателям только после коммита, а при откате не доставляет вовсе.
+ * Формат уведомления: {@code СУЩНОСТЬ:ID:версия:под}, где версия - номер записи в журнале.
+ */
+@Component
+public class ChangeNotificationPublisher {
+
+    public static final String CHANNEL = "entity_changes";
+
+    static final String PUBLISH_SQL = "WITH change AS (" +
+            "INSERT INTO entity_changes (entity, entity_id) VALUES (?, ?) RETURNING entity, entity_id, seq) " +
+            "SELECT pg_notify(?, entity || ':' || entity_id || ':' || seq || ':' || ?) FROM change";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.cache.notifications.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cache.notifications.retention:P1D}")
+    private Duration retention;
+
+    // Свои уведомления под пропускает: его кэши уже обновлены при записи
+    private final String instanceId = UUID.randomUUID().toString();
+
+    public void publish(ChangedEntity entity, Long id) {
+        if (!enabled || id == null) {
+            return;
+        }
+        jdbcTemplate.queryForList(PUBLISH_SQL, entity.name(), id, CHANNEL, instanceId);
+    }
+
+    public void publish(ChangedEntity entity, Collection<Long> ids) {
+        for (Long id : ids) {
+            publish(entity, id);
+        }
+    }
+
+    /**
+     * Удаляет из журнала изменения старше срока хранения. Под, не получавший уведомлений дольше, сбрасывает кэши целиком.
+     */
+    @Scheduled(fixedDelayString = "${app.cache.notifications.prune-interval:PT1H}")
+    public void pruneJournal() {
+        if (!enabled) {
+            return;
+        }
+        int deleted = jdbcTemplate.update("DELETE FROM entity_changes WHERE changed_at < ?",
+                Timestamp.from(Instant.now().minus(retention)));
+        if (deleted > 0) {
+            System.out.println("Pruned " + deleted + " entity change journal entries");
+        }
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+}
@@ -0,0 +1,9 @@
+package online.ityura.springdigitallibrary.cache;
+
+/**
+ * Сущности, изменения которых рассылаются подам для сброса локальных кэшей.
+ */
+public enum ChangedEntity {
+    BOOK,
+    AUTHOR
+}
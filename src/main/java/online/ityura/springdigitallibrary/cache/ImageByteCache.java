@@ -0,0 +1,163 @@
+package online.ityura.springdigitallibrary.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU-кэш байтов обложек книг.
+ * Байты хранятся в direct ByteBuffer (вне кучи), поэтому GC их не сканирует,
+ * а общий объем ограничен бюджетом app.images.cache.max-bytes.
+ * Ключ - ID книги; вместе с байтами хранится ключ хранилища, из которого они прочитаны,
+ * так что смена image_path у книги автоматически делает запись неактуальной.
+ */
+@Component
+public class ImageByteCache {
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    // accessOrder = true: порядок итерации от давно использованных к недавно использованным
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long residentBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ImageByteCache(@Value("${app.images.cache.max-bytes:67108864}") long maxBytes,
+                          @Value("${app.images.cache.max-entry-bytes:2097152}") long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+    }
+
+    /**
+     * Возвращает закэшированное изображение или null, если его нет (или оно прочитано из другого файла).
+     */
+    public Resource get(Long bookId, String imagePath) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(bookId);
+            if (entry != null && !entry.imagePath.equals(imagePath)) {
+                removeEntry(bookId);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new ByteBufferResource(entry.buffer, entry.uri);
+    }
+
+    /**
+     * Читает изображение из хранилища в direct-буфер и помещает его в кэш.
+     * Возвращает null, если файл больше допустимого размера записи - тогда его нужно отдавать из хранилища.
+     */
+    public Resource load(Long bookId, String imagePath, Resource source) throws IOException {
+        return load(bookId, imagePath, source, source.contentLength());
+    }
+    
+    /**
+     * То же, что {@link #load(Long, String, Resource)}, но с заранее известным размером (без stat источника).
+     */
+    public Resource load(Long bookId, String imagePath, Resource source, long size) throws IOException {
+        if (size > maxEntryBytes) {
+            return null;
+        }
+        URI uri = source.getURI();
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+        try (InputStream input = source.getInputStream();
+             ReadableByteChannel channel = Channels.newChannel(input)) {
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Читаем до конца файла
+            }
+        }
+        buffer.flip();
+        ByteBuffer readOnly = buffer.asReadOnlyBuffer();
+        put(bookId, new Entry(imagePath, uri, readOnly));
+        return new ByteBufferResource(readOnly, uri);
+    }
+
+    public synchronized void invalidate(Long bookId) {
+        removeEntry(bookId);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        residentBytes = 0;
+    }
+
+    public synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    private synchronized void put(Long bookId, Entry entry) {
+        removeEntry(bookId);
+        entries.put(bookId, entry);
+        residentBytes += entry.size();
+
+        // Вытесняем самые давно использованные записи, пока не уложимся в бюджет
+        Iterator<Map.Entry<Long, Entry>> iterator = entries.entrySet().iterator();
+        while (residentBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<Long, Entry> eldest = iterator.next();
+            if (eldest.getKey().equals(bookId)) {
+                continue;
+            }
+            residentBytes -= eldest.getValue().size();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private void removeEntry(Long bookId) {
+        Entry removed = entries.remove(bookId);
+        if (removed != null) {
+            residentBytes -= removed.size();
+        }
+    }
+
+    private record Entry(String imagePath, URI uri, ByteBuffer buffer) {
+        long size() {
+            return buffer.capacity();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package online.ityura.springdigitallibrary.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Пул отображенных в память (mmap) PDF-файлов для самых скачиваемых книг.
+ * Файл попадает в пул после app.pdf.mmap.min-downloads скачиваний; дальше полные ответы и Range-запросы
+ * читаются прямо из page cache через MappedByteBuffer, без открытия файла и копирования через поток.
+ * Общий объем отображений ограничен app.pdf.mmap.max-bytes, при переполнении из пула убираются
+ * давно не скачивавшиеся файлы (LRU).
+ * <p>
+ * Явно снять отображение в Java нельзя без риска для запросов, которые еще читают буфер,
+ * поэтому пул только отпускает ссылку, а само отображение освобождается сборщиком мусора.
+ */
+@Component
+public class MappedPdfPool {
+
+    private final long maxBytes;
+    private final long minDownloads;
+    private final int maxTrackedKeys;
+
+    // Счетчики скачиваний для выбора горячих файлов
+    private final ConcurrentHashMap<String, LongAdder> downloadCounts = new ConcurrentHashMap<>();
+
+    // accessOrder = true: порядок итерации от давно использованных к недавно использованным
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long mappedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder mappings = new LongAdder();
+    private final LongAdder unmappings = new LongAdder();
+
+    public MappedPdfPool(@Value("${app.pdf.mmap.max-bytes:268435456}") long maxBytes,
+                         @Value("${app.pdf.mmap.min-downloads:3}") long minDownloads,
+                         @Value("${app.pdf.mmap.max-tracked-files:10000}") int maxTrackedKeys) {
+        this.maxBytes = maxBytes;
+        this.minDownloads = Math.max(minDownloads, 1);
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    /**
+     * Возвращает PDF из пула или отображает файл, если его уже скачивали достаточно часто.
+     * Возвращает null, если файл нужно отдать обычным потоком (еще не горячий, больше бюджета или пул выключен).
+     *
+     * @param pdfKey ключ PDF в хранилище
+     * @param file   путь к файлу на локальном диске
+     * @param size   размер файла из метаданных
+     */
+    public Resource open(String pdfKey, Path file, long size) throws IOException {
+        if (maxBytes <= 0 || size <= 0 || size > maxBytes || size > Integer.MAX_VALUE) {
+            return null;
+        }
+
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(pdfKey);
+        }
+        if (entry != null) {
+            hits.increment();
+            return new ByteBufferResource(entry.buffer, entry.file.toUri());
+        }
+
+        misses.increment();
+        if (countDownload(pdfKey) < minDownloads) {
+            return null;
+        }
+
+        // Отображаем вне блокировки: mmap не читает файл, страницы подгружаются при первом обращении
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer = mapped.asReadOnlyBuffer();
+        }
+        mappings.increment();
+        put(pdfKey, new Entry(file, buffer));
+        return new ByteBufferResource(buffer, file.toUri());
+    }
+
+    public synchronized void invalidate(String pdfKey) {
+        removeEntry(pdfKey);
+        downloadCounts.remove(pdfKey);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        mappedBytes = 0;
+        downloadCounts.clear();
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getMappedBytes() {
+        return mappedBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getMappings() {
+        return mappings.sum();
+    }
+
+    public long getUnmappings() {
+        return unmappings.sum();
+    }
+
+    private long countDownload(String pdfKey) {
+        if (downloadCounts.size() >= maxTrackedKeys && !downloadCounts.containsKey(pdfKey)) {
+            // Грубое старение: при переполнении начинаем считать заново, горячие файлы быстро наберут счетчик снова
+            downloadCounts.clear();
+        }
+        LongAdder counter = downloadCounts.computeIfAbsent(pdfKey, key -> new LongAdder());
+        counter.increment();
+        return counter.sum();
+    }
+
+    private synchronized void put(String pdfKey, Entry entry) {
+        removeEntry(pdfKey);
+        entries.put(pdfKey, entry);
+        mappedBytes += entry.size();
+
+        // Отпускаем давно не скачивавшиеся файлы, пока не уложимся в бюджет
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (mappedBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            if (eldest.getKey().equals(pdfKey)) {
+                continue;
+            }
+            mappedBytes -= eldest.getValue().size();
+            iterator.remove();
+            unmappings.increment();
+        }
+    }
+
+    private void removeEntry(String pdfKey) {
+        Entry removed = entries.remove(pdfKey);
+        if (removed != null) {
+            mappedBytes -= removed.size();
+        }
+    }
+
+    private record Entry(Path file, ByteBuffer buffer) {
+        long size() {
+            return buffer.capacity();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package online.ityura.springdigitallibrary.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import online.ityura.springdigitallibrary.datasource.ReadYourWritesTracker;
+import online.ityura.springdigitallibrary.datasource.ReplicaLagMonitor;
+import online.ityura.springdigitallibrary.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Чтение с реплик. Включается app.datasource.replicas.enabled=true, иначе работает обычный DataSource Spring Boot.
+ * Основной пул настраивается как обычно (spring.datasource.*), реплики - списком URL в app.datasource.replicas.urls.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaLagMonitor replicaLagMonitor(DataSourceProperties properties,
+                                               @Value("${app.datasource.replicas.urls}") String urls,
+                                               @Value("${app.datasource.replicas.username:}") String username,
+                                               @Value("${app.datasource.replicas.password:}") String password,
+                                               @Value("${app.datasource.replicas.pool-size:10}") int poolSize,
+                                               @Value("${app.datasource.replicas.max-lag:PT2S}") Duration maxLag) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls.split(",")) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // Недоступная при старте реплика не должна мешать запуску: до успешной проверки чтения идут на основную БД
+            replica.setInitializationFailTimeout(-1);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        System.out.println("Read replicas configured: " + replicas.keySet());
+        return new ReplicaLagMonitor(replicas, maxLag);
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(
+            @Value("${app.datasource.replicas.sticky-window:PT5S}") Duration stickyWindow) {
+        return new ReadYourWritesTracker(stickyWindow, Clock.systemUTC());
+    }
+
+    /**
+     * По умолчанию Hibernate держит полученное соединение до конца сессии, а с open-in-view сессия живет весь запрос:
+     * соединение с реплики, взятое для чтения, досталось бы и следующей пишущей транзакции. Отпускаем его после каждой транзакции.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put("hibernate.connection.handling_mode",
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    /**
+     * DataSource для JPA, Flyway и JdbcTemplate. Ленивый прокси берет настоящее соединение только при первом запросе,
+     * когда признак readOnly транзакции уже выставлен, поэтому маршрутизация видит его.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryDataSource, replicaLagMonitor, readYourWritesTracker));
+    }
+}
@@ -0,0 +1,413 @@
+package online.ityura.springdigitallibrary.config;
+
+import jakarta.annotation.PreDestroy;
+import online.ityura.springdigitallibrary.cache.ChangeNotificationPublisher;
+import online.ityura.springdigitallibrary.cache.ChangedEntity;
+import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.repository.BookRepository;
+import online.ityura.springdigitallibrary.storage.ContentAddressedStore;
+import online.ityura.springdigitallibrary.storage.SpooledContent;
+import online.ityura.springdigitallibrary.storage.StoredFileService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Синхронизирует исходные обложки и PDF демонстрационных книг с хранилищем.
+ * <p>
+ * Манифест seed_files хранит для каждого исходного файла размер, время изменения, SHA-256, ключ в хранилище и книгу.
+ * Файл с теми же размером и временем изменения не читается вовсе; измененный файл хэшируется, и в хранилище
+ * копируется, только если изменилось содержимое. Книга получает новый файл, только если все еще ссылается
+ * на прежний файл из манифеста (то есть его не заменил администратор).
+ * <p>
+ * Синхронизация идет в фоне и не задерживает готовность приложения. Одновременно ее выполняет только один под:
+ * остальные видят занятую advisory-блокировку и пропускают запуск.
+ */
+@Component
+public class SeedFileSync {
+
+    // Ключ advisory-блокировки синхронизации, общий для всех подов
+    static final long LOCK_KEY = 0x5eedf11e5L;
+
+    private static final String MANIFEST_SQL = "SELECT file_name, byte_length, modified_at, sha256, storage_key, book_id " +
+            "FROM seed_files WHERE area = ?";
+
+    private static final String UPSERT_SQL = "INSERT INTO seed_files " +
+            "(area, file_name, byte_length, modified_at, sha256, storage_key, book_id, synced_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, now()) " +
+            "ON CONFLICT (area, file_name) DO UPDATE SET byte_length = EXCLUDED.byte_length, " +
+            "modified_at = EXCLUDED.modified_at, sha256 = EXCLUDED.sha256, storage_key = EXCLUDED.storage_key, " +
+            "book_id = EXCLUDED.book_id, synced_at = EXCLUDED.synced_at";
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ContentAddressedStore contentAddressedStore;
+
+    @Autowired
+    private ChangeNotificationPublisher changeNotificationPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.seed.copy-threads:4}")
+    private int copyThreads;
+
+    private final ExecutorService syncExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "seed-file-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Запускает синхронизацию в фоне. Результат - {@link Outcome#COMPLETED}, если все файлы синхронизированы,
+     * {@link Outcome#INCOMPLETE}, если какой-то файл сохранить не удалось, и {@link Outcome#SKIPPED},
+     * если синхронизацию в это время выполняет другой под.
+     */
+    public CompletableFuture<Outcome> syncAsync(List<Book> books, Path picturesPath, Path pdfPath) {
+        return CompletableFuture.supplyAsync(() -> sync(books, picturesPath, pdfPath), syncExecutor);
+    }
+
+    public Outcome sync(List<Book> books, Path picturesPath, Path pdfPath) {
+        long started = System.nanoTime();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Outcome outcome = transactionTemplate.execute(status -> {
+            // Блокировка держится до конца транзакции и снимается автоматически, даже если под упадет
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)",
+                    Boolean.class, LOCK_KEY))) {
+                System.out.println("Seed files are being synced by another instance, skipping.");
+                return Outcome.SKIPPED;
+            }
+            boolean imagesComplete = syncArea(StorageArea.IMAGES, picturesPath, null, books,
+                    Book::getImagePath, Book::setImagePath);
+            boolean pdfsComplete = syncArea(StorageArea.PDFS, pdfPath, ".pdf", books,
+                    Book::getPdfPath, Book::setPdfPath);
+            return imagesComplete && pdfsComplete ? Outcome.COMPLETED : Outcome.INCOMPLETE;
+        });
+        if (outcome != Outcome.SKIPPED) {
+            System.out.println("Seed file sync finished in " + (System.nanoTime() - started) / 1_000_000 + " ms.");
+        }
+        return outcome;
+    }
+
+    private boolean syncArea(StorageArea area, Path sourceDirectory, String requiredExtension, List<Book> books,
+                             Function<Book, String> currentPath, BiConsumer<Book, String> setPath) {
+        if (sourceDirectory == null) {
+            System.out.println(area + " source directory not found. Skipping file sync.");
+            return true;
+        }
+
+        List<SourceFile> files;
+        try {
+            files = listFiles(sourceDirectory, requiredExtension);
+        } catch (IOException e) {
+            System.err.println("Error listing files in " + sourceDirectory + ": " + e.getMessage());
+            return false;
+        }
+
+        Map<String, ManifestEntry> manifest = loadManifest(area);
+        Map<Long, Book> booksById = new HashMap<>();
+        for (Book book : books) {
+            booksById.put(book.getId(), book);
+        }
+
+        // Книги, уже закрепленные за файлами манифеста, по названию повторно не сопоставляются
+        Set<Long> claimedBookIds = new HashSet<>();
+        for (SourceFile file : files) {
+            ManifestEntry entry = manifest.get(file.name());
+            if (entry != null && booksById.containsKey(entry.bookId())) {
+                claimedBookIds.add(entry.bookId());
+            }
+        }
+        Map<String, Deque<Book>> booksByTitle = new HashMap<>();
+        for (Book book : books) {
+            if (!claimedBookIds.contains(book.getId())) {
+                booksByTitle.computeIfAbsent(normalize(book.getTitle()), title -> new ArrayDeque<>()).add(book);
+            }
+        }
+
+        List<SyncTask> tasks = new ArrayList<>();
+        int unchanged = 0;
+        for (SourceFile file : files) {
+            ManifestEntry entry = manifest.get(file.name());
+            Book book = entry != null ? booksById.get(entry.bookId()) : null;
+            if (book == null) {
+                // Нового файла (или файла, чья книга была удалена и создана заново) в манифесте нет
+                entry = null;
+                Deque<Book> candidates = booksByTitle.get(normalize(stripExtension(file.name())));
+                book = candidates != null ? candidates.poll() : null;
+                if (book == null) {
+                    continue;
+                }
+            } else if (entry.byteLength() == file.byteLength() && entry.modifiedMillis() == file.modifiedMillis()) {
+                // Размер и время изменения совпадают с манифестом - файл даже не читаем
+                unchanged++;
+                continue;
+            }
+            tasks.add(new SyncTask(file, entry, book, currentPath.apply(book)));
+        }
+
+        if (tasks.isEmpty()) {
+            System.out.println(area + " sync completed: " + files.size() + " files, " + unchanged + " unchanged, nothing to copy.");
+            return true;
+        }
+
+        // Хэширование и перенос в хранилище выполняем параллельно без обращений к БД,
+        // а ссылки, книги и манифест обновляем в текущей транзакции под блокировкой
+        List<SyncResult> results = new ArrayList<>();
+        boolean complete = runInParallel(area, tasks, results);
+
+        Map<Long, String> assignedPaths = new HashMap<>();
+        List<Object[]> manifestRows = new ArrayList<>();
+        try {
+            for (SyncResult result : results) {
+                SyncTask task = result.task();
+                if (result.action() == SyncAction.SKIP) {
+                    continue;
+                }
+                String storageKey = result.storageKey();
+                if (result.action() == SyncAction.ASSIGN) {
+                    try {
+                        storageKey = contentAddressedStore.attachStaged(area, result.staged(),
+                                result.width(), result.height()).getStorageKey();
+                    } catch (IOException e) {
+                        complete = false;
+                        System.err.println("Failed to sync " + area + " file " + task.file().name() + ": " + e.getMessage());
+                        continue;
+                    }
+                    assignedPaths.put(task.book().getId(), storageKey);
+                    if (task.bookPath() != null && !task.bookPath().isEmpty()) {
+                        // Ссылка книги на прежнее содержимое освобождается, объект удалится после коммита
+                        contentAddressedStore.release(area, task.bookPath());
+                    }
+                }
+                manifestRows.add(new Object[]{area.name(), task.file().name(), task.file().byteLength(),
+                        new Timestamp(task.file().modifiedMillis()), result.sha256(), storageKey, task.book().getId()});
+            }
+        } finally {
+            results.forEach(SyncResult::closeStaged);
+        }
+
+        for (Book book : bookRepository.findAllById(assignedPaths.keySet())) {
+            setPath.accept(book, assignedPaths.get(book.getId()));
+        }
+        changeNotificationPublisher.publish(ChangedEntity.BOOK, assignedPaths.keySet());
+        if (!manifestRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, manifestRows);
+        }
+
+        System.out.println(area + " sync completed: " + files.size() + " files, " + unchanged + " unchanged, "
+                + tasks.size() + " checked, " + assignedPaths.size() + " copied.");
+        return complete;
+    }
+
+    private boolean runInParallel(StorageArea area, List<SyncTask> tasks, List<SyncResult> results) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(copyThreads, tasks.size())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "seed-copy-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        boolean complete = true;
+        try {
+            List<Future<SyncResult>> futures = new ArrayList<>();
+            for (SyncTask task : tasks) {
+                futures.add(executor.submit(() -> syncFile(area, task)));
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    complete = false;
+                    System.err.println("Failed to sync " + area + " file " + tasks.get(i).file().name() + ": "
+                            + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            executor.shutdownNow();
+        }
+        return complete;
+    }
+
+    /**
+     * Решает судьбу одного файла. Сначала только хэширует его: если содержимое не изменилось или книга уже
+     * ссылается на те же байты, копировать ничего не нужно. Новое содержимое копируется в хранилище через
+     * {@link ContentAddressedStore#stage} без транзакции; ссылку на него добавляет итоговая транзакция.
+     */
+    private SyncResult syncFile(StorageArea area, SyncTask task) throws IOException {
+        String extension = ContentAddressedStore.extensionOf(task.file().name());
+        String sha256 = sha256(task.file().path());
+        String storageKey = ContentAddressedStore.blobKey(sha256, extension);
+        ManifestEntry entry = task.entry();
+        String bookPath = task.bookPath();
+
+        if (entry != null && sha256.equals(entry.sha256())) {
+            // Изменилось только время файла
+            return new SyncResult(task, SyncAction.RECORD, sha256, entry.storageKey(), null, null, null);
+        }
+        if (bookPath != null && !bookPath.isEmpty()) {
+            if (bookPath.equals(storageKey)) {
+                // Книга уже ссылается на эти байты (например, наполнена до появления манифеста)
+                return new SyncResult(task, SyncAction.RECORD, sha256, storageKey, null, null, null);
+            }
+            if (entry == null || !bookPath.equals(entry.storageKey())) {
+                // Файл книги заменили вручную - не трогаем
+                return new SyncResult(task, SyncAction.SKIP, sha256, bookPath, null, null, null);
+            }
+        }
+
+        // Исходный файл не трогаем: в хранилище переносится его временная копия.
+        // Одинаковые файлы хранятся один раз под ключом из SHA-256
+        SpooledContent content;
+        try (InputStream inputStream = Files.newInputStream(task.file().path())) {
+            content = contentAddressedStore.spool(inputStream, extension);
+        }
+        try {
+            // Размеры читаем здесь, в рабочем потоке, чтобы не разбирать изображения в итоговой транзакции
+            int[] dimensions = area == StorageArea.IMAGES ? StoredFileService.readDimensions(content.file()) : null;
+            String stagedKey = contentAddressedStore.stage(area, content);
+            return new SyncResult(task, SyncAction.ASSIGN, content.sha256(), stagedKey, content,
+                    dimensions != null ? dimensions[0] : null, dimensions != null ? dimensions[1] : null);
+        } catch (IOException | RuntimeException e) {
+            content.close();
+            throw e;
+        }
+    }
+
+    private Map<String, ManifestEntry> loadManifest(StorageArea area) {
+        Map<String, ManifestEntry> manifest = new HashMap<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(MANIFEST_SQL, area.name())) {
+            Number bookId = (Number) row.get("book_id");
+            ManifestEntry entry = new ManifestEntry(
+                    ((Number) row.get("byte_length")).longValue(),
+                    ((Timestamp) row.get("modified_at")).getTime(),
+                    (String) row.get("sha256"),
+                    (String) row.get("storage_key"),
+                    bookId != null ? bookId.longValue() : null);
+            manifest.put((String) row.get("file_name"), entry);
+        }
+        return manifest;
+    }
+
+    static List<SourceFile> listFiles(Path directory, String requiredExtension) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> listing = Files.list(directory)) {
+            paths = listing.filter(Files::isRegularFile)
+                    .filter(path -> requiredExtension == null
+                            || path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(requiredExtension))
+                    .sorted()
+                    .toList();
+        }
+        List<SourceFile> files = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            files.add(new SourceFile(path, path.getFileName().toString(), Files.size(path),
+                    Files.getLastModifiedTime(path).toMillis()));
+        }
+        return files;
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (DigestInputStream input = new DigestInputStream(Files.newInputStream(file), digest)) {
+            input.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String normalize(String name) {
+        // Нормализуем имя: заменяем _ на пробелы, схлопываем пробелы, приводим к нижнему регистру
+        return name.replaceAll("_", " ")
+                .replaceAll("\\s+", " ")
+                .toLowerCase()
+                .trim();
+    }
+
+    private static String stripExtension(String fileName) {
+        int lastDotIndex = fileName.lastIndexOf('.');
+        return lastDotIndex > 0 ? fileName.substring(0, lastDotIndex) : fileName;
+    }
+
+    @PreDestroy
+    void stop() {
+        syncExecutor.shutdownNow();
+    }
+
+    record SourceFile(Path path, String name, long byteLength, long modifiedMillis) {
+    }
+
+    private record ManifestEntry(long byteLength, long modifiedMillis, String sha256, String storageKey, Long bookId) {
+    }
+
+    private record SyncTask(SourceFile file, ManifestEntry entry, Book book, String bookPath) {
+    }
+
+    private record SyncResult(SyncTask task, SyncAction action, String sha256, String storageKey,
+                              SpooledContent staged, Integer width, Integer height) {
+
+        void closeStaged() {
+            if (staged == null) {
+                return;
+            }
+            try {
+                staged.close();
+            } catch (IOException e) {
+                System.err.println("Failed to delete temporary seed copy " + staged.file() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public enum Outcome {
+        // Все файлы синхронизированы этим подом
+        COMPLETED,
+        // Часть файлов сохранить не удалось
+        INCOMPLETE,
+        // Синхронизацию выполняет другой под
+        SKIPPED
+    }
+
+    private enum SyncAction {
+        // Записать файл в манифест, книгу не трогать
+        RECORD,
+        // Книга получает новый файл
+        ASSIGN,
+        // Оставить как есть
+        SKIP
+    }
+}
@@ -16,17 +16,28 @@ import lombok.RequiredArgsConstructor;
 import online.ityura.springdigitallibrary.dto.request.CreateBookRequest;
 import online.ityura.springdigitallibrary.dto.request.PutBookRequest;
 import online.ityura.springdigitallibrary.dto.request.UpdateBookRequest;
+import online.ityura.springdigitallibrary.dto.response.BookImportResponse;
 import online.ityura.springdigitallibrary.dto.response.BookResponse;
+import online.ityura.springdigitallibrary.dto.response.ContentBlobResponse;
 import online.ityura.springdigitallibrary.dto.response.ErrorResponse;
+import online.ityura.springdigitallibrary.dto.response.ImageUploadResponse;
 import online.ityura.springdigitallibrary.dto.response.MessageResponse;
+import online.ityura.springdigitallibrary.model.ContentBlob;
 import online.ityura.springdigitallibrary.service.AdminBookService;
+import online.ityura.springdigitallibrary.service.BookFileService;
+import online.ityura.springdigitallibrary.service.BookImportService;
 import online.ityura.springdigitallibrary.service.BookImageService;
+import online.ityura.springdigitallibrary.service.ImageIngestionService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -40,6 +51,12 @@ public class AdminBookController {
 
     private final BookImageService bookImageService;
 
+    private final BookFileService bookFileService;
+    
+    private final ImageIngestionService imageIngestionService;
+    
+    private final BookImportService bookImportService;
+
     @Operation(
             summary = "Создать новую книгу",
             description = "Создает новую книгу в каталоге. Автор будет создан автоматически, если его еще нет. " +
@@ -152,6 +169,86 @@ public class AdminBookController {
         return ResponseEntity.status(HttpStatus.CREATED).body(responses);
     }
 
+    @Operation(
+            summary = "Импортировать каталог книг из CSV или NDJSON",
+            description = "Принимает файл потоком (без загрузки целиком в память) и импортирует книги в фоне. " +
+                    "Формат определяется по Content-Type: text/csv или application/x-ndjson. " +
+                    "CSV должен начинаться с заголовка с колонками title, authorName, description, publishedYear, genre " +
+                    "(обязательны title и authorName). В NDJSON каждая строка - объект CreateBookRequest. " +
+                    "Книги сохраняются порциями с отдельным коммитом, недостающие авторы создаются автоматически. " +
+                    "Строки с ошибками (валидация, дубликаты) попадают в отчет и не прерывают импорт. " +
+                    "Ход импорта доступен по ссылке из заголовка Location. Требуется роль ADMIN."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Файл принят, импорт поставлен в очередь",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = BookImportResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Пустой файл",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class),
+                            examples = @ExampleObject(value = "{\"status\":400,\"error\":\"VALIDATION_ERROR\",\"message\":\"Import file is empty\",\"timestamp\":\"2025-12-17T13:20:00Z\",\"path\":\"/api/v1/admin/books/import\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "413",
+                    description = "Файл больше app.books.import.max-bytes",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Слишком много импортов в очереди",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BookImportResponse> importBooks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Содержимое CSV или NDJSON файла",
+                    required = true,
+                    content = {
+                            @Content(mediaType = "text/csv", schema = @Schema(type = "string", format = "binary")),
+                            @Content(mediaType = "application/x-ndjson", schema = @Schema(type = "string", format = "binary"))
+                    })
+            InputStream body) {
+        String format = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType))
+                ? BookImportService.NDJSON
+                : BookImportService.CSV;
+        BookImportResponse response = bookImportService.submit(format, body);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/admin/books/import/" + response.getJobId()))
+                .body(response);
+    }
+
+    @Operation(
+            summary = "Ход импорта каталога",
+            description = "Возвращает состояние задачи импорта: сколько байт и строк обработано, сколько книг создано, " +
+                    "сколько порций закоммичено и первые ошибки по строкам. Требуется роль ADMIN."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Состояние получено",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = BookImportResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Задача не найдена или ее статус уже удален",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<BookImportResponse> getImportStatus(
+            @Parameter(description = "ID задачи импорта", required = true)
+            @PathVariable String jobId) {
+        return ResponseEntity.ok(bookImportService.getStatus(jobId));
+    }
+
     @Operation(
             summary = "Полностью заменить всю инфу о книге",
             description = "Полностью заменяет информацию о существующей книге согласно REST стандартам. " +
@@ -284,6 +381,8 @@ public class AdminBookController {
                     "Можно обновить любое поле, включая автора (authorName). " +
                     "При изменении title или author проверяется уникальность комбинации title + author (у разных авторов могут быть книги с одинаковым названием). " +
                     "Изображение должно быть в формате multipart/form-data, размером не более 5MB. " +
+                    "Изображение обрабатывается в фоне после сохранения полей: в ответе еще старая обложка, " +
+                    "новая появится после проверки и переноса файла в хранилище. " +
                     "Требуется роль ADMIN."
     )
     @ApiResponses(value = {
@@ -470,27 +569,25 @@ public class AdminBookController {
     // TODO: ВРЕМЕННО ОТКРЫТО БЕЗ АВТОРИЗАЦИИ - убрать @SecurityRequirements и вернуть требование авторизации
     @Operation(
             summary = "Загрузить изображение для книги (ВРЕМЕННО ДОСТУПНО БЕЗ АВТОРИЗАЦИИ)",
-            description = "Загружает изображение для указанной книги. " +
+            description = "Принимает изображение для указанной книги и ставит его в фоновую обработку. " +
                     "Изображение должно быть в формате multipart/form-data, размером не более 5MB. " +
-                    "Имя файла в хранилище будет сгенерировано на основе названия книги (пробелы заменяются на _). "
+                    "Формат определяется по первым байтам файла (PNG, JPEG, GIF, WebP), размеры изображения проверяются, " +
+                    "создаются уменьшенные копии. Файл сохраняется в контентно-адресуемом хранилище под именем своего SHA-256: " +
+                    "одинаковые изображения хранятся один раз. Состояние обработки доступно по ссылке из заголовка Location."
     )
     @ApiResponses(value = {
             @ApiResponse(
-                    responseCode = "200",
-                    description = "Изображение успешно загружено",
-                    content = @Content(
-                            mediaType = "application/json",
-                            schema = @Schema(implementation = MessageResponse.class),
-                            examples = @ExampleObject(value = "{\"message\":\"Image uploaded successfully\"}")
-                    )
+                    responseCode = "202",
+                    description = "Изображение принято в обработку",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ImageUploadResponse.class))
             ),
             @ApiResponse(
                     responseCode = "400",
-                    description = "Неверный формат данных или файл слишком большой",
+                    description = "Файл не передан",
                     content = @Content(
                             mediaType = "application/json",
                             schema = @Schema(implementation = ErrorResponse.class),
-                            examples = @ExampleObject(value = "{\"status\":400,\"error\":\"VALIDATION_ERROR\",\"message\":\"Invalid file format or file too large\",\"timestamp\":\"2025-12-17T13:20:00Z\",\"path\":\"/api/v1/admin/books/1/image\"}")
+                            examples = @ExampleObject(value = "{\"status\":400,\"error\":\"VALIDATION_ERROR\",\"message\":\"Image file is required\",\"timestamp\":\"2025-12-17T13:20:00Z\",\"path\":\"/api/v1/admin/books/1/image\"}")
                     )
             ),
             @ApiResponse(
@@ -510,20 +607,155 @@ public class AdminBookController {
                             schema = @Schema(implementation = ErrorResponse.class),
                             examples = @ExampleObject(value = "{\"status\":403,\"error\":\"ACCESS_DENIED\",\"message\":\"Insufficient permissions (ADMIN role required)\",\"timestamp\":\"2025-12-17T13:20:00Z\",\"path\":\"/api/v1/admin/books/1/image\"}")
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Очередь обработки изображений переполнена",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
             )
     })
     @SecurityRequirements // TODO: ВРЕМЕННО - убрать эту аннотацию для возврата требования авторизации
     @PostMapping(value = "/{bookId}/image", consumes = "multipart/form-data")
-    public ResponseEntity<MessageResponse> uploadBookImage(
+    public ResponseEntity<ImageUploadResponse> uploadBookImage(
             @Parameter(description = "ID книги", example = "1", required = true)
             @PathVariable Long bookId,
             @Parameter(description = "Файл изображения", required = true)
             @RequestParam("file") MultipartFile file) {
-        bookImageService.uploadBookImage(bookId, file);
+        ImageUploadResponse response = imageIngestionService.submit(bookId, file);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/admin/books/" + bookId + "/image/uploads/" + response.getUploadId()))
+                .body(response);
+    }
+
+    @Operation(
+            summary = "Состояние загрузки изображения",
+            description = "Возвращает текущий этап фоновой обработки изображения: QUEUED, SNIFFING, DECODING, HASHING, STORING, " +
+                    "GENERATING_VARIANTS, FINALIZING, COMPLETED или FAILED (с причиной). Требуется роль ADMIN."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Состояние получено",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ImageUploadResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Загрузка не найдена или ее статус уже удален",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/{bookId}/image/uploads/{uploadId}")
+    public ResponseEntity<ImageUploadResponse> getImageUploadStatus(
+            @Parameter(description = "ID книги", example = "1", required = true)
+            @PathVariable Long bookId,
+            @Parameter(description = "ID загрузки", required = true)
+            @PathVariable String uploadId) {
+        return ResponseEntity.ok(imageIngestionService.getStatus(bookId, uploadId));
+    }
+
+    @Operation(
+            summary = "Привязать к книге уже загруженное изображение по хэшу",
+            description = "Делает обложкой книги изображение, которое уже есть в хранилище, без повторной загрузки байтов. " +
+                    "Наличие содержимого можно заранее проверить через GET /api/v1/admin/storage/blobs/IMAGES/{sha256}. " +
+                    "Требуется роль ADMIN."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Изображение успешно привязано",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = MessageResponse.class),
+                            examples = @ExampleObject(value = "{\"message\":\"Image attached successfully\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректное значение хэша",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Книга или содержимое с таким хэшем не найдены",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class),
+                            examples = @ExampleObject(value = "{\"status\":404,\"error\":\"CONTENT_NOT_FOUND\",\"message\":\"Content not found with sha256: 9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08\",\"timestamp\":\"2025-12-17T13:20:00Z\",\"path\":\"/api/v1/admin/books/1/image/by-hash/9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08\"}")
+                    )
+            )
+    })
+    @PutMapping("/{bookId}/image/by-hash/{sha256}")
+    public ResponseEntity<MessageResponse> attachBookImageByHash(
+            @Parameter(description = "ID книги", example = "1", required = true)
+            @PathVariable Long bookId,
+            @Parameter(description = "SHA-256 изображения (hex)", required = true)
+            @PathVariable String sha256) {
+        bookImageService.attachImageByHash(bookId, sha256);
         MessageResponse response = MessageResponse.builder()
-                .message("Image uploaded successfully")
+                .message("Image attached successfully")
                 .build();
         return ResponseEntity.ok(response);
     }
-}
 
+    @Operation(
+            summary = "Загрузить PDF файл книги",
+            description = "Принимает PDF в теле запроса (Content-Type: application/pdf или application/octet-stream, без multipart). " +
+                    "Файл принимается потоком без ограничения в 5MB: SHA-256 и размер считаются на лету, " +
+                    "сигнатура %PDF проверяется по первым байтам. Одинаковые файлы хранятся один раз. " +
+                    "Предыдущий PDF книги удаляется, когда на него не останется ссылок. Требуется роль ADMIN."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "PDF успешно загружен",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ContentBlobResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Тело запроса не является PDF",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class),
+                            examples = @ExampleObject(value = "{\"status\":400,\"error\":\"VALIDATION_ERROR\",\"message\":\"Invalid PDF file: missing %PDF header\",\"timestamp\":\"2025-12-17T13:20:00Z\",\"path\":\"/api/v1/admin/books/1/pdf\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Книга не найдена",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class),
+                            examples = @ExampleObject(value = "{\"status\":404,\"error\":\"BOOK_NOT_FOUND\",\"message\":\"Book not found with id: 1\",\"timestamp\":\"2025-12-17T13:20:00Z\",\"path\":\"/api/v1/admin/books/1/pdf\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Недостаточно прав (требуется роль ADMIN)",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    @PostMapping(value = "/{bookId}/pdf", consumes = {MediaType.APPLICATION_PDF_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ContentBlobResponse> uploadBookPdf(
+            @Parameter(description = "ID книги", example = "1", required = true)
+            @PathVariable Long bookId,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Содержимое PDF файла",
+                    required = true,
+                    content = @Content(mediaType = "application/pdf", schema = @Schema(type = "string", format = "binary")))
+            InputStream body) {
+        ContentBlob blob = bookFileService.uploadBookPdf(bookId, body);
+        ContentBlobResponse response = ContentBlobResponse.builder()
+                .area(blob.getArea())
+                .sha256(blob.getSha256())
+                .byteLength(blob.getByteLength())
+                .refCount(blob.getRefCount())
+                .build();
+        return ResponseEntity.ok(response);
+    }
+}
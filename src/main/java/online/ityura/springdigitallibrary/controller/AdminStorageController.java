@@ -0,0 +1,268 @@
+package online.ityura.springdigitallibrary.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import lombok.RequiredArgsConstructor;
+import online.ityura.springdigitallibrary.cache.ImageByteCache;
+import online.ityura.springdigitallibrary.cache.MappedPdfPool;
+import online.ityura.springdigitallibrary.dto.response.ContentBlobResponse;
+import online.ityura.springdigitallibrary.dto.response.ErrorResponse;
+import online.ityura.springdigitallibrary.dto.response.ImageCacheStatsResponse;
+import online.ityura.springdigitallibrary.dto.response.PdfMmapStatsResponse;
+import online.ityura.springdigitallibrary.dto.response.StorageGcReportResponse;
+import online.ityura.springdigitallibrary.dto.response.StorageLayoutMigrationResponse;
+import online.ityura.springdigitallibrary.dto.response.StoredFileBackfillResponse;
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.storage.ContentAddressedStore;
+import online.ityura.springdigitallibrary.storage.StorageGarbageCollector;
+import online.ityura.springdigitallibrary.storage.StorageLayoutMigration;
+import online.ityura.springdigitallibrary.storage.StoredFileBackfill;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/v1/admin/storage")
+@Tag(name = "Администрирование хранилища", description = "API для мониторинга файлового хранилища и кэшей (требуется роль ADMIN)")
+@SecurityRequirement(name = "Bearer Authentication")
+@RequiredArgsConstructor
+public class AdminStorageController {
+
+    private final ImageByteCache imageByteCache;
+    private final MappedPdfPool mappedPdfPool;
+    private final ContentAddressedStore contentAddressedStore;
+    private final StoredFileBackfill storedFileBackfill;
+    private final StorageGarbageCollector storageGarbageCollector;
+    private final StorageLayoutMigration storageLayoutMigration;
+
+    @Operation(
+            summary = "Статистика кэша изображений",
+            description = "Возвращает количество закэшированных обложек, занятый объем памяти вне кучи, " +
+                    "долю попаданий и количество вытеснений. Требуется роль ADMIN."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Статистика успешно получена",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ImageCacheStatsResponse.class))
+            )
+    })
+    @GetMapping("/image-cache")
+    public ResponseEntity<ImageCacheStatsResponse> getImageCacheStats() {
+        ImageCacheStatsResponse response = ImageCacheStatsResponse.builder()
+                .entries(imageByteCache.getEntryCount())
+                .residentBytes(imageByteCache.getResidentBytes())
+                .maxBytes(imageByteCache.getMaxBytes())
+                .hits(imageByteCache.getHits())
+                .misses(imageByteCache.getMisses())
+                .evictions(imageByteCache.getEvictions())
+                .hitRatio(imageByteCache.getHitRatio())
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(
+            summary = "Статистика отображенных в память PDF",
+            description = "Возвращает количество и объем часто скачиваемых PDF, отдаваемых из отображения в память, " +
+                    "количество скачиваний из пула и мимо него и количество файлов, убранных по LRU. Требуется роль ADMIN."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Статистика успешно получена",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = PdfMmapStatsResponse.class))
+            )
+    })
+    @GetMapping("/pdf-mmap")
+    public ResponseEntity<PdfMmapStatsResponse> getPdfMmapStats() {
+        PdfMmapStatsResponse response = PdfMmapStatsResponse.builder()
+                .entries(mappedPdfPool.getEntryCount())
+                .mappedBytes(mappedPdfPool.getMappedBytes())
+                .maxBytes(mappedPdfPool.getMaxBytes())
+                .hits(mappedPdfPool.getHits())
+                .misses(mappedPdfPool.getMisses())
+                .mappings(mappedPdfPool.getMappings())
+                .unmappings(mappedPdfPool.getUnmappings())
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(
+            summary = "Проверить наличие содержимого по хэшу",
+            description = "Проверяет, есть ли в хранилище файл с указанным SHA-256. " +
+                    "Если содержимое уже есть, клиент может не загружать байты повторно, " +
+                    "а привязать его к книге по хэшу. Требуется роль ADMIN."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Содержимое найдено",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ContentBlobResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректное значение хэша",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class),
+                            examples = @ExampleObject(value = "{\"status\":400,\"error\":\"INVALID_SHA256\",\"message\":\"Invalid sha256 value: abc\",\"timestamp\":\"2025-12-17T13:20:00Z\",\"path\":\"/api/v1/admin/storage/blobs/IMAGES/abc\"}")
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Содержимое с таким хэшем не найдено",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    @GetMapping("/blobs/{area}/{sha256}")
+    public ResponseEntity<ContentBlobResponse> getContentBlob(
+            @Parameter(description = "Область хранилища", example = "IMAGES", required = true)
+            @PathVariable StorageArea area,
+            @Parameter(description = "SHA-256 содержимого (hex)", required = true)
+            @PathVariable String sha256) {
+        ContentBlob blob = contentAddressedStore.find(area, sha256)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, 
+                        "Content not found with sha256: " + sha256));
+        ContentBlobResponse response = ContentBlobResponse.builder()
+                .area(blob.getArea())
+                .sha256(blob.getSha256())
+                .byteLength(blob.getByteLength())
+                .refCount(blob.getRefCount())
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(
+            summary = "Заполнить метаданные файлов",
+            description = "Для обложек и PDF, сохраненных до появления таблицы stored_files, один раз читает файлы из хранилища " +
+                    "и записывает тип, размер, SHA-256 и размеры изображения. Уже известные файлы пропускаются, " +
+                    "поэтому вызов можно повторять. Требуется роль ADMIN."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Метаданные заполнены",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = StoredFileBackfillResponse.class))
+            )
+    })
+    @PostMapping("/metadata/backfill")
+    public ResponseEntity<StoredFileBackfillResponse> backfillStoredFileMetadata() {
+        return ResponseEntity.ok(storedFileBackfill.backfill());
+    }
+
+    @Operation(
+            summary = "Отчет последнего прохода сборщика мусора",
+            description = "Возвращает результат последнего прохода очистки хранилища (по расписанию или ручного): " +
+                    "сколько объектов просмотрено, удалено и сколько байт освобождено. Требуется роль ADMIN."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Отчет успешно получен",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = StorageGcReportResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Сборщик мусора еще не запускался",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/gc")
+    public ResponseEntity<StorageGcReportResponse> getStorageGcReport() {
+        StorageGcReportResponse report = storageGarbageCollector.getLastReport();
+        if (report == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Storage GC has not run yet");
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    @Operation(
+            summary = "Запустить сборщик мусора",
+            description = "Синхронно выполняет проход очистки хранилища: удаляет файлы без ссылок из БД старше срока хранения " +
+                    "и старые версии обложек сверх политики хранения. С dryRun=true только считает, что было бы удалено. " +
+                    "Требуется роль ADMIN."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Проход завершен",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = StorageGcReportResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Проход уже выполняется",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PostMapping("/gc")
+    public ResponseEntity<StorageGcReportResponse> runStorageGc(
+            @Parameter(description = "Только подсчитать, ничего не удаляя", example = "true")
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        return ResponseEntity.ok(storageGarbageCollector.run(dryRun));
+    }
+
+    @Operation(
+            summary = "Отчет о переносе файлов в шардированную структуру",
+            description = "Возвращает результат последнего прохода переноса старых файлов из плоских каталогов " +
+                    "в структуру ab/cd/<sha256>. Требуется роль ADMIN."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Отчет успешно получен",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = StorageLayoutMigrationResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Перенос еще не запускался",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/layout-migration")
+    public ResponseEntity<StorageLayoutMigrationResponse> getLayoutMigrationReport() {
+        StorageLayoutMigrationResponse report = storageLayoutMigration.getLastReport();
+        if (report == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Storage layout migration has not run yet");
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    @Operation(
+            summary = "Запустить перенос файлов в шардированную структуру",
+            description = "Синхронно переносит обложки и PDF со старыми путями в структуру ab/cd/<sha256> и обновляет пути в БД. " +
+                    "Старые файлы остаются на месте и удаляются сборщиком мусора. Требуется роль ADMIN."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Проход завершен",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = StorageLayoutMigrationResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Проход уже выполняется",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @PostMapping("/layout-migration")
+    public ResponseEntity<StorageLayoutMigrationResponse> runLayoutMigration() {
+        return ResponseEntity.ok(storageLayoutMigration.migrate());
+    }
+}
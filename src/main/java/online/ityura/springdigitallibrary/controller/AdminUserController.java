@@ -11,19 +11,25 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import online.ityura.springdigitallibrary.dto.response.AdminUserPageResponse;
 import online.ityura.springdigitallibrary.dto.response.AdminUserResponse;
 import online.ityura.springdigitallibrary.dto.response.ErrorResponse;
 import online.ityura.springdigitallibrary.model.Role;
 import online.ityura.springdigitallibrary.model.User;
 import online.ityura.springdigitallibrary.repository.UserRepository;
+import online.ityura.springdigitallibrary.service.AdminUserService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -36,6 +42,7 @@ import java.util.stream.Collectors;
 public class AdminUserController {
 
     private final UserRepository userRepository;
+    private final AdminUserService adminUserService;
 
     @Operation(
             summary = "Получить список всех пользователей",
@@ -99,6 +106,112 @@ public class AdminUserController {
         return ResponseEntity.ok(responses);
     }
 
+    @Operation(
+            summary = "Получить страницу пользователей",
+            description = "Возвращает пользователей, упорядоченных по ID, начиная после курсора (keyset-пагинация). " +
+                    "Для следующей страницы передайте nextCursor из ответа. " +
+                    "Можно отфильтровать по роли и началу email. Требуется роль ADMIN."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Страница пользователей успешно получена",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = AdminUserPageResponse.class),
+                            examples = @ExampleObject(
+                                    value = """
+                                            {
+                                              "items": [
+                                                {
+                                                  "id": 1,
+                                                  "nickname": "admin",
+                                                  "email": "admin@gmail.com",
+                                                  "role": "ADMIN",
+                                                  "createdAt": "2025-12-21T19:09:33.964107"
+                                                }
+                                              ],
+                                              "nextCursor": 1,
+                                              "hasMore": true
+                                            }
+                                            """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Недопустимый размер страницы",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class),
+                            examples = @ExampleObject(
+                                    value = "{\"status\":400,\"error\":\"BAD_REQUEST\",\"message\":\"Page size must be between 1 and 500\",\"timestamp\":\"2025-12-17T13:20:00Z\",\"path\":\"/api/v1/admin/users/page\"}"
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Недостаточно прав (требуется роль ADMIN)",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    @GetMapping("/page")
+    public ResponseEntity<AdminUserPageResponse> getUsersPage(
+            @Parameter(description = "ID последнего пользователя предыдущей страницы", example = "50")
+            @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Размер страницы (1-500)", example = "50")
+            @RequestParam(required = false) Integer size,
+            @Parameter(description = "Фильтр по роли", example = "USER")
+            @RequestParam(required = false) Role role,
+            @Parameter(description = "Фильтр по началу email", example = "admin")
+            @RequestParam(required = false) String emailPrefix) {
+        return ResponseEntity.ok(adminUserService.getUsersPage(cursor, size, role, emailPrefix));
+    }
+
+    @Operation(
+            summary = "Выгрузить пользователей в NDJSON",
+            description = "Потоково выгружает всех пользователей (с теми же фильтрами, что и у страниц) " +
+                    "по одному JSON-объекту на строку. Ответ пишется по мере чтения из БД. Требуется роль ADMIN."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Выгрузка начата",
+                    content = @Content(
+                            mediaType = "application/x-ndjson",
+                            examples = @ExampleObject(
+                                    value = """
+                                            {"id":1,"nickname":"admin","email":"admin@gmail.com","role":"ADMIN","createdAt":"2025-12-21T19:09:33.964107"}
+                                            {"id":2,"nickname":"crackMyPassword","email":"crackMyPassword@gmail.com","role":"ADMIN","createdAt":"2025-12-21T19:09:34.116402"}
+                                            """
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Недостаточно прав (требуется роль ADMIN)",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @Parameter(description = "Фильтр по роли", example = "USER")
+            @RequestParam(required = false) Role role,
+            @Parameter(description = "Фильтр по началу email", example = "admin")
+            @RequestParam(required = false) String emailPrefix) {
+        StreamingResponseBody body = output -> adminUserService.exportUsers(role, emailPrefix, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.ndjson\"")
+                .body(body);
+    }
+
     @Operation(
             summary = "Удалить пользователя",
             description = "Удаляет пользователя из системы по его ID. " +
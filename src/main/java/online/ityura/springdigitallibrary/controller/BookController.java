@@ -2,8 +2,12 @@ package online.ityura.springdigitallibrary.controller;
 
 import online.ityura.springdigitallibrary.dto.response.BookResponse;
 import online.ityura.springdigitallibrary.dto.response.ErrorResponse;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.model.StoredFile;
 import online.ityura.springdigitallibrary.service.BookImageService;
 import online.ityura.springdigitallibrary.service.BookService;
+import online.ityura.springdigitallibrary.storage.InternalRedirect;
+import online.ityura.springdigitallibrary.storage.StoredFileService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -36,6 +40,10 @@ public class BookController {
     
     private final BookImageService bookImageService;
     
+    private final InternalRedirect internalRedirect;
+    
+    private final StoredFileService storedFileService;
+    
     @Operation(
             summary = "Получить список книг",
             description = "Возвращает пагинированный список всех книг с возможностью сортировки. " +
@@ -115,34 +123,41 @@ public class BookController {
     public ResponseEntity<Resource> getBookImage(
             @Parameter(description = "ID книги", example = "1", required = true)
             @PathVariable Long bookId) {
+        String imageKey = bookImageService.getBookImageKey(bookId);
+        // Тип, размер и ETag берем из метаданных, не обращаясь к файлу
+        StoredFile metadata = storedFileService.find(StorageArea.IMAGES, imageKey).orElse(null);
+        
+        if (internalRedirect.isEnabled()) {
+            // Приложение только находит файл, байты отдает фронт-прокси
+            String location = internalRedirect.resolve(StorageArea.IMAGES, imageKey);
+            if (location != null) {
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                        .contentType(metadata != null ? MediaType.parseMediaType(metadata.getContentType()) : resolveImageMediaType(imageKey))
+                        .header(internalRedirect.getHeaderName(), location);
+                if (metadata != null) {
+                    response.eTag(metadata.getSha256()).lastModified(metadata.getModifiedAt());
+                }
+                return response.build();
+            }
+        }
+        
+        if (metadata != null) {
+            // If-None-Match / If-Modified-Since Spring MVC проверяет сам и отвечает 304 без тела
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(metadata.getContentType()))
+                    .contentLength(metadata.getByteLength())
+                    .eTag(metadata.getSha256())
+                    .lastModified(metadata.getModifiedAt())
+                    .body(bookImageService.openBookImage(bookId, metadata));
+        }
+        
+        // Файл без метаданных (сохранен до их появления) - определяем все по самому файлу
         Resource resource = bookImageService.getBookImage(bookId);
         
         // Определяем MediaType на основе расширения файла
-        MediaType mediaType = MediaType.APPLICATION_OCTET_STREAM;
+        MediaType mediaType;
         try {
-            String imagePath = resource.getURI().getPath();
-            String extension = "";
-            if (imagePath != null && imagePath.contains(".")) {
-                extension = imagePath.substring(imagePath.lastIndexOf(".") + 1).toLowerCase();
-            }
-            
-            switch (extension) {
-                case "png":
-                    mediaType = MediaType.IMAGE_PNG;
-                    break;
-                case "jpg":
-                case "jpeg":
-                    mediaType = MediaType.IMAGE_JPEG;
-                    break;
-                case "gif":
-                    mediaType = MediaType.IMAGE_GIF;
-                    break;
-                case "webp":
-                    mediaType = MediaType.parseMediaType("image/webp");
-                    break;
-                default:
-                    mediaType = MediaType.APPLICATION_OCTET_STREAM;
-            }
+            mediaType = resolveImageMediaType(resource.getURI().getPath());
         } catch (Exception e) {
             // Если не удалось определить тип, используем по умолчанию
             mediaType = MediaType.APPLICATION_OCTET_STREAM;
@@ -153,6 +168,27 @@ public class BookController {
                 .body(resource);
     }
     
+    private static MediaType resolveImageMediaType(String imagePath) {
+        String extension = "";
+        if (imagePath != null && imagePath.contains(".")) {
+            extension = imagePath.substring(imagePath.lastIndexOf(".") + 1).toLowerCase();
+        }
+        
+        switch (extension) {
+            case "png":
+                return MediaType.IMAGE_PNG;
+            case "jpg":
+            case "jpeg":
+                return MediaType.IMAGE_JPEG;
+            case "gif":
+                return MediaType.IMAGE_GIF;
+            case "webp":
+                return MediaType.parseMediaType("image/webp");
+            default:
+                return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+    
     @Operation(
             summary = "Получить все изображения книг в ZIP архиве",
             description = "Возвращает ZIP архив со всеми изображениями книг, у которых есть изображение. " +
@@ -1,7 +1,11 @@
 package online.ityura.springdigitallibrary.controller;
 
 import online.ityura.springdigitallibrary.dto.response.ErrorResponse;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.model.StoredFile;
 import online.ityura.springdigitallibrary.service.BookFileService;
+import online.ityura.springdigitallibrary.storage.InternalRedirect;
+import online.ityura.springdigitallibrary.storage.StoredFileService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -30,9 +34,14 @@ public class BookFileController {
     
     private final BookFileService bookFileService;
     
+    private final InternalRedirect internalRedirect;
+    
+    private final StoredFileService storedFileService;
+    
     @Operation(
             summary = "Скачать PDF файл книги",
-            description = "Скачивает PDF файл указанной книги. Файл возвращается с заголовком Content-Disposition для загрузки."
+            description = "Скачивает PDF файл указанной книги. Файл возвращается с заголовком Content-Disposition для загрузки. " +
+                    "Поддерживаются Range-запросы (ответ 206 с запрошенными диапазонами байтов)."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -40,6 +49,11 @@ public class BookFileController {
                     description = "PDF файл успешно загружен",
                     content = @Content(mediaType = "application/pdf")
             ),
+            @ApiResponse(
+                    responseCode = "206",
+                    description = "Возвращена запрошенная часть PDF файла",
+                    content = @Content(mediaType = "application/pdf")
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Книга или файл не найдены",
@@ -71,18 +85,55 @@ public class BookFileController {
     @GetMapping("/download")
     public ResponseEntity<Resource> downloadBook(
             @Parameter(description = "ID книги", example = "1", required = true)
-            @PathVariable Long bookId) {
+            @PathVariable Long bookId,
+            @Parameter(description = "Диапазон байтов для докачки или постраничного чтения", example = "bytes=0-1048575")
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+        String pdfKey = bookFileService.getPdfKey(bookId);
+        // Размер и ETag берем из метаданных, не обращаясь к файлу
+        StoredFile metadata = storedFileService.find(StorageArea.PDFS, pdfKey).orElse(null);
+        
+        if (internalRedirect.isEnabled()) {
+            // Приложение только проверяет доступ и находит файл, байты отдает фронт-прокси
+            String location = internalRedirect.resolve(StorageArea.PDFS, pdfKey);
+            if (location != null) {
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_PDF)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(bookFileService.getOriginalFilename(bookId)))
+                        .header(internalRedirect.getHeaderName(), location);
+                if (metadata != null) {
+                    response.eTag(metadata.getSha256()).lastModified(metadata.getModifiedAt());
+                }
+                return response.build();
+            }
+        }
+        
+        if (metadata != null) {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .eTag(metadata.getSha256())
+                    .lastModified(metadata.getModifiedAt())
+                    .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(bookFileService.getOriginalFilename(bookId)));
+            if (range == null) {
+                // Для Range-запроса длину частичного ответа выставляет Spring при нарезке ресурса
+                response.contentLength(metadata.getByteLength());
+            }
+            return response.body(bookFileService.openBookFile(pdfKey, metadata.getByteLength()));
+        }
+        
         Resource resource = bookFileService.downloadBookFile(bookId);
         String filename = bookFileService.getOriginalFilename(bookId);
         
-        String encodedFilename = URLEncoder.encode(filename, StandardCharsets.UTF_8)
-                .replace("+", "%20");
-        
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_PDF)
-                .header(HttpHeaders.CONTENT_DISPOSITION, 
-                        "attachment; filename=\"" + filename + "\"; filename*=UTF-8''" + encodedFilename)
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(filename))
                 .body(resource);
     }
+    
+    private static String contentDisposition(String filename) {
+        String encodedFilename = URLEncoder.encode(filename, StandardCharsets.UTF_8)
+                .replace("+", "%20");
+        
+        return "attachment; filename=\"" + filename + "\"; filename*=UTF-8''" + encodedFilename;
+    }
 }
 
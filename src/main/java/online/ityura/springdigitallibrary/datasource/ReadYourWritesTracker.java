@@ -0,0 +1,56 @@
+package online.ityura.springdigitallibrary.datasource;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Помнит, когда пользователь последний раз что-то записал. Пока не прошло окно прилипания,
+ * его чтения идут на основную БД: реплика может еще не получить его собственные изменения.
+ */
+public class ReadYourWritesTracker {
+
+    private final Duration stickyWindow;
+    private final Clock clock;
+    private final Map<String, Instant> stickyUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration stickyWindow, Clock clock) {
+        this.stickyWindow = stickyWindow;
+        this.clock = clock;
+    }
+
+    /**
+     * Отмечает запись пользователя (вызывается после коммита транзакции).
+     */
+    public void recordWrite(String user) {
+        stickyUntil.put(user, clock.instant().plus(stickyWindow));
+    }
+
+    /**
+     * true, если чтения пользователя еще должны идти на основную БД.
+     */
+    public boolean isSticky(String user) {
+        Instant until = stickyUntil.get(user);
+        if (until == null) {
+            return false;
+        }
+        if (clock.instant().isBefore(until)) {
+            return true;
+        }
+        stickyUntil.remove(user, until);
+        return false;
+    }
+
+    /**
+     * Удаляет истекшие отметки пользователей, которые больше ничего не читали.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.sticky-window:PT5S}")
+    public void evictExpired() {
+        Instant now = clock.instant();
+        stickyUntil.values().removeIf(until -> !now.isBefore(until));
+    }
+}
@@ -0,0 +1,104 @@
+package online.ityura.springdigitallibrary.datasource;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Периодически измеряет отставание реплик и выдает для чтения только те, что укладываются в допустимое отставание.
+ * Реплика, которую не удалось опросить, считается недоступной до следующей успешной проверки.
+ * До первой проверки реплик нет - все чтения идут на основную БД.
+ */
+public class ReplicaLagMonitor implements AutoCloseable {
+
+    // На реплике - время с последней примененной транзакции, если применено не все полученное; 0, если реплика догнала.
+    // На обычном сервере (подмена реплики при локальной проверке) функции возвращают NULL, и отставание равно 0
+    static final String LAG_QUERY = "SELECT CASE " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    private final Map<String, DataSource> replicas;
+    private final Duration maxLag;
+    private final Map<String, Duration> lags = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> healthy = List.of();
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, Duration maxLag) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * Опрашивает все реплики и обновляет список пригодных для чтения.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.lag-check-interval:PT1S}")
+    public void checkLag() {
+        List<String> fresh = new ArrayList<>();
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            String name = replica.getKey();
+            try {
+                Duration lag = measureLag(replica.getValue());
+                lags.put(name, lag);
+                if (lag.compareTo(maxLag) <= 0) {
+                    fresh.add(name);
+                } else if (healthy.contains(name)) {
+                    System.out.println("Replica " + name + " lags " + lag.toMillis() + " ms, reads go elsewhere");
+                }
+            } catch (SQLException e) {
+                lags.remove(name);
+                if (healthy.contains(name)) {
+                    System.err.println("Replica " + name + " is unavailable: " + e.getMessage());
+                }
+            }
+        }
+        healthy = List.copyOf(fresh);
+    }
+
+    /**
+     * Следующая пригодная реплика по кругу или null, если таких нет.
+     */
+    public String nextReplica() {
+        List<String> current = healthy;
+        if (current.isEmpty()) {
+            return null;
+        }
+        return current.get(Math.floorMod(next.getAndIncrement(), current.size()));
+    }
+
+    public Map<String, Duration> getLags() {
+        return Map.copyOf(lags);
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    private static Duration measureLag(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+            rs.next();
+            return Duration.ofMillis(Math.round(rs.getDouble(1) * 1000));
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : replicas.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
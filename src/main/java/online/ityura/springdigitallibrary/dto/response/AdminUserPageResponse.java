@@ -0,0 +1,29 @@
+package online.ityura.springdigitallibrary.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import online.ityura.springdigitallibrary.dto.BaseDto;
+
+import java.util.List;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Страница списка пользователей с курсором на следующую страницу")
+public class AdminUserPageResponse extends BaseDto {
+    
+    @Schema(description = "Пользователи страницы, упорядоченные по ID")
+    private List<AdminUserResponse> items;
+    
+    @Schema(description = "Курсор следующей страницы (ID последнего пользователя) или null, если страниц больше нет", example = "50")
+    private Long nextCursor;
+    
+    @Schema(description = "Есть ли еще пользователи после этой страницы", example = "true")
+    private boolean hasMore;
+}
@@ -0,0 +1,24 @@
+package online.ityura.springdigitallibrary.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import online.ityura.springdigitallibrary.dto.BaseDto;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Ошибка в строке импортируемого файла")
+public class BookImportErrorResponse extends BaseDto {
+    
+    @Schema(description = "Номер строки в файле (с 1, для CSV считая заголовок)", example = "42")
+    private Long line;
+    
+    @Schema(description = "Причина, по которой строка не импортирована", example = "Title is required")
+    private String message;
+}
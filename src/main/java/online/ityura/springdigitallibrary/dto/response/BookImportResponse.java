@@ -0,0 +1,64 @@
+package online.ityura.springdigitallibrary.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import online.ityura.springdigitallibrary.dto.BaseDto;
+import online.ityura.springdigitallibrary.model.BookImportStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Состояние задачи импорта каталога книг")
+public class BookImportResponse extends BaseDto {
+    
+    @Schema(description = "ID задачи импорта", example = "7b1e2c3d-4f5a-6b7c-8d9e-0f1a2b3c4d5e")
+    private String jobId;
+    
+    @Schema(description = "Формат файла", example = "CSV")
+    private String format;
+    
+    @Schema(description = "Состояние задачи", example = "RUNNING")
+    private BookImportStatus status;
+    
+    @Schema(description = "Размер принятого файла, байт", example = "104857600")
+    private Long totalBytes;
+    
+    @Schema(description = "Сколько байт файла уже обработано", example = "52428800")
+    private Long processedBytes;
+    
+    @Schema(description = "Обработано строк с данными", example = "500000")
+    private Long processedRows;
+    
+    @Schema(description = "Создано книг", example = "499990")
+    private Long importedRows;
+    
+    @Schema(description = "Строк с ошибками", example = "10")
+    private Long failedRows;
+    
+    @Schema(description = "Закоммичено порций", example = "500")
+    private Long committedChunks;
+    
+    @Schema(description = "Первые ошибки по строкам (не больше app.books.import.max-reported-errors)")
+    private List<BookImportErrorResponse> errors;
+    
+    @Schema(description = "Причина остановки задачи (для FAILED)", example = "CSV header must contain title and authorName columns")
+    private String error;
+    
+    @Schema(description = "Время приема файла", example = "2025-12-17T13:20:00Z")
+    private Instant createdAt;
+    
+    @Schema(description = "Время начала обработки", example = "2025-12-17T13:20:01Z")
+    private Instant startedAt;
+    
+    @Schema(description = "Время окончания обработки", example = "2025-12-17T13:25:00Z")
+    private Instant finishedAt;
+}
@@ -0,0 +1,31 @@
+package online.ityura.springdigitallibrary.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import online.ityura.springdigitallibrary.dto.BaseDto;
+import online.ityura.springdigitallibrary.model.StorageArea;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Содержимое в контентно-адресуемом хранилище")
+public class ContentBlobResponse extends BaseDto {
+    
+    @Schema(description = "Область хранилища", example = "IMAGES")
+    private StorageArea area;
+    
+    @Schema(description = "SHA-256 содержимого (hex)", example = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")
+    private String sha256;
+    
+    @Schema(description = "Размер содержимого (байт)", example = "245760")
+    private Long byteLength;
+    
+    @Schema(description = "Количество книг, ссылающихся на содержимое", example = "2")
+    private Integer refCount;
+}
@@ -0,0 +1,39 @@
+package online.ityura.springdigitallibrary.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import online.ityura.springdigitallibrary.dto.BaseDto;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Статистика кэша изображений книг")
+public class ImageCacheStatsResponse extends BaseDto {
+    
+    @Schema(description = "Количество изображений в кэше", example = "42")
+    private Integer entries;
+    
+    @Schema(description = "Объем занятой памяти вне кучи (байт)", example = "12582912")
+    private Long residentBytes;
+    
+    @Schema(description = "Бюджет кэша (байт)", example = "67108864")
+    private Long maxBytes;
+    
+    @Schema(description = "Количество попаданий", example = "1520")
+    private Long hits;
+    
+    @Schema(description = "Количество промахов", example = "80")
+    private Long misses;
+    
+    @Schema(description = "Количество вытесненных записей", example = "3")
+    private Long evictions;
+    
+    @Schema(description = "Доля попаданий (от 0 до 1)", example = "0.95")
+    private Double hitRatio;
+}
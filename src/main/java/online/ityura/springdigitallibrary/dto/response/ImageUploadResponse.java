@@ -0,0 +1,58 @@
+package online.ityura.springdigitallibrary.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import online.ityura.springdigitallibrary.dto.BaseDto;
+import online.ityura.springdigitallibrary.model.ImageUploadStatus;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Состояние фоновой обработки загруженного изображения")
+public class ImageUploadResponse extends BaseDto {
+    
+    @Schema(description = "ID загрузки", example = "3f0c7c1e-6a3b-4b5e-9f2a-1d2c3b4a5e6f")
+    private String uploadId;
+    
+    @Schema(description = "ID книги", example = "1")
+    private Long bookId;
+    
+    @Schema(description = "Текущий этап обработки", example = "COMPLETED")
+    private ImageUploadStatus status;
+    
+    @Schema(description = "Ключ обложки в хранилище (после завершения)", example = "9f/86/9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08.png")
+    private String imagePath;
+    
+    @Schema(description = "SHA-256 изображения (hex)", example = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")
+    private String sha256;
+    
+    @Schema(description = "MIME-тип, определенный по первым байтам файла", example = "image/png")
+    private String contentType;
+    
+    @Schema(description = "Ширина изображения (пикселей)", example = "800")
+    private Integer width;
+    
+    @Schema(description = "Высота изображения (пикселей)", example = "1200")
+    private Integer height;
+    
+    @Schema(description = "Ключи уменьшенных копий в хранилище")
+    private List<String> variants;
+    
+    @Schema(description = "Причина ошибки (для статуса FAILED)", example = "Unsupported image format: expected PNG, JPEG, GIF or WebP")
+    private String error;
+    
+    @Schema(description = "Время приема файла", example = "2025-12-17T13:20:00Z")
+    private Instant createdAt;
+    
+    @Schema(description = "Время последнего изменения статуса", example = "2025-12-17T13:20:01Z")
+    private Instant updatedAt;
+}
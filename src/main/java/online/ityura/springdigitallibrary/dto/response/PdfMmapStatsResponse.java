@@ -0,0 +1,39 @@
+package online.ityura.springdigitallibrary.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import online.ityura.springdigitallibrary.dto.BaseDto;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Статистика пула отображенных в память PDF файлов")
+public class PdfMmapStatsResponse extends BaseDto {
+    
+    @Schema(description = "Количество отображенных файлов", example = "12")
+    private Integer entries;
+    
+    @Schema(description = "Суммарный размер отображенных файлов (байт)", example = "157286400")
+    private Long mappedBytes;
+    
+    @Schema(description = "Бюджет пула (байт)", example = "268435456")
+    private Long maxBytes;
+    
+    @Schema(description = "Скачиваний, отданных из отображения", example = "5400")
+    private Long hits;
+    
+    @Schema(description = "Скачиваний мимо пула (отданных потоком или впервые отображенных)", example = "610")
+    private Long misses;
+    
+    @Schema(description = "Количество отображенных файлов за время работы", example = "20")
+    private Long mappings;
+    
+    @Schema(description = "Количество файлов, убранных из пула по LRU", example = "8")
+    private Long unmappings;
+}
@@ -0,0 +1,50 @@
+package online.ityura.springdigitallibrary.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import online.ityura.springdigitallibrary.dto.BaseDto;
+
+import java.time.Instant;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Отчет сборщика мусора хранилища")
+public class StorageGcReportResponse extends BaseDto {
+    
+    @Schema(description = "Пробный запуск: файлы только подсчитаны, но не удалены", example = "false")
+    private Boolean dryRun;
+    
+    @Schema(description = "Время начала прохода", example = "2025-12-17T03:00:00Z")
+    private Instant startedAt;
+    
+    @Schema(description = "Время окончания прохода", example = "2025-12-17T03:00:42Z")
+    private Instant finishedAt;
+    
+    @Schema(description = "Просмотрено объектов в хранилище", example = "15230")
+    private Long scannedObjects;
+    
+    @Schema(description = "Объектов без ссылок из БД", example = "312")
+    private Long orphanedObjects;
+    
+    @Schema(description = "Объектов без ссылок, оставленных политикой хранения (свежие файлы и последние старые версии обложек)", example = "40")
+    private Long retainedObjects;
+    
+    @Schema(description = "Удалено объектов (в пробном запуске - было бы удалено)", example = "272")
+    private Long deletedObjects;
+    
+    @Schema(description = "Освобождено байт (в пробном запуске - было бы освобождено)", example = "734003200")
+    private Long reclaimedBytes;
+    
+    @Schema(description = "Удалено записей content_blobs без ссылок", example = "3")
+    private Long purgedBlobs;
+    
+    @Schema(description = "Объектов, которые не удалось удалить", example = "0")
+    private Long failedObjects;
+}
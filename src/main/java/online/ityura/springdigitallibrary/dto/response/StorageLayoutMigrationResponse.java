@@ -0,0 +1,47 @@
+package online.ityura.springdigitallibrary.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import online.ityura.springdigitallibrary.dto.BaseDto;
+
+import java.time.Instant;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Отчет о переносе файлов в шардированную структуру каталогов")
+public class StorageLayoutMigrationResponse extends BaseDto {
+
+    @Schema(description = "Время начала прохода", example = "2025-12-17T03:00:00Z")
+    private Instant startedAt;
+
+    @Schema(description = "Время окончания прохода", example = "2025-12-17T03:02:10Z")
+    private Instant finishedAt;
+
+    @Schema(description = "Просмотрено книг", example = "120000")
+    private Long scannedBooks;
+
+    @Schema(description = "Перенесено файлов в структуру ab/cd/<sha256>", example = "5400")
+    private Long migratedFiles;
+
+    @Schema(description = "Файлов, которые уже лежат в шардированной структуре", example = "180000")
+    private Long alreadyShardedFiles;
+
+    @Schema(description = "Файлов, которых нет в хранилище", example = "2")
+    private Long missingFiles;
+
+    @Schema(description = "Файлов, путь к которым изменился во время переноса (будут проверены при следующем проходе)", example = "0")
+    private Long skippedFiles;
+
+    @Schema(description = "Файлов, которые не удалось перенести", example = "0")
+    private Long failedFiles;
+
+    @Schema(description = "Все пути в БД уже указывают на шардированную структуру", example = "true")
+    private Boolean complete;
+}
@@ -0,0 +1,27 @@
+package online.ityura.springdigitallibrary.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import online.ityura.springdigitallibrary.dto.BaseDto;
+
+@Data
+@EqualsAndHashCode(callSuper = false)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Schema(description = "Результат заполнения метаданных файлов")
+public class StoredFileBackfillResponse extends BaseDto {
+    
+    @Schema(description = "Количество файлов, для которых записаны метаданные", example = "120")
+    private Integer recorded;
+    
+    @Schema(description = "Количество файлов, у которых метаданные уже были", example = "30")
+    private Integer alreadyPresent;
+    
+    @Schema(description = "Количество путей из БД, файлы по которым не найдены в хранилище", example = "2")
+    private Integer missing;
+}
@@ -142,6 +142,8 @@ public class GlobalExceptionHandler {
                     yield "AUTHOR_CHANGE_NOT_ALLOWED";
                 } else if (lowerMessage.contains("invalid genre")) {
                     yield "INVALID_GENRE";
+                } else if (lowerMessage.contains("invalid sha256")) {
+                    yield "INVALID_SHA256";
                 }
                 yield "VALIDATION_ERROR";
             }
@@ -158,6 +160,8 @@ public class GlobalExceptionHandler {
                     yield "RATING_NOT_FOUND";
                 } else if (lowerMessage.contains("review")) {
                     yield "REVIEW_NOT_FOUND";
+                } else if (lowerMessage.contains("content")) {
+                    yield "CONTENT_NOT_FOUND";
                 }
                 yield "NOT_FOUND";
             }
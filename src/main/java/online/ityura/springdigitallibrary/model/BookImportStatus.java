@@ -0,0 +1,8 @@
+package online.ityura.springdigitallibrary.model;
+
+public enum BookImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,49 @@
+package online.ityura.springdigitallibrary.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "content_blobs", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"area", "sha256"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContentBlob {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "area", nullable = false, length = 16)
+    private StorageArea area;
+    
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+    
+    @Column(name = "byte_length", nullable = false)
+    private Long byteLength;
+    
+    @Column(name = "ref_count", nullable = false)
+    @Builder.Default
+    private Integer refCount = 0;
+    
+    @Column(name = "storage_key", nullable = false, length = 1024)
+    private String storageKey;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,13 @@
+package online.ityura.springdigitallibrary.model;
+
+public enum ImageUploadStatus {
+    QUEUED,
+    SNIFFING,
+    DECODING,
+    HASHING,
+    STORING,
+    GENERATING_VARIANTS,
+    FINALIZING,
+    COMPLETED,
+    FAILED
+}
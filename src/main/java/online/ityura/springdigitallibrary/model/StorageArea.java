@@ -0,0 +1,6 @@
+package online.ityura.springdigitallibrary.model;
+
+public enum StorageArea {
+    IMAGES,
+    PDFS
+}
@@ -0,0 +1,49 @@
+package online.ityura.springdigitallibrary.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "stored_files", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"area", "storage_key"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StoredFile {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "area", nullable = false, length = 16)
+    private StorageArea area;
+    
+    @Column(name = "storage_key", nullable = false, length = 1024)
+    private String storageKey;
+    
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+    
+    @Column(name = "byte_length", nullable = false)
+    private Long byteLength;
+    
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+    
+    @Column(name = "modified_at", nullable = false)
+    private Instant modifiedAt;
+    
+    @Column(name = "width")
+    private Integer width;
+    
+    @Column(name = "height")
+    private Integer height;
+}
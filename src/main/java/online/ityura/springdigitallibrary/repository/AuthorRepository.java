@@ -1,13 +1,37 @@
 package online.ityura.springdigitallibrary.repository;
 
 import online.ityura.springdigitallibrary.model.Author;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AuthorRepository extends JpaRepository<Author, Long> {
     Optional<Author> findByFullName(String fullName);
+    
+    @Query("SELECT a.id, a.fullName FROM Author a WHERE a.fullName IN :fullNames")
+    List<Object[]> findIdsByFullNameIn(@Param("fullNames") Collection<String> fullNames);
+    
+    @Query("SELECT a.id, a.fullName FROM Author a ORDER BY a.id")
+    List<Object[]> findIdsAndNames(Pageable pageable);
+    
+    /**
+     * Создает автора, если его еще нет, и возвращает ID новой строки.
+     * Если автор уже есть (или его параллельно вставила другая транзакция), возвращает пустой результат
+     * без ошибки уникальности: конкурирующая вставка ждет коммита первой, а не падает.
+     * ID берется прямо из последовательности; блок из allocationSize значений за ним Hibernate не выдает.
+     */
+    @Transactional
+    @Query(value = "INSERT INTO authors (id, full_name, created_at) " +
+            "VALUES (nextval('authors_seq'), :fullName, now()) " +
+            "ON CONFLICT (full_name) DO NOTHING " +
+            "RETURNING id", nativeQuery = true)
+    Optional<Long> insertIfAbsent(@Param("fullName") String fullName);
 }
-
@@ -1,11 +1,19 @@
 package online.ityura.springdigitallibrary.repository;
 
 import online.ityura.springdigitallibrary.model.Book;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,13 +22,75 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     Optional<Book> findByTitleAndAuthorId(String title, Long authorId);
     boolean existsByTitleAndAuthorId(String title, Long authorId);
     
+    /**
+     * Книги, у которых название и автор входят в переданные множества. Выборка шире точных пар.
+     */
+    @Query("SELECT b FROM Book b WHERE b.author.id IN :authorIds AND b.title IN :titles")
+    List<Book> findByTitleInAndAuthorIdIn(@Param("titles") Collection<String> titles,
+                                          @Param("authorIds") Collection<Long> authorIds);
+    
+    /**
+     * Возвращает пары (title, authorId) уже существующих книг среди переданных названий и авторов.
+     * Выборка шире точных пар, поэтому результат нужно сверять с запрошенными парами.
+     */
+    @Query("SELECT b.title, b.author.id FROM Book b WHERE b.author.id IN :authorIds AND b.title IN :titles")
+    List<Object[]> findTitleAuthorPairs(@Param("titles") Collection<String> titles,
+                                        @Param("authorIds") Collection<Long> authorIds);
+    
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.bookWithAuthor")
+    })
     @Query("SELECT b FROM Book b JOIN FETCH b.author WHERE b.id = :id")
     Optional<Book> findByIdWithAuthor(@Param("id") Long id);
     
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id = :id")
+    Optional<Book> findByIdForUpdate(@Param("id") Long id);
+    
     @Query("SELECT b FROM Book b WHERE b.author.id = :authorId")
     List<Book> findByAuthorId(@Param("authorId") Long authorId);
     
+    /**
+     * Возвращает (id, deletionLocked) книг автора, которые нельзя удалить: заблокированных или с отзывами.
+     * Незаблокированная книга в результате значит, что у нее есть отзывы.
+     */
+    @Query("SELECT b.id, b.deletionLocked FROM Book b WHERE b.author.id = :authorId " +
+           "AND (b.deletionLocked = true OR EXISTS (SELECT 1 FROM Review r WHERE r.book.id = b.id)) ORDER BY b.id")
+    List<Object[]> findUndeletableByAuthorId(@Param("authorId") Long authorId);
+    
+    /**
+     * Возвращает (id, imagePath, pdfPath) всех книг автора - для освобождения файлов без загрузки сущностей.
+     */
+    @Query("SELECT b.id, b.imagePath, b.pdfPath FROM Book b WHERE b.author.id = :authorId")
+    List<Object[]> findFileRefsByAuthorId(@Param("authorId") Long authorId);
+    
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Book b WHERE b.author.id = :authorId")
+    int deleteByAuthorId(@Param("authorId") Long authorId);
+    
+    /**
+     * Пересчитывает средний рейтинг и число оценок переданных книг одним оператором по таблице ratings.
+     */
+    @Modifying
+    // Hibernate сбрасывает из кэша второго уровня только регион книг, а не весь кэш
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "books"))
+    @Query(value = "UPDATE books b SET rating_avg = s.avg_value, rating_count = s.rating_count " +
+            "FROM (SELECT book_id, ROUND(AVG(value), 2) AS avg_value, COUNT(*) AS rating_count " +
+            "FROM ratings WHERE book_id IN (:bookIds) GROUP BY book_id) s " +
+            "WHERE b.id = s.book_id", nativeQuery = true)
+    int refreshRatingAggregates(@Param("bookIds") Collection<Long> bookIds);
+    
     @Query("SELECT b FROM Book b WHERE b.imagePath IS NOT NULL AND b.imagePath != ''")
     List<Book> findAllWithImages();
+    
+    @Query("SELECT DISTINCT b.imagePath FROM Book b WHERE b.imagePath IS NOT NULL AND b.imagePath != ''")
+    List<String> findAllImagePaths();
+    
+    @Query("SELECT DISTINCT b.pdfPath FROM Book b WHERE b.pdfPath IS NOT NULL AND b.pdfPath != ''")
+    List<String> findAllPdfPaths();
+    
+    @Query("SELECT b FROM Book b WHERE b.id > :afterId ORDER BY b.id")
+    List<Book> findBatchAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
 
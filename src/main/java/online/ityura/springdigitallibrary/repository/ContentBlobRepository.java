@@ -0,0 +1,58 @@
+package online.ityura.springdigitallibrary.repository;
+
+import jakarta.persistence.LockModeType;
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ContentBlobRepository extends JpaRepository<ContentBlob, Long> {
+    Optional<ContentBlob> findByAreaAndSha256(StorageArea area, String sha256);
+    Optional<ContentBlob> findByAreaAndStorageKey(StorageArea area, String storageKey);
+    
+    /**
+     * Атомарно добавляет ссылку на blob: вставляет строку с ref_count = 1
+     * или увеличивает счетчик существующей. Возвращает новое значение ref_count.
+     */
+    @Transactional
+    @Query(value = "INSERT INTO content_blobs (area, sha256, byte_length, ref_count, storage_key, created_at) " +
+            "VALUES (:area, :sha256, :byteLength, 1, :storageKey, now()) " +
+            "ON CONFLICT (area, sha256) DO UPDATE SET ref_count = content_blobs.ref_count + 1 " +
+            "RETURNING ref_count", nativeQuery = true)
+    int upsertReference(@Param("area") String area,
+                        @Param("sha256") String sha256,
+                        @Param("byteLength") long byteLength,
+                        @Param("storageKey") String storageKey);
+    
+    /**
+     * Атомарно увеличивает ref_count и возвращает новое значение (null, если строку уже удалили).
+     * Управляемую сущность не трогаем: без @Version ее flush перезаписал бы счетчик устаревшим значением.
+     */
+    @Transactional
+    @Query(value = "UPDATE content_blobs SET ref_count = ref_count + 1 WHERE id = :id RETURNING ref_count",
+            nativeQuery = true)
+    Integer incrementRefCount(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE ContentBlob b SET b.refCount = b.refCount - 1 WHERE b.id = :id AND b.refCount > 0")
+    int decrementRefCount(@Param("id") Long id);
+    
+    @Query("SELECT b.storageKey FROM ContentBlob b WHERE b.area = :area AND b.refCount > 0")
+    List<String> findReferencedStorageKeys(@Param("area") StorageArea area);
+    
+    @Query("SELECT b FROM ContentBlob b WHERE b.refCount <= 0")
+    List<ContentBlob> findUnreferenced();
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM ContentBlob b WHERE b.id = :id")
+    Optional<ContentBlob> findByIdForUpdate(@Param("id") Long id);
+}
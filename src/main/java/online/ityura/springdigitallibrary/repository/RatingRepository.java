@@ -6,6 +6,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,6 +15,13 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
     Optional<Rating> findByBookIdAndUserId(Long bookId, Long userId);
     boolean existsByBookIdAndUserId(Long bookId, Long userId);
     
+    /**
+     * Возвращает пары (bookId, userId) для переданных книг и пользователей.
+     */
+    @Query("SELECT r.book.id, r.user.id FROM Rating r WHERE r.book.id IN :bookIds AND r.user.id IN :userIds")
+    List<Object[]> findBookUserPairs(@Param("bookIds") Collection<Long> bookIds,
+                                     @Param("userIds") Collection<Long> userIds);
+    
     @Query("SELECT AVG(r.value) FROM Rating r WHERE r.book.id = :bookId")
     Double calculateAverageRating(@Param("bookId") Long bookId);
     
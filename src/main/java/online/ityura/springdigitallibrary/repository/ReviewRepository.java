@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +20,13 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     Optional<Review> findByBookIdAndUserId(Long bookId, Long userId);
     boolean existsByBookIdAndUserId(Long bookId, Long userId);
     
+    /**
+     * Возвращает пары (bookId, userId) для переданных книг и пользователей.
+     */
+    @Query("SELECT r.book.id, r.user.id FROM Review r WHERE r.book.id IN :bookIds AND r.user.id IN :userIds")
+    List<Object[]> findBookUserPairs(@Param("bookIds") Collection<Long> bookIds,
+                                     @Param("userIds") Collection<Long> userIds);
+    
     @Query("SELECT COUNT(r) FROM Review r WHERE r.book.id = :bookId")
     long countByBookId(@Param("bookId") Long bookId);
     
@@ -0,0 +1,46 @@
+package online.ityura.springdigitallibrary.repository;
+
+import jakarta.persistence.QueryHint;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.model.StoredFile;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, Long> {
+    Optional<StoredFile> findByAreaAndStorageKey(StorageArea area, String storageKey);
+    boolean existsByAreaAndStorageKey(StorageArea area, String storageKey);
+    
+    /**
+     * Записывает метаданные файла, если их еще нет. Параллельная запись того же ключа не приводит к ошибке.
+     */
+    @Transactional
+    @Modifying
+    // Без указания таблицы Hibernate считает, что нативный оператор мог изменить что угодно, и очищает весь кэш второго уровня
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stored_files"))
+    @Query(value = "INSERT INTO stored_files (area, storage_key, content_type, byte_length, sha256, modified_at, width, height) " +
+            "VALUES (:area, :storageKey, :contentType, :byteLength, :sha256, :modifiedAt, :width, :height) " +
+            "ON CONFLICT (area, storage_key) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("area") String area,
+                       @Param("storageKey") String storageKey,
+                       @Param("contentType") String contentType,
+                       @Param("byteLength") long byteLength,
+                       @Param("sha256") String sha256,
+                       @Param("modifiedAt") Instant modifiedAt,
+                       @Param("width") Integer width,
+                       @Param("height") Integer height);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StoredFile f WHERE f.area = :area AND f.storageKey = :storageKey")
+    int deleteByAreaAndStorageKey(@Param("area") StorageArea area, @Param("storageKey") String storageKey);
+}
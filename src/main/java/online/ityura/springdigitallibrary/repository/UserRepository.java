@@ -1,14 +1,33 @@
 package online.ityura.springdigitallibrary.repository;
 
+import online.ityura.springdigitallibrary.model.Role;
 import online.ityura.springdigitallibrary.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    List<User> findByEmailIn(Collection<String> emails);
+    
+    /**
+     * Страница пользователей после курсора (keyset по первичному ключу): стоимость не зависит от номера страницы.
+     * Фильтры role и emailPattern (LIKE-шаблон с экранированием через '\') применяются, только если не null.
+     */
+    @Query("SELECT u FROM User u WHERE u.id > :afterId " +
+           "AND (:role IS NULL OR u.role = :role) " +
+           "AND (:emailPattern IS NULL OR u.email LIKE :emailPattern ESCAPE '\\') " +
+           "ORDER BY u.id")
+    List<User> findPageAfter(@Param("afterId") Long afterId,
+                             @Param("role") Role role,
+                             @Param("emailPattern") String emailPattern,
+                             Pageable pageable);
 }
-
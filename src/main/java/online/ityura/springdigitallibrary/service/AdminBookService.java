@@ -1,5 +1,8 @@
 package online.ityura.springdigitallibrary.service;
 
+import online.ityura.springdigitallibrary.cache.ChangeNotificationPublisher;
+import online.ityura.springdigitallibrary.cache.ChangedEntity;
+import online.ityura.springdigitallibrary.cache.ImageByteCache;
 import online.ityura.springdigitallibrary.dto.request.CreateBookRequest;
 import online.ityura.springdigitallibrary.dto.request.PutBookRequest;
 import online.ityura.springdigitallibrary.dto.request.UpdateBookRequest;
@@ -7,10 +10,11 @@ import online.ityura.springdigitallibrary.dto.response.AuthorResponse;
 import online.ityura.springdigitallibrary.dto.response.BookResponse;
 import online.ityura.springdigitallibrary.model.Author;
 import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.StorageArea;
 import online.ityura.springdigitallibrary.repository.AuthorRepository;
 import online.ityura.springdigitallibrary.repository.BookRepository;
 import online.ityura.springdigitallibrary.repository.ReviewRepository;
-import online.ityura.springdigitallibrary.service.BookImageService;
+import online.ityura.springdigitallibrary.storage.ContentAddressedStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -19,33 +23,45 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class AdminBookService {
     
+    // Ограничение размера списков в IN, чтобы не упереться в лимит параметров запроса
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+    
     @Autowired
     private BookRepository bookRepository;
     
     @Autowired
     private AuthorRepository authorRepository;
     
+    @Autowired
+    private AuthorResolver authorResolver;
+    
     @Autowired
     private ReviewRepository reviewRepository;
     
     @Autowired
-    private BookImageService bookImageService;
+    private ImageIngestionService imageIngestionService;
+    
+    @Autowired
+    private ContentAddressedStore contentAddressedStore;
+    
+    @Autowired
+    private ImageByteCache imageByteCache;
+    
+    @Autowired
+    private ChangeNotificationPublisher changeNotificationPublisher;
     
     @Transactional
     public BookResponse createBook(CreateBookRequest request) {
         // Проверка уникальности (title, author)
-        Author author = authorRepository.findByFullName(request.getAuthorName())
-                .orElseGet(() -> {
-                    Author newAuthor = Author.builder()
-                            .fullName(request.getAuthorName())
-                            .build();
-                    return authorRepository.save(newAuthor);
-                });
+        Author author = authorResolver.resolve(request.getAuthorName());
         
         if (bookRepository.existsByTitleAndAuthorId(request.getTitle(), author.getId())) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, 
@@ -65,41 +81,74 @@ public class AdminBookService {
         return mapToBookResponse(book);
     }
     
+    /**
+     * Создает книги одним пакетом: авторы берутся из кэша {@link AuthorResolver}, дубликаты (title, author) проверяются
+     * одним запросом на порцию, книги вставляются пакетами JDBC (hibernate.jdbc.batch_size).
+     * При любом конфликте не создается ни одна книга.
+     */
     @Transactional
     public List<BookResponse> createBooks(List<CreateBookRequest> requests) {
-        List<BookResponse> responses = new ArrayList<>();
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        
+        Map<String, Author> authors = authorResolver.resolveAll(requests.stream()
+                .map(CreateBookRequest::getAuthorName)
+                .toList());
         
+        // Проверка уникальности (title, author) внутри пакета и среди уже существующих книг
+        Set<String> existingPairs = findExistingTitleAuthorPairs(requests, authors);
+        Set<String> requestedPairs = new HashSet<>();
+        List<Book> books = new ArrayList<>(requests.size());
         for (CreateBookRequest request : requests) {
-            // Проверка уникальности (title, author)
-            Author author = authorRepository.findByFullName(request.getAuthorName())
-                    .orElseGet(() -> {
-                        Author newAuthor = Author.builder()
-                                .fullName(request.getAuthorName())
-                                .build();
-                        return authorRepository.save(newAuthor);
-                    });
-            
-            if (bookRepository.existsByTitleAndAuthorId(request.getTitle(), author.getId())) {
+            Author author = authors.get(request.getAuthorName());
+            String pair = titleAuthorPair(request.getTitle(), author.getId());
+            if (existingPairs.contains(pair) || !requestedPairs.add(pair)) {
                 throw new ResponseStatusException(HttpStatus.CONFLICT, 
                         "Book with title '" + request.getTitle() + "' and author '" + request.getAuthorName() + "' already exists");
             }
             
-            Book book = Book.builder()
+            books.add(Book.builder()
                     .title(request.getTitle())
                     .author(author)
                     .description(request.getDescription())
                     .publishedYear(request.getPublishedYear())
                     .genre(request.getGenre())
                     .deletionLocked(false)
-                    .build();
-            
-            book = bookRepository.save(book);
-            responses.add(mapToBookResponse(book));
+                    .build());
         }
         
+        // ID выдаются из пула последовательности, сами INSERT уходят пакетами при flush
+        List<Book> savedBooks = bookRepository.saveAll(books);
+        
+        List<BookResponse> responses = new ArrayList<>(savedBooks.size());
+        for (Book book : savedBooks) {
+            responses.add(mapToBookResponse(book));
+        }
         return responses;
     }
     
+    private Set<String> findExistingTitleAuthorPairs(List<CreateBookRequest> requests, Map<String, Author> authors) {
+        Set<String> existingPairs = new HashSet<>();
+        for (int from = 0; from < requests.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<CreateBookRequest> chunk = requests.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, requests.size()));
+            Set<String> titles = new HashSet<>();
+            Set<Long> authorIds = new HashSet<>();
+            for (CreateBookRequest request : chunk) {
+                titles.add(request.getTitle());
+                authorIds.add(authors.get(request.getAuthorName()).getId());
+            }
+            for (Object[] row : bookRepository.findTitleAuthorPairs(titles, authorIds)) {
+                existingPairs.add(titleAuthorPair((String) row[0], (Long) row[1]));
+            }
+        }
+        return existingPairs;
+    }
+    
+    private static String titleAuthorPair(String title, Long authorId) {
+        return authorId + ":" + title;
+    }
+    
     @Transactional
     public BookResponse updateBook(Long bookId, PutBookRequest request) {
         Book book = bookRepository.findByIdWithAuthor(bookId)
@@ -107,13 +156,7 @@ public class AdminBookService {
                         "Book not found with id: " + bookId));
         
         // Находим или создаем автора
-        Author author = authorRepository.findByFullName(request.getAuthorName())
-                .orElseGet(() -> {
-                    Author newAuthor = Author.builder()
-                            .fullName(request.getAuthorName())
-                            .build();
-                    return authorRepository.save(newAuthor);
-                });
+        Author author = authorResolver.resolve(request.getAuthorName());
         
         // Проверяем уникальность title + author (если изменился title или author)
         boolean titleChanged = !request.getTitle().equals(book.getTitle());
@@ -133,6 +176,7 @@ public class AdminBookService {
         book.setGenre(request.getGenre());
         
         book = bookRepository.save(book);
+        changeNotificationPublisher.publish(ChangedEntity.BOOK, bookId);
         return mapToBookResponse(book);
     }
     
@@ -146,13 +190,7 @@ public class AdminBookService {
         Author author = book.getAuthor();
         if (request.getAuthorName() != null) {
             // Находим или создаем автора
-            author = authorRepository.findByFullName(request.getAuthorName())
-                    .orElseGet(() -> {
-                        Author newAuthor = Author.builder()
-                                .fullName(request.getAuthorName())
-                                .build();
-                        return authorRepository.save(newAuthor);
-                    });
+            author = authorResolver.resolve(request.getAuthorName());
         }
         
         // Определяем title для проверки уникальности
@@ -188,14 +226,12 @@ public class AdminBookService {
         }
         
         book = bookRepository.save(book);
+        changeNotificationPublisher.publish(ChangedEntity.BOOK, bookId);
         
-        // Если передан файл изображения, обновляем изображение
+        // Если передан файл изображения, ставим его в фоновую обработку: она начнется после коммита,
+        // а обложка сменится, когда файл пройдет проверку и будет перенесен в хранилище
         if (imageFile != null && !imageFile.isEmpty()) {
-            bookImageService.uploadBookImage(bookId, imageFile);
-            // Получаем обновленную книгу для возврата
-            book = bookRepository.findByIdWithAuthor(bookId)
-                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, 
-                            "Book not found with id: " + bookId));
+            imageIngestionService.submit(bookId, imageFile);
         }
         
         return mapToBookResponse(book);
@@ -220,11 +256,11 @@ public class AdminBookService {
                     "Cannot delete book: it has reviews");
         }
         
-        // Примечание: PDF файл хранится в файловой системе, 
-        // его можно удалить физически, но для простоты оставляем как есть
-        // (файл будет оставаться в файловой системе, но ссылка в БД удалится вместе с книгой)
-        
         bookRepository.delete(book);
+        changeNotificationPublisher.publish(ChangedEntity.BOOK, bookId);
+        
+        // Освобождаем ссылки на обложку и PDF: файлы удалятся после коммита, если они больше никому не нужны
+        releaseBookFiles(book);
     }
     
     @Transactional
@@ -233,35 +269,49 @@ public class AdminBookService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, 
                         "Author not found with id: " + authorId));
         
-        // Находим все книги автора
-        List<Book> books = bookRepository.findByAuthorId(authorId);
-        
-        // Для каждой книги проверяем ограничения и удаляем
-        for (Book book : books) {
-            Long bookId = book.getId();
-            
-            // Проверка deletion_locked
-            if (book.getDeletionLocked()) {
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
-                        "Cannot delete book with id " + bookId + ": deletion is locked");
+        // Одним запросом находим книги, которые мешают удалению: заблокированные или с отзывами
+        List<Long> lockedIds = new ArrayList<>();
+        List<Long> reviewedIds = new ArrayList<>();
+        for (Object[] row : bookRepository.findUndeletableByAuthorId(authorId)) {
+            Long bookId = (Long) row[0];
+            if (Boolean.TRUE.equals(row[1])) {
+                lockedIds.add(bookId);
+            } else {
+                reviewedIds.add(bookId);
             }
-            
-            // Проверка наличия связанных отзывов
-            if (reviewRepository.countByBookId(bookId) > 0) {
-                throw new ResponseStatusException(HttpStatus.CONFLICT, 
-                        "Cannot delete book with id " + bookId + ": it has reviews");
-            }
-            
-            // Примечание: PDF файл хранится в файловой системе, 
-            // его можно удалить физически, но для простоты оставляем как есть
-            // (файл будет оставаться в файловой системе, но ссылка в БД удалится вместе с книгой)
-            
-            // Удаляем книгу через репозиторий (соблюдает все проверки)
-            bookRepository.delete(book);
+        }
+        
+        // Блокировка удаления важнее отзывов, как и при удалении одной книги
+        if (!lockedIds.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
+                    "Cannot delete books with ids " + lockedIds + ": deletion is locked");
+        }
+        if (!reviewedIds.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, 
+                    "Cannot delete books with ids " + reviewedIds + ": each of them has reviews");
+        }
+        
+        // Пути к файлам нужны до удаления строк, сами сущности не загружаем
+        List<Object[]> fileRefs = bookRepository.findFileRefsByAuthorId(authorId);
+        
+        bookRepository.deleteByAuthorId(authorId);
+        for (Object[] row : fileRefs) {
+            contentAddressedStore.release(StorageArea.IMAGES, (String) row[1]);
+            contentAddressedStore.release(StorageArea.PDFS, (String) row[2]);
+            imageByteCache.invalidate((Long) row[0]);
+            changeNotificationPublisher.publish(ChangedEntity.BOOK, (Long) row[0]);
         }
         
         // Удаляем автора
         authorRepository.delete(author);
+        authorResolver.evict(author.getFullName());
+        changeNotificationPublisher.publish(ChangedEntity.AUTHOR, authorId);
+    }
+    
+    private void releaseBookFiles(Book book) {
+        contentAddressedStore.release(StorageArea.IMAGES, book.getImagePath());
+        contentAddressedStore.release(StorageArea.PDFS, book.getPdfPath());
+        imageByteCache.invalidate(book.getId());
     }
     
     private BookResponse mapToBookResponse(Book book) {
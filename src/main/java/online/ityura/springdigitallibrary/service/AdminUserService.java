@@ -0,0 +1,162 @@
+package online.ityura.springdigitallibrary.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import online.ityura.springdigitallibrary.dto.response.AdminUserPageResponse;
+import online.ityura.springdigitallibrary.dto.response.AdminUserResponse;
+import online.ityura.springdigitallibrary.model.Role;
+import online.ityura.springdigitallibrary.model.User;
+import online.ityura.springdigitallibrary.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Списки пользователей для администратора: постраничная выдача по курсору и потоковая выгрузка в NDJSON.
+ * Ни один из вариантов не загружает таблицу users в память целиком.
+ */
+@Service
+public class AdminUserService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.admin.users.export.fetch-size:500}")
+    private int exportFetchSize;
+
+    private JdbcTemplate exportJdbcTemplate;
+
+    @PostConstruct
+    void init() {
+        // Отдельный шаблон для выгрузки: драйвер PostgreSQL читает результат порциями fetch size
+        // (серверный курсор) только внутри транзакции и с заданным fetch size
+        exportJdbcTemplate = new JdbcTemplate(dataSource);
+        exportJdbcTemplate.setFetchSize(exportFetchSize);
+    }
+
+    /**
+     * Возвращает страницу пользователей с ID больше курсора. Запрашивается на одну строку больше размера
+     * страницы, чтобы без COUNT узнать, есть ли следующая.
+     */
+    @Transactional(readOnly = true)
+    public AdminUserPageResponse getUsersPage(Long cursor, Integer size, Role role, String emailPrefix) {
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        List<User> users = userRepository.findPageAfter(cursor != null ? cursor : 0L, role,
+                likePrefixPattern(emailPrefix), PageRequest.of(0, pageSize + 1));
+        boolean hasMore = users.size() > pageSize;
+        if (hasMore) {
+            users = users.subList(0, pageSize);
+        }
+
+        List<AdminUserResponse> items = new ArrayList<>(users.size());
+        for (User user : users) {
+            items.add(AdminUserResponse.builder()
+                    .id(user.getId())
+                    .nickname(user.getNickname())
+                    .email(user.getEmail())
+                    .role(user.getRole())
+                    .createdAt(user.getCreatedAt())
+                    .build());
+        }
+
+        return AdminUserPageResponse.builder()
+                .items(items)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Пишет пользователей в поток построчно в формате NDJSON (один JSON-объект на строку).
+     * Строки читаются однонаправленным курсором порциями fetch size и сразу пишутся в ответ,
+     * так что память не зависит от числа пользователей. Сущности JPA не создаются.
+     */
+    @Transactional(readOnly = true)
+    public long exportUsers(Role role, String emailPrefix, OutputStream output) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT id, nickname, email, role, created_at FROM users WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (role != null) {
+            sql.append(" AND role = ?");
+            args.add(role.name());
+        }
+        String emailPattern = likePrefixPattern(emailPrefix);
+        if (emailPattern != null) {
+            sql.append(" AND email LIKE ? ESCAPE '\\'");
+            args.add(emailPattern);
+        }
+        sql.append(" ORDER BY id");
+
+        long[] exported = {0};
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            // Генератор не должен закрывать поток ответа - его закрывает контейнер
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            exportJdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> {
+                try {
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", rs.getLong("id"));
+                    generator.writeStringField("nickname", rs.getString("nickname"));
+                    generator.writeStringField("email", rs.getString("email"));
+                    generator.writeStringField("role", rs.getString("role"));
+                    generator.writeStringField("createdAt", createdAt != null ? createdAt.toLocalDateTime().toString() : null);
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    exported[0]++;
+                } catch (IOException e) {
+                    // Клиент закрыл соединение - прерываем чтение курсора
+                    throw new UncheckedIOException(e);
+                }
+            }, args.toArray());
+            generator.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return exported[0];
+    }
+
+    /**
+     * Превращает префикс email в LIKE-шаблон, экранируя служебные символы '%', '_' и '\'.
+     */
+    private static String likePrefixPattern(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        String escaped = prefix.trim()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return escaped + "%";
+    }
+}
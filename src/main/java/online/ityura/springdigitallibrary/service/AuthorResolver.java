@@ -0,0 +1,160 @@
+package online.ityura.springdigitallibrary.service;
+
+import online.ityura.springdigitallibrary.model.Author;
+import online.ityura.springdigitallibrary.repository.AuthorRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Находит или создает авторов по имени для операций записи книг.
+ * Авторы после создания не меняются, поэтому соответствие имя -> ID держится в памяти
+ * и прогревается при старте; в БД идут только промахи.
+ * Новые авторы вставляются через INSERT ... ON CONFLICT DO NOTHING: параллельные запросы и импорты
+ * с тем же автором не падают на ограничении уникальности, а вставка нескольких авторов идет
+ * в порядке имен, чтобы транзакции не ждали друг друга по кругу.
+ */
+@Service
+public class AuthorResolver {
+
+    // Ограничение размера списков в IN, чтобы не упереться в лимит параметров запроса
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Value("${app.authors.cache.max-size:100000}")
+    private int maxSize;
+
+    private final Map<String, Long> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Загружает в кэш существующих авторов после старта приложения (и после начального заполнения БД).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        int loaded = 0;
+        for (Object[] row : authorRepository.findIdsAndNames(PageRequest.of(0, maxSize))) {
+            ids.put((String) row[1], (Long) row[0]);
+            loaded++;
+        }
+        System.out.println("Author cache warmed up with " + loaded + " authors");
+    }
+
+    /**
+     * Возвращает автора с указанным именем, создавая его при необходимости.
+     */
+    @Transactional
+    public Author resolve(String fullName) {
+        return resolveAll(List.of(fullName)).get(fullName);
+    }
+
+    /**
+     * Возвращает авторов по именам, создавая недостающих. Результат - ссылки (ID и имя),
+     * которые можно присваивать книгам без загрузки сущностей автора.
+     */
+    @Transactional
+    public Map<String, Author> resolveAll(Collection<String> fullNames) {
+        Map<String, Author> authors = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String fullName : new LinkedHashSet<>(fullNames)) {
+            Long id = ids.get(fullName);
+            if (id != null) {
+                authors.put(fullName, reference(id, fullName));
+            } else {
+                missing.add(fullName);
+            }
+        }
+        if (missing.isEmpty()) {
+            return authors;
+        }
+
+        for (int from = 0; from < missing.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<String> chunk = missing.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, missing.size()));
+            for (Object[] row : authorRepository.findIdsByFullNameIn(chunk)) {
+                remember((String) row[1], (Long) row[0], authors);
+            }
+        }
+
+        // Один и тот же порядок вставки во всех транзакциях исключает взаимную блокировку
+        List<String> toCreate = missing.stream()
+                .filter(name -> !authors.containsKey(name))
+                .sorted()
+                .toList();
+        for (String fullName : toCreate) {
+            // Пустой результат - автора успела создать и закоммитить другая транзакция, перечитываем его ID
+            Long id = authorRepository.insertIfAbsent(fullName)
+                    .or(() -> authorRepository.findIdsByFullNameIn(List.of(fullName)).stream()
+                            .findFirst()
+                            .map(row -> (Long) row[0]))
+                    .orElseThrow(() -> new IllegalStateException("Author disappeared: " + fullName));
+            remember(fullName, id, authors);
+        }
+        return authors;
+    }
+
+    /**
+     * Убирает автора из кэша после коммита текущей транзакции (например, после его удаления).
+     */
+    public void evict(String fullName) {
+        afterCommit(() -> ids.remove(fullName));
+    }
+
+    /**
+     * Убирает автора из кэша сразу (его изменение пришло с другого пода).
+     */
+    public void forget(Long id) {
+        ids.values().removeIf(id::equals);
+    }
+
+    /**
+     * Очищает кэш; авторы будут заново прочитаны из БД по мере обращения.
+     */
+    public void forgetAll() {
+        ids.clear();
+    }
+
+    private void remember(String fullName, Long id, Map<String, Author> authors) {
+        authors.put(fullName, reference(id, fullName));
+        // Строка могла быть создана в текущей транзакции: кэшируем ее только после коммита
+        afterCommit(() -> {
+            if (ids.size() < maxSize) {
+                ids.put(fullName, id);
+            }
+        });
+    }
+
+    private static Author reference(Long id, String fullName) {
+        return Author.builder()
+                .id(id)
+                .fullName(fullName)
+                .build();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,23 +1,59 @@
 package online.ityura.springdigitallibrary.service;
 
+import online.ityura.springdigitallibrary.cache.ChangeNotificationPublisher;
+import online.ityura.springdigitallibrary.cache.ChangedEntity;
+import online.ityura.springdigitallibrary.cache.MappedPdfPool;
 import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.StorageArea;
 import online.ityura.springdigitallibrary.repository.BookRepository;
+import online.ityura.springdigitallibrary.storage.ContentAddressedStore;
+import online.ityura.springdigitallibrary.storage.FileSystemStorageBackend;
+import online.ityura.springdigitallibrary.storage.SpooledContent;
+import online.ityura.springdigitallibrary.storage.StorageBackend;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.regex.Pattern;
 
 @Service
 public class BookFileService {
     
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    
+    private static final Pattern CONTENT_HASH_FILENAME = Pattern.compile("^[0-9a-f]{64}(\\.[a-z0-9]+)?$");
+    
     @Autowired
     private BookRepository bookRepository;
     
+    @Autowired
+    private StorageBackend storageBackend;
+    
+    @Autowired
+    private ContentAddressedStore contentAddressedStore;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MappedPdfPool mappedPdfPool;
+    
+    @Autowired
+    private ChangeNotificationPublisher changeNotificationPublisher;
+    
     public Resource downloadBookFile(Long bookId) {
         // Получаем книгу из базы данных
         Book book = bookRepository.findById(bookId)
@@ -31,8 +67,7 @@ public class BookFileService {
         }
         
         try {
-            Path filePath = Paths.get(book.getPdfPath());
-            Resource resource = new UrlResource(filePath.toUri());
+            Resource resource = storageBackend.getResource(StorageArea.PDFS, book.getPdfPath());
             
             if (resource.exists() && resource.isReadable()) {
                 return resource;
@@ -40,12 +75,110 @@ public class BookFileService {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
                         "PDF file not found or not readable at path: " + book.getPdfPath());
             }
+        } catch (ResponseStatusException e) {
+            throw e;
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
                     "Error reading PDF file: " + e.getMessage());
         }
     }
     
+    /**
+     * Принимает PDF потоком: байты пишутся во временный файл с подсчетом SHA-256 и размера,
+     * без буферизации в памяти и без открытой транзакции. Затем в короткой транзакции
+     * содержимое регистрируется в хранилище и подменяется путь к PDF у книги.
+     */
+    public ContentBlob uploadBookPdf(Long bookId, InputStream body) {
+        // Проверяем книгу до приема тела, чтобы не писать на диск сотни мегабайт впустую
+        if (!bookRepository.existsById(bookId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
+                    "Book not found with id: " + bookId);
+        }
+        
+        try (PushbackInputStream input = new PushbackInputStream(body, PDF_MAGIC.length)) {
+            // Проверяем сигнатуру %PDF- по первым байтам и возвращаем их в поток
+            byte[] header = input.readNBytes(PDF_MAGIC.length);
+            if (!Arrays.equals(header, PDF_MAGIC)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
+                        "Invalid PDF file: missing %PDF header");
+            }
+            input.unread(header);
+            
+            try (SpooledContent content = contentAddressedStore.spool(input, ".pdf")) {
+                TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+                return transactionTemplate.execute(status -> replacePdf(bookId, content));
+            }
+        } catch (ResponseStatusException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                    "Failed to save PDF: " + e.getMessage());
+        }
+    }
+    
+    private ContentBlob replacePdf(Long bookId, SpooledContent content) {
+        // Блокируем строку книги, чтобы параллельные загрузки не освободили одну и ту же старую ссылку дважды
+        Book book = bookRepository.findByIdForUpdate(bookId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, 
+                        "Book not found with id: " + bookId));
+        
+        try {
+            ContentBlob blob = contentAddressedStore.store(StorageArea.PDFS, content);
+            String oldPdfPath = book.getPdfPath();
+            
+            book.setPdfPath(blob.getStorageKey());
+            bookRepository.save(book);
+            changeNotificationPublisher.publish(ChangedEntity.BOOK, bookId);
+            
+            // Старый PDF удалится, когда на него не останется ссылок
+            contentAddressedStore.release(StorageArea.PDFS, oldPdfPath);
+            return blob;
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                    "Failed to save PDF: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Открывает PDF по известному ключу без проверок существования файла: метаданные уже подтверждают, что он сохранен.
+     * Часто скачиваемые файлы с локального диска отдаются из отображения в память.
+     */
+    public Resource openBookFile(String pdfKey, long byteLength) {
+        if (storageBackend instanceof FileSystemStorageBackend fileSystemBackend) {
+            try {
+                Resource mapped = mappedPdfPool.open(pdfKey, fileSystemBackend.resolve(StorageArea.PDFS, pdfKey), byteLength);
+                if (mapped != null) {
+                    return mapped;
+                }
+            } catch (NoSuchFileException e) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
+                        "PDF file not found or not readable");
+            } catch (IOException e) {
+                // Не удалось отобразить файл - отдаем его обычным потоком
+                System.err.println("Failed to map PDF " + pdfKey + ": " + e.getMessage());
+            }
+        }
+        return storageBackend.getResource(StorageArea.PDFS, pdfKey);
+    }
+    
+    /**
+     * Возвращает ключ PDF в хранилище без чтения файла (для отдачи через фронт-прокси).
+     */
+    public String getPdfKey(Long bookId) {
+        // Получаем книгу из базы данных
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, 
+                        "Book not found with id: " + bookId));
+        
+        // Проверяем, есть ли PDF файл у книги
+        if (book.getPdfPath() == null || book.getPdfPath().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
+                    "PDF file not found for book id: " + bookId);
+        }
+        
+        return book.getPdfPath();
+    }
+    
     public String getOriginalFilename(Long bookId) {
         // Получаем книгу из базы данных
         Book book = bookRepository.findById(bookId)
@@ -62,8 +195,8 @@ public class BookFileService {
         Path filePath = Paths.get(book.getPdfPath());
         String filename = filePath.getFileName().toString();
         
-        // Если имя файла не найдено, формируем на основе названия книги
-        if (filename == null || filename.isEmpty()) {
+        // Если имя файла не найдено или это хэш содержимого из хранилища, формируем на основе названия книги
+        if (filename == null || filename.isEmpty() || CONTENT_HASH_FILENAME.matcher(filename).matches()) {
             filename = book.getTitle()
                     .replaceAll("\\s+", "_")
                     .replaceAll("[<>:\"|?*]", "") + ".pdf";
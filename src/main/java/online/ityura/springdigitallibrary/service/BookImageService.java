@@ -1,29 +1,32 @@
 package online.ityura.springdigitallibrary.service;
 
+import online.ityura.springdigitallibrary.cache.ChangeNotificationPublisher;
+import online.ityura.springdigitallibrary.cache.ChangedEntity;
+import online.ityura.springdigitallibrary.cache.ImageByteCache;
 import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.model.StoredFile;
 import online.ityura.springdigitallibrary.repository.BookRepository;
+import online.ityura.springdigitallibrary.storage.ContentAddressedStore;
+import online.ityura.springdigitallibrary.storage.SpooledContent;
+import online.ityura.springdigitallibrary.storage.StorageBackend;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.List;
-import java.util.UUID;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
-import java.time.Instant;
 
 @Service
 public class BookImageService {
@@ -31,123 +34,69 @@ public class BookImageService {
     @Autowired
     private BookRepository bookRepository;
     
-    @Value("${app.images.storage-path}")
-    private String storagePath;
+    @Autowired
+    private ImageByteCache imageByteCache;
+    
+    @Autowired
+    private ChangeNotificationPublisher changeNotificationPublisher;
+    
+    @Autowired
+    private ContentAddressedStore contentAddressedStore;
+    
+    @Autowired
+    private StorageBackend storageBackend;
     
     @Transactional
-    public String uploadBookImage(Long bookId, MultipartFile file) {
-        // Проверяем существование книги
-        Book book = bookRepository.findById(bookId)
+    public String attachImageByHash(Long bookId, String sha256) {
+        // Блокируем строку книги, как в attachStagedImage: иначе два запроса освободят одну старую ссылку дважды
+        Book book = bookRepository.findByIdForUpdate(bookId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, 
                         "Book not found with id: " + bookId));
         
-        // Проверяем, что файл не пустой
-        if (file == null || file.isEmpty()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
-                    "Image file is required");
-        }
+        // Содержимое уже есть в хранилище - повторная загрузка не нужна
+        ContentBlob blob = contentAddressedStore.addReference(StorageArea.IMAGES, sha256);
+        return replaceImage(book, blob);
+    }
+    
+    /**
+     * Финальный шаг фоновой загрузки: делает обложкой книги содержимое, уже скопированное в хранилище.
+     * Транзакция только обновляет ссылки и путь, копирования файлов в ней нет.
+     * Размеры изображения передаются из конвейера, который уже прочитал их при декодировании.
+     */
+    @Transactional
+    public String attachStagedImage(Long bookId, SpooledContent content, Integer width, Integer height) {
+        // Блокируем строку книги, чтобы параллельные загрузки не освободили одну и ту же старую ссылку дважды
+        Book book = bookRepository.findByIdForUpdate(bookId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, 
+                        "Book not found with id: " + bookId));
         
         try {
-            // Создаем директорию если её нет
-            Path storageDir = Paths.get(storagePath);
-            if (!Files.exists(storageDir)) {
-                Files.createDirectories(storageDir);
-            }
-            
-            // Получаем расширение файла из оригинального имени
-            String originalFilename = file.getOriginalFilename();
-            String extension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            }
-            
-            String filename;
-            Path filePath;
-            
-            // Проверяем, есть ли у книги уже изображение
-            if (book.getImagePath() != null && !book.getImagePath().isEmpty()) {
-                // Если есть старое изображение, переименовываем его с timestamp
-                Path oldImagePath = Paths.get(book.getImagePath());
-                if (Files.exists(oldImagePath)) {
-                    // Получаем имя старого файла (без пути)
-                    String oldFileName = oldImagePath.getFileName().toString();
-                    
-                    // Извлекаем базовое имя и расширение из старого файла
-                    String oldBaseName;
-                    String oldExtension = "";
-                    if (oldFileName.contains(".")) {
-                        int lastDotIndex = oldFileName.lastIndexOf(".");
-                        oldBaseName = oldFileName.substring(0, lastDotIndex);
-                        oldExtension = oldFileName.substring(lastDotIndex);
-                    } else {
-                        oldBaseName = oldFileName;
-                    }
-                    
-                    // Если расширение не было в старом файле, используем расширение нового файла
-                    if (oldExtension.isEmpty() && !extension.isEmpty()) {
-                        oldExtension = extension;
-                    }
-                    
-                    // Переименовываем старое изображение, добавляя timestamp
-                    long timestamp = Instant.now().toEpochMilli();
-                    String oldFileNameWithTimestamp = oldBaseName + "_" + timestamp + oldExtension;
-                    Path oldImagePathWithTimestamp = storageDir.resolve(oldFileNameWithTimestamp);
-                    
-                    try {
-                        Files.move(oldImagePath, oldImagePathWithTimestamp, StandardCopyOption.REPLACE_EXISTING);
-                    } catch (IOException e) {
-                        // Логируем ошибку, но не прерываем выполнение
-                        System.err.println("Failed to rename old image: " + e.getMessage());
-                    }
-                    
-                    // Новое изображение сохраняем с именем старого
-                    filename = oldFileName;
-                    filePath = storageDir.resolve(filename);
-                } else {
-                    // Старое изображение не существует на диске, используем его имя для нового
-                    String oldFileName = oldImagePath.getFileName().toString();
-                    filename = oldFileName;
-                    filePath = storageDir.resolve(filename);
-                }
-            } else {
-                // Если у книги нет изображения, генерируем имя на основе названия книги
-                String bookTitle = book.getTitle() != null ? book.getTitle().trim() : "";
-                if (bookTitle.isEmpty()) {
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, 
-                            "Book title is empty, cannot generate image filename");
-                }
-                String sanitizedTitle = bookTitle.replaceAll("\\s+", "_");
-                
-                // Формируем имя файла: название_книги.расширение
-                filename = sanitizedTitle + extension;
-                filePath = storageDir.resolve(filename);
-                
-                // Если файл с таким именем уже существует, добавляем UUID
-                if (Files.exists(filePath)) {
-                    String baseName = sanitizedTitle;
-                    filename = baseName + "_" + UUID.randomUUID().toString().substring(0, 8) + extension;
-                    filePath = storageDir.resolve(filename);
-                }
-            }
-            
-            // Сохраняем новый файл
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            
-            // Формируем полный путь для сохранения в БД
-            String imagePath = filePath.toString();
-            
-            // Обновляем путь к изображению в базе данных
-            book.setImagePath(imagePath);
-            bookRepository.save(book);
-            
-            return imagePath;
-            
+            ContentBlob blob = contentAddressedStore.attachStaged(StorageArea.IMAGES, content, width, height);
+            return replaceImage(book, blob);
         } catch (IOException e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
                     "Failed to save image: " + e.getMessage());
         }
     }
     
+    private String replaceImage(Book book, ContentBlob blob) {
+        String oldImagePath = book.getImagePath();
+        String imagePath = blob.getStorageKey();
+        
+        // Обновляем путь к изображению в базе данных
+        book.setImagePath(imagePath);
+        bookRepository.save(book);
+        
+        // Старая обложка больше не нужна этой книге; файл удалится, когда на него не останется ссылок
+        contentAddressedStore.release(StorageArea.IMAGES, oldImagePath);
+        
+        // Старые байты обложки в кэше больше не актуальны - здесь и на других подах
+        imageByteCache.invalidate(book.getId());
+        changeNotificationPublisher.publish(ChangedEntity.BOOK, book.getId());
+        
+        return imagePath;
+    }
+    
     public Resource getBookImage(Long bookId) {
         // Проверяем существование книги
         Book book = bookRepository.findById(bookId)
@@ -160,22 +109,73 @@ public class BookImageService {
                     "Image not found for book id: " + bookId);
         }
         
+        // Горячие обложки отдаем из кэша без обращения к хранилищу
+        Resource cached = imageByteCache.get(bookId, book.getImagePath());
+        if (cached != null) {
+            return cached;
+        }
+        
         try {
-            Path imagePath = Paths.get(book.getImagePath());
-            Resource resource = new UrlResource(imagePath.toUri());
+            Resource resource = storageBackend.getResource(StorageArea.IMAGES, book.getImagePath());
             
             if (resource.exists() && resource.isReadable()) {
-                return resource;
+                // Файл больше допустимого размера записи кэша отдаем напрямую из хранилища
+                Resource loaded = imageByteCache.load(bookId, book.getImagePath(), resource);
+                return loaded != null ? loaded : resource;
             } else {
                 throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
                         "Image file not found or not readable");
             }
+        } catch (ResponseStatusException e) {
+            throw e;
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
                     "Error reading image: " + e.getMessage());
         }
     }
     
+    /**
+     * Открывает обложку по известным метаданным: без проверок существования и размера файла в хранилище.
+     */
+    public Resource openBookImage(Long bookId, StoredFile metadata) {
+        String imageKey = metadata.getStorageKey();
+        Resource cached = imageByteCache.get(bookId, imageKey);
+        if (cached != null) {
+            return cached;
+        }
+        
+        Resource resource = storageBackend.getResource(StorageArea.IMAGES, imageKey);
+        try {
+            // Размер уже известен из метаданных - читаем файл в кэш сразу, без stat
+            Resource loaded = imageByteCache.load(bookId, imageKey, resource, metadata.getByteLength());
+            return loaded != null ? loaded : resource;
+        } catch (NoSuchFileException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
+                    "Image file not found or not readable");
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, 
+                    "Error reading image: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Возвращает ключ обложки в хранилище без чтения файла (для отдачи через фронт-прокси).
+     */
+    public String getBookImageKey(Long bookId) {
+        // Проверяем существование книги
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, 
+                        "Book not found with id: " + bookId));
+        
+        // Проверяем наличие изображения
+        if (book.getImagePath() == null || book.getImagePath().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
+                    "Image not found for book id: " + bookId);
+        }
+        
+        return book.getImagePath();
+    }
+    
     public Resource getAllBookImagesAsZip() {
         try {
             // Получаем все книги с изображениями
@@ -193,10 +193,10 @@ public class BookImageService {
                 for (Book book : booksWithImages) {
                     if (book.getImagePath() != null && !book.getImagePath().isEmpty()) {
                         try {
-                            Path imagePath = Paths.get(book.getImagePath());
-                            if (Files.exists(imagePath) && Files.isReadable(imagePath)) {
-                                // Получаем имя файла из пути
-                                String fileName = imagePath.getFileName().toString();
+                            Resource image = storageBackend.getResource(StorageArea.IMAGES, book.getImagePath());
+                            if (image.exists()) {
+                                // Получаем имя файла из ключа хранилища
+                                String fileName = image.getFilename();
                                 // Используем ID книги и название для уникальности имени в ZIP
                                 String zipEntryName = book.getId() + "_" + fileName;
                                 
@@ -204,7 +204,7 @@ public class BookImageService {
                                 zos.putNextEntry(zipEntry);
                                 
                                 // Копируем содержимое файла в ZIP
-                                try (InputStream is = Files.newInputStream(imagePath)) {
+                                try (InputStream is = image.getInputStream()) {
                                     byte[] buffer = new byte[8192];
                                     int length;
                                     while ((length = is.read(buffer)) > 0) {
@@ -0,0 +1,599 @@
+package online.ityura.springdigitallibrary.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import online.ityura.springdigitallibrary.dto.request.CreateBookRequest;
+import online.ityura.springdigitallibrary.dto.response.BookImportErrorResponse;
+import online.ityura.springdigitallibrary.dto.response.BookImportResponse;
+import online.ityura.springdigitallibrary.model.Author;
+import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.BookImportStatus;
+import online.ityura.springdigitallibrary.model.Genre;
+import online.ityura.springdigitallibrary.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Потоковый импорт каталога книг из CSV или NDJSON.
+ * Тело запроса сохраняется во временный файл, дальше задача в фоне читает его построчно и коммитит книги
+ * порциями по app.books.import.chunk-size строк: в памяти одновременно находится только одна порция,
+ * поэтому размер файла не ограничен объемом кучи. Недостающие авторы создаются, ошибочные строки
+ * (не проходят валидацию, дубликаты) попадают в отчет и не прерывают импорт.
+ * <p>
+ * Состояние задач хранится в памяти экземпляра приложения и удаляется через app.books.import.status-ttl.
+ */
+@Service
+public class BookImportService {
+
+    public static final String CSV = "CSV";
+    public static final String NDJSON = "NDJSON";
+
+    // Защита от незакрытой кавычки: без нее одна "запись" CSV может растянуться на весь файл
+    private static final int MAX_RECORD_CHARS = 1 << 20;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorResolver authorResolver;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${app.books.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.books.import.max-bytes:2147483648}")
+    private long maxBytes;
+
+    @Value("${app.books.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    @Value("${app.books.import.concurrent-jobs:1}")
+    private int concurrentJobs;
+
+    @Value("${app.books.import.queue-capacity:4}")
+    private int queueCapacity;
+
+    @Value("${app.books.import.status-ttl:PT24H}")
+    private Duration statusTtl;
+
+    private Executor executor;
+
+    private final ConcurrentHashMap<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void startExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(concurrentJobs, concurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "book-import-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Принимает файл импорта и ставит его обработку в очередь.
+     *
+     * @param format CSV или NDJSON
+     * @param body   тело запроса, читается потоком
+     */
+    public BookImportResponse submit(String format, InputStream body) {
+        evictExpired();
+
+        Path received;
+        long size;
+        try {
+            received = Files.createTempFile("book-import-", ".part");
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Failed to save import file: " + e.getMessage());
+        }
+        try (OutputStream output = Files.newOutputStream(received)) {
+            size = copyLimited(body, output);
+        } catch (IOException e) {
+            deleteQuietly(received);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Failed to save import file: " + e.getMessage());
+        } catch (ResponseStatusException e) {
+            deleteQuietly(received);
+            throw e;
+        }
+        if (size == 0) {
+            deleteQuietly(received);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Import file is empty");
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), format, size);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, received));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            deleteQuietly(received);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Too many imports in progress, retry later");
+        }
+        return job.toResponse();
+    }
+
+    public BookImportResponse getStatus(String jobId) {
+        evictExpired();
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Import job not found with id: " + jobId);
+        }
+        return job.toResponse();
+    }
+
+    private void run(ImportJob job, Path file) {
+        job.startedAt = Instant.now();
+        job.status = BookImportStatus.RUNNING;
+        try (CountingInputStream input = new CountingInputStream(Files.newInputStream(file));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            RowReader rows = NDJSON.equals(job.format) ? new NdjsonRowReader(reader) : new CsvRowReader(reader);
+
+            int size = Math.max(chunkSize, 1);
+            List<ImportRow> chunk = new ArrayList<>(size);
+            ImportRow row;
+            while ((row = rows.next()) != null) {
+                job.processedRows++;
+                if (row.error != null) {
+                    job.addError(row.line, row.error, maxReportedErrors);
+                } else {
+                    chunk.add(row);
+                }
+                if (chunk.size() >= size) {
+                    commitChunk(job, chunk);
+                    chunk.clear();
+                    job.processedBytes = input.count;
+                }
+            }
+            if (!chunk.isEmpty()) {
+                commitChunk(job, chunk);
+            }
+            job.processedBytes = input.count;
+            job.finish(BookImportStatus.COMPLETED, null);
+        } catch (ResponseStatusException e) {
+            job.finish(BookImportStatus.FAILED, e.getReason());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Book import " + job.id + " failed: " + e.getMessage());
+            job.finish(BookImportStatus.FAILED, "Import failed: " + e.getMessage());
+        } finally {
+            deleteQuietly(file);
+            System.out.println("Book import " + job.id + " finished: imported=" + job.importedRows
+                    + ", failed=" + job.failedRows + ", status=" + job.status);
+        }
+    }
+
+    private void commitChunk(ImportJob job, List<ImportRow> chunk) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            ChunkResult result = transaction.execute(status -> importChunk(chunk));
+            job.apply(result, maxReportedErrors);
+        } catch (DataAccessException | TransactionException e) {
+            // Порция откатилась целиком (например, книгу параллельно создал другой запрос):
+            // повторяем построчно, чтобы потерять только проблемные строки
+            for (ImportRow row : chunk) {
+                try {
+                    ChunkResult result = transaction.execute(status -> importChunk(List.of(row)));
+                    job.apply(result, maxReportedErrors);
+                } catch (DataAccessException | TransactionException rowError) {
+                    job.addError(row.line, "Failed to save book: " + rowError.getMostSpecificCause().getMessage(), maxReportedErrors);
+                }
+            }
+        }
+        job.committedChunks++;
+    }
+
+    private ChunkResult importChunk(List<ImportRow> rows) {
+        Map<String, Author> authors = authorResolver.resolveAll(rows.stream()
+                .map(row -> row.request.getAuthorName())
+                .toList());
+
+        Set<String> titles = new HashSet<>();
+        Set<Long> authorIds = new HashSet<>();
+        for (ImportRow row : rows) {
+            titles.add(row.request.getTitle());
+            authorIds.add(authors.get(row.request.getAuthorName()).getId());
+        }
+        Set<String> existingPairs = new HashSet<>();
+        for (Object[] pair : bookRepository.findTitleAuthorPairs(titles, authorIds)) {
+            existingPairs.add(pair[1] + ":" + pair[0]);
+        }
+
+        List<Book> books = new ArrayList<>(rows.size());
+        List<BookImportErrorResponse> errors = new ArrayList<>();
+        for (ImportRow row : rows) {
+            CreateBookRequest request = row.request;
+            Author author = authors.get(request.getAuthorName());
+            if (!existingPairs.add(author.getId() + ":" + request.getTitle())) {
+                errors.add(error(row.line, "Book with title '" + request.getTitle()
+                        + "' and author '" + request.getAuthorName() + "' already exists"));
+                continue;
+            }
+            books.add(Book.builder()
+                    .title(request.getTitle())
+                    .author(author)
+                    .description(request.getDescription())
+                    .publishedYear(request.getPublishedYear())
+                    .genre(request.getGenre())
+                    .deletionLocked(false)
+                    .build());
+        }
+        bookRepository.saveAll(books);
+        return new ChunkResult(books.size(), errors);
+    }
+
+    private ImportRow validated(long line, CreateBookRequest request) {
+        Set<ConstraintViolation<CreateBookRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .reduce((first, second) -> first + "; " + second)
+                    .orElse("Validation failed");
+            return ImportRow.failed(line, message);
+        }
+        request.setTitle(request.getTitle().trim());
+        request.setAuthorName(request.getAuthorName().trim());
+        return new ImportRow(line, request, null);
+    }
+
+    private long copyLimited(InputStream body, OutputStream output) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                        "Import file exceeds the limit of " + maxBytes + " bytes");
+            }
+            output.write(buffer, 0, read);
+        }
+        return total;
+    }
+
+    private void evictExpired() {
+        Instant cutoff = Instant.now().minus(statusTtl);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private static BookImportErrorResponse error(long line, String message) {
+        return BookImportErrorResponse.builder()
+                .line(line)
+                .message(message)
+                .build();
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Failed to delete temporary file " + file + ": " + e.getMessage());
+        }
+    }
+
+    private interface RowReader {
+        /**
+         * Возвращает следующую строку с данными или null в конце файла.
+         */
+        ImportRow next() throws IOException;
+    }
+
+    /**
+     * NDJSON: один объект CreateBookRequest на строку, пустые строки пропускаются.
+     */
+    private final class NdjsonRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private long line;
+
+        private NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return validated(line, objectMapper.readValue(text, CreateBookRequest.class));
+                } catch (JsonProcessingException e) {
+                    return ImportRow.failed(line, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * CSV (RFC 4180): первая строка - заголовок с колонками title, authorName, description, publishedYear, genre
+     * в любом порядке (обязательны title и authorName). Поля в двойных кавычках могут содержать запятые,
+     * переводы строк и удвоенные кавычки.
+     */
+    private final class CsvRowReader implements RowReader {
+
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private long line;
+
+        private CsvRowReader(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header != null) {
+                for (int i = 0; i < header.size(); i++) {
+                    columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+                }
+            }
+            if (!columns.containsKey("title") || !columns.containsKey("authorname")) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "CSV header must contain title and authorName columns");
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            List<String> record;
+            long recordLine;
+            do {
+                recordLine = line + 1;
+                record = readRecord();
+                if (record == null) {
+                    return null;
+                }
+            } while (record.size() == 1 && record.get(0).isBlank());
+
+            CreateBookRequest request = new CreateBookRequest();
+            request.setTitle(value(record, "title"));
+            request.setAuthorName(value(record, "authorname"));
+            request.setDescription(value(record, "description"));
+
+            String year = value(record, "publishedyear");
+            if (year != null) {
+                try {
+                    request.setPublishedYear(Integer.parseInt(year));
+                } catch (NumberFormatException e) {
+                    return ImportRow.failed(recordLine, "Published year must be a number: " + year);
+                }
+            }
+            String genre = value(record, "genre");
+            if (genre != null) {
+                try {
+                    request.setGenre(Genre.valueOf(genre.toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    return ImportRow.failed(recordLine, "Unknown genre: " + genre);
+                }
+            }
+            return validated(recordLine, request);
+        }
+
+        private String value(List<String> record, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean empty = true;
+            int length = 0;
+            int c;
+            while ((c = reader.read()) != -1) {
+                empty = false;
+                if (++length > MAX_RECORD_CHARS) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "CSV record at line " + (line + 1) + " is too long or has an unclosed quote");
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (empty) {
+                return null;
+            }
+            line++;
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private record ImportRow(long line, CreateBookRequest request, String error) {
+        private static ImportRow failed(long line, String error) {
+            return new ImportRow(line, null, error);
+        }
+    }
+
+    private record ChunkResult(int imported, List<BookImportErrorResponse> errors) {
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private volatile long count;
+
+        private CountingInputStream(InputStream input) {
+            super(input);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+
+    private static final class ImportJob {
+
+        private final String id;
+        private final String format;
+        private final long totalBytes;
+        private final Instant createdAt = Instant.now();
+        // Пишет только поток задачи, читают запросы статуса
+        private volatile BookImportStatus status = BookImportStatus.QUEUED;
+        private volatile long processedBytes;
+        private volatile long processedRows;
+        private volatile long importedRows;
+        private volatile long failedRows;
+        private volatile long committedChunks;
+        private final List<BookImportErrorResponse> errors = new ArrayList<>();
+        private volatile String error;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+
+        private ImportJob(String id, String format, long totalBytes) {
+            this.id = id;
+            this.format = format;
+            this.totalBytes = totalBytes;
+        }
+
+        private void apply(ChunkResult result, int maxReportedErrors) {
+            importedRows += result.imported();
+            for (BookImportErrorResponse rowError : result.errors()) {
+                addError(rowError.getLine(), rowError.getMessage(), maxReportedErrors);
+            }
+        }
+
+        private void addError(long line, String message, int maxReportedErrors) {
+            failedRows++;
+            synchronized (errors) {
+                if (errors.size() < maxReportedErrors) {
+                    errors.add(error(line, message));
+                }
+            }
+        }
+
+        private void finish(BookImportStatus finalStatus, String reason) {
+            error = reason;
+            finishedAt = Instant.now();
+            status = finalStatus;
+        }
+
+        private BookImportResponse toResponse() {
+            List<BookImportErrorResponse> reported;
+            synchronized (errors) {
+                reported = List.copyOf(errors);
+            }
+            return BookImportResponse.builder()
+                    .jobId(id)
+                    .format(format)
+                    .status(status)
+                    .totalBytes(totalBytes)
+                    .processedBytes(processedBytes)
+                    .processedRows(processedRows)
+                    .importedRows(importedRows)
+                    .failedRows(failedRows)
+                    .committedChunks(committedChunks)
+                    .errors(reported)
+                    .error(error)
+                    .createdAt(createdAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
@@ -28,6 +29,7 @@ public class BookService {
     @Autowired
     private ReviewRepository reviewRepository;
     
+    @Transactional(readOnly = true)
     public Page<BookResponse> getAllBooks(Pageable pageable) {
         Page<Book> booksPage = bookRepository.findAll(pageable);
         
@@ -55,6 +57,7 @@ public class BookService {
         });
     }
     
+    @Transactional(readOnly = true)
     public BookResponse getBookById(Long bookId) {
         Book book = bookRepository.findByIdWithAuthor(bookId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found with id: " + bookId));
@@ -0,0 +1,486 @@
+package online.ityura.springdigitallibrary.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import online.ityura.springdigitallibrary.dto.response.ImageUploadResponse;
+import online.ityura.springdigitallibrary.model.ImageUploadStatus;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.repository.BookRepository;
+import online.ityura.springdigitallibrary.storage.ContentAddressedStore;
+import online.ityura.springdigitallibrary.storage.SpooledContent;
+import online.ityura.springdigitallibrary.storage.StorageBackend;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Фоновая загрузка обложек книг.
+ * Запрос только принимает файл во временный каталог и ставит его в очередь; дальше на отдельном пуле потоков
+ * файл проходит этапы: проверка формата по первым байтам, чтение и проверка размеров, хэширование,
+ * перенос в хранилище, генерация уменьшенных копий. Соединение с БД занимается только финальной
+ * короткой транзакцией, которая меняет путь к обложке. Состояние загрузки можно опрашивать по ее ID.
+ * <p>
+ * Статусы хранятся в памяти экземпляра приложения и удаляются через app.images.ingest.status-ttl.
+ */
+@Service
+public class ImageIngestionService {
+
+    private static final int SNIFF_BYTES = 12;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BookImageService bookImageService;
+
+    @Autowired
+    private ContentAddressedStore contentAddressedStore;
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Value("${app.images.ingest.threads:2}")
+    private int threads;
+
+    @Value("${app.images.ingest.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${app.images.ingest.max-width:8000}")
+    private int maxWidth;
+
+    @Value("${app.images.ingest.max-height:8000}")
+    private int maxHeight;
+
+    @Value("${app.images.ingest.max-pixels:25000000}")
+    private long maxPixels;
+
+    @Value("${app.images.ingest.variant-widths:320}")
+    private int[] variantWidths;
+
+    @Value("${app.images.ingest.status-ttl:PT1H}")
+    private Duration statusTtl;
+
+    private Executor executor;
+
+    // Места в обработке (выполняемые и ожидающие загрузки). Место занимается при приеме файла, а не при передаче
+    // в пул: загрузка внутри транзакции попадает в пул только после коммита, и тогда отказать запросу уже поздно
+    private Semaphore slots;
+
+    private final ConcurrentHashMap<String, ImageUpload> uploads = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void startExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        slots = new Semaphore(threads + Math.max(queueCapacity, 1));
+        // Очередь ограничивают места: задача попадает в пул, только если место для нее уже занято
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-ingest-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stopExecutor() throws InterruptedException {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+            executorService.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Принимает файл и ставит его обработку в очередь. Если вызов идет внутри транзакции,
+     * обработка начнется только после ее коммита, но место в очереди занимается сразу: при полной очереди
+     * запрос получает 503, и транзакция откатывается.
+     */
+    public ImageUploadResponse submit(Long bookId, MultipartFile file) {
+        // Проверяем существование книги
+        if (!bookRepository.existsById(bookId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Book not found with id: " + bookId);
+        }
+
+        // Проверяем, что файл не пустой
+        if (file == null || file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Image file is required");
+        }
+
+        evictExpired();
+
+        if (!slots.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Image processing queue is full, retry later");
+        }
+
+        // Временный файл multipart удаляется после запроса - забираем его себе (для файла на диске это перенос)
+        Path received;
+        try {
+            received = Files.createTempFile("image-upload-", ".part");
+        } catch (IOException e) {
+            slots.release();
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Failed to save image: " + e.getMessage());
+        }
+        try {
+            file.transferTo(received);
+        } catch (IOException e) {
+            deleteQuietly(received);
+            slots.release();
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Failed to save image: " + e.getMessage());
+        }
+
+        ImageUpload upload = new ImageUpload(UUID.randomUUID().toString(), bookId);
+        uploads.put(upload.id, upload);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        enqueue(upload, received);
+                    } else {
+                        deleteQuietly(received);
+                        slots.release();
+                        upload.fail("Upload cancelled: transaction rolled back");
+                    }
+                }
+            });
+        } else if (!enqueue(upload, received)) {
+            uploads.remove(upload.id);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Image processing queue is full, retry later");
+        }
+        return upload.toResponse();
+    }
+
+    public ImageUploadResponse getStatus(Long bookId, String uploadId) {
+        evictExpired();
+        ImageUpload upload = uploads.get(uploadId);
+        if (upload == null || !upload.bookId.equals(bookId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Image upload not found with id: " + uploadId);
+        }
+        return upload.toResponse();
+    }
+
+    /**
+     * Передает загрузку с уже занятым местом в пул. Отказать пул может только при остановке приложения.
+     */
+    private boolean enqueue(ImageUpload upload, Path received) {
+        try {
+            executor.execute(() -> {
+                try {
+                    ingest(upload, received);
+                } finally {
+                    slots.release();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            deleteQuietly(received);
+            slots.release();
+            upload.fail("Image processing queue is full, retry later");
+            return false;
+        }
+    }
+
+    private void ingest(ImageUpload upload, Path received) {
+        try {
+            upload.advance(ImageUploadStatus.SNIFFING);
+            ImageFormat format = sniff(received);
+            upload.contentType = format.contentType;
+
+            upload.advance(ImageUploadStatus.DECODING);
+            BufferedImage image = decode(received, format, upload);
+
+            upload.advance(ImageUploadStatus.HASHING);
+            // Временный файл сам становится принятым содержимым: хэш считается чтением, без копии
+            try (SpooledContent content = hash(received, format.extension)) {
+                upload.sha256 = content.sha256();
+
+                upload.advance(ImageUploadStatus.STORING);
+                String storageKey = contentAddressedStore.stage(StorageArea.IMAGES, content);
+
+                upload.advance(ImageUploadStatus.GENERATING_VARIANTS);
+                List<String> variants = image != null ? generateVariants(storageKey, image, format) : List.of();
+
+                upload.advance(ImageUploadStatus.FINALIZING);
+                String imagePath = bookImageService.attachStagedImage(upload.bookId, content,
+                        upload.width, upload.height);
+                upload.complete(imagePath, variants);
+            }
+        } catch (ResponseStatusException e) {
+            upload.fail(e.getReason());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Image ingestion " + upload.id + " for book " + upload.bookId + " failed: " + e.getMessage());
+            upload.fail("Failed to process image: " + e.getMessage());
+        } finally {
+            deleteQuietly(received);
+        }
+    }
+
+    private static ImageFormat sniff(Path file) throws IOException {
+        byte[] header = new byte[SNIFF_BYTES];
+        int read;
+        try (InputStream input = Files.newInputStream(file)) {
+            read = input.readNBytes(header, 0, SNIFF_BYTES);
+        }
+        for (ImageFormat format : ImageFormat.values()) {
+            if (format.matches(header, read)) {
+                return format;
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Unsupported image format: expected PNG, JPEG, GIF or WebP");
+    }
+
+    /**
+     * Проверяет размеры по заголовку (до распаковки пикселей, чтобы не раздувать память) и декодирует изображение.
+     * Возвращает null для формата без ридера в ImageIO (WebP): такой файл принимается без уменьшенных копий.
+     */
+    private BufferedImage decode(Path file, ImageFormat format, ImageUpload upload) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                if (format == ImageFormat.WEBP) {
+                    return null;
+                }
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Image file is corrupted or cannot be decoded");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                upload.width = width;
+                upload.height = height;
+                if (width <= 0 || height <= 0 || width > maxWidth || height > maxHeight
+                        || (long) width * height > maxPixels) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Image dimensions " + width + "x" + height + " exceed the allowed limit");
+                }
+                return reader.read(0);
+            } catch (IOException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Image file is corrupted or cannot be decoded");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static SpooledContent hash(Path file, String extension) throws IOException {
+        MessageDigest digest = newDigest();
+        try (DigestInputStream input = new DigestInputStream(Files.newInputStream(file), digest)) {
+            input.transferTo(OutputStream.nullOutputStream());
+        }
+        return new SpooledContent(file, HexFormat.of().formatHex(digest.digest()), Files.size(file), extension);
+    }
+
+    private List<String> generateVariants(String storageKey, BufferedImage image, ImageFormat format) throws IOException {
+        // JPEG уменьшаем в JPEG, остальные форматы - в PNG, чтобы не потерять прозрачность
+        boolean jpeg = format == ImageFormat.JPEG;
+        String extension = jpeg ? ".jpg" : ".png";
+
+        List<String> variants = new ArrayList<>();
+        for (int width : Arrays.stream(variantWidths).distinct().sorted().toArray()) {
+            if (width <= 0 || width >= image.getWidth()) {
+                continue;
+            }
+            String variantKey = ContentAddressedStore.variantKey(storageKey, width, extension);
+            if (!storageBackend.exists(StorageArea.IMAGES, variantKey)) {
+                int height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+                BufferedImage scaled = new BufferedImage(width, height, jpeg ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+                Graphics2D graphics = scaled.createGraphics();
+                try {
+                    graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                    graphics.drawImage(image, 0, 0, width, height, null);
+                } finally {
+                    graphics.dispose();
+                }
+
+                Path variantFile = Files.createTempFile("image-variant-", extension);
+                try {
+                    ImageIO.write(scaled, jpeg ? "jpg" : "png", variantFile.toFile());
+                    storageBackend.put(StorageArea.IMAGES, variantKey, variantFile);
+                } finally {
+                    deleteQuietly(variantFile);
+                }
+            }
+            variants.add(variantKey);
+        }
+        return variants;
+    }
+
+    private void evictExpired() {
+        Instant cutoff = Instant.now().minus(statusTtl);
+        uploads.values().removeIf(upload -> upload.isFinished() && upload.updatedAt.isBefore(cutoff));
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Failed to delete temporary file " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private enum ImageFormat {
+        PNG(".png", "image/png") {
+            @Override
+            boolean matches(byte[] header, int length) {
+                return startsWith(header, length, 0, new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+            }
+        },
+        JPEG(".jpg", "image/jpeg") {
+            @Override
+            boolean matches(byte[] header, int length) {
+                return startsWith(header, length, 0, new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF});
+            }
+        },
+        GIF(".gif", "image/gif") {
+            @Override
+            boolean matches(byte[] header, int length) {
+                return startsWith(header, length, 0, "GIF87a".getBytes(StandardCharsets.US_ASCII))
+                        || startsWith(header, length, 0, "GIF89a".getBytes(StandardCharsets.US_ASCII));
+            }
+        },
+        WEBP(".webp", "image/webp") {
+            @Override
+            boolean matches(byte[] header, int length) {
+                return startsWith(header, length, 0, "RIFF".getBytes(StandardCharsets.US_ASCII))
+                        && startsWith(header, length, 8, "WEBP".getBytes(StandardCharsets.US_ASCII));
+            }
+        };
+
+        private final String extension;
+        private final String contentType;
+
+        ImageFormat(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        abstract boolean matches(byte[] header, int length);
+
+        private static boolean startsWith(byte[] header, int length, int offset, byte[] magic) {
+            if (length < offset + magic.length) {
+                return false;
+            }
+            return Arrays.equals(header, offset, offset + magic.length, magic, 0, magic.length);
+        }
+    }
+
+    private static final class ImageUpload {
+
+        private final String id;
+        private final Long bookId;
+        private final Instant createdAt = Instant.now();
+        private volatile ImageUploadStatus status = ImageUploadStatus.QUEUED;
+        private volatile Instant updatedAt = createdAt;
+        private volatile String contentType;
+        private volatile Integer width;
+        private volatile Integer height;
+        private volatile String sha256;
+        private volatile String imagePath;
+        private volatile List<String> variants = List.of();
+        private volatile String error;
+
+        private ImageUpload(String id, Long bookId) {
+            this.id = id;
+            this.bookId = bookId;
+        }
+
+        private void advance(ImageUploadStatus next) {
+            status = next;
+            updatedAt = Instant.now();
+        }
+
+        private void complete(String imagePath, List<String> variants) {
+            this.imagePath = imagePath;
+            this.variants = List.copyOf(variants);
+            advance(ImageUploadStatus.COMPLETED);
+        }
+
+        private void fail(String error) {
+            this.error = error;
+            advance(ImageUploadStatus.FAILED);
+        }
+
+        private boolean isFinished() {
+            return status == ImageUploadStatus.COMPLETED || status == ImageUploadStatus.FAILED;
+        }
+
+        private ImageUploadResponse toResponse() {
+            return ImageUploadResponse.builder()
+                    .uploadId(id)
+                    .bookId(bookId)
+                    .status(status)
+                    .imagePath(imagePath)
+                    .sha256(sha256)
+                    .contentType(contentType)
+                    .width(width)
+                    .height(height)
+                    .variants(variants)
+                    .error(error)
+                    .createdAt(createdAt)
+                    .updatedAt(updatedAt)
+                    .build();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package online.ityura.springdigitallibrary.service;
 
+import online.ityura.springdigitallibrary.cache.ChangeNotificationPublisher;
+import online.ityura.springdigitallibrary.cache.ChangedEntity;
 import online.ityura.springdigitallibrary.dto.request.CreateRatingRequest;
 import online.ityura.springdigitallibrary.dto.request.UpdateRatingRequest;
 import online.ityura.springdigitallibrary.dto.response.RatingResponse;
@@ -30,6 +32,9 @@ public class RatingService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ChangeNotificationPublisher changeNotificationPublisher;
+    
     @Transactional
     public RatingResponse createRating(Long bookId, Long userId, CreateRatingRequest request) {
         Book book = bookRepository.findById(bookId)
@@ -88,6 +93,8 @@ public class RatingService {
         book.setRatingCount((int) count);
         
         bookRepository.save(book);
+        // Другие поды сбросят книгу из своих кэшей после коммита
+        changeNotificationPublisher.publish(ChangedEntity.BOOK, bookId);
     }
     
     private RatingResponse mapToRatingResponse(Rating rating) {
@@ -67,11 +67,13 @@ public class ReviewService {
         return mapToReviewResponse(review);
     }
     
+    @Transactional(readOnly = true)
     public Page<ReviewResponse> getReviewsByBookId(Long bookId, Pageable pageable) {
         return reviewRepository.findByBookIdOrderByCreatedAtDesc(bookId, pageable)
                 .map(this::mapToReviewResponse);
     }
     
+    @Transactional(readOnly = true)
     public ReviewResponse getMyReview(Long bookId, Long userId) {
         Review review = reviewRepository.findByBookIdAndUserId(bookId, userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, 
@@ -79,6 +81,7 @@ public class ReviewService {
         return mapToReviewResponse(review);
     }
     
+    @Transactional(readOnly = true)
     public Page<ReviewResponse> getMyReviews(Long userId, Pageable pageable) {
         return reviewRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable)
                 .map(this::mapToReviewResponse);
@@ -0,0 +1,284 @@
+package online.ityura.springdigitallibrary.storage;
+
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.repository.ContentBlobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Контентно-адресуемое хранилище обложек и PDF.
+ * Объект хранится один раз под ключом из SHA-256 своего содержимого с шардированием
+ * (ab/cd/abcd...ext), а таблица content_blobs ведет счетчик ссылок из книг.
+ * Когда счетчик падает до нуля, строка и объект удаляются после коммита транзакции, освободившей ссылку.
+ * Сами байты лежат в {@link StorageBackend}.
+ */
+@Service
+public class ContentAddressedStore {
+
+    private static final Pattern SHA256_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+    private static final Pattern EXTENSION_PATTERN = Pattern.compile("^\\.[a-z0-9]{1,10}$");
+
+    @Autowired
+    private ContentBlobRepository contentBlobRepository;
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StoredFileService storedFileService;
+
+    /**
+     * Сохраняет содержимое потока и добавляет на него ссылку.
+     * Если такие же байты уже есть в хранилище, новый файл не создается.
+     */
+    @Transactional
+    public ContentBlob store(StorageArea area, InputStream input, String extension) throws IOException {
+        try (SpooledContent content = spool(input, extension)) {
+            return store(area, content);
+        }
+    }
+
+    /**
+     * Добавляет ссылку на заранее принятое содержимое и при необходимости переносит его в хранилище.
+     */
+    @Transactional
+    public ContentBlob store(StorageArea area, SpooledContent content) throws IOException {
+        return reference(area, content, true, null, null);
+    }
+
+    /**
+     * Копирует принятое содержимое в хранилище по его ключу без транзакции и без ссылки.
+     * Ссылку затем добавляет короткая транзакция {@link #attachStaged}; до нее объект защищен от сборщика мусора
+     * сроком хранения свежих файлов. Локальная копия остается до закрытия content: если объект удалят раньше,
+     * чем на него сошлются, attachStaged запишет его из нее заново.
+     */
+    public String stage(StorageArea area, SpooledContent content) throws IOException {
+        String storageKey = blobKey(content.sha256(), content.extension());
+        if (!storageBackend.exists(area, storageKey)) {
+            // Поток, а не put(Path): файловое хранилище перенесло бы локальную копию
+            try (InputStream input = Files.newInputStream(content.file())) {
+                storageBackend.put(area, storageKey, input, content.byteLength());
+            }
+        }
+        return storageKey;
+    }
+
+    /**
+     * Добавляет ссылку на содержимое, заранее скопированное {@link #stage}. Байты записываются повторно
+     * из локальной копии, только если объект успели удалить (например, сборщик мусора забрал старую строку
+     * без ссылок с тем же хэшем).
+     */
+    @Transactional
+    public ContentBlob attachStaged(StorageArea area, SpooledContent content) throws IOException {
+        return attachStaged(area, content, null, null);
+    }
+
+    /**
+     * То же, что {@link #attachStaged(StorageArea, SpooledContent)}, с размерами изображения, прочитанными заранее:
+     * разбирать изображение внутри короткой транзакции с блокировкой незачем.
+     */
+    @Transactional
+    public ContentBlob attachStaged(StorageArea area, SpooledContent content, Integer width, Integer height)
+            throws IOException {
+        return reference(area, content, false, width, height);
+    }
+
+    private ContentBlob reference(StorageArea area, SpooledContent content, boolean writeFirstReference,
+                                  Integer width, Integer height) throws IOException {
+        String storageKey = blobKey(content.sha256(), content.extension());
+
+        int refCount = contentBlobRepository.upsertReference(area.name(), content.sha256(), content.byteLength(), storageKey);
+        ContentBlob blob = contentBlobRepository.findByAreaAndSha256(area, content.sha256())
+                .orElseThrow(() -> new IllegalStateException("Content blob disappeared: " + content.sha256()));
+
+        if (writeFirstReference) {
+            // Метаданные снимаем с локальной копии, пока она не перенесена в хранилище
+            storedFileService.record(area, blob.getStorageKey(), content.file(), content.sha256(), content.byteLength());
+        } else {
+            // Размеры уже прочитаны вызывающим вне транзакции
+            storedFileService.record(area, blob.getStorageKey(), content.sha256(), content.byteLength(), width, height);
+        }
+
+        if ((writeFirstReference && refCount == 1) || !storageBackend.exists(area, blob.getStorageKey())) {
+            // Первая ссылка - записываем байты в хранилище
+            storageBackend.put(area, blob.getStorageKey(), content.file());
+        }
+        return blob;
+    }
+
+    /**
+     * Принимает поток во временный файл, считая SHA-256 и размер на лету. Память не зависит от размера потока,
+     * транзакция и соединение с БД не нужны. Вызывающий закрывает результат.
+     */
+    public SpooledContent spool(InputStream input, String extension) throws IOException {
+        Path tempFile = Files.createTempFile("cas-", ".part");
+
+        try {
+            // Считаем хэш одновременно с записью во временный файл, без повторного чтения
+            MessageDigest digest = newDigest();
+            long byteLength;
+            try (DigestInputStream digestInput = new DigestInputStream(input, digest)) {
+                byteLength = Files.copy(digestInput, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            return new SpooledContent(tempFile, sha256, byteLength, normalizeExtension(extension));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Добавляет ссылку на уже сохраненное содержимое по его хэшу, без повторной загрузки байтов.
+     */
+    @Transactional
+    public ContentBlob addReference(StorageArea area, String sha256) {
+        ContentBlob blob = find(area, sha256)
+                .filter(found -> storageBackend.exists(area, found.getStorageKey()))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "Content not found with sha256: " + sha256));
+
+        Integer refCount = contentBlobRepository.incrementRefCount(blob.getId());
+        if (refCount == null) {
+            // Объект удалили между поиском и увеличением счетчика
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Content not found with sha256: " + sha256);
+        }
+        // Новое значение счетчика отдаем в отсоединенной копии, чтобы flush не записал его поверх значения в БД
+        return ContentBlob.builder()
+                .id(blob.getId())
+                .area(blob.getArea())
+                .sha256(blob.getSha256())
+                .byteLength(blob.getByteLength())
+                .refCount(refCount)
+                .storageKey(blob.getStorageKey())
+                .createdAt(blob.getCreatedAt())
+                .build();
+    }
+
+    public Optional<ContentBlob> find(StorageArea area, String sha256) {
+        String normalized = sha256 != null ? sha256.toLowerCase(Locale.ROOT) : "";
+        if (!SHA256_PATTERN.matcher(normalized).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Invalid sha256 value: " + sha256);
+        }
+        return contentBlobRepository.findByAreaAndSha256(area, normalized);
+    }
+
+    /**
+     * Освобождает ссылку на объект. Ключи, которые не принадлежат хранилищу (файлы, сохраненные
+     * до его появления), игнорируются.
+     */
+    @Transactional
+    public void release(StorageArea area, String storageKey) {
+        if (storageKey == null || storageKey.isEmpty()) {
+            return;
+        }
+
+        Optional<ContentBlob> blob = contentBlobRepository.findByAreaAndStorageKey(area, storageKey);
+        if (blob.isEmpty()) {
+            return;
+        }
+
+        Long blobId = blob.get().getId();
+        contentBlobRepository.decrementRefCount(blobId);
+
+        // Удалять объект можно только после коммита: при откате ссылка должна остаться рабочей
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    purgeIfUnreferenced(blobId);
+                }
+            });
+        } else {
+            purgeIfUnreferenced(blobId);
+        }
+    }
+
+    public static String blobKey(String sha256, String extension) {
+        return sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256 + extension;
+    }
+
+    /**
+     * Ключ уменьшенной копии изображения: лежит рядом с оригиналом, например ab/cd/&lt;sha256&gt;_w320.jpg.
+     */
+    public static String variantKey(String storageKey, int width, String extension) {
+        int dot = storageKey.lastIndexOf('.');
+        String stem = dot > storageKey.lastIndexOf('/') ? storageKey.substring(0, dot) : storageKey;
+        return stem + "_w" + width + extension;
+    }
+
+    public static String extensionOf(String filename) {
+        if (filename == null || !filename.contains(".")) {
+            return "";
+        }
+        return normalizeExtension(filename.substring(filename.lastIndexOf(".")));
+    }
+
+    private static String normalizeExtension(String extension) {
+        if (extension == null) {
+            return "";
+        }
+        String normalized = extension.toLowerCase(Locale.ROOT);
+        return EXTENSION_PATTERN.matcher(normalized).matches() ? normalized : "";
+    }
+
+    /**
+     * Удаляет строку и объект, если на содержимое не осталось ссылок. Возвращает true, если объект удален.
+     */
+    public boolean purgeIfUnreferenced(Long blobId) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Boolean purged = transactionTemplate.execute(status -> {
+            // Блокировка строки не дает параллельной загрузке тех же байтов сослаться на удаляемый объект
+            Optional<ContentBlob> unreferenced = contentBlobRepository.findByIdForUpdate(blobId)
+                    .filter(blob -> blob.getRefCount() <= 0);
+            if (unreferenced.isEmpty()) {
+                return false;
+            }
+            ContentBlob blob = unreferenced.get();
+            contentBlobRepository.delete(blob);
+            storedFileService.forget(blob.getArea(), blob.getStorageKey());
+            try {
+                storageBackend.delete(blob.getArea(), blob.getStorageKey());
+            } catch (IOException e) {
+                System.err.println("Failed to delete unreferenced blob " + blob.getSha256() + ": " + e.getMessage());
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(purged);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
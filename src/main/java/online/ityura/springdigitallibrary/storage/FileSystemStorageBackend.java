@@ -0,0 +1,179 @@
+package online.ityura.springdigitallibrary.storage;
+
+import online.ityura.springdigitallibrary.model.StorageArea;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище в локальной файловой системе (или на общем томе, смонтированном во все поды).
+ * Корни областей задаются app.images.storage-path и app.pdf.storage-path.
+ * Абсолютные пути, записанные в БД до появления ключей, разрешаются как есть.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemStorageBackend implements StorageBackend {
+
+    private static final String TEMP_DIR = ".tmp";
+
+    private final Path imagesRoot;
+    private final Path pdfRoot;
+
+    public FileSystemStorageBackend(@Value("${app.images.storage-path}") String imagesStoragePath,
+                                    @Value("${app.pdf.storage-path}") String pdfStoragePath) {
+        this.imagesRoot = Paths.get(imagesStoragePath).toAbsolutePath().normalize();
+        this.pdfRoot = Paths.get(pdfStoragePath).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void put(StorageArea area, String key, InputStream input, long contentLength) throws IOException {
+        Path tempFile = createTempFile(area);
+        try {
+            Files.copy(input, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            moveIntoPlace(tempFile, resolve(area, key));
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public void put(StorageArea area, String key, Path source) throws IOException {
+        // Сначала переносим во временную директорию области (та же ФС), затем атомарно на место
+        Path tempFile = createTempFile(area);
+        try {
+            Files.move(source, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            moveIntoPlace(tempFile, resolve(area, key));
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public InputStream get(StorageArea area, String key) throws IOException {
+        return Files.newInputStream(resolve(area, key));
+    }
+
+    @Override
+    public InputStream getRange(StorageArea area, String key, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(area, key), StandardOpenOption.READ);
+        try {
+            channel.position(offset);
+            return new BoundedInputStream(Channels.newInputStream(channel), length);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean exists(StorageArea area, String key) {
+        try {
+            return Files.isRegularFile(resolve(area, key));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public long contentLength(StorageArea area, String key) throws IOException {
+        return Files.size(resolve(area, key));
+    }
+
+    @Override
+    public Instant lastModified(StorageArea area, String key) throws IOException {
+        return Files.getLastModifiedTime(resolve(area, key)).toInstant();
+    }
+
+    @Override
+    public void delete(StorageArea area, String key) throws IOException {
+        Files.deleteIfExists(resolve(area, key));
+    }
+
+    @Override
+    public Stream<String> list(StorageArea area) throws IOException {
+        Path root = getRoot(area);
+        if (!Files.isDirectory(root)) {
+            return Stream.empty();
+        }
+        Path tempDir = root.resolve(TEMP_DIR);
+        return Files.walk(root)
+                .filter(Files::isRegularFile)
+                .filter(path -> !path.startsWith(tempDir))
+                .map(path -> root.relativize(path).toString().replace('\\', '/'));
+    }
+
+    @Override
+    public Resource getResource(StorageArea area, String key) {
+        try {
+            return new FileSystemResource(resolve(area, key));
+        } catch (IOException e) {
+            return new StorageResource(this, area, key);
+        }
+    }
+
+    public Path getRoot(StorageArea area) {
+        return area == StorageArea.PDFS ? pdfRoot : imagesRoot;
+    }
+
+    /**
+     * Приводит значение из БД к ключу относительно корня области: абсолютные пути старых файлов
+     * внутри корня становятся относительными. Возвращает null, если путь лежит вне корня.
+     */
+    public String relativeKey(StorageArea area, String key) {
+        Path keyPath = Paths.get(key);
+        if (!keyPath.isAbsolute()) {
+            return key.replace('\\', '/');
+        }
+        Path root = getRoot(area);
+        Path path = keyPath.normalize();
+        if (!path.startsWith(root)) {
+            return null;
+        }
+        return root.relativize(path).toString().replace('\\', '/');
+    }
+
+    /**
+     * Разрешает ключ в путь внутри корня области. Относительные ключи не могут выходить за корень.
+     */
+    public Path resolve(StorageArea area, String key) throws IOException {
+        if (key == null || key.isEmpty()) {
+            throw new IOException("Storage key is empty");
+        }
+        Path keyPath = Paths.get(key);
+        if (keyPath.isAbsolute()) {
+            // Файл, сохраненный до перехода на ключи
+            return keyPath;
+        }
+        Path root = getRoot(area);
+        Path resolved = root.resolve(keyPath).normalize();
+        if (!resolved.startsWith(root)) {
+            throw new IOException("Storage key points outside of storage root: " + key);
+        }
+        return resolved;
+    }
+
+    private Path createTempFile(StorageArea area) throws IOException {
+        Path tempDir = getRoot(area).resolve(TEMP_DIR);
+        Files.createDirectories(tempDir);
+        return Files.createTempFile(tempDir, "put-", ".part");
+    }
+
+    private void moveIntoPlace(Path tempFile, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,107 @@
+package online.ityura.springdigitallibrary.storage;
+
+import online.ityura.springdigitallibrary.model.StorageArea;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+/**
+ * Режим отдачи файлов через фронт-прокси.
+ * Приложение только проверяет доступ и находит ключ объекта, а байты отдает nginx
+ * (X-Accel-Redirect на internal location) или Apache/lighttpd (X-Sendfile с абсолютным путем).
+ * Если объект нельзя отдать через прокси, {@link #resolve} возвращает null и файл отдается как раньше.
+ */
+@Component
+public class InternalRedirect {
+
+    public static final String X_ACCEL_REDIRECT = "X-Accel-Redirect";
+    public static final String X_SENDFILE = "X-Sendfile";
+
+    private final StorageBackend storageBackend;
+    private final boolean enabled;
+    private final String headerName;
+    private final String imagesLocation;
+    private final String pdfLocation;
+
+    public InternalRedirect(StorageBackend storageBackend,
+                            @Value("${app.storage.accel.enabled:false}") boolean enabled,
+                            @Value("${app.storage.accel.header:X-Accel-Redirect}") String headerName,
+                            @Value("${app.storage.accel.images-location:/internal/images/}") String imagesLocation,
+                            @Value("${app.storage.accel.pdf-location:/internal/pdf/}") String pdfLocation) {
+        if (!X_ACCEL_REDIRECT.equalsIgnoreCase(headerName) && !X_SENDFILE.equalsIgnoreCase(headerName)) {
+            throw new IllegalArgumentException("Unsupported app.storage.accel.header: " + headerName
+                    + " (expected " + X_ACCEL_REDIRECT + " or " + X_SENDFILE + ")");
+        }
+        this.storageBackend = storageBackend;
+        this.enabled = enabled;
+        this.headerName = X_SENDFILE.equalsIgnoreCase(headerName) ? X_SENDFILE : X_ACCEL_REDIRECT;
+        this.imagesLocation = withTrailingSlash(imagesLocation);
+        this.pdfLocation = withTrailingSlash(pdfLocation);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getHeaderName() {
+        return headerName;
+    }
+
+    /**
+     * Возвращает значение заголовка для объекта или null, если его нужно отдать из приложения.
+     */
+    public String resolve(StorageArea area, String key) {
+        if (!enabled || key == null || key.isEmpty()) {
+            return null;
+        }
+        return X_SENDFILE.equals(headerName) ? sendfilePath(area, key) : accelLocation(area, key);
+    }
+
+    private String accelLocation(StorageArea area, String key) {
+        String relativeKey = key;
+        if (Paths.get(key).isAbsolute()) {
+            // Файл, сохраненный до перехода на ключи: через прокси отдаем, только если он внутри корня области
+            if (!(storageBackend instanceof FileSystemStorageBackend fileSystemBackend)) {
+                return null;
+            }
+            relativeKey = fileSystemBackend.relativeKey(area, key);
+            if (relativeKey == null) {
+                return null;
+            }
+        }
+
+        String location = area == StorageArea.PDFS ? pdfLocation : imagesLocation;
+        StringBuilder uri = new StringBuilder(location);
+        String[] segments = relativeKey.split("/");
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].isEmpty() || segments[i].equals(".") || segments[i].equals("..")) {
+                return null;
+            }
+            if (i > 0) {
+                uri.append('/');
+            }
+            uri.append(URLEncoder.encode(segments[i], StandardCharsets.UTF_8).replace("+", "%20"));
+        }
+        return uri.toString();
+    }
+
+    private String sendfilePath(StorageArea area, String key) {
+        // X-Sendfile работает с путями на диске, для объектного хранилища отдаем файл сами
+        if (!(storageBackend instanceof FileSystemStorageBackend fileSystemBackend)) {
+            return null;
+        }
+        try {
+            return fileSystemBackend.resolve(area, key).toString();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String withTrailingSlash(String location) {
+        return location.endsWith("/") ? location : location + "/";
+    }
+}
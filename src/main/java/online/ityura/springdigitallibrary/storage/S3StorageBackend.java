@@ -0,0 +1,182 @@
+package online.ityura.springdigitallibrary.storage;
+
+import jakarta.annotation.PostConstruct;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище в S3-совместимом объектном хранилище (AWS S3, MinIO).
+ * Все поды работают с одним бакетом, поэтому загруженный файл сразу доступен везде.
+ * Объекты области лежат под префиксом images/ или pdfs/.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "s3")
+public class S3StorageBackend implements StorageBackend {
+
+    private final S3Client s3Client;
+    private final String bucket;
+    private final boolean createBucket;
+
+    public S3StorageBackend(S3Client s3Client,
+                            @Value("${app.storage.s3.bucket}") String bucket,
+                            @Value("${app.storage.s3.create-bucket:false}") boolean createBucket) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.createBucket = createBucket;
+    }
+
+    @PostConstruct
+    public void ensureBucket() {
+        if (!createBucket) {
+            return;
+        }
+        try {
+            s3Client.headBucket(HeadBucketRequest.builder().bucket(bucket).build());
+        } catch (NoSuchBucketException e) {
+            s3Client.createBucket(CreateBucketRequest.builder().bucket(bucket).build());
+            System.out.println("Created storage bucket: " + bucket);
+        }
+    }
+
+    @Override
+    public void put(StorageArea area, String key, InputStream input, long contentLength) throws IOException {
+        try {
+            // Объект становится видимым только после успешного завершения загрузки
+            s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(bucket)
+                            .key(objectKey(area, key))
+                            .contentLength(contentLength)
+                            .build(),
+                    RequestBody.fromInputStream(input, contentLength));
+        } catch (SdkException e) {
+            throw new IOException("Failed to put object " + objectKey(area, key) + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public InputStream get(StorageArea area, String key) throws IOException {
+        return getObject(GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(objectKey(area, key))
+                .build());
+    }
+
+    @Override
+    public InputStream getRange(StorageArea area, String key, long offset, long length) throws IOException {
+        return getObject(GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(objectKey(area, key))
+                .range("bytes=" + offset + "-" + (offset + length - 1))
+                .build());
+    }
+
+    @Override
+    public boolean exists(StorageArea area, String key) {
+        try {
+            contentLength(area, key);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public long contentLength(StorageArea area, String key) throws IOException {
+        return head(area, key).contentLength();
+    }
+
+    @Override
+    public Instant lastModified(StorageArea area, String key) throws IOException {
+        return head(area, key).lastModified();
+    }
+
+    @Override
+    public void delete(StorageArea area, String key) throws IOException {
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey(area, key))
+                    .build());
+        } catch (SdkException e) {
+            throw new IOException("Failed to delete object " + objectKey(area, key) + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Stream<String> list(StorageArea area) throws IOException {
+        String prefix = areaPrefix(area);
+        try {
+            return s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                            .bucket(bucket)
+                            .prefix(prefix)
+                            .build())
+                    .contents()
+                    .stream()
+                    .map(S3Object::key)
+                    .map(objectKey -> objectKey.substring(prefix.length()));
+        } catch (SdkException e) {
+            throw new IOException("Failed to list objects under " + prefix + ": " + e.getMessage(), e);
+        }
+    }
+
+    private InputStream getObject(GetObjectRequest request) throws IOException {
+        try {
+            return s3Client.getObject(request);
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(request.key());
+        } catch (SdkException e) {
+            throw new IOException("Failed to get object " + request.key() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private HeadObjectResponse head(StorageArea area, String key) throws IOException {
+        try {
+            return s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucket)
+                    .key(objectKey(area, key))
+                    .build());
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(objectKey(area, key));
+        } catch (S3Exception e) {
+            // HEAD не возвращает тело ошибки, поэтому отсутствие объекта приходит как 404 без кода
+            if (e.statusCode() == 404) {
+                throw new NoSuchFileException(objectKey(area, key));
+            }
+            throw new IOException("Failed to stat object " + objectKey(area, key) + ": " + e.getMessage(), e);
+        } catch (SdkException e) {
+            throw new IOException("Failed to stat object " + objectKey(area, key) + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String areaPrefix(StorageArea area) {
+        return area.name().toLowerCase(Locale.ROOT) + "/";
+    }
+
+    private static String objectKey(StorageArea area, String key) {
+        return areaPrefix(area) + key;
+    }
+}
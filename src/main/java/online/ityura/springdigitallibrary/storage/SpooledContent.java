@@ -0,0 +1,18 @@
+package online.ityura.springdigitallibrary.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Содержимое, уже записанное во временный файл, вместе с его SHA-256 и размером.
+ * Позволяет принять большой поток вне транзакции и затем коротко зарегистрировать его в хранилище.
+ * Временный файл удаляется при закрытии (если хранилище не забрало его раньше).
+ */
+public record SpooledContent(Path file, String sha256, long byteLength, String extension) implements AutoCloseable {
+
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
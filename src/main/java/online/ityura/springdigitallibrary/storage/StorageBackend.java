@@ -0,0 +1,62 @@
+package online.ityura.springdigitallibrary.storage;
+
+import online.ityura.springdigitallibrary.model.StorageArea;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище байтов обложек и PDF.
+ * Объекты адресуются парой (область, ключ); ключ - относительный путь вида ab/cd/abcd...ext,
+ * который хранится в БД (books.image_path, books.pdf_path, content_blobs.storage_key).
+ * Отсутствующий объект сигнализируется через {@link java.nio.file.NoSuchFileException}.
+ */
+public interface StorageBackend {
+
+    /**
+     * Потоково записывает объект. Запись атомарна: читатели видят либо старую версию, либо новую целиком.
+     */
+    void put(StorageArea area, String key, InputStream input, long contentLength) throws IOException;
+
+    /**
+     * Записывает объект из локального файла. Реализации могут перемещать файл вместо копирования,
+     * поэтому после вызова source может больше не существовать.
+     */
+    default void put(StorageArea area, String key, Path source) throws IOException {
+        try (InputStream input = Files.newInputStream(source)) {
+            put(area, key, input, Files.size(source));
+        }
+    }
+
+    InputStream get(StorageArea area, String key) throws IOException;
+
+    /**
+     * Читает length байт начиная с offset (для HTTP Range запросов).
+     */
+    InputStream getRange(StorageArea area, String key, long offset, long length) throws IOException;
+
+    boolean exists(StorageArea area, String key);
+
+    long contentLength(StorageArea area, String key) throws IOException;
+
+    /**
+     * Время последней записи объекта (для политики хранения при сборке мусора).
+     */
+    Instant lastModified(StorageArea area, String key) throws IOException;
+
+    void delete(StorageArea area, String key) throws IOException;
+
+    /**
+     * Ключи всех объектов области. Поток нужно закрыть после использования.
+     */
+    Stream<String> list(StorageArea area) throws IOException;
+
+    default Resource getResource(StorageArea area, String key) {
+        return new StorageResource(this, area, key);
+    }
+}
@@ -0,0 +1,302 @@
+package online.ityura.springdigitallibrary.storage;
+
+import online.ityura.springdigitallibrary.dto.response.StorageGcReportResponse;
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.repository.BookRepository;
+import online.ityura.springdigitallibrary.repository.ContentBlobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Фоновая сборка мусора в хранилище обложек и PDF.
+ * Сравнивает объекты хранилища со ссылками из books.image_path / books.pdf_path и content_blobs
+ * и удаляет объекты без ссылок: файлы удаленных книг и старые версии обложек вида name_&lt;timestamp&gt;.ext.
+ * Уменьшенные копии обложек (&lt;sha256&gt;_w&lt;ширина&gt;.ext) живут, пока жив их оригинал.
+ * Объекты моложе app.storage.gc.retention не трогаются: так не удаляется файл, транзакция загрузки которого
+ * еще не закоммичена. Удаление идет пачками с паузой, чтобы не нагружать диск.
+ */
+@Service
+public class StorageGarbageCollector {
+
+    private static final Pattern SUPERSEDED_VERSION = Pattern.compile("^(.+)_(\\d{13})(\\.[^./]+)?$");
+
+    private static final Pattern IMAGE_VARIANT = Pattern.compile("^(.+)_w\\d+\\.(jpg|png)$");
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ContentBlobRepository contentBlobRepository;
+
+    @Autowired
+    private ContentAddressedStore contentAddressedStore;
+
+    @Autowired
+    private StoredFileService storedFileService;
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Value("${app.storage.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.storage.gc.dry-run:false}")
+    private boolean dryRun;
+
+    @Value("${app.storage.gc.retention:P7D}")
+    private Duration retention;
+
+    @Value("${app.storage.gc.keep-superseded:1}")
+    private int keepSuperseded;
+
+    @Value("${app.storage.gc.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.storage.gc.batch-pause:PT1S}")
+    private Duration batchPause;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile StorageGcReportResponse lastReport;
+
+    @Scheduled(initialDelayString = "${app.storage.gc.initial-delay:PT10M}",
+            fixedDelayString = "${app.storage.gc.interval:PT6H}")
+    public void scheduledRun() {
+        if (!enabled || running.get()) {
+            return;
+        }
+        try {
+            run(dryRun);
+        } catch (ResponseStatusException e) {
+            // Проход уже запущен вручную
+        } catch (RuntimeException e) {
+            System.err.println("Storage GC failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Выполняет один проход сборки мусора. В пробном режиме только считает, что было бы удалено.
+     */
+    public StorageGcReportResponse run(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Storage GC is already running");
+        }
+        try {
+            Instant startedAt = Instant.now();
+            Sweep sweep = new Sweep(dryRun, startedAt, startedAt.minus(retention));
+            purgeUnreferencedBlobs(sweep);
+            for (StorageArea area : StorageArea.values()) {
+                sweepArea(area, sweep);
+            }
+
+            StorageGcReportResponse report = sweep.toReport();
+            lastReport = report;
+            System.out.println("Storage GC finished: deleted=" + report.getDeletedObjects()
+                    + ", reclaimedBytes=" + report.getReclaimedBytes()
+                    + ", retained=" + report.getRetainedObjects()
+                    + ", failed=" + report.getFailedObjects()
+                    + (dryRun ? " (dry run)" : ""));
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public StorageGcReportResponse getLastReport() {
+        return lastReport;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private void purgeUnreferencedBlobs(Sweep sweep) {
+        // Строки без ссылок остаются, если удаление после коммита не удалось (например, упало приложение)
+        for (ContentBlob blob : contentBlobRepository.findUnreferenced()) {
+            sweep.handled.add(blob.getArea() + ":" + blob.getStorageKey());
+            if (sweep.dryRun || contentAddressedStore.purgeIfUnreferenced(blob.getId())) {
+                sweep.purgedBlobs++;
+                sweep.deleted++;
+                sweep.reclaimedBytes += blob.getByteLength();
+                pace(sweep);
+            }
+        }
+    }
+
+    private void sweepArea(StorageArea area, Sweep sweep) {
+        Set<String> referenced = referencedKeys(area);
+        Set<String> referencedStems = stems(referenced);
+        List<String> candidates = new ArrayList<>();
+        Map<String, List<String>> supersededVersions = new HashMap<>();
+
+        try (Stream<String> keys = storageBackend.list(area)) {
+            keys.forEach(key -> {
+                sweep.scanned++;
+                if (referenced.contains(key) || sweep.handled.contains(area + ":" + key)) {
+                    return;
+                }
+                Matcher variant = IMAGE_VARIANT.matcher(key);
+                if (variant.matches() && referencedStems.contains(variant.group(1))) {
+                    return;
+                }
+                Matcher matcher = SUPERSEDED_VERSION.matcher(key);
+                if (matcher.matches()) {
+                    String current = matcher.group(1) + (matcher.group(3) != null ? matcher.group(3) : "");
+                    if (referenced.contains(current)) {
+                        supersededVersions.computeIfAbsent(current, k -> new ArrayList<>()).add(key);
+                        return;
+                    }
+                }
+                candidates.add(key);
+            });
+        } catch (IOException e) {
+            System.err.println("Storage GC failed to list " + area + ": " + e.getMessage());
+            return;
+        }
+
+        // Из старых версий обложки оставляем keep-superseded самых новых
+        for (List<String> versions : supersededVersions.values()) {
+            versions.sort(Comparator.comparingLong(StorageGarbageCollector::versionTimestamp).reversed());
+            int keep = Math.min(Math.max(keepSuperseded, 0), versions.size());
+            sweep.retained += keep;
+            candidates.addAll(versions.subList(keep, versions.size()));
+        }
+
+        sweep.orphaned += candidates.size();
+        for (String key : candidates) {
+            collect(area, key, sweep);
+        }
+    }
+
+    private void collect(StorageArea area, String key, Sweep sweep) {
+        try {
+            if (storageBackend.lastModified(area, key).isAfter(sweep.cutoff)) {
+                sweep.retained++;
+                return;
+            }
+            // Ссылка могла появиться после составления списка
+            boolean referencedNow = contentBlobRepository.findByAreaAndStorageKey(area, key)
+                    .filter(blob -> blob.getRefCount() > 0)
+                    .isPresent();
+            if (referencedNow) {
+                return;
+            }
+
+            long size = storageBackend.contentLength(area, key);
+            if (!sweep.dryRun) {
+                storageBackend.delete(area, key);
+                storedFileService.forget(area, key);
+                pace(sweep);
+            }
+            sweep.deleted++;
+            sweep.reclaimedBytes += size;
+        } catch (NoSuchFileException e) {
+            // Объект уже удален параллельно
+        } catch (IOException e) {
+            sweep.failed++;
+            System.err.println("Storage GC failed to delete " + area + ":" + key + ": " + e.getMessage());
+        }
+    }
+
+    private Set<String> referencedKeys(StorageArea area) {
+        List<String> bookPaths = area == StorageArea.PDFS
+                ? bookRepository.findAllPdfPaths()
+                : bookRepository.findAllImagePaths();
+
+        Set<String> keys = new HashSet<>();
+        for (String path : bookPaths) {
+            // Абсолютные пути старых файлов приводим к виду, в котором их возвращает list()
+            String key = storageBackend instanceof FileSystemStorageBackend fileSystemBackend
+                    ? fileSystemBackend.relativeKey(area, path)
+                    : path;
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        keys.addAll(contentBlobRepository.findReferencedStorageKeys(area));
+        return keys;
+    }
+
+    private static Set<String> stems(Set<String> keys) {
+        Set<String> stems = new HashSet<>();
+        for (String key : keys) {
+            int dot = key.lastIndexOf('.');
+            stems.add(dot > key.lastIndexOf('/') ? key.substring(0, dot) : key);
+        }
+        return stems;
+    }
+
+    private void pace(Sweep sweep) {
+        if (++sweep.inBatch < batchSize || batchPause.isZero()) {
+            return;
+        }
+        sweep.inBatch = 0;
+        try {
+            Thread.sleep(batchPause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long versionTimestamp(String key) {
+        Matcher matcher = SUPERSEDED_VERSION.matcher(key);
+        return matcher.matches() ? Long.parseLong(matcher.group(2)) : 0L;
+    }
+
+    private static final class Sweep {
+        private final boolean dryRun;
+        private final Instant startedAt;
+        private final Instant cutoff;
+        private final Set<String> handled = new HashSet<>();
+        private long scanned;
+        private long orphaned;
+        private long retained;
+        private long deleted;
+        private long reclaimedBytes;
+        private long purgedBlobs;
+        private long failed;
+        private int inBatch;
+
+        private Sweep(boolean dryRun, Instant startedAt, Instant cutoff) {
+            this.dryRun = dryRun;
+            this.startedAt = startedAt;
+            this.cutoff = cutoff;
+        }
+
+        private StorageGcReportResponse toReport() {
+            return StorageGcReportResponse.builder()
+                    .dryRun(dryRun)
+                    .startedAt(startedAt)
+                    .finishedAt(Instant.now())
+                    .scannedObjects(scanned)
+                    .orphanedObjects(orphaned)
+                    .retainedObjects(retained)
+                    .deletedObjects(deleted)
+                    .reclaimedBytes(reclaimedBytes)
+                    .purgedBlobs(purgedBlobs)
+                    .failedObjects(failed)
+                    .build();
+        }
+    }
+}
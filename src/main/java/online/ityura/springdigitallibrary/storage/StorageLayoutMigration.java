@@ -0,0 +1,235 @@
+package online.ityura.springdigitallibrary.storage;
+
+import online.ityura.springdigitallibrary.cache.ImageByteCache;
+import online.ityura.springdigitallibrary.dto.response.StorageLayoutMigrationResponse;
+import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Фоновый перенос старых файлов из плоских каталогов app.images.storage-path / app.pdf.storage-path
+ * в шардированную структуру ab/cd/&lt;sha256&gt;.ext контентно-адресуемого хранилища.
+ * Новые файлы сразу сохраняются в этой структуре, переносить нужно только пути, записанные до ее появления.
+ * <p>
+ * Перенос идет без остановки приложения: файл копируется в новый ключ, затем путь в books меняется
+ * короткой транзакцией под блокировкой строки. Старый файл остается на месте, поэтому запросы,
+ * успевшие прочитать старый путь, продолжают работать; его удалит сборщик мусора после срока хранения.
+ */
+@Service
+public class StorageLayoutMigration {
+
+    private static final Pattern SHARDED_KEY = Pattern.compile("^[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}(\\.[a-z0-9]{1,10})?$");
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ContentAddressedStore contentAddressedStore;
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Autowired
+    private ImageByteCache imageByteCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.storage.layout-migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.storage.layout-migration.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.storage.layout-migration.batch-pause:PT1S}")
+    private Duration batchPause;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile boolean completed;
+
+    private volatile StorageLayoutMigrationResponse lastReport;
+
+    @Scheduled(initialDelayString = "${app.storage.layout-migration.initial-delay:PT2M}",
+            fixedDelayString = "${app.storage.layout-migration.interval:PT1H}")
+    public void scheduledRun() {
+        // После полного прохода новые плоские пути не появляются, повторять проверку до перезапуска не нужно
+        if (!enabled || completed || running.get()) {
+            return;
+        }
+        try {
+            migrate();
+        } catch (ResponseStatusException e) {
+            // Проход уже запущен вручную
+        } catch (RuntimeException e) {
+            System.err.println("Storage layout migration failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Выполняет один проход переноса по всем книгам.
+     */
+    public StorageLayoutMigrationResponse migrate() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Storage layout migration is already running");
+        }
+        try {
+            Pass pass = new Pass(Instant.now());
+            Long afterId = 0L;
+            List<Book> batch;
+            do {
+                // Книги читаем страницами по id, чтобы не держать всю таблицу в памяти
+                batch = bookRepository.findBatchAfter(afterId, PageRequest.of(0, Math.max(batchSize, 1)));
+                for (Book book : batch) {
+                    pass.scannedBooks++;
+                    migrateFile(book, StorageArea.IMAGES, pass);
+                    migrateFile(book, StorageArea.PDFS, pass);
+                    afterId = book.getId();
+                }
+                pause(pass);
+            } while (!batch.isEmpty());
+
+            StorageLayoutMigrationResponse report = pass.toReport();
+            lastReport = report;
+            completed = report.getComplete();
+            System.out.println("Storage layout migration finished: migrated=" + report.getMigratedFiles()
+                    + ", alreadySharded=" + report.getAlreadyShardedFiles()
+                    + ", missing=" + report.getMissingFiles()
+                    + ", skipped=" + report.getSkippedFiles()
+                    + ", failed=" + report.getFailedFiles());
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public StorageLayoutMigrationResponse getLastReport() {
+        return lastReport;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public static boolean isSharded(String storageKey) {
+        return storageKey != null && SHARDED_KEY.matcher(storageKey).matches();
+    }
+
+    private void migrateFile(Book book, StorageArea area, Pass pass) {
+        String oldKey = pathOf(book, area);
+        if (oldKey == null || oldKey.isEmpty()) {
+            return;
+        }
+        if (isSharded(oldKey)) {
+            pass.alreadySharded++;
+            return;
+        }
+
+        // Копирование и хэширование идут вне транзакции, соединение с БД занимается только на обновление пути
+        try (InputStream input = storageBackend.get(area, oldKey);
+             SpooledContent content = contentAddressedStore.spool(input, ContentAddressedStore.extensionOf(oldKey))) {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            Boolean migrated = transactionTemplate.execute(status -> replacePath(book.getId(), area, oldKey, content));
+            if (Boolean.TRUE.equals(migrated)) {
+                pass.migrated++;
+                if (area == StorageArea.IMAGES) {
+                    imageByteCache.invalidate(book.getId());
+                }
+            } else {
+                pass.skipped++;
+            }
+        } catch (NoSuchFileException e) {
+            pass.missing++;
+        } catch (IOException | UncheckedIOException e) {
+            pass.failed++;
+            System.err.println("Failed to migrate " + area + ":" + oldKey + " of book " + book.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private Boolean replacePath(Long bookId, StorageArea area, String oldKey, SpooledContent content) {
+        // Путь мог измениться параллельной загрузкой или книгу могли удалить - тогда ничего не трогаем
+        Book book = bookRepository.findByIdForUpdate(bookId).orElse(null);
+        if (book == null || !Objects.equals(pathOf(book, area), oldKey)) {
+            return false;
+        }
+        try {
+            ContentBlob blob = contentAddressedStore.store(area, content);
+            if (area == StorageArea.PDFS) {
+                book.setPdfPath(blob.getStorageKey());
+            } else {
+                book.setImagePath(blob.getStorageKey());
+            }
+            bookRepository.save(book);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void pause(Pass pass) {
+        if (pass.migrated == pass.migratedBeforeBatch || batchPause.isZero()) {
+            return;
+        }
+        pass.migratedBeforeBatch = pass.migrated;
+        try {
+            Thread.sleep(batchPause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String pathOf(Book book, StorageArea area) {
+        return area == StorageArea.PDFS ? book.getPdfPath() : book.getImagePath();
+    }
+
+    private static final class Pass {
+        private final Instant startedAt;
+        private long scannedBooks;
+        private long migrated;
+        private long alreadySharded;
+        private long missing;
+        private long skipped;
+        private long failed;
+        private long migratedBeforeBatch;
+
+        private Pass(Instant startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        private StorageLayoutMigrationResponse toReport() {
+            return StorageLayoutMigrationResponse.builder()
+                    .startedAt(startedAt)
+                    .finishedAt(Instant.now())
+                    .scannedBooks(scannedBooks)
+                    .migratedFiles(migrated)
+                    .alreadyShardedFiles(alreadySharded)
+                    .missingFiles(missing)
+                    .skippedFiles(skipped)
+                    .failedFiles(failed)
+                    // Отсутствующие файлы переносом не исправить, повторять проход ради них бессмысленно
+                    .complete(skipped == 0 && failed == 0)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package online.ityura.springdigitallibrary.storage;
+
+import online.ityura.springdigitallibrary.model.StorageArea;
+import org.springframework.core.io.AbstractResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Locale;
+
+/**
+ * Resource поверх объекта {@link StorageBackend}.
+ * URI имеет вид storage:/область/ключ, чтобы контроллеры могли определить тип по расширению.
+ */
+public class StorageResource extends AbstractResource {
+
+    private final StorageBackend backend;
+    private final StorageArea area;
+    private final String key;
+
+    public StorageResource(StorageBackend backend, StorageArea area, String key) {
+        this.backend = backend;
+        this.area = area;
+        this.key = key;
+    }
+
+    public StorageArea getArea() {
+        return area;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Storage object [" + area + ":" + key + "]";
+    }
+
+    @Override
+    public String getFilename() {
+        int separator = Math.max(key.lastIndexOf('/'), key.lastIndexOf('\\'));
+        return key.substring(separator + 1);
+    }
+
+    @Override
+    public URI getURI() throws IOException {
+        try {
+            return new URI("storage", null, "/" + area.name().toLowerCase(Locale.ROOT) + "/" + key, null);
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid storage key: " + key, e);
+        }
+    }
+
+    @Override
+    public boolean exists() {
+        return backend.exists(area, key);
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return backend.contentLength(area, key);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return backend.get(area, key);
+    }
+}
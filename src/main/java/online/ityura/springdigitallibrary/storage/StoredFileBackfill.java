@@ -0,0 +1,88 @@
+package online.ityura.springdigitallibrary.storage;
+
+import online.ityura.springdigitallibrary.dto.response.StoredFileBackfillResponse;
+import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.repository.BookRepository;
+import online.ityura.springdigitallibrary.repository.StoredFileRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+
+/**
+ * Разовое заполнение stored_files для файлов, сохраненных до появления метаданных.
+ * Проходит по путям обложек и PDF из таблицы books и для каждого ключа без метаданных
+ * один раз читает файл из хранилища, чтобы посчитать хэш, размер и размеры изображения.
+ */
+@Service
+public class StoredFileBackfill {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    @Autowired
+    private StoredFileService storedFileService;
+
+    @Autowired
+    private ContentAddressedStore contentAddressedStore;
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    public StoredFileBackfillResponse backfill() {
+        int recorded = 0;
+        int alreadyPresent = 0;
+        int missing = 0;
+        for (Book book : bookRepository.findAll()) {
+            for (Outcome outcome : new Outcome[]{
+                    backfill(StorageArea.IMAGES, book.getImagePath()),
+                    backfill(StorageArea.PDFS, book.getPdfPath())}) {
+                switch (outcome) {
+                    case RECORDED -> recorded++;
+                    case ALREADY_PRESENT -> alreadyPresent++;
+                    case MISSING -> missing++;
+                    case SKIPPED -> { }
+                }
+            }
+        }
+
+        System.out.println("Stored file metadata backfill: recorded=" + recorded
+                + ", alreadyPresent=" + alreadyPresent + ", missing=" + missing);
+        return StoredFileBackfillResponse.builder()
+                .recorded(recorded)
+                .alreadyPresent(alreadyPresent)
+                .missing(missing)
+                .build();
+    }
+
+    private Outcome backfill(StorageArea area, String storageKey) {
+        if (storageKey == null || storageKey.isEmpty()) {
+            return Outcome.SKIPPED;
+        }
+        if (storedFileRepository.existsByAreaAndStorageKey(area, storageKey)) {
+            return Outcome.ALREADY_PRESENT;
+        }
+
+        // Копируем объект во временный файл: хэш и размер считаются по пути, размеры изображения читаются с диска
+        try (InputStream input = storageBackend.get(area, storageKey);
+             SpooledContent content = contentAddressedStore.spool(input, ContentAddressedStore.extensionOf(storageKey))) {
+            storedFileService.record(area, storageKey, content.file(), content.sha256(), content.byteLength());
+            return Outcome.RECORDED;
+        } catch (NoSuchFileException e) {
+            return Outcome.MISSING;
+        } catch (IOException e) {
+            System.err.println("Failed to backfill metadata for " + area + ":" + storageKey + ": " + e.getMessage());
+            return Outcome.MISSING;
+        }
+    }
+
+    private enum Outcome {
+        RECORDED, ALREADY_PRESENT, MISSING, SKIPPED
+    }
+}
@@ -0,0 +1,122 @@
+package online.ityura.springdigitallibrary.storage;
+
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.model.StoredFile;
+import online.ityura.springdigitallibrary.repository.StoredFileRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Метаданные файлов в хранилище (тип, размер, SHA-256, время записи, размеры изображения).
+ * Заполняются при сохранении файла, чтобы отдача не делала stat/HEAD запросов к хранилищу
+ * и могла сразу выставить Content-Type, Content-Length и ETag.
+ */
+@Service
+public class StoredFileService {
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    public Optional<StoredFile> find(StorageArea area, String storageKey) {
+        if (storageKey == null || storageKey.isEmpty()) {
+            return Optional.empty();
+        }
+        return storedFileRepository.findByAreaAndStorageKey(area, storageKey);
+    }
+
+    /**
+     * Записывает метаданные по локальной копии файла, если их еще нет.
+     * Вызывается до переноса файла в хранилище, пока байты доступны на диске.
+     */
+    public void record(StorageArea area, String storageKey, Path localFile, String sha256, long byteLength) {
+        if (storedFileRepository.existsByAreaAndStorageKey(area, storageKey)) {
+            return;
+        }
+
+        Integer width = null;
+        Integer height = null;
+        if (area == StorageArea.IMAGES) {
+            // Читаем только заголовок изображения, без декодирования пикселей
+            int[] dimensions = readDimensions(localFile);
+            if (dimensions != null) {
+                width = dimensions[0];
+                height = dimensions[1];
+            }
+        }
+        insert(area, storageKey, sha256, byteLength, width, height);
+    }
+
+    /**
+     * Записывает метаданные, если их еще нет, с размерами изображения, известными вызывающему.
+     * Для файлов, уже перенесенных в хранилище, когда локальной копии больше нет.
+     */
+    public void record(StorageArea area, String storageKey, String sha256, long byteLength,
+                       Integer width, Integer height) {
+        if (storedFileRepository.existsByAreaAndStorageKey(area, storageKey)) {
+            return;
+        }
+        insert(area, storageKey, sha256, byteLength, width, height);
+    }
+
+    public void forget(StorageArea area, String storageKey) {
+        storedFileRepository.deleteByAreaAndStorageKey(area, storageKey);
+    }
+
+    private void insert(StorageArea area, String storageKey, String sha256, long byteLength,
+                        Integer width, Integer height) {
+        storedFileRepository.insertIfAbsent(area.name(), storageKey, contentTypeOf(area, storageKey),
+                byteLength, sha256, Instant.now(), width, height);
+    }
+
+    public static String contentTypeOf(StorageArea area, String storageKey) {
+        if (area == StorageArea.PDFS) {
+            return "application/pdf";
+        }
+        String extension = "";
+        if (storageKey != null && storageKey.contains(".")) {
+            extension = storageKey.substring(storageKey.lastIndexOf(".") + 1).toLowerCase(Locale.ROOT);
+        }
+        return switch (extension) {
+            case "png" -> "image/png";
+            case "jpg", "jpeg" -> "image/jpeg";
+            case "gif" -> "image/gif";
+            case "webp" -> "image/webp";
+            default -> "application/octet-stream";
+        };
+    }
+
+    /**
+     * Ширина и высота изображения по заголовку файла или null, если формат не читается ImageIO.
+     */
+    public static int[] readDimensions(Path file) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new int[]{reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Формат без ридера в ImageIO (например, webp) - размеры неизвестны
+            return null;
+        }
+    }
+}
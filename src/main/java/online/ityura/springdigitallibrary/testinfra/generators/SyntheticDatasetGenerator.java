@@ -0,0 +1,426 @@
+package online.ityura.springdigitallibrary.testinfra.generators;
+
+import online.ityura.springdigitallibrary.dto.request.CreateBookRequest;
+import online.ityura.springdigitallibrary.dto.request.CreateReviewRequest;
+import online.ityura.springdigitallibrary.testinfra.configs.Config;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Генератор синтетических данных производственного объема для бенчмарков и проверки планов запросов.
+ * <p>
+ * Строки загружаются через PostgreSQL COPY поверх уже существующих данных: ID продолжают текущие максимумы,
+ * последовательности Hibernate после загрузки сдвигаются за них. Популярность книг (кому достаются оценки и отзывы),
+ * плодовитость авторов и активность пользователей распределены по Ципфу ({@link ZipfSampler}).
+ * Отзывы пишутся только к книгам, которые пользователь оценил, и в конце рейтинги книг пересчитываются по ratings.
+ * <p>
+ * Тексты берутся из пулов, заполненных {@link RandomDtoGeneratorWithFaker} и {@link RandomDataGenerator}:
+ * Faker на каждую из десятков миллионов строк был бы слишком медленным. Уникальность обеспечивают суффиксы с ID.
+ * Пользователи получают email {@code bench_<id>@example.com} и общий пароль {@code dataset.user-password}.
+ * <p>
+ * Запуск (настройки - системные свойства или переменные окружения, например DATASET_BOOKS=1000000):
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.useTestClasspath=true \
+ *     -Dspring-boot.run.main-class=online.ityura.springdigitallibrary.testinfra.generators.SyntheticDatasetGenerator
+ * </pre>
+ */
+public final class SyntheticDatasetGenerator {
+
+    private static final int AUTHOR_POOL_SIZE = 5_000;
+    private static final int BOOK_POOL_SIZE = 20_000;
+    private static final int REVIEW_POOL_SIZE = 5_000;
+
+    // Размер порции, которую генератор отдает в COPY за один вызов
+    private static final int COPY_BUFFER_CHARS = 1 << 20;
+
+    private static final long HISTORY_SECONDS = 5L * 365 * 24 * 3600;
+
+    private final Volumes volumes;
+    private final double popularityExponent;
+    private final double activityExponent;
+    private final long seed;
+    private final String userPassword;
+
+    private final long now = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+
+    public SyntheticDatasetGenerator(Volumes volumes, double popularityExponent, double activityExponent,
+                                     long seed, String userPassword) {
+        this.volumes = volumes;
+        this.popularityExponent = popularityExponent;
+        this.activityExponent = activityExponent;
+        this.seed = seed;
+        this.userPassword = userPassword;
+    }
+
+    /**
+     * Объемы данных. Отзывов не может быть больше оценок: отзыв пишется только к оцененной книге.
+     */
+    public record Volumes(int authors, int users, int books, long reviews, long ratings) {
+
+        public static Volumes fromSettings() {
+            return new Volumes(
+                    (int) longSetting("dataset.authors", 100_000),
+                    (int) longSetting("dataset.users", 500_000),
+                    (int) longSetting("dataset.books", 1_000_000),
+                    longSetting("dataset.reviews", 10_000_000),
+                    longSetting("dataset.ratings", 20_000_000));
+        }
+    }
+
+    /**
+     * Сколько строк загружено и за какое время.
+     */
+    public record Report(int authors, int users, int books, long ratings, long reviews, long millis) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        SyntheticDatasetGenerator generator = new SyntheticDatasetGenerator(
+                Volumes.fromSettings(),
+                Double.parseDouble(setting("dataset.popularity-exponent", "1.0")),
+                Double.parseDouble(setting("dataset.activity-exponent", "0.8")),
+                longSetting("dataset.seed", 42),
+                setting("dataset.user-password", "Bench123!"));
+
+        // Те же настройки подключения, что и у DataBaseSteps
+        try (Connection connection = DriverManager.getConnection(
+                Config.getApplicationProperty("spring.datasource.url"),
+                Config.getApplicationProperty("spring.datasource.username"),
+                Config.getApplicationProperty("spring.datasource.password"))) {
+            Report report = generator.load(connection);
+            System.out.println("Synthetic dataset loaded: " + report);
+        }
+    }
+
+    public Report load(Connection connection) throws SQLException {
+        long started = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        Report report;
+        try {
+            long authorBase = maxId(connection, "authors");
+            long userBase = maxId(connection, "users");
+            long bookBase = maxId(connection, "books");
+            long ratingBase = maxId(connection, "ratings");
+            long reviewBase = maxId(connection, "reviews");
+
+            copyAuthors(connection, authorBase);
+            copyUsers(connection, userBase);
+            copyBooks(connection, bookBase, authorBase);
+
+            int[] quotas = ratingQuotas();
+            long ratings = copyRatings(connection, quotas, ratingBase, bookBase, userBase);
+            long reviews = copyReviews(connection, quotas, ratings, reviewBase, bookBase, userBase);
+
+            refreshBookRatings(connection, bookBase);
+            advanceSequences(connection);
+            connection.commit();
+            report = new Report(volumes.authors(), volumes.users(), volumes.books(), ratings, reviews,
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        // Свежая статистика, иначе планировщик будет считать таблицы пустыми
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+        return report;
+    }
+
+    private void copyAuthors(Connection connection, long authorBase) throws SQLException {
+        String[] names = new String[AUTHOR_POOL_SIZE];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = RandomDtoGeneratorWithFaker.generateRandomDtoObject(CreateBookRequest.class).getAuthorName();
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        try (CopyWriter copy = new CopyWriter(connection, "COPY authors (id, full_name, created_at) FROM STDIN WITH (FORMAT csv)")) {
+            for (int i = 1; i <= volumes.authors(); i++) {
+                long id = authorBase + i;
+                copy.value(id).text(names[random.nextInt(names.length)] + " " + id).timestamp(pastSecond(random)).endRow();
+            }
+        }
+        progress("authors", volumes.authors());
+    }
+
+    private void copyUsers(Connection connection, long userBase) throws SQLException {
+        // BCrypt намеренно медленный, поэтому хэш общего пароля считается один раз
+        String passwordHash = new BCryptPasswordEncoder().encode(userPassword);
+
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        try (CopyWriter copy = new CopyWriter(connection,
+                "COPY users (id, nickname, email, password_hash, role, created_at) FROM STDIN WITH (FORMAT csv)")) {
+            for (int i = 1; i <= volumes.users(); i++) {
+                String nickname = RandomDataGenerator.generateNickname(4, 10,
+                        RandomDataGenerator.CharMode.LETTERS, RandomDataGenerator.CaseMode.LOWER) + "_" + i;
+                copy.value(userBase + i).text(nickname).text("bench_" + (userBase + i) + "@example.com").text(passwordHash)
+                        .text("USER").timestamp(pastSecond(random)).endRow();
+            }
+        }
+        progress("users", volumes.users());
+    }
+
+    private void copyBooks(Connection connection, long bookBase, long authorBase) throws SQLException {
+        CreateBookRequest[] pool = new CreateBookRequest[BOOK_POOL_SIZE];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = RandomDtoGeneratorWithFaker.generateRandomDtoObject(CreateBookRequest.class);
+        }
+
+        // Несколько авторов написали большую часть книг
+        ZipfSampler authors = new ZipfSampler(volumes.authors(), popularityExponent);
+        SplittableRandom random = new SplittableRandom(seed + 2);
+        try (CopyWriter copy = new CopyWriter(connection,
+                "COPY books (id, title, author_id, description, published_year, genre, deletion_locked, " +
+                "rating_avg, rating_count, created_at) FROM STDIN WITH (FORMAT csv)")) {
+            for (int i = 1; i <= volumes.books(); i++) {
+                long id = bookBase + i;
+                CreateBookRequest book = pool[random.nextInt(pool.length)];
+                copy.value(id).text(book.getTitle() + " #" + id).value(authorBase + 1 + authors.sampleIndex(random))
+                        .text(book.getDescription()).value(book.getPublishedYear())
+                        .text(book.getGenre() != null ? book.getGenre().name() : null)
+                        .value(false).value(0).value(0).timestamp(pastSecond(random)).endRow();
+            }
+        }
+        progress("books", volumes.books());
+    }
+
+    /**
+     * Сколько оценок поставит каждый пользователь: активность по Ципфу, но не больше десятой части каталога,
+     * чтобы выбор разных книг для самых активных пользователей не вырождался.
+     */
+    private int[] ratingQuotas() {
+        int perUserCap = Math.max(1, volumes.books() / 10);
+        long total = Math.min(volumes.ratings(), (long) perUserCap * volumes.users());
+        if (total < volumes.ratings()) {
+            System.out.println("Ratings limited to " + total + ": at most " + perUserCap + " per user");
+        }
+
+        int[] quotas = new int[volumes.users()];
+        ZipfSampler activity = new ZipfSampler(volumes.users(), activityExponent);
+        SplittableRandom random = new SplittableRandom(seed + 3);
+        for (long i = 0; i < total; i++) {
+            int user;
+            do {
+                user = activity.sampleIndex(random);
+            } while (quotas[user] >= perUserCap);
+            quotas[user]++;
+        }
+        return quotas;
+    }
+
+    private long copyRatings(Connection connection, int[] quotas, long ratingBase, long bookBase, long userBase)
+            throws SQLException {
+        ZipfSampler popularity = new ZipfSampler(volumes.books(), popularityExponent);
+        long id = ratingBase;
+        try (CopyWriter copy = new CopyWriter(connection,
+                "COPY ratings (id, book_id, user_id, value, created_at) FROM STDIN WITH (FORMAT csv)")) {
+            for (int user = 0; user < quotas.length; user++) {
+                SplittableRandom random = userRandom(user);
+                for (int book : distinctBooks(popularity, random, quotas[user])) {
+                    copy.value(++id).value(bookBase + 1 + book).value(userBase + 1 + user)
+                            .value(ratingValue(book, random)).timestamp(pastSecond(random)).endRow();
+                }
+            }
+        }
+        long loaded = id - ratingBase;
+        progress("ratings", loaded);
+        return loaded;
+    }
+
+    /**
+     * Отзывы - к первым оцененным книгам пользователя: выбор книг повторяется с тем же зерном, что и для оценок,
+     * поэтому пары (книга, пользователь) уникальны без хранения всех оценок в памяти.
+     */
+    private long copyReviews(Connection connection, int[] quotas, long ratings, long reviewBase, long bookBase,
+                             long userBase) throws SQLException {
+        String[] texts = new String[REVIEW_POOL_SIZE];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = RandomDtoGeneratorWithFaker.generateRandomDtoObject(CreateReviewRequest.class).getText();
+        }
+
+        double share = ratings == 0 ? 0 : Math.min(1d, (double) volumes.reviews() / ratings);
+        ZipfSampler popularity = new ZipfSampler(volumes.books(), popularityExponent);
+        SplittableRandom shareRandom = new SplittableRandom(seed + 4);
+        long id = reviewBase;
+        try (CopyWriter copy = new CopyWriter(connection,
+                "COPY reviews (id, book_id, user_id, text, created_at) FROM STDIN WITH (FORMAT csv)")) {
+            for (int user = 0; user < quotas.length; user++) {
+                double expected = quotas[user] * share;
+                int reviews = (int) expected + (shareRandom.nextDouble() < expected - (int) expected ? 1 : 0);
+                if (reviews == 0) {
+                    continue;
+                }
+                // Первые выбранные книги совпадают с началом выбора для оценок: те же зерно и порядок выборок
+                for (int book : distinctBooks(popularity, userRandom(user), reviews)) {
+                    copy.value(++id).value(bookBase + 1 + book).value(userBase + 1 + user)
+                            .text(texts[shareRandom.nextInt(texts.length)]).timestamp(pastSecond(shareRandom)).endRow();
+                }
+            }
+        }
+        long loaded = id - reviewBase;
+        progress("reviews", loaded);
+        return loaded;
+    }
+
+    private SplittableRandom userRandom(int user) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + user);
+    }
+
+    private static Set<Integer> distinctBooks(ZipfSampler popularity, SplittableRandom random, int count) {
+        Set<Integer> books = new LinkedHashSet<>();
+        while (books.size() < count) {
+            books.add(popularity.sampleIndex(random));
+        }
+        return books;
+    }
+
+    /**
+     * Оценка 1..10 вокруг "качества" книги: у каждой книги свой средний балл, оценки разбросаны вокруг него.
+     */
+    private short ratingValue(int book, SplittableRandom random) {
+        double quality = 4d + 5d * ((mix(seed ^ book) >>> 11) * 0x1.0p-53);
+        long value = Math.round(quality + random.nextDouble() * 4d - 2d);
+        return (short) Math.max(1, Math.min(10, value));
+    }
+
+    // Финализатор SplitMix64: детерминированное "случайное" число для книги без хранения массива
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private long pastSecond(SplittableRandom random) {
+        return now - random.nextLong(HISTORY_SECONDS);
+    }
+
+    private static void refreshBookRatings(Connection connection, long bookBase) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE books b SET rating_avg = s.avg_value, rating_count = s.rating_count " +
+                    "FROM (SELECT book_id, ROUND(AVG(value), 2) AS avg_value, COUNT(*) AS rating_count " +
+                    "FROM ratings WHERE book_id > " + bookBase + " GROUP BY book_id) s WHERE b.id = s.book_id");
+        }
+    }
+
+    private static void advanceSequences(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String table : new String[]{"authors", "users", "books", "ratings", "reviews"}) {
+                // Как в миграции V2: пул Hibernate выдает ID (значение - 49 .. значение)
+                statement.execute("SELECT setval('" + table + "_seq', COALESCE(MAX(id), 0) + 50, false) FROM " + table);
+            }
+        }
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void progress(String table, long rows) {
+        System.out.println("Copied " + rows + " rows into " + table);
+    }
+
+    private static String setting(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            // dataset.user-password -> DATASET_USER_PASSWORD
+            value = System.getenv(key.toUpperCase().replace('.', '_').replace('-', '_'));
+        }
+        return value != null && !value.isBlank() ? value : defaultValue;
+    }
+
+    private static long longSetting(String key, long defaultValue) {
+        return Long.parseLong(setting(key, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * Пишет строки CSV в COPY ... FROM STDIN порциями, без промежуточных файлов.
+     */
+    private static final class CopyWriter implements AutoCloseable {
+
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 4096);
+        private boolean firstInRow = true;
+
+        CopyWriter(Connection connection, String sql) throws SQLException {
+            this.copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+        }
+
+        CopyWriter value(Object value) {
+            separator();
+            if (value != null) {
+                buffer.append(value);
+            }
+            return this;
+        }
+
+        CopyWriter text(String value) {
+            separator();
+            if (value != null) {
+                buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+            }
+            return this;
+        }
+
+        CopyWriter timestamp(long epochSecond) {
+            return value(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC));
+        }
+
+        void endRow() throws SQLException {
+            buffer.append('\n');
+            firstInRow = true;
+            if (buffer.length() >= COPY_BUFFER_CHARS) {
+                flush();
+            }
+        }
+
+        private void separator() {
+            if (!firstInRow) {
+                buffer.append(',');
+            }
+            firstInRow = false;
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (!copyIn.isActive()) {
+                return;
+            }
+            try {
+                flush();
+                copyIn.endCopy();
+            } catch (SQLException | RuntimeException e) {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+                throw e;
+            }
+        }
+    }
+}
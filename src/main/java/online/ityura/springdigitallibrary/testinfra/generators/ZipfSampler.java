@@ -0,0 +1,118 @@
+package online.ityura.springdigitallibrary.testinfra.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * Выборка рангов 1..n по закону Ципфа: P(k) ~ 1 / k^exponent.
+ * Метод rejection-inversion (Hörmann, Derflinger): O(1) на выборку и O(1) памяти при любом n,
+ * поэтому годится для миллионов элементов без таблицы распределения.
+ * <p>
+ * Чтобы популярность не совпадала с порядком ID (самые старые строки - самые горячие), ранг можно
+ * отобразить в индекс через {@link #scatter(int)} - биекцию 1..n на 0..n-1.
+ */
+public final class ZipfSampler {
+
+    private final int numberOfElements;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralNumberOfElements;
+    private final double s;
+    private final long stride;
+
+    public ZipfSampler(int numberOfElements, double exponent) {
+        if (numberOfElements < 1) {
+            throw new IllegalArgumentException("numberOfElements must be positive: " + numberOfElements);
+        }
+        if (exponent <= 0) {
+            throw new IllegalArgumentException("exponent must be positive: " + exponent);
+        }
+        this.numberOfElements = numberOfElements;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1d;
+        this.hIntegralNumberOfElements = hIntegral(numberOfElements + 0.5);
+        this.s = 2d - hIntegralInverse(hIntegral(2.5) - h(2));
+        this.stride = coprimeStride(numberOfElements);
+    }
+
+    /**
+     * Ранг от 1 (самый популярный) до n.
+     */
+    public int sample(SplittableRandom random) {
+        while (true) {
+            double u = hIntegralNumberOfElements + random.nextDouble() * (hIntegralX1 - hIntegralNumberOfElements);
+            double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > numberOfElements) {
+                k = numberOfElements;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * Индекс 0..n-1 для ранга: соседние по популярности элементы оказываются далеко друг от друга.
+     */
+    public int scatter(int rank) {
+        return (int) (((rank - 1) * stride) % numberOfElements);
+    }
+
+    public int sampleIndex(SplittableRandom random) {
+        return scatter(sample(random));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1d - exponent) * logX) * logX;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = x * (1d - exponent);
+        if (t < -1d) {
+            // Защита от ошибок округления на границе области определения
+            t = -1d;
+        }
+        return Math.exp(helper1(t) * x);
+    }
+
+    // log(1 + x) / x с устойчивостью около нуля
+    private static double helper1(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.log1p(x) / x;
+        }
+        return 1d - x * (0.5 - x * (1d / 3d - 0.25 * x));
+    }
+
+    // (exp(x) - 1) / x с устойчивостью около нуля
+    private static double helper2(double x) {
+        if (Math.abs(x) > 1e-8) {
+            return Math.expm1(x) / x;
+        }
+        return 1d + x * 0.5 * (1d + x / 3d * (1d + 0.25 * x));
+    }
+
+    private static long coprimeStride(int n) {
+        // Шаг около n * (золотое сечение - 1), взаимно простой с n
+        long stride = Math.max(1, (long) (n * 0.6180339887));
+        while (gcd(stride, n) != 1) {
+            stride++;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
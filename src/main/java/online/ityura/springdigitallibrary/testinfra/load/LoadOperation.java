@@ -0,0 +1,77 @@
+package online.ityura.springdigitallibrary.testinfra.load;
+
+import lombok.Getter;
+import online.ityura.springdigitallibrary.testinfra.requests.clients.Endpoint;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Операции нагрузочного прогона поверх эндпоинтов из {@link Endpoint}.
+ * Кроме статуса успеха у пишущих операций есть ожидаемые конфликты: повторная оценка или отзыв того же пользователя
+ * на ту же книгу дает 409. Это не ошибка, но и не запись, поэтому конфликты считаются отдельно от успешных запросов.
+ */
+@Getter
+public enum LoadOperation {
+    CATALOG("catalog", "GET", Endpoint.BOOKS, false, 200),
+    BOOK("book", "GET", Endpoint.BOOK, false, 200),
+    BOOK_REVIEWS("reviews", "GET", Endpoint.BOOK_REVIEWS, false, 200),
+    RATE("rate", "POST", Endpoint.BOOK_RATINGS, true, 201, 409),
+    REVIEW("review", "POST", Endpoint.BOOK_REVIEWS, true, 201, 409);
+
+    private final String key;
+    private final String method;
+    private final Endpoint endpoint;
+    private final boolean authenticated;
+    private final int successStatus;
+    private final Set<Integer> conflictStatuses;
+
+    LoadOperation(String key, String method, Endpoint endpoint, boolean authenticated, int successStatus,
+                  Integer... conflictStatuses) {
+        this.key = key;
+        this.method = method;
+        this.endpoint = endpoint;
+        this.authenticated = authenticated;
+        this.successStatus = successStatus;
+        this.conflictStatuses = Set.of(conflictStatuses);
+    }
+
+    public String getRequest() {
+        return method + " " + endpoint.getRelativePath();
+    }
+
+    public static LoadOperation byKey(String key) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown load operation: " + key + ", expected one of "
+                        + Arrays.stream(values()).map(LoadOperation::getKey).collect(Collectors.joining(", "))));
+    }
+
+    /**
+     * Разбирает смесь вида {@code catalog:50,book:25,rate:5} в веса операций (порядок сохраняется).
+     */
+    public static Map<LoadOperation, Integer> parseMix(String mix) {
+        Map<LoadOperation, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] keyAndWeight = part.trim().split(":");
+            if (keyAndWeight.length != 2) {
+                throw new IllegalArgumentException("Mix entry must look like operation:weight, got: " + part);
+            }
+            int weight = Integer.parseInt(keyAndWeight[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weight must not be negative: " + part);
+            }
+            if (weight > 0) {
+                weights.merge(byKey(keyAndWeight[0].trim()), weight, Integer::sum);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no operations with positive weight: " + mix);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,100 @@
+package online.ityura.springdigitallibrary.testinfra.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Итог нагрузочного прогона: по каждой операции число запросов, ошибки, пропускная способность и перцентили
+ * задержки (мс) из HdrHistogram. Пишется в JSON со стабильными ключами, чтобы прогоны можно было сравнивать
+ * между собой и с эталоном ({@link #compareWith}).
+ * <p>
+ * count, throughputPerSecond и перцентили относятся только к успешным ответам (для пишущих операций - к успешным
+ * записям). Ожидаемые конфликты (409) идут в conflicts со своей гистограммой, ошибки - в errors.
+ */
+public record LoadReport(String startedAt, double measuredSeconds, Map<String, String> settings,
+                         List<OperationStats> operations) {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public record OperationStats(String operation, String request, long count, long conflicts, long errors,
+                                 double throughputPerSecond, double conflictsPerSecond, double meanMillis,
+                                 double p50Millis, double p90Millis, double p95Millis, double p99Millis,
+                                 double p999Millis, double maxMillis, double conflictP50Millis,
+                                 double conflictP99Millis, Map<String, Long> statuses) {
+
+        double errorRate() {
+            long total = count + conflicts + errors;
+            return total == 0 ? 0 : (double) errors / total;
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        OBJECT_MAPPER.writeValue(path.toFile(), this);
+    }
+
+    public static LoadReport read(Path path) throws IOException {
+        return OBJECT_MAPPER.readValue(path.toFile(), LoadReport.class);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("Load test started at %s, measured %.1f s%n", startedAt, measuredSeconds);
+        out.printf("%-10s %-32s %9s %9s %7s %9s %9s %9s %9s %9s %9s%n", "operation", "request", "count",
+                "conflicts", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (OperationStats stats : operations) {
+            out.printf("%-10s %-32s %9d %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    stats.operation(), stats.request(), stats.count(), stats.conflicts(), stats.errors(),
+                    stats.throughputPerSecond(), stats.p50Millis(), stats.p90Millis(), stats.p99Millis(),
+                    stats.p999Millis(), stats.maxMillis());
+        }
+    }
+
+    /**
+     * Регрессии относительно эталона: падение пропускной способности или рост p99 больше чем на maxRegressionPercent,
+     * рост доли ошибок больше чем на 1 процентный пункт. Операции, которых нет в одном из отчетов, не сравниваются.
+     */
+    public List<String> compareWith(LoadReport baseline, double maxRegressionPercent) {
+        List<String> regressions = new ArrayList<>();
+        for (OperationStats current : operations) {
+            OperationStats previous = baseline.operations().stream()
+                    .filter(stats -> stats.operation().equals(current.operation()))
+                    .findFirst()
+                    .orElse(null);
+            if (previous == null) {
+                continue;
+            }
+            double throughputChange = percentChange(previous.throughputPerSecond(), current.throughputPerSecond());
+            if (throughputChange < -maxRegressionPercent) {
+                regressions.add(String.format("%s: throughput %.1f -> %.1f req/s (%.1f%%)", current.operation(),
+                        previous.throughputPerSecond(), current.throughputPerSecond(), throughputChange));
+            }
+            double p99Change = percentChange(previous.p99Millis(), current.p99Millis());
+            if (p99Change > maxRegressionPercent) {
+                regressions.add(String.format("%s: p99 %.2f -> %.2f ms (+%.1f%%)", current.operation(),
+                        previous.p99Millis(), current.p99Millis(), p99Change));
+            }
+            if (current.errorRate() - previous.errorRate() > 0.01) {
+                regressions.add(String.format("%s: error rate %.2f%% -> %.2f%%", current.operation(),
+                        previous.errorRate() * 100, current.errorRate() * 100));
+            }
+        }
+        return regressions;
+    }
+
+    private static double percentChange(double before, double after) {
+        if (before == 0) {
+            return 0;
+        }
+        return (after - before) / before * 100;
+    }
+}
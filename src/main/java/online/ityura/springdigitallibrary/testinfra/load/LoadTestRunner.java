@@ -0,0 +1,418 @@
+package online.ityura.springdigitallibrary.testinfra.load;
+
+import io.restassured.path.json.JsonPath;
+import io.restassured.specification.RequestSpecification;
+import online.ityura.springdigitallibrary.dto.request.CreateRatingRequest;
+import online.ityura.springdigitallibrary.dto.request.CreateReviewRequest;
+import online.ityura.springdigitallibrary.dto.request.RegisterRequest;
+import online.ityura.springdigitallibrary.testinfra.configs.Config;
+import online.ityura.springdigitallibrary.testinfra.generators.RandomDtoGeneratorWithFaker;
+import online.ityura.springdigitallibrary.testinfra.generators.ZipfSampler;
+import online.ityura.springdigitallibrary.testinfra.requests.clients.CrudRequester;
+import online.ityura.springdigitallibrary.testinfra.requests.clients.Endpoint;
+import online.ityura.springdigitallibrary.testinfra.specs.RequestSpecs;
+import online.ityura.springdigitallibrary.testinfra.specs.ResponseSpecs;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Нагрузочный прогон API через те же CrudRequester, Endpoint и RequestSpecs, что и функциональные тесты.
+ * <p>
+ * Закрытая модель: load.concurrency потоков в цикле выбирают операцию по весам load.mix, выполняют запрос
+ * и ждут случайное время (в среднем load.think.millis). Книги выбираются по закону Ципфа из пула реальных ID
+ * каталога, страницы каталога - тоже (первые страницы горячие). Пишущие операции выполняются от имени
+ * load.users пользователей, зарегистрированных перед прогоном через /auth/register; пользователи распределены
+ * по потокам, и каждую запись поток делает от случайного из своих.
+ * <p>
+ * Задержки успешных запросов пишутся в HdrHistogram отдельно по операциям, после прогрева (load.warmup.seconds).
+ * Ожидаемые конфликты (409 на повторную оценку или отзыв) пишутся в отдельную гистограмму и в req/s не входят.
+ * Отчет - JSON (load.report) и распределения перцентилей .hgrm рядом с ним. Если задан load.baseline
+ * (отчет прошлого прогона), регрессии сверх load.max.regression.percent печатаются и завершают процесс с кодом 1.
+ * <p>
+ * Настройки читаются через {@link Config#getProperty}: системное свойство, переменная окружения
+ * (load.duration.seconds -> LOAD_DURATION_SECONDS) или config.properties. Запуск:
+ * <pre>
+ * mvn spring-boot:run -Dspring-boot.run.useTestClasspath=true \
+ *   -Dspring-boot.run.main-class=online.ityura.springdigitallibrary.testinfra.load.LoadTestRunner
+ * </pre>
+ */
+public class LoadTestRunner {
+
+    // Запросы дольше минуты считаются зависшими и попадают в гистограмму как 60 с
+    private static final long HIGHEST_TRACKABLE_MICROS = 60_000_000L;
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final int CATALOG_PAGE_SIZE = 10;
+    private static final int CATALOG_HOT_PAGES = 100;
+    private static final int POOL_PAGE_SIZE = 100;
+    private static final int REVIEW_TEXT_POOL_SIZE = 200;
+
+    private final Settings settings;
+
+    public LoadTestRunner(Settings settings) {
+        this.settings = settings;
+    }
+
+    public record Settings(int concurrency, int durationSeconds, int warmupSeconds, long thinkMillis, int users,
+                           Map<LoadOperation, Integer> mix, int bookPool, double popularityExponent, long seed,
+                           Path report, Path baseline, double maxRegressionPercent) {
+
+        public static Settings fromConfig() {
+            String baseline = Config.getProperty("load.baseline");
+            return new Settings(
+                    Integer.parseInt(Config.getProperty("load.concurrency")),
+                    Integer.parseInt(Config.getProperty("load.duration.seconds")),
+                    Integer.parseInt(Config.getProperty("load.warmup.seconds")),
+                    Long.parseLong(Config.getProperty("load.think.millis")),
+                    Integer.parseInt(Config.getProperty("load.users")),
+                    LoadOperation.parseMix(Config.getProperty("load.mix")),
+                    Integer.parseInt(Config.getProperty("load.book.pool")),
+                    Double.parseDouble(Config.getProperty("load.popularity.exponent")),
+                    Long.parseLong(Config.getProperty("load.seed")),
+                    Path.of(Config.getProperty("load.report")),
+                    baseline == null || baseline.isBlank() ? null : Path.of(baseline),
+                    Double.parseDouble(Config.getProperty("load.max.regression.percent")));
+        }
+
+        Map<String, String> describe() {
+            Map<String, String> description = new LinkedHashMap<>();
+            description.put("apiBaseUrl", Config.getProperty("apiBaseUrl") + Config.getProperty("apiVersion"));
+            description.put("concurrency", String.valueOf(concurrency));
+            description.put("durationSeconds", String.valueOf(durationSeconds));
+            description.put("warmupSeconds", String.valueOf(warmupSeconds));
+            description.put("thinkMillis", String.valueOf(thinkMillis));
+            description.put("users", String.valueOf(users));
+            StringBuilder mixDescription = new StringBuilder();
+            mix.forEach((operation, weight) -> mixDescription.append(mixDescription.isEmpty() ? "" : ",")
+                    .append(operation.getKey()).append(':').append(weight));
+            description.put("mix", mixDescription.toString());
+            description.put("bookPool", String.valueOf(bookPool));
+            description.put("popularityExponent", String.valueOf(popularityExponent));
+            description.put("seed", String.valueOf(seed));
+            return description;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromConfig();
+        LoadReport report = new LoadTestRunner(settings).run();
+        report.print(System.out);
+        report.write(settings.report());
+        System.out.println("Report written to " + settings.report().toAbsolutePath());
+
+        if (settings.baseline() != null) {
+            List<String> regressions = report.compareWith(LoadReport.read(settings.baseline()),
+                    settings.maxRegressionPercent());
+            if (!regressions.isEmpty()) {
+                System.err.println("Regressions against " + settings.baseline() + ":");
+                regressions.forEach(regression -> System.err.println("  " + regression));
+                System.exit(1);
+            }
+            System.out.println("No regressions against " + settings.baseline());
+        }
+    }
+
+    public LoadReport run() throws Exception {
+        long[] bookIds = loadBookPool();
+        int catalogPages = Math.min(CATALOG_HOT_PAGES,
+                Math.max(1, (bookIds.length + CATALOG_PAGE_SIZE - 1) / CATALOG_PAGE_SIZE));
+        List<RegisterRequest> users = registerUsers();
+        String[] reviewTexts = new String[REVIEW_TEXT_POOL_SIZE];
+        for (int i = 0; i < reviewTexts.length; i++) {
+            reviewTexts[i] = RandomDtoGeneratorWithFaker.generateRandomDtoObject(CreateReviewRequest.class).getText();
+        }
+
+        System.out.printf("Load test: %d workers, %d s (+%d s warmup), %d books in pool%n",
+                settings.concurrency(), settings.durationSeconds(), settings.warmupSeconds(), bookIds.length);
+        Instant startedAt = Instant.now();
+        long measureFromNanos = System.nanoTime() + settings.warmupSeconds() * 1_000_000_000L;
+        long endNanos = measureFromNanos + settings.durationSeconds() * 1_000_000_000L;
+
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < settings.concurrency(); i++) {
+            workers.add(new Worker(new SplittableRandom(settings.seed() + i), userSpecs(i, users), bookIds,
+                    catalogPages, reviewTexts, measureFromNanos, endNanos));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(settings.concurrency());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Worker worker : workers) {
+                futures.add(executor.submit(worker));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        double measuredSeconds = (System.nanoTime() - measureFromNanos) / 1e9;
+        return buildReport(startedAt, measuredSeconds, workers);
+    }
+
+    /**
+     * Пул реальных ID книг: случайные страницы каталога по POOL_PAGE_SIZE книг.
+     */
+    private long[] loadBookPool() {
+        CrudRequester catalog = new CrudRequester(RequestSpecs.loadUnauthSpec(), ResponseSpecs.statusCode(200),
+                Endpoint.BOOKS);
+        JsonPath firstPage = catalog.get(Map.of("page", 0, "size", POOL_PAGE_SIZE, "sort", "id")).extract().jsonPath();
+        int totalPages = totalPages(firstPage);
+        if (totalPages == 0) {
+            throw new IllegalStateException("The catalog is empty, load some books first (see SyntheticDatasetGenerator)");
+        }
+        int pagesToFetch = Math.min(totalPages, Math.max(1, settings.bookPool() / POOL_PAGE_SIZE));
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        TreeSet<Integer> pages = new TreeSet<>();
+        while (pages.size() < pagesToFetch) {
+            pages.add(random.nextInt(totalPages));
+        }
+        List<Long> ids = new ArrayList<>();
+        for (int page : pages) {
+            JsonPath json = page == 0 ? firstPage
+                    : catalog.get(Map.of("page", page, "size", POOL_PAGE_SIZE, "sort", "id")).extract().jsonPath();
+            ids.addAll(json.getList("content.id", Long.class));
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    // Page сериализуется либо как PageImpl (totalPages в корне), либо как PagedModel (page.totalPages)
+    private static int totalPages(JsonPath page) {
+        Integer totalPages = page.get("totalPages");
+        if (totalPages == null) {
+            totalPages = page.get("page.totalPages");
+        }
+        return totalPages == null ? 0 : totalPages;
+    }
+
+    private List<RegisterRequest> registerUsers() {
+        boolean needsUsers = settings.mix().keySet().stream().anyMatch(LoadOperation::isAuthenticated);
+        List<RegisterRequest> users = new ArrayList<>();
+        if (!needsUsers) {
+            return users;
+        }
+        CrudRequester register = new CrudRequester(RequestSpecs.loadUnauthSpec(), ResponseSpecs.statusCode(201),
+                Endpoint.AUTH_REGISTER);
+        for (int i = 0; i < Math.max(1, settings.users()); i++) {
+            RegisterRequest request = RandomDtoGeneratorWithFaker.generateRandomDtoObject(RegisterRequest.class);
+            register.post(request);
+            users.add(request);
+        }
+        return users;
+    }
+
+    /**
+     * Пользователи потока: каждый load.concurrency-й, начиная с его номера. Если пользователей меньше потоков,
+     * поток получает одного, общего с другими. Спецификация (и HTTP-клиент) у потока всегда своя.
+     */
+    private List<RequestSpecification> userSpecs(int worker, List<RegisterRequest> users) {
+        List<RequestSpecification> specs = new ArrayList<>();
+        if (users.isEmpty()) {
+            return specs;
+        }
+        for (int i = worker; i < users.size(); i += settings.concurrency()) {
+            specs.add(RequestSpecs.loadUserSpec(users.get(i).getEmail(), users.get(i).getPassword()));
+        }
+        if (specs.isEmpty()) {
+            RegisterRequest user = users.get(worker % users.size());
+            specs.add(RequestSpecs.loadUserSpec(user.getEmail(), user.getPassword()));
+        }
+        return specs;
+    }
+
+    private LoadReport buildReport(Instant startedAt, double measuredSeconds, List<Worker> workers) throws IOException {
+        List<LoadReport.OperationStats> operations = new ArrayList<>();
+        for (LoadOperation operation : settings.mix().keySet()) {
+            Histogram histogram = newHistogram();
+            Histogram conflictHistogram = newHistogram();
+            long errors = 0;
+            Map<String, Long> statuses = new TreeMap<>();
+            for (Worker worker : workers) {
+                OperationResults results = worker.results.get(operation);
+                histogram.add(results.histogram);
+                conflictHistogram.add(results.conflictHistogram);
+                errors += results.errors;
+                results.statuses.forEach((status, count) -> statuses.merge(status, count, Long::sum));
+            }
+            operations.add(new LoadReport.OperationStats(
+                    operation.getKey(),
+                    operation.getRequest(),
+                    histogram.getTotalCount(),
+                    conflictHistogram.getTotalCount(),
+                    errors,
+                    histogram.getTotalCount() / measuredSeconds,
+                    conflictHistogram.getTotalCount() / measuredSeconds,
+                    histogram.getMean() / 1000.0,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(95) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0,
+                    conflictHistogram.getValueAtPercentile(50) / 1000.0,
+                    conflictHistogram.getValueAtPercentile(99) / 1000.0,
+                    statuses));
+            writePercentileDistribution(operation.getKey(), histogram);
+            if (conflictHistogram.getTotalCount() > 0) {
+                writePercentileDistribution(operation.getKey() + "-conflicts", conflictHistogram);
+            }
+        }
+        return new LoadReport(startedAt.toString(), measuredSeconds, settings.describe(), operations);
+    }
+
+    // Полное распределение в формате HdrHistogram (.hgrm, значения в мс) для построения графиков
+    private void writePercentileDistribution(String name, Histogram histogram) throws IOException {
+        String fileName = settings.report().getFileName().toString().replaceFirst("\\.json$", "")
+                + "-" + name + ".hgrm";
+        Path path = settings.report().resolveSibling(fileName);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (PrintStream out = new PrintStream(Files.newOutputStream(path))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    }
+
+    private static final class OperationResults {
+        private final Histogram histogram = newHistogram();
+        private final Histogram conflictHistogram = newHistogram();
+        private final Map<String, Long> statuses = new TreeMap<>();
+        private long errors;
+    }
+
+    private final class Worker implements Runnable {
+
+        private final SplittableRandom random;
+        private final long[] bookIds;
+        private final String[] reviewTexts;
+        private final long measureFromNanos;
+        private final long endNanos;
+        private final ZipfSampler bookPopularity;
+        private final ZipfSampler pagePopularity;
+        private final LoadOperation[] operations;
+        private final int[] cumulativeWeights;
+        // Для пишущих операций - по клиенту на каждого пользователя потока
+        private final Map<LoadOperation, List<CrudRequester>> requesters = new EnumMap<>(LoadOperation.class);
+        private final Map<LoadOperation, OperationResults> results = new EnumMap<>(LoadOperation.class);
+
+        private Worker(SplittableRandom random, List<RequestSpecification> userSpecs, long[] bookIds, int catalogPages,
+                       String[] reviewTexts, long measureFromNanos, long endNanos) {
+            this.random = random;
+            this.bookIds = bookIds;
+            this.reviewTexts = reviewTexts;
+            this.measureFromNanos = measureFromNanos;
+            this.endNanos = endNanos;
+            this.bookPopularity = new ZipfSampler(bookIds.length, settings.popularityExponent());
+            this.pagePopularity = new ZipfSampler(catalogPages, settings.popularityExponent());
+            this.operations = settings.mix().keySet().toArray(new LoadOperation[0]);
+            this.cumulativeWeights = new int[operations.length];
+            int total = 0;
+            // Своя спецификация на поток: HTTP-клиент RestAssured с keep-alive не потокобезопасен
+            RequestSpecification unauthSpec = RequestSpecs.loadUnauthSpec();
+            for (int i = 0; i < operations.length; i++) {
+                total += settings.mix().get(operations[i]);
+                cumulativeWeights[i] = total;
+                List<CrudRequester> operationRequesters = new ArrayList<>();
+                for (RequestSpecification spec : operations[i].isAuthenticated() ? userSpecs : List.of(unauthSpec)) {
+                    operationRequesters.add(new CrudRequester(spec, ResponseSpecs.anyStatusCode(),
+                            operations[i].getEndpoint()));
+                }
+                requesters.put(operations[i], operationRequesters);
+                results.put(operations[i], new OperationResults());
+            }
+        }
+
+        @Override
+        public void run() {
+            while (System.nanoTime() < endNanos) {
+                LoadOperation operation = nextOperation();
+                long startNanos = System.nanoTime();
+                String status;
+                int code;
+                try {
+                    code = execute(operation);
+                    status = String.valueOf(code);
+                } catch (Exception e) {
+                    // Сюда попадают и сетевые ошибки, которые RestAssured пробрасывает как checked-исключения
+                    code = -1;
+                    status = e.getClass().getSimpleName();
+                }
+                long elapsedMicros = Math.min((System.nanoTime() - startNanos) / 1000, HIGHEST_TRACKABLE_MICROS);
+                if (startNanos >= measureFromNanos) {
+                    OperationResults operationResults = results.get(operation);
+                    operationResults.statuses.merge(status, 1L, Long::sum);
+                    if (code == operation.getSuccessStatus()) {
+                        operationResults.histogram.recordValue(elapsedMicros);
+                    } else if (operation.getConflictStatuses().contains(code)) {
+                        operationResults.conflictHistogram.recordValue(elapsedMicros);
+                    } else {
+                        operationResults.errors++;
+                    }
+                }
+                think();
+            }
+        }
+
+        private LoadOperation nextOperation() {
+            int point = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (point < cumulativeWeights[i]) {
+                    return operations[i];
+                }
+            }
+            return operations[operations.length - 1];
+        }
+
+        private int execute(LoadOperation operation) {
+            List<CrudRequester> operationRequesters = requesters.get(operation);
+            CrudRequester requester = operationRequesters.get(random.nextInt(operationRequesters.size()));
+            long bookId = bookIds[bookPopularity.sampleIndex(random)];
+            return switch (operation) {
+                case CATALOG -> requester.get(Map.of("page", pagePopularity.sample(random) - 1,
+                        "size", CATALOG_PAGE_SIZE)).extract().statusCode();
+                case BOOK, BOOK_REVIEWS -> requester.get(bookId).extract().statusCode();
+                case RATE -> {
+                    CreateRatingRequest request = new CreateRatingRequest();
+                    request.setValue((short) (1 + random.nextInt(10)));
+                    yield requester.post(request, bookId).extract().statusCode();
+                }
+                case REVIEW -> {
+                    CreateReviewRequest request = new CreateReviewRequest();
+                    request.setText(reviewTexts[random.nextInt(reviewTexts.length)]);
+                    yield requester.post(request, bookId).extract().statusCode();
+                }
+            };
+        }
+
+        private void think() {
+            if (settings.thinkMillis() <= 0) {
+                return;
+            }
+            try {
+                // Равномерно от 0 до удвоенного среднего, чтобы потоки не шли в ногу
+                Thread.sleep(random.nextLong(2 * settings.thinkMillis() + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Load worker interrupted", e);
+            }
+        }
+    }
+}
@@ -6,6 +6,8 @@ import io.restassured.specification.ResponseSpecification;
 import online.ityura.springdigitallibrary.dto.BaseDto;
 import online.ityura.springdigitallibrary.testinfra.requests.interfaces.CrudEndpointInterface;
 
+import java.util.Map;
+
 import static io.restassured.RestAssured.given;
 
 /*
@@ -70,4 +72,29 @@ public class CrudRequester extends HttpClient implements CrudEndpointInterface {
     public ValidatableResponse put(BaseDto dto) {
         return null;
     }
+
+    // Варианты для эндпоинтов с параметрами пути ({bookId} в Endpoint) и строки запроса
+    public ValidatableResponse post(BaseDto dto, Object... pathParams) {
+        return given()
+                .spec(requestSpecification)
+                .body(dto)
+                .when()
+                .post(endpoint.getRelativePath(), pathParams)
+                .then()
+                .spec(responseSpecification);
+    }
+
+    public ValidatableResponse get(Object... pathParams) {
+        return get(Map.of(), pathParams);
+    }
+
+    public ValidatableResponse get(Map<String, ?> queryParams, Object... pathParams) {
+        return given()
+                .spec(requestSpecification)
+                .queryParams(queryParams)
+                .when()
+                .get(endpoint.getRelativePath(), pathParams)
+                .then()
+                .spec(responseSpecification);
+    }
 }
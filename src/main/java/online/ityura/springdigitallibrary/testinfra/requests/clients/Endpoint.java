@@ -3,15 +3,24 @@ package online.ityura.springdigitallibrary.testinfra.requests.clients;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import online.ityura.springdigitallibrary.dto.BaseDto;
+import online.ityura.springdigitallibrary.dto.request.CreateRatingRequest;
+import online.ityura.springdigitallibrary.dto.request.CreateReviewRequest;
 import online.ityura.springdigitallibrary.dto.request.RegisterRequest;
 import online.ityura.springdigitallibrary.dto.response.AdminUserResponse;
+import online.ityura.springdigitallibrary.dto.response.BookResponse;
+import online.ityura.springdigitallibrary.dto.response.RatingResponse;
 import online.ityura.springdigitallibrary.dto.response.RegisterResponse;
+import online.ityura.springdigitallibrary.dto.response.ReviewResponse;
 
 @Getter
 @AllArgsConstructor
 public enum Endpoint {
     AUTH_REGISTER("/auth/register", RegisterRequest.class, RegisterResponse.class),
-    ADMIN_USERS("/admin/users", BaseDto.class, AdminUserResponse.class);
+    ADMIN_USERS("/admin/users", BaseDto.class, AdminUserResponse.class),
+    BOOKS("/books", BaseDto.class, BookResponse.class),
+    BOOK("/books/{bookId}", BaseDto.class, BookResponse.class),
+    BOOK_REVIEWS("/books/{bookId}/reviews", CreateReviewRequest.class, ReviewResponse.class),
+    BOOK_RATINGS("/books/{bookId}/ratings", CreateRatingRequest.class, RatingResponse.class);
 
     private final String relativePath;
     private final Class<? extends BaseDto> requestDto;
@@ -2,6 +2,8 @@ package online.ityura.springdigitallibrary.testinfra.specs;
 
 import io.restassured.RestAssured;
 import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
 import io.restassured.http.ContentType;
 import io.restassured.specification.RequestSpecification;
 import online.ityura.springdigitallibrary.dto.request.LoginRequest;
@@ -20,14 +22,39 @@ public class RequestSpecs {
     private RequestSpecs() {
     }
 
-    private static RequestSpecBuilder defaultRequestSpecBuilder() {
+    private static RequestSpecBuilder baseRequestSpecBuilder() {
         return new RequestSpecBuilder()
                 .setBaseUri(Config.getProperty("apiBaseUrl") + Config.getProperty("apiVersion"))
                 .setContentType(ContentType.JSON)
-                .setAccept(ContentType.JSON)
+                .setAccept(ContentType.JSON);
+    }
+
+    private static RequestSpecBuilder defaultRequestSpecBuilder() {
+        return baseRequestSpecBuilder()
                 .addFilter(new CustomLoggingFilter());
     }
 
+    /*
+    Спецификации для нагрузочных прогонов: без логирования каждого запроса и со своим HTTP-клиентом,
+    который переиспользуется между запросами (keep-alive). Клиент не потокобезопасен -
+    каждому потоку нагрузки нужна своя спецификация.
+    */
+    private static RequestSpecBuilder loadRequestSpecBuilder() {
+        return baseRequestSpecBuilder()
+                .setConfig(RestAssuredConfig.config()
+                        .httpClient(HttpClientConfig.httpClientConfig().reuseHttpClientInstance()));
+    }
+
+    public static RequestSpecification loadUnauthSpec() {
+        return loadRequestSpecBuilder().build();
+    }
+
+    public static RequestSpecification loadUserSpec(String email, String password) {
+        return loadRequestSpecBuilder()
+                .setAuth(RestAssured.oauth2(getUserAccessToken(email, password)))
+                .build();
+    }
+
     public static RequestSpecification unauthSpec() {
         return defaultRequestSpecBuilder().build();
     }
@@ -19,6 +19,11 @@ public class ResponseSpecs {
                 .build();
     }
 
+    // Без ожиданий: статус проверяет вызывающий код (нагрузочный прогон считает ошибки сам, а не падает)
+    public static ResponseSpecification anyStatusCode() {
+        return defaultResponseSpecBuilder().build();
+    }
+
     public static ResponseSpecification statusCodeAndSchema(int code, String schemaClasspath) {
         return defaultResponseSpecBuilder()
                 .expectStatusCode(code)
@@ -0,0 +1,74 @@
+-- Базовая схема: таблицы, ограничения и последовательности, которые раньше создавал Hibernate (ddl-auto).
+-- Существующая база, созданная Hibernate, принимается за эту версию (spring.flyway.baseline-on-migrate).
+-- INCREMENT BY последовательностей должен совпадать с allocationSize в сущностях.
+
+CREATE SEQUENCE authors_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE books_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE reviews_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE ratings_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE authors (
+    id         BIGINT       NOT NULL,
+    full_name  VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6),
+    CONSTRAINT pk_authors PRIMARY KEY (id),
+    CONSTRAINT uk_authors_full_name UNIQUE (full_name)
+);
+
+CREATE TABLE users (
+    id            BIGINT       NOT NULL,
+    nickname      VARCHAR(255) NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    role          VARCHAR(255) NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE books (
+    id              BIGINT        NOT NULL,
+    title           VARCHAR(255)  NOT NULL,
+    author_id       BIGINT        NOT NULL,
+    description     TEXT,
+    published_year  INTEGER,
+    genre           VARCHAR(255),
+    deletion_locked BOOLEAN       NOT NULL,
+    rating_avg      NUMERIC(4, 2) NOT NULL,
+    rating_count    INTEGER       NOT NULL,
+    image_path      VARCHAR(255),
+    pdf_path        VARCHAR(255),
+    created_at      TIMESTAMP(6)  NOT NULL,
+    updated_at      TIMESTAMP(6),
+    CONSTRAINT pk_books PRIMARY KEY (id),
+    -- Ведущая колонка title заодно обслуживает сортировку каталога по названию
+    CONSTRAINT uk_books_title_author UNIQUE (title, author_id),
+    CONSTRAINT fk_books_author FOREIGN KEY (author_id) REFERENCES authors (id)
+);
+
+CREATE TABLE reviews (
+    id         BIGINT       NOT NULL,
+    book_id    BIGINT       NOT NULL,
+    user_id    BIGINT       NOT NULL,
+    text       TEXT         NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    CONSTRAINT pk_reviews PRIMARY KEY (id),
+    CONSTRAINT uk_reviews_book_user UNIQUE (book_id, user_id),
+    CONSTRAINT fk_reviews_book FOREIGN KEY (book_id) REFERENCES books (id),
+    CONSTRAINT fk_reviews_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE TABLE ratings (
+    id         BIGINT       NOT NULL,
+    book_id    BIGINT       NOT NULL,
+    user_id    BIGINT       NOT NULL,
+    value      SMALLINT     NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    CONSTRAINT pk_ratings PRIMARY KEY (id),
+    CONSTRAINT uk_ratings_book_user UNIQUE (book_id, user_id),
+    CONSTRAINT fk_ratings_book FOREIGN KEY (book_id) REFERENCES books (id),
+    CONSTRAINT fk_ratings_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
@@ -0,0 +1,19 @@
+-- Перевод ID сущностей с IDENTITY на последовательности с пулом (allocationSize = 50).
+-- Нужен базам, созданным Hibernate до перехода на последовательности; для схемы из V1 ничего не меняет.
+-- INCREMENT BY должен совпадать с allocationSize, иначе Hibernate откажется стартовать или выдаст повторяющиеся ID.
+
+DO $$
+DECLARE
+    t TEXT;
+    next_id BIGINT;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['authors', 'books', 'users', 'reviews', 'ratings'] LOOP
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', t);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP DEFAULT', t);
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I INCREMENT BY 50 START WITH 1', t || '_seq');
+        EXECUTE format('ALTER SEQUENCE %I INCREMENT BY 50', t || '_seq');
+        EXECUTE format('SELECT COALESCE(MAX(id), 0) + 1 FROM %I', t) INTO next_id;
+        -- Пул Hibernate выдает ID (значение - 49 .. значение), поэтому следующее значение сдвигаем на размер пула
+        EXECUTE format('SELECT setval(%L, %s, false)', t || '_seq', next_id + 49);
+    END LOOP;
+END $$;
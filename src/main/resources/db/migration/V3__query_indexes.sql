@@ -0,0 +1,33 @@
+-- Индексы под формы запросов репозиториев. Уникальные ограничения из V1 уже покрывают:
+-- books(title, author_id) - existsByTitleAndAuthorId, findTitleAuthorPairs и сортировку каталога по title;
+-- reviews/ratings(book_id, user_id) - findByBookIdAndUserId, existsByBookIdAndUserId;
+-- authors(full_name), users(email). Индексы content_blobs и stored_files - в V7 вместе с таблицами.
+-- IF NOT EXISTS - для баз, принятых за V1 из схемы Hibernate.
+
+-- BookRepository: findByAuthorId, findUndeletableByAuthorId, findFileRefsByAuthorId, deleteByAuthorId,
+-- а также соединение с authors при сортировке каталога по author.fullName
+CREATE INDEX IF NOT EXISTS idx_books_author_id ON books (author_id);
+
+-- Сортировки каталога (GET /api/v1/books?sort=...): ratingAvg, genre, createdAt, publishedYear, updatedAt.
+-- B-tree читается в обе стороны, поэтому один индекс обслуживает и asc, и desc
+CREATE INDEX IF NOT EXISTS idx_books_rating_avg ON books (rating_avg);
+CREATE INDEX IF NOT EXISTS idx_books_genre ON books (genre);
+CREATE INDEX IF NOT EXISTS idx_books_created_at ON books (created_at);
+CREATE INDEX IF NOT EXISTS idx_books_published_year ON books (published_year);
+CREATE INDEX IF NOT EXISTS idx_books_updated_at ON books (updated_at);
+
+-- ReviewRepository: findByBookIdOrderByCreatedAtDesc (список и страницы), findByBookIdWithUserOrderByCreatedAtDesc,
+-- findByBookIdIn, countByBookId и проверка отзывов при удалении книг
+CREATE INDEX IF NOT EXISTS idx_reviews_book_id_created_at ON reviews (book_id, created_at DESC);
+-- ReviewRepository.findByUserIdOrderByCreatedAtDesc и каскадное удаление отзывов пользователя
+CREATE INDEX IF NOT EXISTS idx_reviews_user_id_created_at ON reviews (user_id, created_at DESC);
+
+-- RatingRepository: calculateAverageRating и countByBookId читают только индекс благодаря INCLUDE (value)
+CREATE INDEX IF NOT EXISTS idx_ratings_book_id ON ratings (book_id) INCLUDE (value);
+-- Каскадное удаление оценок пользователя
+CREATE INDEX IF NOT EXISTS idx_ratings_user_id ON ratings (user_id);
+
+-- UserRepository.findPageAfter: фильтр по роли с keyset по id
+CREATE INDEX IF NOT EXISTS idx_users_role_id ON users (role, id);
+-- UserRepository.findPageAfter и выгрузка: фильтр email LIKE 'prefix%' (обычный индекс не работает с LIKE вне локали C)
+CREATE INDEX IF NOT EXISTS idx_users_email_pattern ON users (email varchar_pattern_ops);
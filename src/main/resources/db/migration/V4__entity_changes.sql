@@ -0,0 +1,14 @@
+-- Журнал изменений книг и авторов для сброса локальных кэшей на всех подах.
+-- Запись добавляется в той же транзакции, что и изменение, вместе с NOTIFY entity_changes.
+-- Под, потерявший соединение для LISTEN, по этому журналу досбрасывает пропущенные изменения.
+-- Старые записи периодически удаляются (app.cache.notifications.retention).
+CREATE TABLE entity_changes (
+    seq        BIGINT       GENERATED ALWAYS AS IDENTITY,
+    entity     VARCHAR(32)  NOT NULL,
+    entity_id  BIGINT       NOT NULL,
+    changed_at TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    CONSTRAINT pk_entity_changes PRIMARY KEY (seq)
+);
+
+-- Досбрасывание после переподключения и очистка журнала идут по времени изменения
+CREATE INDEX idx_entity_changes_changed_at ON entity_changes (changed_at);
@@ -0,0 +1,8 @@
+-- Отпечаток демонстрационного наполнения (данные, исходные файлы, версия схемы).
+-- Если отпечаток совпадает, DataInitializer при старте ничего не делает.
+CREATE TABLE seed_state (
+    name        VARCHAR(64) NOT NULL,
+    fingerprint VARCHAR(64) NOT NULL,
+    seeded_at   TIMESTAMPTZ NOT NULL,
+    CONSTRAINT pk_seed_state PRIMARY KEY (name)
+);
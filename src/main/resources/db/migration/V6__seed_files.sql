@@ -0,0 +1,14 @@
+-- Манифест исходных обложек и PDF демонстрационных книг: что и куда уже синхронизировано.
+-- Файл с теми же размером и временем изменения при следующем старте не читается,
+-- измененный копируется в хранилище, только если изменилось его содержимое (sha256).
+CREATE TABLE seed_files (
+    area        VARCHAR(16)  NOT NULL,
+    file_name   VARCHAR(255) NOT NULL,
+    byte_length BIGINT       NOT NULL,
+    modified_at TIMESTAMPTZ  NOT NULL,
+    sha256      VARCHAR(64)  NOT NULL,
+    storage_key VARCHAR(255) NOT NULL,
+    book_id     BIGINT,
+    synced_at   TIMESTAMPTZ  NOT NULL,
+    CONSTRAINT pk_seed_files PRIMARY KEY (area, file_name)
+);
@@ -0,0 +1,35 @@
+-- Хранилище файлов с адресацией по содержимому: объекты (content_blobs) и метаданные файлов (stored_files).
+-- Этих таблиц не было в схеме, которую создавал Hibernate, поэтому в базах, принятых за V1, их еще нет.
+-- IF NOT EXISTS - для баз, где таблицы уже создала ранняя редакция V1.
+-- content_blobs и stored_files остаются на IDENTITY: их строки вставляются нативными upsert-запросами.
+
+CREATE TABLE IF NOT EXISTS content_blobs (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    area        VARCHAR(16)   NOT NULL,
+    sha256      VARCHAR(64)   NOT NULL,
+    byte_length BIGINT        NOT NULL,
+    ref_count   INTEGER       NOT NULL,
+    storage_key VARCHAR(1024) NOT NULL,
+    created_at  TIMESTAMP(6)  NOT NULL,
+    CONSTRAINT pk_content_blobs PRIMARY KEY (id),
+    CONSTRAINT uk_content_blobs_area_sha256 UNIQUE (area, sha256)
+);
+
+CREATE TABLE IF NOT EXISTS stored_files (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    area         VARCHAR(16)              NOT NULL,
+    storage_key  VARCHAR(1024)            NOT NULL,
+    content_type VARCHAR(100)             NOT NULL,
+    byte_length  BIGINT                   NOT NULL,
+    sha256       VARCHAR(64)              NOT NULL,
+    modified_at  TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    width        INTEGER,
+    height       INTEGER,
+    CONSTRAINT pk_stored_files PRIMARY KEY (id),
+    CONSTRAINT uk_stored_files_area_storage_key UNIQUE (area, storage_key)
+);
+
+-- ContentBlobRepository.findByAreaAndStorageKey (освобождение ссылок при удалении и замене файлов)
+CREATE INDEX IF NOT EXISTS idx_content_blobs_area_storage_key ON content_blobs (area, storage_key);
+-- ContentBlobRepository.findUnreferenced: частичный индекс остается крошечным
+CREATE INDEX IF NOT EXISTS idx_content_blobs_unreferenced ON content_blobs (id) WHERE ref_count <= 0;
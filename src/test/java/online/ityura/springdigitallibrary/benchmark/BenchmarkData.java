@@ -0,0 +1,64 @@
+package online.ityura.springdigitallibrary.benchmark;
+
+import online.ityura.springdigitallibrary.model.Author;
+import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.Genre;
+import online.ityura.springdigitallibrary.model.Review;
+import online.ityura.springdigitallibrary.model.Role;
+import online.ityura.springdigitallibrary.model.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Общие данные для бенчмарков: книга с автором и отзывы с пользователями, как после загрузки из БД.
+ */
+final class BenchmarkData {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 15, 12, 30, 45);
+
+    private BenchmarkData() {
+    }
+
+    static Book book() {
+        return Book.builder()
+                .id(42L)
+                .title("Мастер и Маргарита")
+                .author(Author.builder().id(7L).fullName("Михаил Булгаков").build())
+                .description("Роман о визите дьявола в Москву 1930-х годов и о любви Мастера и Маргариты.")
+                .publishedYear(1967)
+                .genre(Genre.FICTION)
+                .ratingAvg(new BigDecimal("8.75"))
+                .ratingCount(1234)
+                .imagePath("3f/a1/3fa1c0de.jpg")
+                .pdfPath("9b/2e/9b2e7f11.pdf")
+                .createdAt(CREATED_AT)
+                .updatedAt(CREATED_AT.plusDays(3))
+                .build();
+    }
+
+    static List<Review> reviews(Book book, int count) {
+        List<Review> reviews = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            User user = User.builder()
+                    .id((long) i)
+                    .nickname("reader" + i)
+                    .email("reader" + i + "@example.com")
+                    .passwordHash("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z6eM7cM3bH4l4Wz1p4m2a5yO")
+                    .role(Role.USER)
+                    .createdAt(CREATED_AT)
+                    .build();
+            reviews.add(Review.builder()
+                    .id((long) i)
+                    .book(book)
+                    .user(user)
+                    .text("Отзыв №" + i + ": книга читается на одном дыхании, перечитываю уже не первый раз.")
+                    .createdAt(CREATED_AT.plusMinutes(i))
+                    .updatedAt(CREATED_AT.plusMinutes(i))
+                    .build());
+        }
+        return reviews;
+    }
+}
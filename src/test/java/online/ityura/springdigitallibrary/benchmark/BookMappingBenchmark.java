@@ -0,0 +1,90 @@
+package online.ityura.springdigitallibrary.benchmark;
+
+import online.ityura.springdigitallibrary.dto.response.BookResponse;
+import online.ityura.springdigitallibrary.dto.response.ReviewResponse;
+import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.Review;
+import online.ityura.springdigitallibrary.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Маппинг сущностей в DTO в BookService: книга со списком отзывов и отдельный отзыв.
+ * Методы приватные, поэтому вызываются через MethodHandle (после JIT накладные расходы сопоставимы с прямым вызовом).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookMappingBenchmark {
+
+    private static final MethodHandle MAP_BOOK;
+    private static final MethodHandle MAP_REVIEW;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(BookService.class, MethodHandles.lookup());
+            MAP_BOOK = lookup.findVirtual(BookService.class, "mapToBookResponseWithReviews",
+                    MethodType.methodType(BookResponse.class, Book.class, List.class));
+            MAP_REVIEW = lookup.findVirtual(BookService.class, "mapToReviewResponse",
+                    MethodType.methodType(ReviewResponse.class, Review.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"0", "10", "100"})
+    public int reviewCount;
+
+    private BookService bookService;
+    private Book book;
+    private Review review;
+    private List<Review> reviews;
+    private List<ReviewResponse> reviewResponses;
+
+    @Setup
+    public void setUp() throws Throwable {
+        bookService = new BookService();
+        book = BenchmarkData.book();
+        reviews = BenchmarkData.reviews(book, reviewCount);
+        review = BenchmarkData.reviews(book, 1).get(0);
+        reviewResponses = new ArrayList<>(reviewCount);
+        for (Review r : reviews) {
+            reviewResponses.add((ReviewResponse) MAP_REVIEW.invokeExact(bookService, r));
+        }
+    }
+
+    @Benchmark
+    public ReviewResponse mapToReviewResponse() throws Throwable {
+        return (ReviewResponse) MAP_REVIEW.invokeExact(bookService, review);
+    }
+
+    @Benchmark
+    public BookResponse mapToBookResponseWithReviews() throws Throwable {
+        return (BookResponse) MAP_BOOK.invokeExact(bookService, book, reviewResponses);
+    }
+
+    /**
+     * Полный путь getBookById: отзывы книги в DTO, затем книга.
+     */
+    @Benchmark
+    public BookResponse mapBookWithReviewEntities() throws Throwable {
+        List<ReviewResponse> mapped = new ArrayList<>(reviews.size());
+        for (Review r : reviews) {
+            mapped.add((ReviewResponse) MAP_REVIEW.invokeExact(bookService, r));
+        }
+        return (BookResponse) MAP_BOOK.invokeExact(bookService, book, mapped);
+    }
+}
@@ -0,0 +1,81 @@
+package online.ityura.springdigitallibrary.benchmark;
+
+import online.ityura.springdigitallibrary.dto.response.AuthorResponse;
+import online.ityura.springdigitallibrary.dto.response.BookResponse;
+import online.ityura.springdigitallibrary.dto.response.ReviewResponse;
+import online.ityura.springdigitallibrary.dto.response.UserInfoResponse;
+import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.Review;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация BookResponse в JSON тем же Jackson 3, которым Spring MVC пишет ответы контроллеров.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BookResponseJsonBenchmark {
+
+    @Param({"0", "10", "100"})
+    public int reviewCount;
+
+    private ObjectWriter writer;
+    private BookResponse response;
+
+    @Setup
+    public void setUp() {
+        writer = JsonMapper.builder().build().writerFor(BookResponse.class);
+        Book book = BenchmarkData.book();
+        List<ReviewResponse> reviews = new ArrayList<>(reviewCount);
+        for (Review review : BenchmarkData.reviews(book, reviewCount)) {
+            reviews.add(ReviewResponse.builder()
+                    .id(review.getId())
+                    .bookId(book.getId())
+                    .user(UserInfoResponse.builder()
+                            .id(review.getUser().getId())
+                            .nickname(review.getUser().getNickname())
+                            .email(review.getUser().getEmail())
+                            .build())
+                    .text(review.getText())
+                    .createdAt(review.getCreatedAt())
+                    .updatedAt(review.getUpdatedAt())
+                    .build());
+        }
+        response = BookResponse.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .author(AuthorResponse.builder()
+                        .id(book.getAuthor().getId())
+                        .fullName(book.getAuthor().getFullName())
+                        .build())
+                .description(book.getDescription())
+                .publishedYear(book.getPublishedYear())
+                .genre(book.getGenre())
+                .ratingAvg(book.getRatingAvg())
+                .ratingCount(book.getRatingCount())
+                .hasFile(true)
+                .imagePath(book.getImagePath())
+                .createdAt(book.getCreatedAt())
+                .updatedAt(book.getUpdatedAt())
+                .reviews(reviews)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] writeBookResponse() {
+        return writer.writeValueAsBytes(response);
+    }
+}
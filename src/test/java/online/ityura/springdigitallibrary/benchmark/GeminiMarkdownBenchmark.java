@@ -0,0 +1,66 @@
+package online.ityura.springdigitallibrary.benchmark;
+
+import online.ityura.springdigitallibrary.service.GeminiService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GeminiService.cleanMarkdownFormatting на типичном ответе модели: заголовки, списки, жирный текст,
+ * экранированные кавычки. Размер ответа задается числом повторов фрагмента.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeminiMarkdownBenchmark {
+
+    private static final MethodHandle CLEAN_MARKDOWN;
+
+    private static final String FRAGMENT = """
+            ### О книге
+            **«Мастер и Маргарита»** - роман, который _стоит_ прочитать.
+            - Сатира на \\"московский быт\\"
+            * Философская линия Пилата
+            > Рукописи не горят.
+            ---
+            Итог: __обязательно__ к прочтению, особенно *вторая часть*.
+            """;
+
+    static {
+        try {
+            CLEAN_MARKDOWN = MethodHandles.privateLookupIn(GeminiService.class, MethodHandles.lookup())
+                    .findVirtual(GeminiService.class, "cleanMarkdownFormatting",
+                            MethodType.methodType(String.class, String.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"1", "20"})
+    public int fragments;
+
+    private GeminiService geminiService;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        // HTTP-клиент методу не нужен
+        geminiService = new GeminiService(null, null, "benchmark-key");
+        text = FRAGMENT.repeat(fragments);
+    }
+
+    @Benchmark
+    public String cleanMarkdownFormatting() throws Throwable {
+        return (String) CLEAN_MARKDOWN.invokeExact(geminiService, text);
+    }
+}
@@ -0,0 +1,84 @@
+package online.ityura.springdigitallibrary.benchmark;
+
+import jakarta.servlet.FilterChain;
+import online.ityura.springdigitallibrary.security.JwtAuthenticationFilter;
+import online.ityura.springdigitallibrary.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtAuthenticationFilter на разных путях: Swagger, публичные эндпоинты книг (проверяются регулярными выражениями)
+ * и защищенный эндпоинт, где проверки публичных путей проходят целиком.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    @Param({"/swagger-ui/index.html", "/api/v1/books", "/api/v1/books/42/image", "/api/v1/books/42/reviews",
+            "/api/v1/books/42/rating"})
+    public String path;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest anonymousRequest;
+    private MockHttpServletRequest authenticatedRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        JwtTokenProvider jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "secret", "benchmark-secret-key-that-is-long-enough-for-hs256");
+        ReflectionTestUtils.setField(jwtTokenProvider, "expiration", 3_000_000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "refreshExpiration", 86_400_000L);
+        UserDetails userDetails = User.withUsername("reader@example.com").password("unused").roles("USER").build();
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtTokenProvider", jwtTokenProvider);
+        UserDetailsService userDetailsService = username -> userDetails;
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+
+        anonymousRequest = new MockHttpServletRequest("GET", path);
+        authenticatedRequest = new MockHttpServletRequest("GET", path);
+        authenticatedRequest.addHeader("Authorization",
+                "Bearer " + jwtTokenProvider.generateToken(userDetails.getUsername(), "USER"));
+        response = new MockHttpServletResponse();
+    }
+
+    /**
+     * Только сопоставление пути и проверка заголовка: запрос без токена.
+     */
+    @Benchmark
+    public void anonymousRequest() throws Exception {
+        filter.doFilter(anonymousRequest, response, NO_OP_CHAIN);
+    }
+
+    /**
+     * Запрос с токеном: на защищенных путях добавляются разбор JWT и заполнение SecurityContext.
+     */
+    @Benchmark
+    public void authenticatedRequest() throws Exception {
+        try {
+            filter.doFilter(authenticatedRequest, response, NO_OP_CHAIN);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package online.ityura.springdigitallibrary.benchmark;
+
+import online.ityura.springdigitallibrary.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и проверка JWT: то, что выполняется при логине и на каждом аутентифицированном запросе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private UserDetails userDetails;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "secret", "benchmark-secret-key-that-is-long-enough-for-hs256");
+        ReflectionTestUtils.setField(jwtTokenProvider, "expiration", 3_000_000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "refreshExpiration", 86_400_000L);
+        userDetails = User.withUsername("reader@example.com").password("unused").roles("USER").build();
+        accessToken = jwtTokenProvider.generateToken(userDetails.getUsername(), "USER");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenProvider.generateToken(userDetails.getUsername(), "USER");
+    }
+
+    /**
+     * Последовательность JwtAuthenticationFilter для валидного токена: три разбора одного и того же токена.
+     */
+    @Benchmark
+    public String validateToken() {
+        String username = jwtTokenProvider.extractUsername(accessToken);
+        if (!jwtTokenProvider.validateToken(accessToken, userDetails)) {
+            throw new IllegalStateException("Token must be valid");
+        }
+        return username + jwtTokenProvider.getRoleFromToken(accessToken);
+    }
+
+    @Benchmark
+    public Boolean isRefreshToken() {
+        return jwtTokenProvider.isRefreshToken(accessToken);
+    }
+}
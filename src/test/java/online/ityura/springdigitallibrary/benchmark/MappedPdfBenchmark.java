@@ -0,0 +1,98 @@
+package online.ityura.springdigitallibrary.benchmark;
+
+import online.ityura.springdigitallibrary.cache.MappedPdfPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отдача PDF из {@link MappedPdfPool} (ByteBufferResource поверх MappedByteBuffer) против потока UrlResource:
+ * полный ответ и Range-запрос из середины файла. Копирование идет через StreamUtils, как в конвертерах
+ * Spring MVC для Resource и ResourceRegion. Файл после первого прогона лежит в page cache, поэтому
+ * сравнивается цена открытия файла и копирования через поток, а не чтение с диска.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MappedPdfBenchmark {
+
+    private static final String PDF_KEY = "9b/2e/9b2e7f11.pdf";
+
+    // Типичный запрос страницы встроенного просмотрщика PDF
+    private static final long RANGE_LENGTH = 64 * 1024;
+
+    @Param({"1048576", "16777216"})
+    public int fileSize;
+
+    private Path file;
+    private MappedPdfPool mappedPdfPool;
+    private Resource urlResource;
+    private long rangeStart;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("mapped-pdf-benchmark-", ".pdf");
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        Files.write(file, content);
+
+        // Файл становится горячим с первого скачивания и сразу отображается в память
+        mappedPdfPool = new MappedPdfPool(Integer.MAX_VALUE, 1, 16);
+        if (mappedPdfPool.open(PDF_KEY, file, fileSize) == null) {
+            throw new IllegalStateException("PDF must be mapped");
+        }
+        urlResource = new UrlResource(file.toUri());
+        rangeStart = fileSize / 2;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        mappedPdfPool.clear();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long mappedFull() throws IOException {
+        try (InputStream input = mappedPdfPool.open(PDF_KEY, file, fileSize).getInputStream()) {
+            return StreamUtils.copy(input, OutputStream.nullOutputStream());
+        }
+    }
+
+    @Benchmark
+    public long urlResourceFull() throws IOException {
+        try (InputStream input = urlResource.getInputStream()) {
+            return StreamUtils.copy(input, OutputStream.nullOutputStream());
+        }
+    }
+
+    @Benchmark
+    public long mappedRange() throws IOException {
+        try (InputStream input = mappedPdfPool.open(PDF_KEY, file, fileSize).getInputStream()) {
+            return StreamUtils.copyRange(input, OutputStream.nullOutputStream(), rangeStart, rangeStart + RANGE_LENGTH - 1);
+        }
+    }
+
+    @Benchmark
+    public long urlResourceRange() throws IOException {
+        try (InputStream input = urlResource.getInputStream()) {
+            return StreamUtils.copyRange(input, OutputStream.nullOutputStream(), rangeStart, rangeStart + RANGE_LENGTH - 1);
+        }
+    }
+}
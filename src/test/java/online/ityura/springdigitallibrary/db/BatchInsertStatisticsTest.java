@@ -0,0 +1,331 @@
+package online.ityura.springdigitallibrary.db;
+
+import online.ityura.springdigitallibrary.config.DataInitializer;
+import online.ityura.springdigitallibrary.model.Author;
+import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.Genre;
+import online.ityura.springdigitallibrary.model.Rating;
+import online.ityura.springdigitallibrary.model.Review;
+import online.ityura.springdigitallibrary.model.Role;
+import online.ityura.springdigitallibrary.model.User;
+import org.hibernate.Session;
+import org.hibernate.SessionEventListener;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Проверяет по статистике Hibernate, что пакетная запись действительно работает: ID берутся из пула
+ * последовательности (allocationSize 50), а INSERT уходят пакетами по hibernate.jdbc.batch_size.
+ * Нагрузка повторяет запись DataInitializer на пустой БД (его же пользователи и книги) и createBooks на 10 000 книг.
+ * Подготовленные запросы считает {@link Statistics}, выполненные пакеты - {@link SessionEventListener}:
+ * в статистике Hibernate отдельного счетчика пакетов нет.
+ * Нужна PostgreSQL, как для {@link QueryPlanTest} (EXPLAIN_DB_*); без нее тест пропускается.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BatchInsertStatisticsTest {
+
+    // Значения из application.properties и allocationSize последовательностей
+    private static final int BATCH_SIZE = 50;
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final int CREATE_BOOKS = 10_000;
+    // AdminBookService.IN_CLAUSE_CHUNK_SIZE
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+    private String url;
+    private String username;
+    private String password;
+    private String schema;
+    private SessionFactory sessionFactory;
+
+    @BeforeAll
+    void setUp() throws Exception {
+        url = QueryPlanTest.setting("explain.db.url", "EXPLAIN_DB_URL");
+        assumeTrue(url != null && !url.isBlank(), "EXPLAIN_DB_URL is not set, skipping batch insert statistics");
+        username = QueryPlanTest.setting("explain.db.username", "EXPLAIN_DB_USERNAME");
+        password = QueryPlanTest.setting("explain.db.password", "EXPLAIN_DB_PASSWORD");
+        schema = "batching_" + UUID.randomUUID().toString().replace("-", "");
+
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+            statement.execute("SET search_path TO " + schema);
+            for (Path migration : QueryPlanTest.migrations()) {
+                statement.execute(Files.readString(migration, StandardCharsets.UTF_8));
+            }
+        }
+        sessionFactory = sessionFactory();
+    }
+
+    @AfterAll
+    void tearDown() throws SQLException {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+        if (schema == null) {
+            return;
+        }
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        }
+    }
+
+    @Test
+    void testDataInitializerSeeding_ShouldInsertEachEntityInBatches() {
+        // Given
+        Object[] seedUsers = (Object[]) ReflectionTestUtils.getField(DataInitializer.class, "USERS");
+        Object[] seedBooks = (Object[]) ReflectionTestUtils.getField(DataInitializer.class, "BOOKS");
+        @SuppressWarnings("unchecked")
+        List<String> reviewerEmails = (List<String>) ReflectionTestUtils.getField(DataInitializer.class, "REVIEWER_EMAILS");
+        assertNotNull(seedUsers);
+        assertNotNull(seedBooks);
+        assertNotNull(reviewerEmails);
+
+        // When & Then
+        // initializeUsers: один запрос существующих и saveAll
+        Map<String, User> users = new HashMap<>();
+        assertBatched("users", seedUsers.length, 1, session -> {
+            session.createQuery("SELECT u FROM User u WHERE u.email IN :emails", User.class)
+                    .setParameter("emails", List.of("none@example.com"))
+                    .getResultList();
+            for (Object seedUser : seedUsers) {
+                User user = User.builder()
+                        .nickname((String) ReflectionTestUtils.getField(seedUser, "nickname"))
+                        .email((String) ReflectionTestUtils.getField(seedUser, "email"))
+                        .passwordHash("{noop}seed")
+                        .role((Role) ReflectionTestUtils.getField(seedUser, "role"))
+                        .build();
+                session.persist(user);
+                users.put(user.getEmail(), user);
+            }
+        });
+
+        // AuthorResolver.resolveAll: нативные INSERT ... ON CONFLICT по одному на автора, в пакеты не попадают
+        Map<String, Long> authorIds = new HashMap<>();
+        runInTransaction(session -> {
+            TreeSet<String> names = new TreeSet<>();
+            for (Object seedBook : seedBooks) {
+                names.add((String) ReflectionTestUtils.getField(seedBook, "authorName"));
+            }
+            for (String name : names) {
+                authorIds.put(name, insertAuthor(session, name));
+            }
+        });
+
+        // initializeBooks: один запрос существующих книг и saveAll
+        List<Book> books = new ArrayList<>();
+        assertBatched("books", seedBooks.length, 1, session -> {
+            session.createQuery("SELECT b FROM Book b WHERE b.author.id IN :authorIds AND b.title IN :titles", Book.class)
+                    .setParameter("authorIds", List.of(-1L))
+                    .setParameter("titles", List.of("none"))
+                    .getResultList();
+            for (Object seedBook : seedBooks) {
+                Book book = Book.builder()
+                        .title((String) ReflectionTestUtils.getField(seedBook, "title"))
+                        .author(session.getReference(Author.class,
+                                authorIds.get((String) ReflectionTestUtils.getField(seedBook, "authorName"))))
+                        .description((String) ReflectionTestUtils.getField(seedBook, "description"))
+                        .publishedYear((Integer) ReflectionTestUtils.getField(seedBook, "publishedYear"))
+                        .genre((Genre) ReflectionTestUtils.getField(seedBook, "genre"))
+                        .deletionLocked(false)
+                        .build();
+                session.persist(book);
+                books.add(book);
+            }
+        });
+
+        // addFunnyReviews: отзыв и оценка к каждой второй книге, одна транзакция и один UPDATE агрегатов
+        List<Long> reviewedBookIds = new ArrayList<>();
+        for (int i = 1; i < books.size(); i += 2) {
+            reviewedBookIds.add(books.get(i).getId());
+        }
+        List<Long> reviewerIds = reviewerEmails.stream().map(email -> users.get(email).getId()).toList();
+        // Два запроса существующих пар и UPDATE агрегатов
+        assertBatched("reviews and ratings", reviewedBookIds.size() * 2L, 3, session -> {
+            session.createQuery("SELECT r.book.id, r.user.id FROM Review r WHERE r.book.id IN :bookIds " +
+                            "AND r.user.id IN :userIds", Object[].class)
+                    .setParameter("bookIds", reviewedBookIds)
+                    .setParameter("userIds", reviewerIds)
+                    .getResultList();
+            session.createQuery("SELECT r.book.id, r.user.id FROM Rating r WHERE r.book.id IN :bookIds " +
+                            "AND r.user.id IN :userIds", Object[].class)
+                    .setParameter("bookIds", reviewedBookIds)
+                    .setParameter("userIds", reviewerIds)
+                    .getResultList();
+            for (int i = 0; i < reviewedBookIds.size(); i++) {
+                Book book = session.getReference(Book.class, reviewedBookIds.get(i));
+                User reviewer = session.getReference(User.class, reviewerIds.get(i % reviewerIds.size()));
+                session.persist(Review.builder().book(book).user(reviewer).text("Seed review " + i).build());
+                session.persist(Rating.builder().book(book).user(reviewer).value((short) 9).build());
+            }
+            session.flush();
+            session.createNativeMutationQuery("UPDATE " + schema + ".books b SET rating_avg = s.avg_value, " +
+                            "rating_count = s.rating_count FROM (SELECT book_id, ROUND(AVG(value), 2) AS avg_value, " +
+                            "COUNT(*) AS rating_count FROM " + schema + ".ratings WHERE book_id IN (:bookIds) " +
+                            "GROUP BY book_id) s WHERE b.id = s.book_id")
+                    .setParameter("bookIds", reviewedBookIds)
+                    .executeUpdate();
+        });
+        assertEquals(reviewedBookIds.size(), countRatedBooks());
+    }
+
+    @Test
+    void testCreateBooks_TenThousandBooks_ShouldSendInsertsInBatches() {
+        // Given
+        Long authorId = inTransaction(session -> insertAuthor(session, "Batch Author " + UUID.randomUUID()));
+
+        // When & Then
+        // AdminBookService.createBooks: проверка пар (title, author) порциями по 1000 и saveAll
+        int chunks = (CREATE_BOOKS + IN_CLAUSE_CHUNK_SIZE - 1) / IN_CLAUSE_CHUNK_SIZE;
+        assertBatched("createBooks", CREATE_BOOKS, chunks, session -> {
+            Author author = session.getReference(Author.class, authorId);
+            for (int from = 0; from < CREATE_BOOKS; from += IN_CLAUSE_CHUNK_SIZE) {
+                List<String> titles = new ArrayList<>();
+                for (int i = from; i < Math.min(from + IN_CLAUSE_CHUNK_SIZE, CREATE_BOOKS); i++) {
+                    titles.add("Generated book " + i);
+                }
+                List<Object[]> existing = session.createQuery(
+                                "SELECT b.title, b.author.id FROM Book b WHERE b.author.id IN :authorIds AND b.title IN :titles",
+                                Object[].class)
+                        .setParameter("authorIds", List.of(authorId))
+                        .setParameter("titles", titles)
+                        .getResultList();
+                assertTrue(existing.isEmpty());
+            }
+            for (int i = 0; i < CREATE_BOOKS; i++) {
+                session.persist(Book.builder()
+                        .title("Generated book " + i)
+                        .author(author)
+                        .genre(Genre.FICTION)
+                        .deletionLocked(false)
+                        .build());
+            }
+        });
+    }
+
+    /**
+     * Выполняет запись в одной транзакции и проверяет, что rows строк ушли пакетами: число пакетов равно
+     * сумме ceil(n / batch_size) по сущностям, а подготовленных запросов не больше, чем чтений, обращений
+     * к последовательностям (одно на allocationSize ID, плюс начальное) и пакетов - то есть по одному на пакет,
+     * а не на строку.
+     */
+    private void assertBatched(String workload, long rows, int reads, Consumer<Session> work) {
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        BatchCounter batchCounter = new BatchCounter();
+        long started = System.nanoTime();
+        try (Session session = sessionFactory.withOptions().eventListeners(batchCounter).openSession()) {
+            session.beginTransaction();
+            work.accept(session);
+            session.getTransaction().commit();
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+
+        long prepared = statistics.getPrepareStatementCount();
+        long inserted = statistics.getEntityInsertCount();
+        System.out.println(workload + ": " + inserted + " rows, " + prepared + " prepared statements, "
+                + batchCounter.batches + " JDBC batches, " + millis + " ms");
+
+        assertEquals(rows, inserted);
+        long expectedBatches = 0;
+        long maxSequenceCalls = 0;
+        for (String entity : statistics.getEntityNames()) {
+            long entityRows = statistics.getEntityStatistics(entity).getInsertCount();
+            if (entityRows > 0) {
+                expectedBatches += (entityRows + BATCH_SIZE - 1) / BATCH_SIZE;
+                maxSequenceCalls += (entityRows + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE + 1;
+            }
+        }
+        assertEquals(expectedBatches, batchCounter.batches);
+        assertTrue(prepared <= reads + maxSequenceCalls + expectedBatches,
+                workload + ": " + prepared + " prepared statements for " + rows + " rows");
+    }
+
+    private Long insertAuthor(Session session, String fullName) {
+        return session.createNativeQuery("INSERT INTO " + schema + ".authors (id, full_name, created_at) " +
+                        "VALUES (nextval('" + schema + ".authors_seq'), :fullName, now()) " +
+                        "ON CONFLICT (full_name) DO NOTHING RETURNING id", Long.class)
+                .setParameter("fullName", fullName)
+                .getSingleResult();
+    }
+
+    private long countRatedBooks() {
+        return inTransaction(session -> session.createQuery(
+                        "SELECT COUNT(b) FROM Book b WHERE b.ratingCount > 0", Long.class)
+                .getSingleResult());
+    }
+
+    private <T> T inTransaction(Function<Session, T> work) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            T result = work.apply(session);
+            session.getTransaction().commit();
+            return result;
+        }
+    }
+
+    private void runInTransaction(Consumer<Session> work) {
+        inTransaction(session -> {
+            work.accept(session);
+            return null;
+        });
+    }
+
+    private SessionFactory sessionFactory() {
+        return new Configuration()
+                .addAnnotatedClass(Author.class)
+                .addAnnotatedClass(Book.class)
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(Review.class)
+                .addAnnotatedClass(Rating.class)
+                .setProperty("jakarta.persistence.jdbc.url", url)
+                .setProperty("jakarta.persistence.jdbc.user", username)
+                .setProperty("jakarta.persistence.jdbc.password", password)
+                .setProperty("hibernate.default_schema", schema)
+                .setProperty("hibernate.hbm2ddl.auto", "none")
+                .setProperty("hibernate.generate_statistics", "true")
+                .setProperty("hibernate.cache.use_second_level_cache", "false")
+                // Настройки пакетной записи из application.properties
+                .setProperty("hibernate.jdbc.batch_size", String.valueOf(BATCH_SIZE))
+                .setProperty("hibernate.order_inserts", "true")
+                .setProperty("hibernate.order_updates", "true")
+                .setProperty("hibernate.jdbc.batch_versioned_data", "true")
+                .buildSessionFactory();
+    }
+
+    private static final class BatchCounter implements SessionEventListener {
+
+        private long batches;
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            batches++;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package online.ityura.springdigitallibrary.db;
+
+import online.ityura.springdigitallibrary.model.Author;
+import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.Rating;
+import online.ityura.springdigitallibrary.model.Review;
+import online.ityura.springdigitallibrary.model.StoredFile;
+import online.ityura.springdigitallibrary.model.User;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Путь обновления существующей базы: схема, созданная Hibernate (ddl-auto=update) до перехода на Flyway,
+ * принимается за V1 (baseline-on-migrate), затем применяются остальные миграции. После этого сущности должны
+ * проходить ddl-auto=validate, с которым стартует приложение.
+ * Нужна PostgreSQL, как для {@link QueryPlanTest} (EXPLAIN_DB_*); без нее тест пропускается.
+ */
+class FlywayBaselineUpgradeTest {
+
+    private String url;
+    private String username;
+    private String password;
+    private String schema;
+
+    @BeforeEach
+    void setUp() throws SQLException, IOException {
+        url = QueryPlanTest.setting("explain.db.url", "EXPLAIN_DB_URL");
+        assumeTrue(url != null && !url.isBlank(), "EXPLAIN_DB_URL is not set, skipping baseline upgrade check");
+        username = QueryPlanTest.setting("explain.db.username", "EXPLAIN_DB_USERNAME");
+        password = QueryPlanTest.setting("explain.db.password", "EXPLAIN_DB_PASSWORD");
+        schema = "upgrade_" + UUID.randomUUID().toString().replace("-", "");
+
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+            statement.execute("SET search_path TO " + schema);
+            statement.execute(hibernateBaselineSchema());
+            // Данные, накопленные до перехода: ID из IDENTITY
+            statement.execute("INSERT INTO authors (id, full_name, created_at) VALUES (120, 'Author', now())");
+            statement.execute("INSERT INTO books (id, title, author_id, deletion_locked, rating_avg, rating_count, "
+                    + "created_at) VALUES (7, 'Book', 120, false, 0, 0, now())");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        if (schema == null) {
+            return;
+        }
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        }
+    }
+
+    @Test
+    void testMigrate_HibernateBaselineSchema_ShouldUpgradeToSchemaThatValidates() throws Exception {
+        // When
+        MigrateResult result = flyway().migrate();
+
+        // Then
+        assertTrue(result.success);
+        assertEquals(QueryPlanTest.migrations().size() - 1, result.migrationsExecuted,
+                "every migration after the V1 baseline should run");
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + schema);
+            assertTrue(tableExists(statement, "content_blobs"));
+            assertTrue(tableExists(statement, "stored_files"));
+            // V2 сдвигает последовательности за уже выданные IDENTITY ID
+            try (ResultSet next = statement.executeQuery("SELECT nextval('authors_seq')")) {
+                assertTrue(next.next());
+                assertTrue(next.getLong(1) - 49 > 120);
+            }
+        }
+        try (SessionFactory sessionFactory = validatingSessionFactory()) {
+            assertNotNull(sessionFactory);
+        }
+    }
+
+    @Test
+    void testMigrate_AlreadyMigrated_ShouldBeNoOp() {
+        // Given
+        flyway().migrate();
+
+        // When
+        MigrateResult result = flyway().migrate();
+
+        // Then
+        assertTrue(result.success);
+        assertEquals(0, result.migrationsExecuted);
+    }
+
+    private Flyway flyway() {
+        // Те же настройки, что spring.flyway.* в application.properties
+        return Flyway.configure()
+                .dataSource(url, username, password)
+                .schemas(schema)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+    }
+
+    private SessionFactory validatingSessionFactory() {
+        return new Configuration()
+                .addAnnotatedClass(Author.class)
+                .addAnnotatedClass(Book.class)
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(Review.class)
+                .addAnnotatedClass(Rating.class)
+                .addAnnotatedClass(ContentBlob.class)
+                .addAnnotatedClass(StoredFile.class)
+                .setProperty("jakarta.persistence.jdbc.url", url)
+                .setProperty("jakarta.persistence.jdbc.user", username)
+                .setProperty("jakarta.persistence.jdbc.password", password)
+                .setProperty("hibernate.default_schema", schema)
+                .setProperty("hibernate.hbm2ddl.auto", "validate")
+                .setProperty("hibernate.cache.use_second_level_cache", "false")
+                .buildSessionFactory();
+    }
+
+    private static boolean tableExists(Statement statement, String table) throws SQLException {
+        try (ResultSet tables = statement.executeQuery(
+                "SELECT 1 FROM information_schema.tables WHERE table_schema = current_schema() AND table_name = '"
+                        + table + "'")) {
+            return tables.next();
+        }
+    }
+
+    private static String hibernateBaselineSchema() throws IOException {
+        try (InputStream input = FlywayBaselineUpgradeTest.class.getClassLoader()
+                .getResourceAsStream("db/hibernate-baseline-schema.sql")) {
+            assertNotNull(input, "db/hibernate-baseline-schema.sql is not on the classpath");
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package online.ityura.springdigitallibrary.db;
+
+import online.ityura.springdigitallibrary.testinfra.generators.SyntheticDatasetGenerator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Проверяет планы запросов репозиториев через EXPLAIN на схеме из миграций Flyway.
+ * Последовательное сканирование запрещено (enable_seqscan = off): если планировщик все равно выбирает Seq Scan,
+ * значит подходящего индекса нет. Для запросов с сортировкой дополнительно запрещен узел Sort - порядок должен
+ * давать индекс.
+ * Нужна PostgreSQL: EXPLAIN_DB_URL, EXPLAIN_DB_USERNAME, EXPLAIN_DB_PASSWORD (переменные окружения или
+ * системные свойства explain.db.*). Без них тест пропускается. Работает во временной схеме и удаляет ее.
+ * С EXPLAIN_DB_SYNTHETIC=true планы проверяются на данных производственного объема из SyntheticDatasetGenerator.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryPlanTest {
+
+    private Connection connection;
+    private String schema;
+
+    @BeforeAll
+    void setUp() throws Exception {
+        String url = setting("explain.db.url", "EXPLAIN_DB_URL");
+        assumeTrue(url != null && !url.isBlank(), "EXPLAIN_DB_URL is not set, skipping query plan checks");
+
+        connection = DriverManager.getConnection(url,
+                setting("explain.db.username", "EXPLAIN_DB_USERNAME"),
+                setting("explain.db.password", "EXPLAIN_DB_PASSWORD"));
+        schema = "explain_" + UUID.randomUUID().toString().replace("-", "");
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+            statement.execute("SET search_path TO " + schema);
+            for (Path migration : migrations()) {
+                statement.execute(Files.readString(migration, StandardCharsets.UTF_8));
+            }
+            seed(statement);
+            if (Boolean.parseBoolean(setting("explain.db.synthetic", "EXPLAIN_DB_SYNTHETIC"))) {
+                // Производственный объем поверх базового набора, объемы задаются DATASET_* (см. SyntheticDatasetGenerator)
+                new SyntheticDatasetGenerator(SyntheticDatasetGenerator.Volumes.fromSettings(), 1.0, 0.8, 42, "Bench123!")
+                        .load(connection);
+            }
+            statement.execute("ANALYZE");
+            statement.execute("SET enable_seqscan = off");
+        }
+    }
+
+    @AfterAll
+    void tearDown() throws SQLException {
+        if (connection == null) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        } finally {
+            connection.close();
+        }
+    }
+
+    static Stream<Arguments> filteredQueries() {
+        return Stream.of(
+                Arguments.of("BookRepository.findByAuthorId",
+                        "SELECT * FROM books WHERE author_id = 7"),
+                Arguments.of("BookRepository.findUndeletableByAuthorId",
+                        "SELECT b.id, b.deletion_locked FROM books b WHERE b.author_id = 7 " +
+                        "AND (b.deletion_locked = true OR EXISTS (SELECT 1 FROM reviews r WHERE r.book_id = b.id)) ORDER BY b.id"),
+                Arguments.of("BookRepository.deleteByAuthorId",
+                        "DELETE FROM books WHERE author_id = 7"),
+                Arguments.of("BookRepository.existsByTitleAndAuthorId",
+                        "SELECT 1 FROM books WHERE title = 'Book 42' AND author_id = 7 LIMIT 1"),
+                Arguments.of("BookRepository.findTitleAuthorPairs",
+                        "SELECT title, author_id FROM books WHERE author_id IN (1, 2, 3) AND title IN ('Book 1', 'Book 2')"),
+                Arguments.of("ReviewRepository.countByBookId",
+                        "SELECT count(*) FROM reviews WHERE book_id = 42"),
+                Arguments.of("ReviewRepository.findByBookIdAndUserId",
+                        "SELECT * FROM reviews WHERE book_id = 42 AND user_id = 3"),
+                Arguments.of("ReviewRepository.findByBookIdIn",
+                        "SELECT r.*, u.* FROM reviews r JOIN users u ON u.id = r.user_id " +
+                        "WHERE r.book_id IN (1, 2, 3) ORDER BY r.book_id, r.created_at DESC"),
+                Arguments.of("RatingRepository.calculateAverageRating",
+                        "SELECT avg(value) FROM ratings WHERE book_id = 42"),
+                Arguments.of("RatingRepository.countByBookId",
+                        "SELECT count(*) FROM ratings WHERE book_id = 42"),
+                Arguments.of("RatingRepository.findByBookIdAndUserId",
+                        "SELECT * FROM ratings WHERE book_id = 42 AND user_id = 3"),
+                Arguments.of("AuthorRepository.findByFullName",
+                        "SELECT * FROM authors WHERE full_name = 'Author 7'"),
+                Arguments.of("UserRepository.findByEmail",
+                        "SELECT * FROM users WHERE email = 'user7@example.com'"),
+                Arguments.of("UserRepository.findPageAfter (email prefix)",
+                        "SELECT * FROM users WHERE id > 0 AND email LIKE 'user7%' ORDER BY id LIMIT 51"),
+                Arguments.of("ContentBlobRepository.findByAreaAndStorageKey",
+                        "SELECT * FROM content_blobs WHERE area = 'IMAGES' AND storage_key = 'ab/cd/key.png'"),
+                Arguments.of("ContentBlobRepository.findUnreferenced",
+                        "SELECT * FROM content_blobs WHERE ref_count <= 0"),
+                Arguments.of("StoredFileRepository.findByAreaAndStorageKey",
+                        "SELECT * FROM stored_files WHERE area = 'IMAGES' AND storage_key = 'ab/cd/key.png'")
+        );
+    }
+
+    static Stream<Arguments> orderedQueries() {
+        return Stream.of(
+                Arguments.of("ReviewRepository.findByBookIdOrderByCreatedAtDesc",
+                        "SELECT * FROM reviews WHERE book_id = 42 ORDER BY created_at DESC LIMIT 20"),
+                Arguments.of("ReviewRepository.findByUserIdOrderByCreatedAtDesc",
+                        "SELECT * FROM reviews WHERE user_id = 3 ORDER BY created_at DESC LIMIT 20"),
+                Arguments.of("UserRepository.findPageAfter (role)",
+                        "SELECT * FROM users WHERE id > 10 AND role = 'USER' ORDER BY id LIMIT 51"),
+                Arguments.of("BookRepository.findBatchAfter",
+                        "SELECT * FROM books WHERE id > 100 ORDER BY id LIMIT 100"),
+                Arguments.of("Catalog sort title,asc",
+                        "SELECT * FROM books ORDER BY title LIMIT 10"),
+                Arguments.of("Catalog sort author.fullName,asc",
+                        "SELECT b.* FROM books b JOIN authors a ON a.id = b.author_id ORDER BY a.full_name LIMIT 10"),
+                Arguments.of("Catalog sort ratingAvg,desc",
+                        "SELECT * FROM books ORDER BY rating_avg DESC LIMIT 10"),
+                Arguments.of("Catalog sort genre,asc",
+                        "SELECT * FROM books ORDER BY genre LIMIT 10"),
+                Arguments.of("Catalog sort createdAt,desc",
+                        "SELECT * FROM books ORDER BY created_at DESC LIMIT 10"),
+                Arguments.of("Catalog sort publishedYear,asc",
+                        "SELECT * FROM books ORDER BY published_year LIMIT 10"),
+                Arguments.of("Catalog sort updatedAt,desc",
+                        "SELECT * FROM books ORDER BY updated_at DESC LIMIT 10")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("filteredQueries")
+    void testQuery_ShouldNotUseSequentialScan(String name, String sql) throws SQLException {
+        // When
+        String plan = explain(sql);
+
+        // Then
+        assertFalse(plan.contains("Seq Scan"), name + " uses a sequential scan:\n" + plan);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("orderedQueries")
+    void testOrderedQuery_ShouldReadRowsInIndexOrder(String name, String sql) throws SQLException {
+        // When
+        String plan = explain(sql);
+
+        // Then
+        assertFalse(plan.contains("Seq Scan"), name + " uses a sequential scan:\n" + plan);
+        assertFalse(plan.lines().anyMatch(line -> line.trim().replaceFirst("^->\\s*", "").matches("^(Incremental )?Sort\\s+\\(.*")),
+                name + " sorts rows instead of reading them in index order:\n" + plan);
+    }
+
+    private String explain(String sql) throws SQLException {
+        // EXPLAIN без ANALYZE не выполняет запрос, так что DELETE безопасен
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+
+    private static void seed(Statement statement) throws SQLException {
+        // Немного данных, чтобы у планировщика была статистика
+        statement.execute("INSERT INTO authors (id, full_name, created_at) " +
+                "SELECT g, 'Author ' || g, now() FROM generate_series(1, 200) g");
+        statement.execute("INSERT INTO users (id, nickname, email, password_hash, role, created_at) " +
+                "SELECT g, 'user' || g, 'user' || g || '@example.com', 'hash', " +
+                "CASE WHEN g % 50 = 0 THEN 'ADMIN' ELSE 'USER' END, now() FROM generate_series(1, 500) g");
+        statement.execute("INSERT INTO books (id, title, author_id, published_year, genre, deletion_locked, " +
+                "rating_avg, rating_count, created_at, updated_at) " +
+                "SELECT g, 'Book ' || g, 1 + g % 200, 1950 + g % 70, 'FICTION', false, (g % 500) / 100.0, 0, " +
+                "now() - g * interval '1 minute', now() FROM generate_series(1, 5000) g");
+        statement.execute("INSERT INTO reviews (id, book_id, user_id, text, created_at) " +
+                "SELECT g, 1 + g % 5000, 1 + (g / 5000) % 500, 'text', now() - g * interval '1 second' " +
+                "FROM generate_series(1, 20000) g");
+        statement.execute("INSERT INTO ratings (id, book_id, user_id, value, created_at) " +
+                "SELECT g, 1 + g % 5000, 1 + (g / 5000) % 500, (1 + g % 5)::smallint, now() " +
+                "FROM generate_series(1, 20000) g");
+        statement.execute("INSERT INTO content_blobs (area, sha256, byte_length, ref_count, storage_key, created_at) " +
+                "SELECT 'IMAGES', md5(g::text) || md5(g::text), 100, g % 3, 'key/' || g, now() " +
+                "FROM generate_series(1, 2000) g");
+        statement.execute("INSERT INTO stored_files (area, storage_key, content_type, byte_length, sha256, modified_at) " +
+                "SELECT 'IMAGES', 'key/' || g, 'image/png', 100, md5(g::text) || md5(g::text), now() " +
+                "FROM generate_series(1, 2000) g");
+    }
+
+    static List<Path> migrations() throws IOException, URISyntaxException {
+        URL location = QueryPlanTest.class.getClassLoader().getResource("db/migration");
+        assertNotNull(location, "db/migration is not on the classpath");
+        List<Path> migrations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(Paths.get(location.toURI()))) {
+            files.filter(file -> file.getFileName().toString().matches("V\\d+__.+\\.sql"))
+                    .forEach(migrations::add);
+        }
+        // Порядок версий как у Flyway: по числу после V
+        migrations.sort((a, b) -> Integer.compare(version(a), version(b)));
+        return migrations;
+    }
+
+    private static int version(Path migration) {
+        String name = migration.getFileName().toString();
+        return Integer.parseInt(name.substring(1, name.indexOf("__")));
+    }
+
+    static String setting(String property, String env) {
+        String value = System.getProperty(property);
+        return value != null ? value : System.getenv(env);
+    }
+}
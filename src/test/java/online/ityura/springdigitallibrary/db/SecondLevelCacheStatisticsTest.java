@@ -0,0 +1,137 @@
+package online.ityura.springdigitallibrary.db;
+
+import online.ityura.springdigitallibrary.model.Author;
+import online.ityura.springdigitallibrary.model.Book;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Сравнивает по статистике Hibernate число обращений к БД с кэшем второго уровня и без него.
+ * Нагрузка повторяет типичный запрос: книга по ID с автором, затем снова книга по ID - каждый раз в новой сессии,
+ * как в отдельных HTTP-запросах. Настройки кэша те же, что в application.properties.
+ * Нужна PostgreSQL, как для {@link QueryPlanTest} (EXPLAIN_DB_*); без нее тест пропускается.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SecondLevelCacheStatisticsTest {
+
+    private static final int REQUESTS = 20;
+
+    private String url;
+    private String username;
+    private String password;
+    private String schema;
+
+    @BeforeAll
+    void setUp() throws Exception {
+        url = QueryPlanTest.setting("explain.db.url", "EXPLAIN_DB_URL");
+        assumeTrue(url != null && !url.isBlank(), "EXPLAIN_DB_URL is not set, skipping second-level cache statistics");
+        username = QueryPlanTest.setting("explain.db.username", "EXPLAIN_DB_USERNAME");
+        password = QueryPlanTest.setting("explain.db.password", "EXPLAIN_DB_PASSWORD");
+        schema = "l2cache_" + UUID.randomUUID().toString().replace("-", "");
+
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA " + schema);
+            statement.execute("SET search_path TO " + schema);
+            for (Path migration : QueryPlanTest.migrations()) {
+                statement.execute(Files.readString(migration, StandardCharsets.UTF_8));
+            }
+            statement.execute("INSERT INTO authors (id, full_name, created_at) VALUES (1, 'Robert Martin', now())");
+            statement.execute("INSERT INTO books (id, title, author_id, genre, deletion_locked, rating_avg, rating_count, " +
+                    "created_at, updated_at) VALUES (1, 'Clean Code', 1, 'TECHNOLOGY', false, 0, 0, now(), now())");
+        }
+    }
+
+    @AfterAll
+    void tearDown() throws SQLException {
+        if (schema == null) {
+            return;
+        }
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS " + schema + " CASCADE");
+        }
+    }
+
+    @Test
+    void testRepeatedLookups_WithSecondLevelCache_ShouldHitDatabaseOnlyOnce() {
+        // When
+        long withoutCache = runRequests(false);
+        long withCache = runRequests(true);
+
+        // Then
+        System.out.println("JDBC statements for " + REQUESTS + " requests: without L2 cache " + withoutCache
+                + ", with L2 cache " + withCache);
+        assertEquals(REQUESTS * 2L, withoutCache);
+        // Первый запрос заполняет кэш (книга с автором), остальные обходятся без БД
+        assertEquals(1L, withCache);
+    }
+
+    private long runRequests(boolean secondLevelCache) {
+        try (SessionFactory sessionFactory = sessionFactory(secondLevelCache)) {
+            Statistics statistics = sessionFactory.getStatistics();
+            for (int i = 0; i < REQUESTS; i++) {
+                try (Session session = sessionFactory.openSession()) {
+                    // BookService.getBookById: BookRepository.findByIdWithAuthor
+                    Book book = session.createQuery("SELECT b FROM Book b JOIN FETCH b.author WHERE b.id = :id", Book.class)
+                            .setParameter("id", 1L)
+                            .setCacheable(true)
+                            .setCacheRegion("query.bookWithAuthor")
+                            .getSingleResult();
+                    assertEquals("Robert Martin", book.getAuthor().getFullName());
+
+                    // BookFileService/RatingService: BookRepository.findById
+                    assertNotNull(session.find(Book.class, 1L));
+                    session.clear();
+                    // Без кэша второго уровня повторный поиск в новом контексте снова идет в БД
+                    assertNotNull(session.find(Book.class, 1L));
+                }
+            }
+            if (secondLevelCache) {
+                System.out.println("L2 cache hits " + statistics.getSecondLevelCacheHitCount()
+                        + ", query cache hits " + statistics.getQueryCacheHitCount());
+            }
+            return statistics.getPrepareStatementCount();
+        }
+    }
+
+    private SessionFactory sessionFactory(boolean secondLevelCache) {
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(Author.class)
+                .addAnnotatedClass(Book.class)
+                .setProperty("jakarta.persistence.jdbc.url", url)
+                .setProperty("jakarta.persistence.jdbc.user", username)
+                .setProperty("jakarta.persistence.jdbc.password", password)
+                .setProperty("hibernate.default_schema", schema)
+                .setProperty("hibernate.hbm2ddl.auto", "none")
+                .setProperty("hibernate.generate_statistics", "true")
+                .setProperty("hibernate.cache.use_second_level_cache", String.valueOf(secondLevelCache))
+                .setProperty("hibernate.cache.use_query_cache", String.valueOf(secondLevelCache))
+                .setProperty("jakarta.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+        if (secondLevelCache) {
+            configuration
+                    .setProperty("hibernate.cache.region.factory_class", "jcache")
+                    .setProperty("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider")
+                    .setProperty("hibernate.javax.cache.uri", "classpath:ehcache.xml");
+        }
+        return configuration.buildSessionFactory();
+    }
+}
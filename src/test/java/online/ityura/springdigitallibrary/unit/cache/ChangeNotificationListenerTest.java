@@ -0,0 +1,202 @@
+package online.ityura.springdigitallibrary.unit.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import online.ityura.springdigitallibrary.cache.ChangeNotificationListener;
+import online.ityura.springdigitallibrary.cache.ChangeNotificationPublisher;
+import online.ityura.springdigitallibrary.cache.ImageByteCache;
+import online.ityura.springdigitallibrary.model.Author;
+import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.service.AuthorResolver;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeNotificationListenerTest {
+
+    private static final Instant NOW = Instant.parse("2025-12-21T19:00:00Z");
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private ImageByteCache imageByteCache;
+
+    @Mock
+    private AuthorResolver authorResolver;
+
+    @Mock
+    private ChangeNotificationPublisher publisher;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private ScheduledExecutorService delayedEvictions;
+
+    @InjectMocks
+    private ChangeNotificationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(listener, "retention", Duration.ofDays(1));
+        ReflectionTestUtils.setField(listener, "sweepGrace", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(listener, "maxSweepChanges", 2);
+    }
+
+    @Test
+    void testHandle_BookChangedOnOtherPod_ShouldEvictLocalCaches() {
+        // Given
+        when(publisher.getInstanceId()).thenReturn("this-pod");
+        withHibernateCache();
+
+        // When
+        listener.handle("BOOK:42:1001:other-pod");
+
+        // Then
+        verify(cache).evictEntityData(Book.class, 42L);
+        verify(cache).evictQueryRegion("query.bookWithAuthor");
+        verify(imageByteCache).invalidate(42L);
+        verifyNoInteractions(authorResolver);
+    }
+
+    @Test
+    void testHandle_ReplicasDisabled_ShouldNotScheduleSecondEviction() {
+        // Given
+        when(publisher.getInstanceId()).thenReturn("this-pod");
+        withHibernateCache();
+
+        // When
+        listener.handle("BOOK:42:1001:other-pod");
+
+        // Then
+        verify(cache).evictEntityData(Book.class, 42L);
+        verifyNoInteractions(delayedEvictions);
+    }
+
+    @Test
+    void testHandle_StaleReplicaReadRefillsCache_ShouldEvictAgainAfterReplicaLag() {
+        // Given
+        ReflectionTestUtils.setField(listener, "replicasEnabled", true);
+        ReflectionTestUtils.setField(listener, "replicaMaxLag", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(listener, "replicaLagCheckInterval", Duration.ofSeconds(1));
+        when(publisher.getInstanceId()).thenReturn("this-pod");
+        withHibernateCache();
+        // Регион books этого пода: книга закэширована до изменения на другом поде
+        Map<Object, String> bookRegion = new HashMap<>(Map.of(42L, "before update"));
+        doAnswer(invocation -> bookRegion.remove(invocation.getArgument(1)))
+                .when(cache).evictEntityData(eq(Book.class), any());
+
+        // When
+        listener.handle("BOOK:42:1001:other-pod");
+        assertFalse(bookRegion.containsKey(42L));
+        // readOnly-чтение ушло на реплику, которая еще не применила изменение, и вернуло старую строку в кэш
+        bookRegion.put(42L, "before update");
+        ArgumentCaptor<Runnable> delayed = ArgumentCaptor.forClass(Runnable.class);
+        verify(delayedEvictions).schedule(delayed.capture(), eq(3000L), eq(TimeUnit.MILLISECONDS));
+        delayed.getValue().run();
+
+        // Then
+        assertFalse(bookRegion.containsKey(42L));
+        verify(cache, times(2)).evictEntityData(Book.class, 42L);
+        verify(cache, times(2)).evictQueryRegion("query.bookWithAuthor");
+        verify(imageByteCache, times(2)).invalidate(42L);
+    }
+
+    @Test
+    void testHandle_OwnNotification_ShouldBeIgnored() {
+        // Given
+        when(publisher.getInstanceId()).thenReturn("this-pod");
+
+        // When
+        listener.handle("AUTHOR:7:1002:this-pod");
+
+        // Then
+        verifyNoInteractions(entityManagerFactory, imageByteCache, authorResolver);
+    }
+
+    @Test
+    void testCatchUp_ShortGap_ShouldEvictChangesFromJournal() throws Exception {
+        // Given
+        Connection connection = connectionAt(NOW);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet rows = mock(ResultSet.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(rows);
+        when(rows.next()).thenReturn(true, true, false);
+        when(rows.getString("entity")).thenReturn("BOOK", "AUTHOR");
+        when(rows.getLong("entity_id")).thenReturn(42L, 7L);
+        withHibernateCache();
+
+        // When
+        listener.catchUp(connection, NOW.minusSeconds(30));
+
+        // Then
+        verify(statement).setObject(1, OffsetDateTime.ofInstant(NOW.minusSeconds(90), ZoneOffset.UTC));
+        verify(cache).evictEntityData(Book.class, 42L);
+        verify(cache).evictEntityData(Author.class, 7L);
+        verify(authorResolver).forget(7L);
+        verify(cache, never()).evictAllRegions();
+    }
+
+    @Test
+    void testCatchUp_GapLongerThanRetention_ShouldClearAllCaches() throws Exception {
+        // Given
+        Connection connection = connectionAt(NOW);
+        withHibernateCache();
+
+        // When
+        listener.catchUp(connection, NOW.minus(Duration.ofDays(2)));
+
+        // Then
+        verify(cache).evictAllRegions();
+        verify(imageByteCache).clear();
+        verify(authorResolver).forgetAll();
+        verify(connection, never()).prepareStatement(anyString());
+    }
+
+    private void withHibernateCache() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+    }
+
+    private static Connection connectionAt(Instant now) throws Exception {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SELECT now()")).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getObject(1, OffsetDateTime.class)).thenReturn(OffsetDateTime.ofInstant(now, ZoneOffset.UTC));
+        return connection;
+    }
+}
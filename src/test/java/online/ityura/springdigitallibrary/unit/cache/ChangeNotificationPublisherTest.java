@@ -0,0 +1,53 @@
+package online.ityura.springdigitallibrary.unit.cache;
+
+import online.ityura.springdigitallibrary.cache.ChangeNotificationPublisher;
+import online.ityura.springdigitallibrary.cache.ChangedEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeNotificationPublisherTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ChangeNotificationPublisher publisher;
+
+    @Test
+    void testPublish_ShouldJournalAndNotifyInOneStatement() {
+        // Given
+        ReflectionTestUtils.setField(publisher, "enabled", true);
+
+        // When
+        publisher.publish(ChangedEntity.BOOK, List.of(1L, 2L));
+
+        // Then
+        verify(jdbcTemplate).queryForList(contains("pg_notify"), eq("BOOK"), eq(1L),
+                eq(ChangeNotificationPublisher.CHANNEL), eq(publisher.getInstanceId()));
+        verify(jdbcTemplate).queryForList(contains("INSERT INTO entity_changes"), eq("BOOK"), eq(2L),
+                eq(ChangeNotificationPublisher.CHANNEL), eq(publisher.getInstanceId()));
+    }
+
+    @Test
+    void testPublish_Disabled_ShouldNotTouchDatabase() {
+        // Given
+        ReflectionTestUtils.setField(publisher, "enabled", false);
+
+        // When
+        publisher.publish(ChangedEntity.AUTHOR, 7L);
+
+        // Then
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,120 @@
+package online.ityura.springdigitallibrary.unit.cache;
+
+import online.ityura.springdigitallibrary.cache.ImageByteCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageByteCacheTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testLoadAndGet_ShouldServeSameBytesFromCache() throws IOException {
+        // Given
+        ImageByteCache cache = new ImageByteCache(1024, 512);
+        Path image = writeFile("cover.png", 100);
+        
+        // When
+        Resource loaded = cache.load(1L, image.toString(), new FileSystemResource(image));
+        Resource cached = cache.get(1L, image.toString());
+        
+        // Then
+        assertNotNull(loaded);
+        assertNotNull(cached);
+        assertArrayEquals(Files.readAllBytes(image), readAll(cached));
+        assertEquals(100, cache.getResidentBytes());
+        assertEquals(1, cache.getHits());
+        assertEquals(1.0, cache.getHitRatio());
+    }
+    
+    @Test
+    void testGet_PathChanged_ShouldBeMiss() throws IOException {
+        // Given
+        ImageByteCache cache = new ImageByteCache(1024, 512);
+        Path image = writeFile("cover.png", 100);
+        cache.load(1L, image.toString(), new FileSystemResource(image));
+        
+        // When
+        Resource cached = cache.get(1L, tempDir.resolve("other.png").toString());
+        
+        // Then
+        assertNull(cached);
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getResidentBytes());
+    }
+    
+    @Test
+    void testLoad_OverBudget_ShouldEvictLeastRecentlyUsed() throws IOException {
+        // Given
+        ImageByteCache cache = new ImageByteCache(250, 250);
+        Path first = writeFile("first.png", 100);
+        Path second = writeFile("second.png", 100);
+        Path third = writeFile("third.png", 100);
+        cache.load(1L, first.toString(), new FileSystemResource(first));
+        cache.load(2L, second.toString(), new FileSystemResource(second));
+        cache.get(1L, first.toString());
+        
+        // When
+        cache.load(3L, third.toString(), new FileSystemResource(third));
+        
+        // Then
+        assertNotNull(cache.get(1L, first.toString()));
+        assertNull(cache.get(2L, second.toString()));
+        assertNotNull(cache.get(3L, third.toString()));
+        assertEquals(200, cache.getResidentBytes());
+        assertEquals(1, cache.getEvictions());
+    }
+    
+    @Test
+    void testLoad_TooLargeEntry_ShouldNotCache() throws IOException {
+        // Given
+        ImageByteCache cache = new ImageByteCache(1024, 50);
+        Path image = writeFile("big.png", 100);
+        
+        // When
+        Resource loaded = cache.load(1L, image.toString(), new FileSystemResource(image));
+        
+        // Then
+        assertNull(loaded);
+        assertEquals(0, cache.getEntryCount());
+    }
+    
+    @Test
+    void testInvalidate_ShouldReleaseBytes() throws IOException {
+        // Given
+        ImageByteCache cache = new ImageByteCache(1024, 512);
+        Path image = writeFile("cover.png", 100);
+        cache.load(1L, image.toString(), new FileSystemResource(image));
+        
+        // When
+        cache.invalidate(1L);
+        
+        // Then
+        assertNull(cache.get(1L, image.toString()));
+        assertEquals(0, cache.getResidentBytes());
+    }
+    
+    private Path writeFile(String name, int size) throws IOException {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        return Files.write(tempDir.resolve(name), bytes);
+    }
+    
+    private byte[] readAll(Resource resource) throws IOException {
+        try (InputStream inputStream = resource.getInputStream()) {
+            return inputStream.readAllBytes();
+        }
+    }
+}
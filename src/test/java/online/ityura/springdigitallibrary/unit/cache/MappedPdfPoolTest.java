@@ -0,0 +1,111 @@
+package online.ityura.springdigitallibrary.unit.cache;
+
+import online.ityura.springdigitallibrary.cache.MappedPdfPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedPdfPoolTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testOpen_ColdFile_ShouldNotBeMappedUntilThreshold() throws IOException {
+        // Given
+        MappedPdfPool pool = new MappedPdfPool(1024, 3, 100);
+        Path pdf = writeFile("book.pdf", 100);
+        
+        // When
+        Resource first = pool.open("ab/cd/book.pdf", pdf, 100);
+        Resource second = pool.open("ab/cd/book.pdf", pdf, 100);
+        Resource third = pool.open("ab/cd/book.pdf", pdf, 100);
+        Resource fourth = pool.open("ab/cd/book.pdf", pdf, 100);
+        
+        // Then
+        assertNull(first);
+        assertNull(second);
+        assertNotNull(third);
+        assertNotNull(fourth);
+        assertArrayEquals(Files.readAllBytes(pdf), readAll(fourth));
+        assertEquals(1, pool.getEntryCount());
+        assertEquals(100, pool.getMappedBytes());
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMappings());
+    }
+    
+    @Test
+    void testOpen_RangeRead_ShouldSkipWithinMapping() throws IOException {
+        // Given
+        MappedPdfPool pool = new MappedPdfPool(1024, 1, 100);
+        Path pdf = writeFile("book.pdf", 200);
+        Resource mapped = pool.open("ab/cd/book.pdf", pdf, 200);
+        
+        // When
+        byte[] range;
+        try (InputStream input = mapped.getInputStream()) {
+            assertEquals(150, input.skip(150));
+            range = input.readAllBytes();
+        }
+        
+        // Then
+        assertEquals(50, range.length);
+        assertEquals((byte) 150, range[0]);
+        assertEquals(200, mapped.contentLength());
+    }
+    
+    @Test
+    void testOpen_OverBudget_ShouldUnmapLeastRecentlyUsed() throws IOException {
+        // Given
+        MappedPdfPool pool = new MappedPdfPool(250, 1, 100);
+        Path first = writeFile("first.pdf", 100);
+        Path second = writeFile("second.pdf", 100);
+        Path third = writeFile("third.pdf", 100);
+        pool.open("first", first, 100);
+        pool.open("second", second, 100);
+        // Первый файл снова скачивают - он становится недавно использованным
+        pool.open("first", first, 100);
+        
+        // When
+        pool.open("third", third, 100);
+        
+        // Then
+        assertEquals(2, pool.getEntryCount());
+        assertEquals(200, pool.getMappedBytes());
+        assertEquals(1, pool.getUnmappings());
+        assertNotNull(pool.open("first", first, 100));
+        assertEquals(2, pool.getHits());
+    }
+    
+    @Test
+    void testOpen_LargerThanBudget_ShouldBeStreamed() throws IOException {
+        // Given
+        MappedPdfPool pool = new MappedPdfPool(100, 1, 100);
+        Path pdf = writeFile("big.pdf", 200);
+        
+        // When & Then
+        assertNull(pool.open("big", pdf, 200));
+        assertEquals(0, pool.getEntryCount());
+    }
+    
+    private Path writeFile(String name, int size) throws IOException {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) i;
+        }
+        return Files.write(tempDir.resolve(name), bytes);
+    }
+    
+    private static byte[] readAll(Resource resource) throws IOException {
+        try (InputStream input = resource.getInputStream()) {
+            return input.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package online.ityura.springdigitallibrary.unit.config;
+
+import online.ityura.springdigitallibrary.config.DataInitializer;
+import online.ityura.springdigitallibrary.config.SeedFileSync;
+import online.ityura.springdigitallibrary.repository.BookRepository;
+import online.ityura.springdigitallibrary.repository.RatingRepository;
+import online.ityura.springdigitallibrary.repository.ReviewRepository;
+import online.ityura.springdigitallibrary.repository.UserRepository;
+import online.ityura.springdigitallibrary.service.AuthorResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataInitializerTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AuthorResolver authorResolver;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    @Mock
+    private RatingRepository ratingRepository;
+
+    @Mock
+    private SeedFileSync seedFileSync;
+
+    @Mock
+    private ResourceLoader resourceLoader;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private DataInitializer dataInitializer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dataInitializer, "seedEnabled", true);
+    }
+
+    @Test
+    void testRun_FingerprintMatches_ShouldSkipSeeding() throws Exception {
+        // Given
+        Resource missing = mock(Resource.class);
+        when(resourceLoader.getResource(anyString())).thenReturn(missing);
+        when(jdbcTemplate.queryForList(contains("flyway_schema_history"), eq(String.class))).thenReturn(List.of("5"));
+        String fingerprint = fingerprint(sourceDirectory("pictures"), sourceDirectory("pdf"), "5");
+        when(jdbcTemplate.queryForList(contains("seed_state"), eq(String.class), any()))
+                .thenReturn(List.of(fingerprint));
+
+        // When
+        dataInitializer.run();
+
+        // Then
+        verifyNoInteractions(userRepository, bookRepository, authorResolver, reviewRepository,
+                ratingRepository, seedFileSync);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void testFingerprint_SchemaVersionChanged_ShouldDiffer() throws Exception {
+        // When
+        String before = fingerprint(null, null, "4");
+        String after = fingerprint(null, null, "5");
+
+        // Then
+        assertNotEquals(before, after);
+    }
+
+    private static String fingerprint(Path picturesPath, Path pdfPath, String schemaVersion) {
+        return ReflectionTestUtils.invokeMethod(DataInitializer.class, "fingerprint", picturesPath, pdfPath, schemaVersion);
+    }
+
+    private static Path sourceDirectory(String name) {
+        Path path = Path.of("src/main/resources", name);
+        return Files.isDirectory(path) ? path : null;
+    }
+}
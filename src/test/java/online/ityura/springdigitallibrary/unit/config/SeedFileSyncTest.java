@@ -0,0 +1,217 @@
+package online.ityura.springdigitallibrary.unit.config;
+
+import online.ityura.springdigitallibrary.cache.ChangeNotificationPublisher;
+import online.ityura.springdigitallibrary.config.SeedFileSync;
+import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.repository.BookRepository;
+import online.ityura.springdigitallibrary.storage.ContentAddressedStore;
+import online.ityura.springdigitallibrary.storage.SpooledContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeedFileSyncTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private ContentAddressedStore contentAddressedStore;
+
+    @Mock
+    private ChangeNotificationPublisher changeNotificationPublisher;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SeedFileSync seedFileSync;
+
+    @TempDir
+    Path pdfDir;
+
+    @TempDir
+    Path spoolDir;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(seedFileSync, "copyThreads", 2);
+    }
+
+    @Test
+    void testSync_FileUnchangedSinceManifest_ShouldNotReadOrCopy() throws Exception {
+        // Given
+        Path file = Files.writeString(pdfDir.resolve("Dark_Corners.pdf"), "pdf");
+        Book book = Book.builder().id(1L).title("Dark Corners").pdfPath("ab/cd/old.pdf").build();
+        withLock(true);
+        withManifest(manifestRow(file, "old-sha", "ab/cd/old.pdf", 1L));
+
+        // When
+        SeedFileSync.Outcome outcome = seedFileSync.sync(List.of(book), null, pdfDir);
+
+        // Then
+        assertEquals(SeedFileSync.Outcome.COMPLETED, outcome);
+        verifyNoInteractions(contentAddressedStore);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void testSync_NewFileForBookWithoutPdf_ShouldStoreAndRecord() throws Exception {
+        // Given
+        Files.writeString(pdfDir.resolve("Dark_Corners.pdf"), "pdf");
+        Book book = Book.builder().id(1L).title("Dark Corners").build();
+        Book managed = Book.builder().id(1L).title("Dark Corners").build();
+        withLock(true);
+        withManifest();
+        SpooledContent spooled = withStagedCopy("ne/w-/new.pdf");
+        when(bookRepository.findAllById(anyIterable())).thenReturn(List.of(managed));
+
+        // When
+        SeedFileSync.Outcome outcome = seedFileSync.sync(List.of(book), null, pdfDir);
+
+        // Then
+        assertEquals(SeedFileSync.Outcome.COMPLETED, outcome);
+        assertEquals("ne/w-/new.pdf", managed.getPdfPath());
+        // Байты переносятся вне транзакции, ссылка добавляется в итоговой транзакции
+        InOrder inOrder = inOrder(contentAddressedStore);
+        inOrder.verify(contentAddressedStore).stage(StorageArea.PDFS, spooled);
+        inOrder.verify(contentAddressedStore).attachStaged(StorageArea.PDFS, spooled, null, null);
+        verify(contentAddressedStore, never()).store(any(), any(SpooledContent.class));
+        verify(contentAddressedStore, never()).release(any(), anyString());
+        verify(jdbcTemplate).batchUpdate(contains("INSERT INTO seed_files"), anyList());
+        assertFalse(Files.exists(spooled.file()));
+    }
+
+    @Test
+    void testSync_ChangedFileStillReferencedByBook_ShouldReplaceAndReleaseOld() throws Exception {
+        // Given
+        Path file = Files.writeString(pdfDir.resolve("Dark_Corners.pdf"), "new content");
+        Book book = Book.builder().id(1L).title("Dark Corners").pdfPath("ab/cd/old.pdf").build();
+        Book managed = Book.builder().id(1L).title("Dark Corners").pdfPath("ab/cd/old.pdf").build();
+        withLock(true);
+        Map<String, Object> row = manifestRow(file, "old-sha", "ab/cd/old.pdf", 1L);
+        row.put("byte_length", 3L);
+        withManifest(row);
+        withStagedCopy("ne/w-/new.pdf");
+        when(bookRepository.findAllById(anyIterable())).thenReturn(List.of(managed));
+
+        // When
+        seedFileSync.sync(List.of(book), null, pdfDir);
+
+        // Then
+        assertEquals("ne/w-/new.pdf", managed.getPdfPath());
+        verify(contentAddressedStore).release(StorageArea.PDFS, "ab/cd/old.pdf");
+    }
+
+    @Test
+    void testSync_ChangedFileButBookPdfReplacedManually_ShouldKeepBookPdf() throws Exception {
+        // Given
+        Path file = Files.writeString(pdfDir.resolve("Dark_Corners.pdf"), "new content");
+        Book book = Book.builder().id(1L).title("Dark Corners").pdfPath("ad/mi/admin.pdf").build();
+        withLock(true);
+        Map<String, Object> row = manifestRow(file, "old-sha", "ab/cd/old.pdf", 1L);
+        row.put("byte_length", 3L);
+        withManifest(row);
+
+        // When
+        seedFileSync.sync(List.of(book), null, pdfDir);
+
+        // Then
+        verify(contentAddressedStore, never()).spool(any(InputStream.class), anyString());
+        verify(contentAddressedStore, never()).release(any(), anyString());
+    }
+
+    @Test
+    void testSync_FileFailsToStore_ShouldReportIncomplete() throws Exception {
+        // Given
+        Files.writeString(pdfDir.resolve("Dark_Corners.pdf"), "pdf");
+        Book book = Book.builder().id(1L).title("Dark Corners").build();
+        withLock(true);
+        withManifest();
+        SpooledContent spooled = new SpooledContent(Files.writeString(spoolDir.resolve("copy.part"), "pdf"),
+                "new-sha", 3, ".pdf");
+        when(contentAddressedStore.spool(any(InputStream.class), eq(".pdf"))).thenReturn(spooled);
+        when(contentAddressedStore.stage(StorageArea.PDFS, spooled)).thenThrow(new IOException("disk full"));
+
+        // When
+        SeedFileSync.Outcome outcome = seedFileSync.sync(List.of(book), null, pdfDir);
+
+        // Then
+        assertEquals(SeedFileSync.Outcome.INCOMPLETE, outcome);
+        verify(contentAddressedStore, never()).attachStaged(any(), any(), any(), any());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertFalse(Files.exists(spooled.file()));
+    }
+
+    @Test
+    void testSync_LockHeldByAnotherInstance_ShouldSkip() {
+        // Given
+        withLock(false);
+
+        // When
+        SeedFileSync.Outcome outcome = seedFileSync.sync(List.of(), null, pdfDir);
+
+        // Then
+        assertEquals(SeedFileSync.Outcome.SKIPPED, outcome);
+        verify(jdbcTemplate, never()).queryForList(anyString(), any(Object[].class));
+        verifyNoInteractions(contentAddressedStore, bookRepository);
+    }
+
+    private SpooledContent withStagedCopy(String storageKey) throws Exception {
+        SpooledContent spooled = new SpooledContent(Files.writeString(spoolDir.resolve("copy.part"), "pdf"),
+                "new-sha", 3, ".pdf");
+        when(contentAddressedStore.spool(any(InputStream.class), eq(".pdf"))).thenReturn(spooled);
+        when(contentAddressedStore.stage(StorageArea.PDFS, spooled)).thenReturn(storageKey);
+        when(contentAddressedStore.attachStaged(StorageArea.PDFS, spooled, null, null))
+                .thenReturn(ContentBlob.builder().sha256("new-sha").storageKey(storageKey).build());
+        return spooled;
+    }
+
+    private void withLock(boolean acquired) {
+        when(jdbcTemplate.queryForObject(contains("pg_try_advisory_xact_lock"), eq(Boolean.class), any()))
+                .thenReturn(acquired);
+    }
+
+    @SafeVarargs
+    private void withManifest(Map<String, Object>... rows) {
+        when(jdbcTemplate.queryForList(contains("FROM seed_files"), eq("PDFS"))).thenReturn(List.of(rows));
+    }
+
+    private static Map<String, Object> manifestRow(Path file, String sha256, String storageKey, Long bookId) throws Exception {
+        Map<String, Object> row = new HashMap<>();
+        row.put("file_name", file.getFileName().toString());
+        row.put("byte_length", Files.size(file));
+        row.put("modified_at", new Timestamp(Files.getLastModifiedTime(file).toMillis()));
+        row.put("sha256", sha256);
+        row.put("storage_key", storageKey);
+        row.put("book_id", bookId);
+        return row;
+    }
+}
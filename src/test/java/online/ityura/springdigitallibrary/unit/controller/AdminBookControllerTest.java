@@ -4,10 +4,19 @@ import online.ityura.springdigitallibrary.controller.AdminBookController;
 import online.ityura.springdigitallibrary.dto.request.CreateBookRequest;
 import online.ityura.springdigitallibrary.dto.request.PutBookRequest;
 import online.ityura.springdigitallibrary.dto.request.UpdateBookRequest;
+import online.ityura.springdigitallibrary.dto.response.BookImportResponse;
 import online.ityura.springdigitallibrary.dto.response.BookResponse;
-import online.ityura.springdigitallibrary.dto.response.MessageResponse;
+import online.ityura.springdigitallibrary.dto.response.ContentBlobResponse;
+import online.ityura.springdigitallibrary.dto.response.ImageUploadResponse;
+import online.ityura.springdigitallibrary.model.BookImportStatus;
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.ImageUploadStatus;
+import online.ityura.springdigitallibrary.model.StorageArea;
 import online.ityura.springdigitallibrary.service.AdminBookService;
+import online.ityura.springdigitallibrary.service.BookFileService;
+import online.ityura.springdigitallibrary.service.BookImportService;
 import online.ityura.springdigitallibrary.service.BookImageService;
+import online.ityura.springdigitallibrary.service.ImageIngestionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,6 +27,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,6 +45,15 @@ class AdminBookControllerTest {
     @Mock
     private BookImageService bookImageService;
     
+    @Mock
+    private BookFileService bookFileService;
+    
+    @Mock
+    private ImageIngestionService imageIngestionService;
+    
+    @Mock
+    private BookImportService bookImportService;
+    
     @InjectMocks
     private AdminBookController adminBookController;
     
@@ -171,20 +191,99 @@ class AdminBookControllerTest {
     }
     
     @Test
-    void testUploadBookImage_Success_ShouldReturn200() {
+    void testUploadBookImage_Success_ShouldReturn202WithStatusLocation() {
         // Given
         MultipartFile mockFile = mock(MultipartFile.class);
-        when(bookImageService.uploadBookImage(anyLong(), any(MultipartFile.class))).thenReturn("image.jpg");
+        ImageUploadResponse accepted = ImageUploadResponse.builder()
+                .uploadId("upload-1")
+                .bookId(1L)
+                .status(ImageUploadStatus.QUEUED)
+                .build();
+        when(imageIngestionService.submit(1L, mockFile)).thenReturn(accepted);
         
         // When
-        ResponseEntity<MessageResponse> response = adminBookController.uploadBookImage(1L, mockFile);
+        ResponseEntity<ImageUploadResponse> response = adminBookController.uploadBookImage(1L, mockFile);
+        
+        // Then
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("/api/v1/admin/books/1/image/uploads/upload-1", response.getHeaders().getLocation().toString());
+        assertSame(accepted, response.getBody());
+        verifyNoInteractions(bookImageService);
+    }
+    
+    @Test
+    void testGetImageUploadStatus_ShouldReturnCurrentStage() {
+        // Given
+        ImageUploadResponse status = ImageUploadResponse.builder()
+                .uploadId("upload-1")
+                .bookId(1L)
+                .status(ImageUploadStatus.COMPLETED)
+                .imagePath("ab/cd/" + "ab".repeat(32) + ".png")
+                .build();
+        when(imageIngestionService.getStatus(1L, "upload-1")).thenReturn(status);
+        
+        // When
+        ResponseEntity<ImageUploadResponse> response = adminBookController.getImageUploadStatus(1L, "upload-1");
+        
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ImageUploadStatus.COMPLETED, response.getBody().getStatus());
+    }
+    
+    @Test
+    void testImportBooks_Ndjson_ShouldReturn202WithProgressLocation() {
+        // Given
+        InputStream body = new ByteArrayInputStream("{\"title\":\"A\",\"authorName\":\"B\"}\n".getBytes());
+        BookImportResponse accepted = BookImportResponse.builder()
+                .jobId("job-1")
+                .format(BookImportService.NDJSON)
+                .status(BookImportStatus.QUEUED)
+                .build();
+        when(bookImportService.submit(BookImportService.NDJSON, body)).thenReturn(accepted);
+        
+        // When
+        ResponseEntity<BookImportResponse> response = adminBookController.importBooks("application/x-ndjson", body);
+        
+        // Then
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals("/api/v1/admin/books/import/job-1", response.getHeaders().getLocation().toString());
+        assertSame(accepted, response.getBody());
+    }
+    
+    @Test
+    void testImportBooks_Csv_ShouldDetectFormatFromContentType() {
+        // Given
+        InputStream body = new ByteArrayInputStream("title,authorName\n".getBytes());
+        when(bookImportService.submit(BookImportService.CSV, body))
+                .thenReturn(BookImportResponse.builder().jobId("job-2").build());
+        
+        // When
+        ResponseEntity<BookImportResponse> response = adminBookController.importBooks("text/csv; charset=UTF-8", body);
+        
+        // Then
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(bookImportService).submit(BookImportService.CSV, body);
+    }
+    
+    @Test
+    void testUploadBookPdf_Success_ShouldReturnStoredContent() {
+        // Given
+        InputStream body = new ByteArrayInputStream("%PDF-1.7".getBytes());
+        ContentBlob blob = ContentBlob.builder()
+                .area(StorageArea.PDFS)
+                .sha256("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08")
+                .byteLength(8L)
+                .refCount(1)
+                .build();
+        when(bookFileService.uploadBookPdf(1L, body)).thenReturn(blob);
+        
+        // When
+        ResponseEntity<ContentBlobResponse> response = adminBookController.uploadBookPdf(1L, body);
         
         // Then
-        assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals("Image uploaded successfully", response.getBody().getMessage());
-        verify(bookImageService).uploadBookImage(1L, mockFile);
+        assertEquals(StorageArea.PDFS, response.getBody().getArea());
+        assertEquals(8L, response.getBody().getByteLength());
     }
 }
-
@@ -0,0 +1,134 @@
+package online.ityura.springdigitallibrary.unit.controller;
+
+import online.ityura.springdigitallibrary.cache.ImageByteCache;
+import online.ityura.springdigitallibrary.cache.MappedPdfPool;
+import online.ityura.springdigitallibrary.controller.AdminStorageController;
+import online.ityura.springdigitallibrary.dto.response.ImageCacheStatsResponse;
+import online.ityura.springdigitallibrary.dto.response.StorageGcReportResponse;
+import online.ityura.springdigitallibrary.dto.response.StorageLayoutMigrationResponse;
+import online.ityura.springdigitallibrary.dto.response.StoredFileBackfillResponse;
+import online.ityura.springdigitallibrary.storage.StorageGarbageCollector;
+import online.ityura.springdigitallibrary.storage.StorageLayoutMigration;
+import online.ityura.springdigitallibrary.storage.StoredFileBackfill;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdminStorageControllerTest {
+    
+    @Mock
+    private ImageByteCache imageByteCache;
+    
+    @Mock
+    private MappedPdfPool mappedPdfPool;
+    
+    @Mock
+    private StoredFileBackfill storedFileBackfill;
+    
+    @Mock
+    private StorageGarbageCollector storageGarbageCollector;
+    
+    @Mock
+    private StorageLayoutMigration storageLayoutMigration;
+    
+    @InjectMocks
+    private AdminStorageController adminStorageController;
+    
+    @Test
+    void testGetImageCacheStats_ShouldReturnCacheCounters() {
+        // Given
+        when(imageByteCache.getEntryCount()).thenReturn(2);
+        when(imageByteCache.getResidentBytes()).thenReturn(2048L);
+        when(imageByteCache.getMaxBytes()).thenReturn(4096L);
+        when(imageByteCache.getHits()).thenReturn(9L);
+        when(imageByteCache.getMisses()).thenReturn(1L);
+        when(imageByteCache.getEvictions()).thenReturn(0L);
+        when(imageByteCache.getHitRatio()).thenReturn(0.9);
+        
+        // When
+        ResponseEntity<ImageCacheStatsResponse> response = adminStorageController.getImageCacheStats();
+        
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(2, response.getBody().getEntries());
+        assertEquals(2048L, response.getBody().getResidentBytes());
+        assertEquals(0.9, response.getBody().getHitRatio());
+    }
+    
+    @Test
+    void testBackfillStoredFileMetadata_ShouldReturnCounters() {
+        // Given
+        StoredFileBackfillResponse result = StoredFileBackfillResponse.builder()
+                .recorded(5)
+                .alreadyPresent(1)
+                .missing(0)
+                .build();
+        when(storedFileBackfill.backfill()).thenReturn(result);
+        
+        // When
+        ResponseEntity<StoredFileBackfillResponse> response = adminStorageController.backfillStoredFileMetadata();
+        
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(5, response.getBody().getRecorded());
+    }
+    
+    @Test
+    void testGetStorageGcReport_NotRunYet_ShouldThrowNotFound() {
+        // Given
+        when(storageGarbageCollector.getLastReport()).thenReturn(null);
+        
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> adminStorageController.getStorageGcReport());
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+    
+    @Test
+    void testRunStorageGc_DryRun_ShouldReturnReport() {
+        // Given
+        StorageGcReportResponse report = StorageGcReportResponse.builder()
+                .dryRun(true)
+                .deletedObjects(3L)
+                .reclaimedBytes(4096L)
+                .build();
+        when(storageGarbageCollector.run(true)).thenReturn(report);
+        
+        // When
+        ResponseEntity<StorageGcReportResponse> response = adminStorageController.runStorageGc(true);
+        
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().getDryRun());
+        assertEquals(3L, response.getBody().getDeletedObjects());
+    }
+    
+    @Test
+    void testRunLayoutMigration_ShouldReturnReport() {
+        // Given
+        StorageLayoutMigrationResponse report = StorageLayoutMigrationResponse.builder()
+                .migratedFiles(12L)
+                .alreadyShardedFiles(30L)
+                .complete(true)
+                .build();
+        when(storageLayoutMigration.migrate()).thenReturn(report);
+        
+        // When
+        ResponseEntity<StorageLayoutMigrationResponse> response = adminStorageController.runLayoutMigration();
+        
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(12L, response.getBody().getMigratedFiles());
+        assertTrue(response.getBody().getComplete());
+    }
+}
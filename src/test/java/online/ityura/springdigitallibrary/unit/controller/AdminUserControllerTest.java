@@ -1,10 +1,12 @@
 package online.ityura.springdigitallibrary.unit.controller;
 
 import online.ityura.springdigitallibrary.controller.AdminUserController;
+import online.ityura.springdigitallibrary.dto.response.AdminUserPageResponse;
 import online.ityura.springdigitallibrary.dto.response.AdminUserResponse;
 import online.ityura.springdigitallibrary.model.Role;
 import online.ityura.springdigitallibrary.model.User;
 import online.ityura.springdigitallibrary.repository.UserRepository;
+import online.ityura.springdigitallibrary.service.AdminUserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,10 +15,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
@@ -24,6 +29,9 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -34,6 +42,9 @@ class AdminUserControllerTest {
     @Mock
     private UserRepository userRepository;
     
+    @Mock
+    private AdminUserService adminUserService;
+    
     @InjectMocks
     private AdminUserController adminUserController;
     
@@ -251,5 +262,55 @@ class AdminUserControllerTest {
         assertEquals(userWithAllFields.getRole(), response.getRole());
         assertEquals(userWithAllFields.getCreatedAt(), response.getCreatedAt());
     }
+    
+    @Test
+    void testGetUsersPage_WithFilters_ShouldReturn200() throws Exception {
+        // Given
+        AdminUserPageResponse page = AdminUserPageResponse.builder()
+                .items(List.of(AdminUserResponse.builder()
+                        .id(1L)
+                        .nickname("testuser")
+                        .email("test@example.com")
+                        .role(Role.USER)
+                        .build()))
+                .nextCursor(1L)
+                .hasMore(true)
+                .build();
+        when(adminUserService.getUsersPage(10L, 1, Role.USER, "test")).thenReturn(page);
+        
+        // When & Then
+        mockMvc.perform(get("/api/v1/admin/users/page")
+                        .param("cursor", "10")
+                        .param("size", "1")
+                        .param("role", "USER")
+                        .param("emailPrefix", "test"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].email").value("test@example.com"))
+                .andExpect(jsonPath("$.nextCursor").value(1L))
+                .andExpect(jsonPath("$.hasMore").value(true));
+        
+        verify(adminUserService).getUsersPage(10L, 1, Role.USER, "test");
+        verify(userRepository, never()).findAll();
+    }
+    
+    @Test
+    void testExportUsers_ShouldStreamFromService() throws Exception {
+        // Given
+        when(adminUserService.exportUsers(eq(Role.ADMIN), isNull(), any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(2);
+            output.write("{\"id\":2}\n".getBytes());
+            return 1L;
+        });
+        
+        // When
+        ResponseEntity<StreamingResponseBody> response = adminUserController.exportUsers(Role.ADMIN, null);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+        
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+        assertEquals("{\"id\":2}\n", output.toString());
+    }
 }
-
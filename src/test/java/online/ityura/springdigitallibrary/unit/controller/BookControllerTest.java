@@ -2,8 +2,12 @@ package online.ityura.springdigitallibrary.unit.controller;
 
 import online.ityura.springdigitallibrary.controller.BookController;
 import online.ityura.springdigitallibrary.dto.response.BookResponse;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.model.StoredFile;
 import online.ityura.springdigitallibrary.service.BookImageService;
 import online.ityura.springdigitallibrary.service.BookService;
+import online.ityura.springdigitallibrary.storage.InternalRedirect;
+import online.ityura.springdigitallibrary.storage.StoredFileService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,11 +24,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,6 +46,12 @@ class BookControllerTest {
     @Mock
     private BookImageService bookImageService;
     
+    @Mock
+    private InternalRedirect internalRedirect;
+    
+    @Mock
+    private StoredFileService storedFileService;
+    
     @InjectMocks
     private BookController bookController;
     
@@ -151,4 +165,49 @@ class BookControllerTest {
         assertNotNull(result);
         assertNotNull(result.getBody());
     }
+    
+    @Test
+    void testGetBookImage_InternalRedirectEnabled_ShouldReturnHeaderWithoutBody() {
+        // Given
+        when(internalRedirect.isEnabled()).thenReturn(true);
+        when(internalRedirect.getHeaderName()).thenReturn(InternalRedirect.X_ACCEL_REDIRECT);
+        when(bookImageService.getBookImageKey(1L)).thenReturn("ab/cd/abcd.png");
+        when(internalRedirect.resolve(StorageArea.IMAGES, "ab/cd/abcd.png")).thenReturn("/internal/images/ab/cd/abcd.png");
+        
+        // When
+        ResponseEntity<Resource> result = bookController.getBookImage(1L);
+        
+        // Then
+        assertNull(result.getBody());
+        assertEquals(MediaType.IMAGE_PNG, result.getHeaders().getContentType());
+        assertEquals("/internal/images/ab/cd/abcd.png", result.getHeaders().getFirst(InternalRedirect.X_ACCEL_REDIRECT));
+        verify(bookImageService, never()).getBookImage(any());
+    }
+    
+    @Test
+    void testGetBookImage_WithMetadata_ShouldSetHeadersFromMetadata() {
+        // Given
+        StoredFile metadata = StoredFile.builder()
+                .area(StorageArea.IMAGES)
+                .storageKey("ab/cd/abcd.png")
+                .contentType("image/png")
+                .byteLength(4L)
+                .sha256("ab".repeat(32))
+                .modifiedAt(Instant.parse("2025-12-17T13:20:00Z"))
+                .build();
+        Resource image = new ByteArrayResource("test".getBytes());
+        when(bookImageService.getBookImageKey(1L)).thenReturn("ab/cd/abcd.png");
+        when(storedFileService.find(StorageArea.IMAGES, "ab/cd/abcd.png")).thenReturn(Optional.of(metadata));
+        when(bookImageService.openBookImage(1L, metadata)).thenReturn(image);
+        
+        // When
+        ResponseEntity<Resource> result = bookController.getBookImage(1L);
+        
+        // Then
+        assertSame(image, result.getBody());
+        assertEquals(MediaType.IMAGE_PNG, result.getHeaders().getContentType());
+        assertEquals(4L, result.getHeaders().getContentLength());
+        assertEquals("\"" + "ab".repeat(32) + "\"", result.getHeaders().getETag());
+        verify(bookImageService, never()).getBookImage(any());
+    }
 }
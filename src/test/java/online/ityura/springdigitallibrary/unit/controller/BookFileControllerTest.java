@@ -1,7 +1,11 @@
 package online.ityura.springdigitallibrary.unit.controller;
 
 import online.ityura.springdigitallibrary.controller.BookFileController;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.model.StoredFile;
 import online.ityura.springdigitallibrary.service.BookFileService;
+import online.ityura.springdigitallibrary.storage.InternalRedirect;
+import online.ityura.springdigitallibrary.storage.StoredFileService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -13,7 +17,15 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Instant;
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,6 +34,12 @@ class BookFileControllerTest {
     @Mock
     private BookFileService bookFileService;
     
+    @Mock
+    private InternalRedirect internalRedirect;
+    
+    @Mock
+    private StoredFileService storedFileService;
+    
     @InjectMocks
     private BookFileController bookFileController;
     
@@ -35,7 +53,7 @@ class BookFileControllerTest {
         when(bookFileService.getOriginalFilename(1L)).thenReturn(filename);
         
         // When
-        ResponseEntity<Resource> response = bookFileController.downloadBook(1L);
+        ResponseEntity<Resource> response = bookFileController.downloadBook(1L, null);
         
         // Then
         assertNotNull(response);
@@ -44,5 +62,77 @@ class BookFileControllerTest {
         assertNotNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
         assertTrue(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains(filename));
     }
+    
+    @Test
+    void testDownloadBook_InternalRedirectEnabled_ShouldDelegateBytesToProxy() {
+        // Given
+        when(internalRedirect.isEnabled()).thenReturn(true);
+        when(internalRedirect.getHeaderName()).thenReturn(InternalRedirect.X_ACCEL_REDIRECT);
+        when(bookFileService.getPdfKey(1L)).thenReturn("ab/cd/abcd.pdf");
+        when(bookFileService.getOriginalFilename(1L)).thenReturn("test-book.pdf");
+        when(internalRedirect.resolve(StorageArea.PDFS, "ab/cd/abcd.pdf")).thenReturn("/internal/pdf/ab/cd/abcd.pdf");
+        
+        // When
+        ResponseEntity<Resource> response = bookFileController.downloadBook(1L, null);
+        
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals("/internal/pdf/ab/cd/abcd.pdf", response.getHeaders().getFirst(InternalRedirect.X_ACCEL_REDIRECT));
+        assertTrue(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION).contains("test-book.pdf"));
+        verify(bookFileService, never()).downloadBookFile(any());
+    }
+    
+    @Test
+    void testDownloadBook_WithMetadata_ShouldSetLengthAndETagWithoutStat() {
+        // Given
+        StoredFile metadata = StoredFile.builder()
+                .area(StorageArea.PDFS)
+                .storageKey("ab/cd/abcd.pdf")
+                .contentType("application/pdf")
+                .byteLength(16L)
+                .sha256("cd".repeat(32))
+                .modifiedAt(Instant.parse("2025-12-17T13:20:00Z"))
+                .build();
+        Resource pdf = new ByteArrayResource("test pdf content".getBytes());
+        when(bookFileService.getPdfKey(1L)).thenReturn("ab/cd/abcd.pdf");
+        when(storedFileService.find(StorageArea.PDFS, "ab/cd/abcd.pdf")).thenReturn(Optional.of(metadata));
+        when(bookFileService.getOriginalFilename(1L)).thenReturn("test-book.pdf");
+        when(bookFileService.openBookFile(eq("ab/cd/abcd.pdf"), anyLong())).thenReturn(pdf);
+        
+        // When
+        ResponseEntity<Resource> response = bookFileController.downloadBook(1L, null);
+        
+        // Then
+        assertSame(pdf, response.getBody());
+        assertEquals(16L, response.getHeaders().getContentLength());
+        assertEquals("\"" + "cd".repeat(32) + "\"", response.getHeaders().getETag());
+        verify(bookFileService, never()).downloadBookFile(any());
+    }
+    
+    @Test
+    void testDownloadBook_RangeRequest_ShouldLeaveLengthToRegionWriter() {
+        // Given
+        StoredFile metadata = StoredFile.builder()
+                .area(StorageArea.PDFS)
+                .storageKey("ab/cd/abcd.pdf")
+                .contentType("application/pdf")
+                .byteLength(16L)
+                .sha256("cd".repeat(32))
+                .modifiedAt(Instant.parse("2025-12-17T13:20:00Z"))
+                .build();
+        Resource pdf = new ByteArrayResource("test pdf content".getBytes());
+        when(bookFileService.getPdfKey(1L)).thenReturn("ab/cd/abcd.pdf");
+        when(storedFileService.find(StorageArea.PDFS, "ab/cd/abcd.pdf")).thenReturn(Optional.of(metadata));
+        when(bookFileService.getOriginalFilename(1L)).thenReturn("test-book.pdf");
+        when(bookFileService.openBookFile("ab/cd/abcd.pdf", 16L)).thenReturn(pdf);
+        
+        // When
+        ResponseEntity<Resource> response = bookFileController.downloadBook(1L, "bytes=0-3");
+        
+        // Then
+        assertSame(pdf, response.getBody());
+        assertEquals(-1L, response.getHeaders().getContentLength());
+        assertEquals("\"" + "cd".repeat(32) + "\"", response.getHeaders().getETag());
+    }
 }
-
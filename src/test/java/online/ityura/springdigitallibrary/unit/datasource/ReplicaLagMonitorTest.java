@@ -0,0 +1,87 @@
+package online.ityura.springdigitallibrary.unit.datasource;
+
+import online.ityura.springdigitallibrary.datasource.ReplicaLagMonitor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaLagMonitorTest {
+
+    @Mock
+    private DataSource first;
+
+    @Mock
+    private DataSource second;
+
+    @Test
+    void testNextReplica_BeforeFirstCheck_ShouldReturnNull() {
+        // Given
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(Map.of("replica-1", first), Duration.ofSeconds(2));
+
+        // When & Then
+        assertNull(monitor.nextReplica());
+        verifyNoInteractions(first);
+    }
+
+    @Test
+    void testCheckLag_ShouldRoundRobinOverReplicasWithinMaxLag() throws Exception {
+        // Given
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", first);
+        replicas.put("replica-2", second);
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicas, Duration.ofSeconds(2));
+        withLag(first, 0.25);
+        withLag(second, 3);
+
+        // When
+        monitor.checkLag();
+
+        // Then
+        assertEquals("replica-1", monitor.nextReplica());
+        assertEquals("replica-1", monitor.nextReplica());
+        assertEquals(Duration.ofMillis(250), monitor.getLags().get("replica-1"));
+        assertEquals(Duration.ofSeconds(3), monitor.getLags().get("replica-2"));
+    }
+
+    @Test
+    void testCheckLag_UnreachableReplica_ShouldBeExcludedUntilItAnswers() throws Exception {
+        // Given
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(Map.of("replica-1", first), Duration.ofSeconds(2));
+        withLag(first, 0);
+        monitor.checkLag();
+        when(first.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        // When
+        monitor.checkLag();
+
+        // Then
+        assertNull(monitor.nextReplica());
+        assertTrue(monitor.getLags().isEmpty());
+    }
+
+    private static void withLag(DataSource dataSource, double seconds) throws Exception {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getDouble(1)).thenReturn(seconds);
+    }
+}
@@ -0,0 +1,153 @@
+package online.ityura.springdigitallibrary.unit.datasource;
+
+import online.ityura.springdigitallibrary.datasource.ReadYourWritesTracker;
+import online.ityura.springdigitallibrary.datasource.ReplicaLagMonitor;
+import online.ityura.springdigitallibrary.datasource.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    private ReadYourWritesTracker tracker;
+    private ReplicaLagMonitor lagMonitor;
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new ReadYourWritesTracker(Duration.ofSeconds(5), Clock.fixed(Instant.parse("2025-12-21T19:00:00Z"), ZoneOffset.UTC));
+        lagMonitor = new ReplicaLagMonitor(Map.of("replica-1", replica), Duration.ofSeconds(2));
+        routingDataSource = new ReplicaRoutingDataSource(primary, lagMonitor, tracker);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testReadOnlyTransaction_HealthyReplica_ShouldUseReplica() throws Exception {
+        // Given
+        replicaWithLag(0.5);
+        lagMonitor.checkLag();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        routingDataSource.getConnection();
+
+        // Then
+        verify(replica, times(2)).getConnection();
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void testReadOnlyTransaction_LaggingReplica_ShouldUsePrimary() throws Exception {
+        // Given
+        replicaWithLag(10);
+        lagMonitor.checkLag();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        routingDataSource.getConnection();
+
+        // Then
+        verify(primary).getConnection();
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    void testWriteTransaction_ShouldUsePrimaryAndMakeUserStickyAfterCommit() throws Exception {
+        // Given
+        replicaWithLag(0);
+        lagMonitor.checkLag();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("reader@gmail.com", null, List.of()));
+
+        // When
+        routingDataSource.getConnection();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routingDataSource.getConnection();
+
+        // Then
+        verify(primary, times(2)).getConnection();
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    void testReadOnlyTransaction_OtherUserWrote_ShouldStillUseReplica() throws Exception {
+        // Given
+        replicaWithLag(0);
+        lagMonitor.checkLag();
+        tracker.recordWrite("admin@gmail.com");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("reader@gmail.com", null, List.of()));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        routingDataSource.getConnection();
+
+        // Then
+        verify(replica, times(2)).getConnection();
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void testReadYourWritesTracker_ShouldBeStickyOnlyWithinWindow() {
+        // Given
+        Clock clock = mock(Clock.class);
+        Instant writtenAt = Instant.parse("2025-12-21T19:00:00Z");
+        when(clock.instant()).thenReturn(writtenAt, writtenAt.plusSeconds(4), writtenAt.plusSeconds(5));
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofSeconds(5), clock);
+
+        // When
+        tracker.recordWrite("reader@gmail.com");
+
+        // Then
+        assertTrue(tracker.isSticky("reader@gmail.com"));
+        assertFalse(tracker.isSticky("reader@gmail.com"));
+        assertFalse(tracker.isSticky("admin@gmail.com"));
+    }
+
+    private void replicaWithLag(double seconds) throws Exception {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getDouble(1)).thenReturn(seconds);
+    }
+}
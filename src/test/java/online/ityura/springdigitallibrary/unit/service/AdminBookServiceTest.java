@@ -1,16 +1,23 @@
 package online.ityura.springdigitallibrary.unit.service;
 
+import online.ityura.springdigitallibrary.cache.ChangeNotificationPublisher;
+import online.ityura.springdigitallibrary.cache.ChangedEntity;
+import online.ityura.springdigitallibrary.cache.ImageByteCache;
 import online.ityura.springdigitallibrary.dto.request.CreateBookRequest;
 import online.ityura.springdigitallibrary.dto.request.PutBookRequest;
 import online.ityura.springdigitallibrary.dto.request.UpdateBookRequest;
+import online.ityura.springdigitallibrary.dto.response.BookResponse;
 import online.ityura.springdigitallibrary.model.Author;
 import online.ityura.springdigitallibrary.model.Book;
 import online.ityura.springdigitallibrary.model.Genre;
+import online.ityura.springdigitallibrary.model.StorageArea;
 import online.ityura.springdigitallibrary.repository.AuthorRepository;
 import online.ityura.springdigitallibrary.repository.BookRepository;
 import online.ityura.springdigitallibrary.repository.ReviewRepository;
 import online.ityura.springdigitallibrary.service.AdminBookService;
-import online.ityura.springdigitallibrary.service.BookImageService;
+import online.ityura.springdigitallibrary.service.AuthorResolver;
+import online.ityura.springdigitallibrary.service.ImageIngestionService;
+import online.ityura.springdigitallibrary.storage.ContentAddressedStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,13 +25,22 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,11 +52,23 @@ class AdminBookServiceTest {
     @Mock
     private AuthorRepository authorRepository;
     
+    @Mock
+    private AuthorResolver authorResolver;
+    
     @Mock
     private ReviewRepository reviewRepository;
     
     @Mock
-    private BookImageService bookImageService;
+    private ImageIngestionService imageIngestionService;
+    
+    @Mock
+    private ContentAddressedStore contentAddressedStore;
+    
+    @Mock
+    private ImageByteCache imageByteCache;
+    
+    @Mock
+    private ChangeNotificationPublisher changeNotificationPublisher;
     
     @InjectMocks
     private AdminBookService adminBookService;
@@ -91,7 +119,7 @@ class AdminBookServiceTest {
     @Test
     void testCreateBook_Success_WithExistingAuthor() {
         // Given
-        when(authorRepository.findByFullName("Test Author")).thenReturn(Optional.of(testAuthor));
+        when(authorResolver.resolve("Test Author")).thenReturn(testAuthor);
         when(bookRepository.existsByTitleAndAuthorId("New Book", 1L)).thenReturn(false);
         when(bookRepository.save(any(Book.class))).thenReturn(testBook);
         
@@ -100,7 +128,7 @@ class AdminBookServiceTest {
         
         // Then
         assertNotNull(response);
-        verify(authorRepository).findByFullName("Test Author");
+        verify(authorResolver).resolve("Test Author");
         verify(bookRepository).existsByTitleAndAuthorId("New Book", 1L);
         verify(bookRepository).save(any(Book.class));
     }
@@ -108,8 +136,8 @@ class AdminBookServiceTest {
     @Test
     void testCreateBook_Success_WithNewAuthor() {
         // Given
-        when(authorRepository.findByFullName("New Author")).thenReturn(Optional.empty());
-        when(authorRepository.save(any(Author.class))).thenReturn(testAuthor);
+        Author newAuthor = Author.builder().id(2L).fullName("New Author").build();
+        when(authorResolver.resolve("New Author")).thenReturn(newAuthor);
         when(bookRepository.existsByTitleAndAuthorId(anyString(), anyLong())).thenReturn(false);
         when(bookRepository.save(any(Book.class))).thenReturn(testBook);
         
@@ -120,15 +148,16 @@ class AdminBookServiceTest {
         
         // Then
         assertNotNull(response);
-        verify(authorRepository).findByFullName("New Author");
-        verify(authorRepository).save(any(Author.class));
+        verify(authorResolver).resolve("New Author");
+        verify(bookRepository).existsByTitleAndAuthorId("New Book", 2L);
         verify(bookRepository).save(any(Book.class));
+        verifyNoInteractions(authorRepository);
     }
     
     @Test
     void testCreateBook_BookAlreadyExists_ShouldThrowException() {
         // Given
-        when(authorRepository.findByFullName("Test Author")).thenReturn(Optional.of(testAuthor));
+        when(authorResolver.resolve("Test Author")).thenReturn(testAuthor);
         when(bookRepository.existsByTitleAndAuthorId("New Book", 1L)).thenReturn(true);
         
         // When & Then
@@ -140,11 +169,80 @@ class AdminBookServiceTest {
         verify(bookRepository, never()).save(any(Book.class));
     }
     
+    @Test
+    void testCreateBooks_Success_ShouldResolveAuthorsOnceAndInsertInBatch() {
+        // Given
+        CreateBookRequest second = new CreateBookRequest();
+        second.setTitle("Second Book");
+        second.setAuthorName("New Author");
+        CreateBookRequest third = new CreateBookRequest();
+        third.setTitle("Third Book");
+        third.setAuthorName("Test Author");
+        Author newAuthor = Author.builder().id(2L).fullName("New Author").build();
+        when(authorResolver.resolveAll(List.of("Test Author", "New Author", "Test Author")))
+                .thenReturn(Map.of("Test Author", testAuthor, "New Author", newAuthor));
+        when(bookRepository.findTitleAuthorPairs(anyCollection(), anyCollection())).thenReturn(List.of());
+        when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            for (int i = 0; i < books.size(); i++) {
+                books.get(i).setId(10L + i);
+            }
+            return books;
+        });
+        
+        // When
+        List<BookResponse> responses = adminBookService.createBooks(List.of(createRequest, second, third));
+        
+        // Then
+        assertEquals(3, responses.size());
+        assertEquals(10L, responses.get(0).getId());
+        assertEquals(2L, responses.get(1).getAuthor().getId());
+        assertEquals(1L, responses.get(2).getAuthor().getId());
+        verify(authorResolver).resolveAll(anyCollection());
+        verify(bookRepository).findTitleAuthorPairs(anyCollection(), anyCollection());
+        verify(bookRepository).saveAll(anyList());
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(authorResolver, never()).resolve(anyString());
+    }
+    
+    @Test
+    void testCreateBooks_ExistingBook_ShouldThrowConflictWithoutInserting() {
+        // Given
+        when(authorResolver.resolveAll(anyCollection())).thenReturn(Map.of("Test Author", testAuthor));
+        when(bookRepository.findTitleAuthorPairs(anyCollection(), anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{"New Book", 1L}));
+        
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> adminBookService.createBooks(List.of(createRequest)));
+        
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        verify(bookRepository, never()).saveAll(anyList());
+    }
+    
+    @Test
+    void testCreateBooks_DuplicateInRequest_ShouldThrowConflict() {
+        // Given
+        CreateBookRequest duplicate = new CreateBookRequest();
+        duplicate.setTitle("New Book");
+        duplicate.setAuthorName("Test Author");
+        when(authorResolver.resolveAll(anyCollection())).thenReturn(Map.of("Test Author", testAuthor));
+        when(bookRepository.findTitleAuthorPairs(anyCollection(), anyCollection())).thenReturn(List.of());
+        
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> adminBookService.createBooks(List.of(createRequest, duplicate)));
+        
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        assertTrue(exception.getReason().contains("New Book"));
+        verify(bookRepository, never()).saveAll(anyList());
+    }
+    
     @Test
     void testUpdateBook_Success_ShouldReturnUpdatedBook() {
         // Given
         when(bookRepository.findByIdWithAuthor(1L)).thenReturn(Optional.of(testBook));
-        when(authorRepository.findByFullName("Updated Author")).thenReturn(Optional.of(testAuthor));
+        when(authorResolver.resolve("Updated Author")).thenReturn(testAuthor);
         when(bookRepository.existsByTitleAndAuthorId("Updated Book", 1L)).thenReturn(false);
         when(bookRepository.save(any(Book.class))).thenReturn(testBook);
         
@@ -185,6 +283,40 @@ class AdminBookServiceTest {
         verify(bookRepository).save(any(Book.class));
     }
     
+    @Test
+    void testPatchBook_ImageQueueFull_ShouldFailRequestInsteadOfDroppingUploadAfterCommit() {
+        // Given
+        // Настоящий сервис загрузок без свободных мест в очереди
+        ImageIngestionService fullQueue = new ImageIngestionService();
+        ReflectionTestUtils.setField(fullQueue, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(fullQueue, "slots", new Semaphore(0));
+        ReflectionTestUtils.setField(fullQueue, "statusTtl", Duration.ofHours(1));
+        Executor executor = mock(Executor.class);
+        ReflectionTestUtils.setField(fullQueue, "executor", executor);
+        ReflectionTestUtils.setField(adminBookService, "imageIngestionService", fullQueue);
+        MultipartFile imageFile = mock(MultipartFile.class);
+        when(imageFile.isEmpty()).thenReturn(false);
+        when(bookRepository.findByIdWithAuthor(1L)).thenReturn(Optional.of(testBook));
+        when(bookRepository.save(any(Book.class))).thenReturn(testBook);
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        
+        // patchBook выполняется в транзакции
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                    () -> adminBookService.patchBook(1L, updateRequest, imageFile));
+            
+            // Then
+            // Ответ 503 откатывает транзакцию PATCH, а не превращается в успех с потерянной загрузкой
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatusCode());
+            assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+            verifyNoInteractions(executor);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+    
     @Test
     void testDeleteBook_Success() {
         // Given
@@ -199,6 +331,8 @@ class AdminBookServiceTest {
         verify(bookRepository).findById(1L);
         verify(reviewRepository).countByBookId(1L);
         verify(bookRepository).delete(any(Book.class));
+        verify(contentAddressedStore).release(StorageArea.IMAGES, testBook.getImagePath());
+        verify(contentAddressedStore).release(StorageArea.PDFS, testBook.getPdfPath());
     }
     
     @Test
@@ -230,5 +364,79 @@ class AdminBookServiceTest {
         assertTrue(exception.getReason().contains("has reviews"));
         verify(bookRepository, never()).delete(any(Book.class));
     }
+    
+    @Test
+    void testDeleteAuthorAndAllBooks_Success_ShouldDeleteInBulk() {
+        // Given
+        when(authorRepository.findById(1L)).thenReturn(Optional.of(testAuthor));
+        when(bookRepository.findUndeletableByAuthorId(1L)).thenReturn(List.of());
+        when(bookRepository.findFileRefsByAuthorId(1L)).thenReturn(List.of(
+                new Object[]{1L, "aa/bb/image.png", "cc/dd/book.pdf"},
+                new Object[]{2L, null, null}));
+        
+        // When
+        adminBookService.deleteAuthorAndAllBooks(1L);
+        
+        // Then
+        verify(bookRepository).deleteByAuthorId(1L);
+        verify(contentAddressedStore).release(StorageArea.IMAGES, "aa/bb/image.png");
+        verify(contentAddressedStore).release(StorageArea.PDFS, "cc/dd/book.pdf");
+        verify(imageByteCache).invalidate(1L);
+        verify(imageByteCache).invalidate(2L);
+        verify(authorRepository).delete(testAuthor);
+        verify(authorResolver).evict("Test Author");
+        verify(changeNotificationPublisher).publish(ChangedEntity.BOOK, 1L);
+        verify(changeNotificationPublisher).publish(ChangedEntity.BOOK, 2L);
+        verify(changeNotificationPublisher).publish(ChangedEntity.AUTHOR, 1L);
+        verify(bookRepository, never()).delete(any(Book.class));
+        verifyNoInteractions(reviewRepository);
+    }
+    
+    @Test
+    void testDeleteAuthorAndAllBooks_LockedBooks_ShouldThrowForbiddenWithIds() {
+        // Given
+        when(authorRepository.findById(1L)).thenReturn(Optional.of(testAuthor));
+        when(bookRepository.findUndeletableByAuthorId(1L)).thenReturn(List.of(
+                new Object[]{3L, false},
+                new Object[]{5L, true},
+                new Object[]{7L, true}));
+        
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, 
+                () -> adminBookService.deleteAuthorAndAllBooks(1L));
+        
+        assertEquals(HttpStatus.FORBIDDEN, exception.getStatusCode());
+        assertEquals("Cannot delete books with ids [5, 7]: deletion is locked", exception.getReason());
+        verify(bookRepository, never()).deleteByAuthorId(anyLong());
+        verify(authorRepository, never()).delete(any(Author.class));
+    }
+    
+    @Test
+    void testDeleteAuthorAndAllBooks_ReviewedBooks_ShouldThrowConflictWithIds() {
+        // Given
+        when(authorRepository.findById(1L)).thenReturn(Optional.of(testAuthor));
+        when(bookRepository.findUndeletableByAuthorId(1L)).thenReturn(List.<Object[]>of(new Object[]{3L, false}));
+        
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, 
+                () -> adminBookService.deleteAuthorAndAllBooks(1L));
+        
+        assertEquals(HttpStatus.CONFLICT, exception.getStatusCode());
+        assertTrue(exception.getReason().contains("[3]"));
+        assertTrue(exception.getReason().contains("has reviews"));
+        verify(bookRepository, never()).deleteByAuthorId(anyLong());
+    }
+    
+    @Test
+    void testDeleteAuthorAndAllBooks_AuthorNotFound_ShouldThrowException() {
+        // Given
+        when(authorRepository.findById(999L)).thenReturn(Optional.empty());
+        
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, 
+                () -> adminBookService.deleteAuthorAndAllBooks(999L));
+        
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        verifyNoInteractions(bookRepository);
+    }
 }
-
@@ -0,0 +1,127 @@
+package online.ityura.springdigitallibrary.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import online.ityura.springdigitallibrary.dto.response.AdminUserPageResponse;
+import online.ityura.springdigitallibrary.model.Role;
+import online.ityura.springdigitallibrary.model.User;
+import online.ityura.springdigitallibrary.repository.UserRepository;
+import online.ityura.springdigitallibrary.service.AdminUserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdminUserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JdbcTemplate exportJdbcTemplate;
+
+    @InjectMocks
+    private AdminUserService adminUserService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(adminUserService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(adminUserService, "exportJdbcTemplate", exportJdbcTemplate);
+    }
+
+    @Test
+    void testGetUsersPage_MoreRowsThanPage_ShouldReturnNextCursor() {
+        // Given
+        when(userRepository.findPageAfter(eq(0L), isNull(), isNull(), eq(PageRequest.of(0, 3))))
+                .thenReturn(List.of(user(1L), user(2L), user(3L)));
+
+        // When
+        AdminUserPageResponse page = adminUserService.getUsersPage(null, 2, null, null);
+
+        // Then
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(2L, page.getNextCursor());
+    }
+
+    @Test
+    void testGetUsersPage_LastPage_ShouldHaveNoCursor() {
+        // Given
+        when(userRepository.findPageAfter(eq(2L), eq(Role.USER), eq("a\\_b\\%%"), any()))
+                .thenReturn(List.of(user(3L)));
+
+        // When
+        AdminUserPageResponse page = adminUserService.getUsersPage(2L, 2, Role.USER, "a_b%");
+
+        // Then
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetUsersPage_SizeOverLimit_ShouldThrowBadRequest() {
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> adminUserService.getUsersPage(null, AdminUserService.MAX_PAGE_SIZE + 1, null, null));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testExportUsers_ShouldWriteOneJsonObjectPerRow() throws Exception {
+        // Given
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(1L, 2L);
+        when(rs.getString("nickname")).thenReturn("admin", "reader");
+        when(rs.getString("email")).thenReturn("admin@gmail.com", "reader@gmail.com");
+        when(rs.getString("role")).thenReturn("ADMIN", "USER");
+        when(rs.getTimestamp("created_at")).thenReturn(Timestamp.valueOf(LocalDateTime.of(2025, 12, 21, 19, 9, 33)), (Timestamp) null);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(rs);
+            handler.processRow(rs);
+            return null;
+        }).when(exportJdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long exported = adminUserService.exportUsers(Role.ADMIN, "adm", output);
+
+        // Then
+        assertEquals(2L, exported);
+        assertEquals("{\"id\":1,\"nickname\":\"admin\",\"email\":\"admin@gmail.com\",\"role\":\"ADMIN\",\"createdAt\":\"2025-12-21T19:09:33\"}\n" +
+                "{\"id\":2,\"nickname\":\"reader\",\"email\":\"reader@gmail.com\",\"role\":\"USER\",\"createdAt\":null}\n",
+                output.toString());
+        verify(exportJdbcTemplate).query(
+                eq("SELECT id, nickname, email, role, created_at FROM users WHERE 1 = 1 AND role = ? AND email LIKE ? ESCAPE '\\' ORDER BY id"),
+                any(RowCallbackHandler.class), eq("ADMIN"), eq("adm%"));
+    }
+
+    private static User user(Long id) {
+        return User.builder()
+                .id(id)
+                .nickname("user" + id)
+                .email("user" + id + "@example.com")
+                .role(Role.USER)
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package online.ityura.springdigitallibrary.unit.service;
+
+import online.ityura.springdigitallibrary.model.Author;
+import online.ityura.springdigitallibrary.repository.AuthorRepository;
+import online.ityura.springdigitallibrary.service.AuthorResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthorResolverTest {
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @InjectMocks
+    private AuthorResolver authorResolver;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(authorResolver, "maxSize", 1000);
+    }
+
+    @Test
+    void testResolve_WarmedUpAuthor_ShouldNotQueryDatabase() {
+        // Given
+        when(authorRepository.findIdsAndNames(any(Pageable.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "Robert Martin"}));
+        authorResolver.warmUp();
+
+        // When
+        Author author = authorResolver.resolve("Robert Martin");
+
+        // Then
+        assertEquals(1L, author.getId());
+        assertEquals("Robert Martin", author.getFullName());
+        verify(authorRepository, never()).findIdsByFullNameIn(anyCollection());
+        verify(authorRepository, never()).insertIfAbsent(anyString());
+    }
+
+    @Test
+    void testResolveAll_ShouldLookUpMissesOnceAndCreateNewAuthorsInNameOrder() {
+        // Given
+        when(authorRepository.findIdsByFullNameIn(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "Robert Martin"}));
+        when(authorRepository.insertIfAbsent("Andy Hunt")).thenReturn(Optional.of(51L));
+        when(authorRepository.insertIfAbsent("Kent Beck")).thenReturn(Optional.of(101L));
+
+        // When
+        Map<String, Author> authors = authorResolver.resolveAll(
+                List.of("Kent Beck", "Robert Martin", "Andy Hunt", "Kent Beck"));
+
+        // Then
+        assertEquals(1L, authors.get("Robert Martin").getId());
+        assertEquals(51L, authors.get("Andy Hunt").getId());
+        assertEquals(101L, authors.get("Kent Beck").getId());
+        InOrder inOrder = inOrder(authorRepository);
+        inOrder.verify(authorRepository).insertIfAbsent("Andy Hunt");
+        inOrder.verify(authorRepository).insertIfAbsent("Kent Beck");
+        verify(authorRepository).findIdsByFullNameIn(anyCollection());
+
+        // Повторное обращение обслуживается из кэша
+        authorResolver.resolve("Kent Beck");
+        verifyNoMoreInteractions(authorRepository);
+    }
+
+    @Test
+    void testResolve_ConcurrentlyCreatedAuthor_ShouldReadCommittedRow() {
+        // Given
+        when(authorRepository.findIdsByFullNameIn(anyCollection()))
+                .thenReturn(List.of(), List.<Object[]>of(new Object[]{7L, "Kent Beck"}));
+        when(authorRepository.insertIfAbsent("Kent Beck")).thenReturn(Optional.empty());
+
+        // When
+        Author author = authorResolver.resolve("Kent Beck");
+
+        // Then
+        assertEquals(7L, author.getId());
+        verify(authorRepository, never()).findByFullName(anyString());
+    }
+
+    @Test
+    void testEvict_ShouldForceDatabaseLookup() {
+        // Given
+        when(authorRepository.findIdsAndNames(any(Pageable.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "Robert Martin"}));
+        authorResolver.warmUp();
+        when(authorRepository.findIdsByFullNameIn(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{2L, "Robert Martin"}));
+
+        // When
+        authorResolver.evict("Robert Martin");
+        Author author = authorResolver.resolve("Robert Martin");
+
+        // Then
+        assertEquals(2L, author.getId());
+    }
+}
@@ -1,21 +1,34 @@
 package online.ityura.springdigitallibrary.unit.service;
 
+import online.ityura.springdigitallibrary.cache.ChangeNotificationPublisher;
 import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.StorageArea;
 import online.ityura.springdigitallibrary.repository.BookRepository;
 import online.ityura.springdigitallibrary.service.BookFileService;
+import online.ityura.springdigitallibrary.storage.ContentAddressedStore;
+import online.ityura.springdigitallibrary.storage.SpooledContent;
+import online.ityura.springdigitallibrary.storage.StorageBackend;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class BookFileServiceTest {
@@ -23,6 +36,18 @@ class BookFileServiceTest {
     @Mock
     private BookRepository bookRepository;
     
+    @Mock
+    private StorageBackend storageBackend;
+    
+    @Mock
+    private ContentAddressedStore contentAddressedStore;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @Mock
+    private ChangeNotificationPublisher changeNotificationPublisher;
+    
     @InjectMocks
     private BookFileService bookFileService;
     
@@ -104,5 +129,109 @@ class BookFileServiceTest {
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
         assertTrue(exception.getReason().contains("PDF file not found"));
     }
+    
+    @Test
+    void testGetOriginalFilename_ContentAddressedPath_ShouldUseBookTitle() {
+        // Given
+        testBook.setPdfPath("/storage/pdfs/ab/cd/" + "abcd".repeat(16) + ".pdf");
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        
+        // When
+        String filename = bookFileService.getOriginalFilename(1L);
+        
+        // Then
+        assertEquals("Test_Book.pdf", filename);
+    }
+    
+    @Test
+    void testDownloadBookFile_Success_ShouldReturnResourceFromStorageBackend() {
+        // Given
+        Resource stored = mock(Resource.class);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(storageBackend.getResource(StorageArea.PDFS, "test/path/to/book.pdf")).thenReturn(stored);
+        when(stored.exists()).thenReturn(true);
+        when(stored.isReadable()).thenReturn(true);
+        
+        // When
+        Resource result = bookFileService.downloadBookFile(1L);
+        
+        // Then
+        assertSame(stored, result);
+    }
+    
+    @Test
+    void testDownloadBookFile_MissingInStorage_ShouldThrowNotFound() {
+        // Given
+        Resource stored = mock(Resource.class);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(storageBackend.getResource(StorageArea.PDFS, "test/path/to/book.pdf")).thenReturn(stored);
+        when(stored.exists()).thenReturn(false);
+        
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, 
+                () -> bookFileService.downloadBookFile(1L));
+        
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+    
+    @Test
+    void testUploadBookPdf_Success_ShouldSwapPdfPathAndReleaseOldFile() throws Exception {
+        // Given
+        byte[] pdf = "%PDF-1.7 test".getBytes();
+        Path spooledFile = Files.createTempFile("spooled-", ".part");
+        SpooledContent spooled = new SpooledContent(spooledFile, "ab".repeat(32), pdf.length, ".pdf");
+        ContentBlob blob = ContentBlob.builder()
+                .id(10L)
+                .area(StorageArea.PDFS)
+                .sha256("ab".repeat(32))
+                .byteLength((long) pdf.length)
+                .refCount(1)
+                .storageKey("ab/ab/" + "ab".repeat(32) + ".pdf")
+                .build();
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(contentAddressedStore.spool(any(InputStream.class), eq(".pdf"))).thenAnswer(invocation -> {
+            InputStream input = invocation.getArgument(0);
+            assertArrayEquals(pdf, input.readAllBytes());
+            return spooled;
+        });
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testBook));
+        when(contentAddressedStore.store(StorageArea.PDFS, spooled)).thenReturn(blob);
+        
+        // When
+        ContentBlob result = bookFileService.uploadBookPdf(1L, new ByteArrayInputStream(pdf));
+        
+        // Then
+        assertSame(blob, result);
+        assertEquals(blob.getStorageKey(), testBook.getPdfPath());
+        verify(bookRepository).save(testBook);
+        verify(contentAddressedStore).release(StorageArea.PDFS, "test/path/to/book.pdf");
+        assertFalse(Files.exists(spooledFile));
+    }
+    
+    @Test
+    void testUploadBookPdf_NotPdf_ShouldThrowBadRequest() throws Exception {
+        // Given
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, 
+                () -> bookFileService.uploadBookPdf(1L, new ByteArrayInputStream("<html>".getBytes())));
+        
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        verify(contentAddressedStore, never()).spool(any(), any());
+    }
+    
+    @Test
+    void testUploadBookPdf_BookNotFound_ShouldNotReadBody() throws Exception {
+        // Given
+        InputStream body = mock(InputStream.class);
+        when(bookRepository.existsById(999L)).thenReturn(false);
+        
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, 
+                () -> bookFileService.uploadBookPdf(999L, body));
+        
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        verifyNoInteractions(body, contentAddressedStore);
+    }
 }
-
@@ -1,19 +1,31 @@
 package online.ityura.springdigitallibrary.unit.service;
 
+import online.ityura.springdigitallibrary.cache.ByteBufferResource;
+import online.ityura.springdigitallibrary.cache.ChangeNotificationPublisher;
+import online.ityura.springdigitallibrary.cache.ImageByteCache;
 import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.model.StoredFile;
 import online.ityura.springdigitallibrary.repository.BookRepository;
 import online.ityura.springdigitallibrary.service.BookImageService;
+import online.ityura.springdigitallibrary.storage.ContentAddressedStore;
+import online.ityura.springdigitallibrary.storage.SpooledContent;
+import online.ityura.springdigitallibrary.storage.StorageBackend;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
-import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.net.URI;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.ByteBuffer;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,11 +37,22 @@ class BookImageServiceTest {
     @Mock
     private BookRepository bookRepository;
     
+    @Mock
+    private ImageByteCache imageByteCache;
+    
+    @Mock
+    private ContentAddressedStore contentAddressedStore;
+    
+    @Mock
+    private StorageBackend storageBackend;
+    
+    @Mock
+    private ChangeNotificationPublisher changeNotificationPublisher;
+    
     @InjectMocks
     private BookImageService bookImageService;
     
     private Book testBook;
-    private MultipartFile mockFile;
     
     @BeforeEach
     void setUp() {
@@ -37,64 +60,175 @@ class BookImageServiceTest {
                 .id(1L)
                 .title("Test Book")
                 .build();
-        
-        mockFile = mock(MultipartFile.class);
-        
-        // Устанавливаем storagePath через ReflectionTestUtils
-        ReflectionTestUtils.setField(bookImageService, "storagePath", "test/storage/path");
     }
     
     @Test
-    void testUploadBookImage_BookNotFound_ShouldThrowException() {
+    void testGetBookImage_BookNotFound_ShouldThrowException() {
         // Given
         when(bookRepository.findById(999L)).thenReturn(Optional.empty());
         
         // When & Then
         ResponseStatusException exception = assertThrows(ResponseStatusException.class, 
-                () -> bookImageService.uploadBookImage(999L, mockFile));
+                () -> bookImageService.getBookImage(999L));
         
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
         assertTrue(exception.getReason().contains("Book not found"));
     }
     
     @Test
-    void testUploadBookImage_EmptyFile_ShouldThrowException() {
+    void testGetBookImage_CachedImage_ShouldReturnCachedResource() {
         // Given
+        testBook.setImagePath("test/storage/path/Test_Book.png");
+        Resource cachedResource = new ByteBufferResource(ByteBuffer.wrap(new byte[]{1, 2, 3}),
+                URI.create("storage:/images/Test_Book.png"));
         when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-        when(mockFile.isEmpty()).thenReturn(true);
+        when(imageByteCache.get(1L, "test/storage/path/Test_Book.png")).thenReturn(cachedResource);
+        
+        // When
+        Resource result = bookImageService.getBookImage(1L);
+        
+        // Then
+        assertSame(cachedResource, result);
+    }
+    
+    @Test
+    void testAttachImageByHash_Success_ShouldReuseStoredContent() {
+        // Given
+        String sha256 = "cd".repeat(32);
+        ContentBlob blob = ContentBlob.builder()
+                .id(11L)
+                .area(StorageArea.IMAGES)
+                .sha256(sha256)
+                .storageKey("cd/cd/" + sha256 + ".jpg")
+                .build();
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testBook));
+        when(contentAddressedStore.addReference(StorageArea.IMAGES, sha256)).thenReturn(blob);
+        
+        // When
+        String result = bookImageService.attachImageByHash(1L, sha256);
+        
+        // Then
+        assertEquals(blob.getStorageKey(), result);
+        verify(bookRepository).save(testBook);
+        verify(contentAddressedStore).release(StorageArea.IMAGES, null);
+        verify(imageByteCache).invalidate(1L);
+    }
+    
+    @Test
+    void testAttachStagedImage_Success_ShouldReferenceStagedContent() throws Exception {
+        // Given
+        String sha256 = "ef".repeat(32);
+        SpooledContent content = new SpooledContent(Path.of("staged.part"), sha256, 3, ".png");
+        ContentBlob blob = ContentBlob.builder()
+                .id(12L)
+                .area(StorageArea.IMAGES)
+                .sha256(sha256)
+                .storageKey("ef/ef/" + sha256 + ".png")
+                .build();
+        testBook.setImagePath("ab/ab/old.png");
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testBook));
+        when(contentAddressedStore.attachStaged(StorageArea.IMAGES, content, 640, 480)).thenReturn(blob);
+        
+        // When
+        String result = bookImageService.attachStagedImage(1L, content, 640, 480);
+        
+        // Then
+        assertEquals(blob.getStorageKey(), result);
+        assertEquals(blob.getStorageKey(), testBook.getImagePath());
+        verify(contentAddressedStore).release(StorageArea.IMAGES, "ab/ab/old.png");
+        verify(imageByteCache).invalidate(1L);
+    }
+    
+    @Test
+    void testAttachStagedImage_BookDeleted_ShouldThrowNotFound() {
+        // Given
+        SpooledContent content = new SpooledContent(Path.of("staged.part"), "ef".repeat(32), 3, ".png");
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
         
         // When & Then
-        ResponseStatusException exception = assertThrows(ResponseStatusException.class, 
-                () -> bookImageService.uploadBookImage(1L, mockFile));
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> bookImageService.attachStagedImage(1L, content, 640, 480));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        verifyNoInteractions(contentAddressedStore);
+    }
+    
+    @Test
+    void testGetBookImage_NotCached_ShouldLoadFromStorageBackend() throws Exception {
+        // Given
+        testBook.setImagePath("ab/cd/cover.png");
+        Resource stored = mock(Resource.class);
+        Resource loaded = new ByteBufferResource(ByteBuffer.wrap(new byte[]{1, 2, 3}),
+                URI.create("storage:/images/ab/cd/cover.png"));
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(imageByteCache.get(1L, "ab/cd/cover.png")).thenReturn(null);
+        when(storageBackend.getResource(StorageArea.IMAGES, "ab/cd/cover.png")).thenReturn(stored);
+        when(stored.exists()).thenReturn(true);
+        when(stored.isReadable()).thenReturn(true);
+        when(imageByteCache.load(1L, "ab/cd/cover.png", stored)).thenReturn(loaded);
+        
+        // When
+        Resource result = bookImageService.getBookImage(1L);
         
-        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
-        assertTrue(exception.getReason().contains("Image file is required"));
+        // Then
+        assertSame(loaded, result);
     }
     
     @Test
-    void testUploadBookImage_NullFile_ShouldThrowException() {
+    void testGetBookImage_MissingInStorage_ShouldThrowNotFound() {
         // Given
+        testBook.setImagePath("ab/cd/cover.png");
+        Resource stored = mock(Resource.class);
         when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(storageBackend.getResource(StorageArea.IMAGES, "ab/cd/cover.png")).thenReturn(stored);
+        when(stored.exists()).thenReturn(false);
         
         // When & Then
         ResponseStatusException exception = assertThrows(ResponseStatusException.class, 
-                () -> bookImageService.uploadBookImage(1L, null));
+                () -> bookImageService.getBookImage(1L));
         
-        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
-        assertTrue(exception.getReason().contains("Image file is required"));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
     }
     
     @Test
-    void testGetBookImage_BookNotFound_ShouldThrowException() {
+    void testOpenBookImage_WithMetadata_ShouldUseKnownSizeWithoutStat() throws Exception {
         // Given
-        when(bookRepository.findById(999L)).thenReturn(Optional.empty());
+        StoredFile metadata = StoredFile.builder()
+                .area(StorageArea.IMAGES)
+                .storageKey("ab/cd/cover.png")
+                .byteLength(3L)
+                .build();
+        Resource stored = mock(Resource.class);
+        Resource loaded = new ByteBufferResource(ByteBuffer.wrap(new byte[]{1, 2, 3}),
+                URI.create("storage:/images/ab/cd/cover.png"));
+        when(storageBackend.getResource(StorageArea.IMAGES, "ab/cd/cover.png")).thenReturn(stored);
+        when(imageByteCache.load(1L, "ab/cd/cover.png", stored, 3L)).thenReturn(loaded);
+        
+        // When
+        Resource result = bookImageService.openBookImage(1L, metadata);
+        
+        // Then
+        assertSame(loaded, result);
+        verify(stored, never()).exists();
+        verify(stored, never()).isReadable();
+        verifyNoInteractions(bookRepository);
+    }
+    
+    @Test
+    void testOpenBookImage_FileDeletedBehindMetadata_ShouldThrowNotFound() throws Exception {
+        // Given
+        StoredFile metadata = StoredFile.builder()
+                .area(StorageArea.IMAGES)
+                .storageKey("ab/cd/cover.png")
+                .byteLength(3L)
+                .build();
+        Resource stored = mock(Resource.class);
+        when(storageBackend.getResource(StorageArea.IMAGES, "ab/cd/cover.png")).thenReturn(stored);
+        when(imageByteCache.load(1L, "ab/cd/cover.png", stored, 3L)).thenThrow(new NoSuchFileException("ab/cd/cover.png"));
         
         // When & Then
         ResponseStatusException exception = assertThrows(ResponseStatusException.class, 
-                () -> bookImageService.getBookImage(999L));
+                () -> bookImageService.openBookImage(1L, metadata));
         
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
-        assertTrue(exception.getReason().contains("Book not found"));
     }
 }
-
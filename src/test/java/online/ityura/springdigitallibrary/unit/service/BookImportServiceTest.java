@@ -0,0 +1,235 @@
+package online.ityura.springdigitallibrary.unit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import online.ityura.springdigitallibrary.dto.response.BookImportErrorResponse;
+import online.ityura.springdigitallibrary.dto.response.BookImportResponse;
+import online.ityura.springdigitallibrary.model.Author;
+import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.BookImportStatus;
+import online.ityura.springdigitallibrary.model.Genre;
+import online.ityura.springdigitallibrary.repository.BookRepository;
+import online.ityura.springdigitallibrary.service.AuthorResolver;
+import online.ityura.springdigitallibrary.service.BookImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AuthorResolver authorResolver;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private BookImportService bookImportService;
+
+    private Author existingAuthor;
+
+    @BeforeEach
+    void setUp() {
+        // Импорт выполняется в вызывающем потоке, чтобы проверять итоговый отчет сразу
+        ReflectionTestUtils.setField(bookImportService, "executor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(bookImportService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(bookImportService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(bookImportService, "chunkSize", 2);
+        ReflectionTestUtils.setField(bookImportService, "maxBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(bookImportService, "maxReportedErrors", 100);
+        ReflectionTestUtils.setField(bookImportService, "statusTtl", Duration.ofHours(1));
+
+        existingAuthor = Author.builder()
+                .id(1L)
+                .fullName("Robert Martin")
+                .build();
+    }
+
+    @Test
+    void testImport_Csv_ShouldCommitInChunksAndCreateMissingAuthors() {
+        // Given
+        String csv = "title,authorName,description,publishedYear,genre\n" +
+                "Clean Code,Robert Martin,\"Readable, simple code\",2008,education\n" +
+                "\"The \"\"Pragmatic\"\" Programmer\",Andy Hunt,\"Two\nlines\",1999,TECHNOLOGY\n" +
+                "Clean Architecture,Robert Martin,,2017,\n";
+        stubAuthors();
+        when(bookRepository.findTitleAuthorPairs(anyCollection(), anyCollection())).thenReturn(List.of());
+        List<Book> saved = stubSaveBooks();
+
+        // When
+        BookImportResponse response = bookImportService.submit(BookImportService.CSV, stream(csv));
+
+        // Then
+        assertEquals(BookImportStatus.COMPLETED, response.getStatus());
+        assertEquals(3L, response.getProcessedRows());
+        assertEquals(3L, response.getImportedRows());
+        assertEquals(0L, response.getFailedRows());
+        assertEquals(2L, response.getCommittedChunks());
+        assertEquals(response.getTotalBytes(), response.getProcessedBytes());
+        verify(bookRepository, times(2)).saveAll(anyList());
+
+        assertEquals("Readable, simple code", saved.get(0).getDescription());
+        assertEquals(Genre.EDUCATION, saved.get(0).getGenre());
+        assertEquals("The \"Pragmatic\" Programmer", saved.get(1).getTitle());
+        assertEquals("Two\nlines", saved.get(1).getDescription());
+        assertEquals("Andy Hunt", saved.get(1).getAuthor().getFullName());
+        assertNull(saved.get(2).getDescription());
+        assertNull(saved.get(2).getGenre());
+    }
+
+    @Test
+    void testImport_InvalidRows_ShouldBeReportedWithoutAbortingImport() {
+        // Given
+        String csv = "title,authorName,publishedYear,genre\n" +
+                ",Robert Martin,2008,\n" +
+                "Bad Year,Robert Martin,soon,\n" +
+                "Bad Genre,Robert Martin,2010,NOT_A_GENRE\n" +
+                "Clean Code,Robert Martin,2008,\n" +
+                "New Book,Robert Martin,2020,\n";
+        stubAuthors();
+        when(bookRepository.findTitleAuthorPairs(anyCollection(), anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{"Clean Code", 1L}));
+        List<Book> saved = stubSaveBooks();
+
+        // When
+        BookImportResponse response = bookImportService.submit(BookImportService.CSV, stream(csv));
+
+        // Then
+        assertEquals(BookImportStatus.COMPLETED, response.getStatus());
+        assertEquals(5L, response.getProcessedRows());
+        assertEquals(1L, response.getImportedRows());
+        assertEquals(4L, response.getFailedRows());
+        assertEquals("New Book", saved.get(0).getTitle());
+        List<Long> lines = response.getErrors().stream().map(BookImportErrorResponse::getLine).toList();
+        assertEquals(List.of(2L, 3L, 4L, 5L), lines);
+        assertEquals("Title is required", response.getErrors().get(0).getMessage());
+        assertTrue(response.getErrors().get(3).getMessage().contains("already exists"));
+    }
+
+    @Test
+    void testImport_Ndjson_ShouldSkipInvalidJsonLines() {
+        // Given
+        String ndjson = "{\"title\":\"Clean Code\",\"authorName\":\"Robert Martin\",\"genre\":\"EDUCATION\"}\n" +
+                "\n" +
+                "{not json}\n";
+        stubAuthors();
+        when(bookRepository.findTitleAuthorPairs(anyCollection(), anyCollection())).thenReturn(List.of());
+        stubSaveBooks();
+
+        // When
+        BookImportResponse response = bookImportService.submit(BookImportService.NDJSON, stream(ndjson));
+
+        // Then
+        assertEquals(BookImportStatus.COMPLETED, response.getStatus());
+        assertEquals(1L, response.getImportedRows());
+        assertEquals(1L, response.getFailedRows());
+        assertEquals(3L, response.getErrors().get(0).getLine());
+        assertTrue(response.getErrors().get(0).getMessage().startsWith("Invalid JSON"));
+    }
+
+    @Test
+    void testImport_ChunkFails_ShouldRetryRowByRow() {
+        // Given
+        String csv = "title,authorName\n" +
+                "Clean Code,Robert Martin\n" +
+                "Clean Architecture,Robert Martin\n";
+        stubAuthors();
+        when(bookRepository.findTitleAuthorPairs(anyCollection(), anyCollection())).thenReturn(List.of());
+        when(bookRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // When
+        BookImportResponse response = bookImportService.submit(BookImportService.CSV, stream(csv));
+
+        // Then
+        assertEquals(BookImportStatus.COMPLETED, response.getStatus());
+        assertEquals(1L, response.getImportedRows());
+        assertEquals(1L, response.getFailedRows());
+        assertEquals(3L, response.getErrors().get(0).getLine());
+        verify(bookRepository, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void testImport_CsvWithoutRequiredHeader_ShouldFailJob() {
+        // When
+        BookImportResponse response = bookImportService.submit(BookImportService.CSV, stream("name,year\nClean Code,2008\n"));
+
+        // Then
+        assertEquals(BookImportStatus.FAILED, response.getStatus());
+        assertEquals("CSV header must contain title and authorName columns", response.getError());
+        verifyNoInteractions(bookRepository, authorResolver);
+    }
+
+    @Test
+    void testSubmit_EmptyBody_ShouldThrowBadRequest() {
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> bookImportService.submit(BookImportService.CSV, stream("")));
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+    }
+
+    @Test
+    void testGetStatus_UnknownJob_ShouldThrowNotFound() {
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> bookImportService.getStatus("missing"));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+
+    private void stubAuthors() {
+        when(authorResolver.resolveAll(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> names = invocation.getArgument(0);
+            Map<String, Author> authors = new HashMap<>();
+            long id = 100;
+            for (String name : names) {
+                authors.put(name, name.equals(existingAuthor.getFullName())
+                        ? existingAuthor
+                        : Author.builder().id(id++).fullName(name).build());
+            }
+            return authors;
+        });
+    }
+
+    private List<Book> stubSaveBooks() {
+        List<Book> saved = new ArrayList<>();
+        when(bookRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Book> books = invocation.getArgument(0);
+            saved.addAll(books);
+            return books;
+        });
+        return saved;
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
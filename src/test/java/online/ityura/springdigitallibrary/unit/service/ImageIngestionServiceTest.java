@@ -0,0 +1,227 @@
+package online.ityura.springdigitallibrary.unit.service;
+
+import online.ityura.springdigitallibrary.cache.ChangeNotificationPublisher;
+import online.ityura.springdigitallibrary.cache.ImageByteCache;
+import online.ityura.springdigitallibrary.dto.response.ImageUploadResponse;
+import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.ImageUploadStatus;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.repository.BookRepository;
+import online.ityura.springdigitallibrary.repository.ContentBlobRepository;
+import online.ityura.springdigitallibrary.repository.StoredFileRepository;
+import online.ityura.springdigitallibrary.service.BookImageService;
+import online.ityura.springdigitallibrary.service.ImageIngestionService;
+import online.ityura.springdigitallibrary.storage.ContentAddressedStore;
+import online.ityura.springdigitallibrary.storage.FileSystemStorageBackend;
+import online.ityura.springdigitallibrary.storage.SpooledContent;
+import online.ityura.springdigitallibrary.storage.StorageBackend;
+import online.ityura.springdigitallibrary.storage.StoredFileService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageIngestionServiceTest {
+
+    private static final String STAGED_KEY = "ab/cd/" + "ab".repeat(32) + ".png";
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookImageService bookImageService;
+
+    @Mock
+    private ContentAddressedStore contentAddressedStore;
+
+    @Mock
+    private StorageBackend storageBackend;
+
+    @InjectMocks
+    private ImageIngestionService imageIngestionService;
+
+    @BeforeEach
+    void setUp() {
+        // Обработка выполняется в вызывающем потоке, чтобы проверять итоговый статус сразу
+        ReflectionTestUtils.setField(imageIngestionService, "executor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(imageIngestionService, "slots", new Semaphore(1));
+        ReflectionTestUtils.setField(imageIngestionService, "maxWidth", 8000);
+        ReflectionTestUtils.setField(imageIngestionService, "maxHeight", 8000);
+        ReflectionTestUtils.setField(imageIngestionService, "maxPixels", 25_000_000L);
+        ReflectionTestUtils.setField(imageIngestionService, "variantWidths", new int[]{320});
+        ReflectionTestUtils.setField(imageIngestionService, "statusTtl", Duration.ofHours(1));
+    }
+
+    @Test
+    void testSubmit_ValidPng_ShouldCompleteWithVariant() throws Exception {
+        // Given
+        MultipartFile file = uploadOf(png(640, 480));
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(contentAddressedStore.stage(eq(StorageArea.IMAGES), any(SpooledContent.class))).thenReturn(STAGED_KEY);
+        when(bookImageService.attachStagedImage(eq(1L), any(SpooledContent.class), eq(640), eq(480))).thenReturn(STAGED_KEY);
+
+        // When
+        ImageUploadResponse response = imageIngestionService.submit(1L, file);
+
+        // Then
+        assertEquals(ImageUploadStatus.COMPLETED, response.getStatus());
+        assertEquals(STAGED_KEY, response.getImagePath());
+        assertEquals("image/png", response.getContentType());
+        assertEquals(640, response.getWidth());
+        assertEquals(480, response.getHeight());
+        assertEquals(64, response.getSha256().length());
+        String variantKey = "ab/cd/" + "ab".repeat(32) + "_w320.png";
+        assertEquals(List.of(variantKey), response.getVariants());
+        verify(storageBackend).put(eq(StorageArea.IMAGES), eq(variantKey), any(Path.class));
+        assertEquals(ImageUploadStatus.COMPLETED,
+                imageIngestionService.getStatus(1L, response.getUploadId()).getStatus());
+    }
+
+    @Test
+    void testSubmit_FileSystemBackend_ShouldRecordDimensionsAfterStaging(@TempDir Path storageDir) throws Exception {
+        // Given
+        // Реальные хранилище и сервис обложек: размеры должны прийти из конвейера до короткой транзакции
+        FileSystemStorageBackend fileSystemBackend = new FileSystemStorageBackend(
+                storageDir.resolve("images").toString(), storageDir.resolve("pdfs").toString());
+        ContentBlobRepository contentBlobRepository = mock(ContentBlobRepository.class);
+        StoredFileRepository storedFileRepository = mock(StoredFileRepository.class);
+        StoredFileService storedFileService = new StoredFileService();
+        ReflectionTestUtils.setField(storedFileService, "storedFileRepository", storedFileRepository);
+        ContentAddressedStore realStore = new ContentAddressedStore();
+        ReflectionTestUtils.setField(realStore, "contentBlobRepository", contentBlobRepository);
+        ReflectionTestUtils.setField(realStore, "storageBackend", fileSystemBackend);
+        ReflectionTestUtils.setField(realStore, "storedFileService", storedFileService);
+        BookImageService realBookImageService = new BookImageService();
+        ReflectionTestUtils.setField(realBookImageService, "bookRepository", bookRepository);
+        ReflectionTestUtils.setField(realBookImageService, "imageByteCache", mock(ImageByteCache.class));
+        ReflectionTestUtils.setField(realBookImageService, "changeNotificationPublisher",
+                mock(ChangeNotificationPublisher.class));
+        ReflectionTestUtils.setField(realBookImageService, "contentAddressedStore", realStore);
+        ReflectionTestUtils.setField(imageIngestionService, "bookImageService", realBookImageService);
+        ReflectionTestUtils.setField(imageIngestionService, "contentAddressedStore", realStore);
+        ReflectionTestUtils.setField(imageIngestionService, "storageBackend", fileSystemBackend);
+
+        MultipartFile file = uploadOf(png(640, 480));
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(Book.builder().id(1L).build()));
+        when(contentBlobRepository.upsertReference(eq("IMAGES"), anyString(), anyLong(), anyString())).thenReturn(1);
+        when(contentBlobRepository.findByAreaAndSha256(eq(StorageArea.IMAGES), anyString()))
+                .thenAnswer(invocation -> Optional.of(ContentBlob.builder()
+                        .id(7L)
+                        .area(StorageArea.IMAGES)
+                        .sha256(invocation.getArgument(1))
+                        .storageKey(ContentAddressedStore.blobKey(invocation.getArgument(1), ".png"))
+                        .refCount(1)
+                        .build()));
+
+        // When
+        ImageUploadResponse response = imageIngestionService.submit(1L, file);
+
+        // Then
+        assertEquals(ImageUploadStatus.COMPLETED, response.getStatus());
+        String storageKey = ContentAddressedStore.blobKey(response.getSha256(), ".png");
+        assertEquals(storageKey, response.getImagePath());
+        assertTrue(fileSystemBackend.exists(StorageArea.IMAGES, storageKey));
+        verify(storedFileRepository).insertIfAbsent(eq("IMAGES"), eq(storageKey), eq("image/png"), anyLong(),
+                eq(response.getSha256()), any(Instant.class), eq(640), eq(480));
+    }
+
+    @Test
+    void testSubmit_UnsupportedFormat_ShouldFailWithoutStoring() throws Exception {
+        // Given
+        MultipartFile file = uploadOf("not an image at all".getBytes());
+        when(bookRepository.existsById(1L)).thenReturn(true);
+
+        // When
+        ImageUploadResponse response = imageIngestionService.submit(1L, file);
+
+        // Then
+        assertEquals(ImageUploadStatus.FAILED, response.getStatus());
+        assertTrue(response.getError().contains("Unsupported image format"));
+        verifyNoInteractions(contentAddressedStore, bookImageService);
+    }
+
+    @Test
+    void testSubmit_DimensionsOverLimit_ShouldFailBeforeDecoding() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(imageIngestionService, "maxWidth", 100);
+        MultipartFile file = uploadOf(png(640, 480));
+        when(bookRepository.existsById(1L)).thenReturn(true);
+
+        // When
+        ImageUploadResponse response = imageIngestionService.submit(1L, file);
+
+        // Then
+        assertEquals(ImageUploadStatus.FAILED, response.getStatus());
+        assertEquals("Image dimensions 640x480 exceed the allowed limit", response.getError());
+        verifyNoInteractions(contentAddressedStore, bookImageService);
+    }
+
+    @Test
+    void testSubmit_BookNotFound_ShouldThrowException() {
+        // Given
+        MultipartFile file = mock(MultipartFile.class);
+        when(bookRepository.existsById(999L)).thenReturn(false);
+
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> imageIngestionService.submit(999L, file));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        verifyNoInteractions(file);
+    }
+
+    @Test
+    void testGetStatus_UnknownUpload_ShouldThrowNotFound() {
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> imageIngestionService.getStatus(1L, "missing"));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        assertEquals("Image upload not found with id: missing", exception.getReason());
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+
+    private static MultipartFile uploadOf(byte[] content) throws IOException {
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.isEmpty()).thenReturn(false);
+        doAnswer(invocation -> {
+            Files.write(invocation.getArgument(0, Path.class), content);
+            return null;
+        }).when(file).transferTo(any(Path.class));
+        return file;
+    }
+}
@@ -1,5 +1,7 @@
 package online.ityura.springdigitallibrary.unit.service;
 
+import online.ityura.springdigitallibrary.cache.ChangeNotificationPublisher;
+import online.ityura.springdigitallibrary.cache.ChangedEntity;
 import online.ityura.springdigitallibrary.dto.request.CreateRatingRequest;
 import online.ityura.springdigitallibrary.dto.request.UpdateRatingRequest;
 import online.ityura.springdigitallibrary.dto.response.RatingResponse;
@@ -41,6 +43,9 @@ class RatingServiceTest {
     @Mock
     private UserRepository userRepository;
     
+    @Mock
+    private ChangeNotificationPublisher changeNotificationPublisher;
+    
     @InjectMocks
     private RatingService ratingService;
     
@@ -203,6 +208,7 @@ class RatingServiceTest {
         verify(ratingRepository).save(any(Rating.class));
         verify(ratingRepository).calculateAverageRating(1L);
         verify(bookRepository).save(any(Book.class));
+        verify(changeNotificationPublisher).publish(ChangedEntity.BOOK, 1L);
     }
     
     @Test
@@ -0,0 +1,250 @@
+package online.ityura.springdigitallibrary.unit.storage;
+
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.repository.ContentBlobRepository;
+import online.ityura.springdigitallibrary.storage.ContentAddressedStore;
+import online.ityura.springdigitallibrary.storage.FileSystemStorageBackend;
+import online.ityura.springdigitallibrary.storage.SpooledContent;
+import online.ityura.springdigitallibrary.storage.StorageBackend;
+import online.ityura.springdigitallibrary.storage.StoredFileService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContentAddressedStoreTest {
+
+    private static final byte[] CONTENT = "cover bytes".getBytes();
+
+    @Mock
+    private ContentBlobRepository contentBlobRepository;
+
+    @Mock
+    private StorageBackend storageBackend;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private StoredFileService storedFileService;
+
+    @InjectMocks
+    private ContentAddressedStore contentAddressedStore;
+
+    @TempDir
+    Path tempDir;
+
+    private String sha256;
+    private String expectedKey;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CONTENT));
+        expectedKey = sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256 + ".png";
+    }
+
+    @Test
+    void testStore_NewContent_ShouldPutShardedKey() throws Exception {
+        // Given
+        when(contentBlobRepository.upsertReference("IMAGES", sha256, CONTENT.length, expectedKey))
+                .thenReturn(1);
+        when(contentBlobRepository.findByAreaAndSha256(StorageArea.IMAGES, sha256))
+                .thenReturn(Optional.of(blob(1)));
+        doAnswer(invocation -> {
+            Path source = invocation.getArgument(2);
+            assertArrayEquals(CONTENT, Files.readAllBytes(source));
+            return null;
+        }).when(storageBackend).put(eq(StorageArea.IMAGES), eq(expectedKey), any(Path.class));
+
+        // When
+        ContentBlob result = contentAddressedStore.store(StorageArea.IMAGES, new ByteArrayInputStream(CONTENT), ".PNG");
+
+        // Then
+        assertEquals(sha256, result.getSha256());
+        verify(storageBackend).put(eq(StorageArea.IMAGES), eq(expectedKey), any(Path.class));
+        verify(storedFileService).record(eq(StorageArea.IMAGES), eq(expectedKey), any(Path.class), eq(sha256), eq((long) CONTENT.length));
+    }
+
+    @Test
+    void testStore_DuplicateContent_ShouldNotPutSecondCopy() throws Exception {
+        // Given
+        when(contentBlobRepository.upsertReference("IMAGES", sha256, CONTENT.length, expectedKey))
+                .thenReturn(2);
+        when(contentBlobRepository.findByAreaAndSha256(StorageArea.IMAGES, sha256))
+                .thenReturn(Optional.of(blob(2)));
+        when(storageBackend.exists(StorageArea.IMAGES, expectedKey)).thenReturn(true);
+
+        // When
+        ContentBlob result = contentAddressedStore.store(StorageArea.IMAGES, new ByteArrayInputStream(CONTENT), ".png");
+
+        // Then
+        assertEquals(2, result.getRefCount());
+        verify(storageBackend, never()).put(any(), any(), any(Path.class));
+    }
+
+    @Test
+    void testAttachStaged_ObjectPurgedAfterStage_ShouldRewriteFromLocalCopy() throws Exception {
+        // Given
+        FileSystemStorageBackend fileSystemBackend = new FileSystemStorageBackend(
+                tempDir.resolve("pictures").toString(), tempDir.resolve("pdf").toString());
+        ReflectionTestUtils.setField(contentAddressedStore, "storageBackend", fileSystemBackend);
+        when(contentBlobRepository.upsertReference("IMAGES", sha256, CONTENT.length, expectedKey))
+                .thenReturn(1);
+        when(contentBlobRepository.findByAreaAndSha256(StorageArea.IMAGES, sha256))
+                .thenReturn(Optional.of(blob(1)));
+
+        try (SpooledContent content = contentAddressedStore.spool(new ByteArrayInputStream(CONTENT), ".png")) {
+            String stagedKey = contentAddressedStore.stage(StorageArea.IMAGES, content);
+            assertTrue(Files.exists(content.file()));
+            // Сборщик мусора удалил объект раньше, чем на него сослались
+            fileSystemBackend.delete(StorageArea.IMAGES, stagedKey);
+
+            // When
+            ContentBlob result = contentAddressedStore.attachStaged(StorageArea.IMAGES, content, 640, 480);
+
+            // Then
+            assertEquals(expectedKey, result.getStorageKey());
+            try (InputStream stored = fileSystemBackend.get(StorageArea.IMAGES, expectedKey)) {
+                assertArrayEquals(CONTENT, stored.readAllBytes());
+            }
+            verify(storedFileService).record(StorageArea.IMAGES, expectedKey, sha256, CONTENT.length, 640, 480);
+        }
+    }
+
+    @Test
+    void testStage_ShouldKeepLocalCopyUntilClosed() throws Exception {
+        // Given
+        FileSystemStorageBackend fileSystemBackend = new FileSystemStorageBackend(
+                tempDir.resolve("pictures").toString(), tempDir.resolve("pdf").toString());
+        ReflectionTestUtils.setField(contentAddressedStore, "storageBackend", fileSystemBackend);
+        SpooledContent content = contentAddressedStore.spool(new ByteArrayInputStream(CONTENT), ".png");
+
+        // When
+        contentAddressedStore.stage(StorageArea.IMAGES, content);
+
+        // Then
+        assertTrue(fileSystemBackend.exists(StorageArea.IMAGES, expectedKey));
+        assertArrayEquals(CONTENT, Files.readAllBytes(content.file()));
+        content.close();
+        assertFalse(Files.exists(content.file()));
+        verifyNoInteractions(contentBlobRepository, storedFileService);
+    }
+
+    @Test
+    void testFind_InvalidHash_ShouldThrowBadRequest() {
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> contentAddressedStore.find(StorageArea.IMAGES, "not-a-hash"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatusCode());
+        assertTrue(exception.getReason().contains("Invalid sha256"));
+    }
+
+    @Test
+    void testAddReference_ShouldReturnCountFromDatabaseWithoutMutatingManagedEntity() {
+        // Given
+        ContentBlob managed = blob(1);
+        when(contentBlobRepository.findByAreaAndSha256(StorageArea.IMAGES, sha256)).thenReturn(Optional.of(managed));
+        when(storageBackend.exists(StorageArea.IMAGES, expectedKey)).thenReturn(true);
+        when(contentBlobRepository.incrementRefCount(1L)).thenReturn(3);
+
+        // When
+        ContentBlob result = contentAddressedStore.addReference(StorageArea.IMAGES, sha256);
+
+        // Then
+        assertEquals(3, result.getRefCount());
+        assertEquals(expectedKey, result.getStorageKey());
+        assertNotSame(managed, result);
+        assertEquals(1, managed.getRefCount());
+    }
+
+    @Test
+    void testAddReference_BlobPurgedConcurrently_ShouldThrowNotFound() {
+        // Given
+        when(contentBlobRepository.findByAreaAndSha256(StorageArea.IMAGES, sha256)).thenReturn(Optional.of(blob(0)));
+        when(storageBackend.exists(StorageArea.IMAGES, expectedKey)).thenReturn(true);
+        when(contentBlobRepository.incrementRefCount(1L)).thenReturn(null);
+
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> contentAddressedStore.addReference(StorageArea.IMAGES, sha256));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+    }
+
+    @Test
+    void testAddReference_UnknownHash_ShouldThrowNotFound() {
+        // Given
+        when(contentBlobRepository.findByAreaAndSha256(StorageArea.IMAGES, sha256)).thenReturn(Optional.empty());
+
+        // When & Then
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+                () -> contentAddressedStore.addReference(StorageArea.IMAGES, sha256.toUpperCase()));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatusCode());
+        verify(contentBlobRepository, never()).incrementRefCount(any());
+    }
+
+    @Test
+    void testRelease_LegacyPath_ShouldBeIgnored() {
+        // Given
+        when(contentBlobRepository.findByAreaAndStorageKey(StorageArea.IMAGES, "/legacy/Old_Cover.png"))
+                .thenReturn(Optional.empty());
+
+        // When
+        contentAddressedStore.release(StorageArea.IMAGES, "/legacy/Old_Cover.png");
+
+        // Then
+        verify(contentBlobRepository, never()).decrementRefCount(any());
+    }
+
+    @Test
+    void testRelease_LastReference_ShouldDeleteBlobAndObject() throws Exception {
+        // Given
+        ContentBlob released = blob(0);
+        when(contentBlobRepository.findByAreaAndStorageKey(StorageArea.IMAGES, expectedKey))
+                .thenReturn(Optional.of(blob(1)));
+        when(contentBlobRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(released));
+
+        // When
+        contentAddressedStore.release(StorageArea.IMAGES, expectedKey);
+
+        // Then
+        verify(contentBlobRepository).decrementRefCount(1L);
+        verify(contentBlobRepository).delete(released);
+        verify(storageBackend).delete(StorageArea.IMAGES, expectedKey);
+        verify(storedFileService).forget(StorageArea.IMAGES, expectedKey);
+    }
+
+    private ContentBlob blob(int refCount) {
+        return ContentBlob.builder()
+                .id(1L)
+                .area(StorageArea.IMAGES)
+                .sha256(sha256)
+                .byteLength((long) CONTENT.length)
+                .refCount(refCount)
+                .storageKey(expectedKey)
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package online.ityura.springdigitallibrary.unit.storage;
+
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.storage.FileSystemStorageBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSystemStorageBackendTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes();
+
+    @TempDir
+    Path tempDir;
+
+    private FileSystemStorageBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        backend = new FileSystemStorageBackend(tempDir.resolve("images").toString(), tempDir.resolve("pdfs").toString());
+    }
+
+    @Test
+    void testPutAndGet_ShouldRoundTripBytes() throws IOException {
+        // When
+        backend.put(StorageArea.PDFS, "ab/cd/book.pdf", new ByteArrayInputStream(CONTENT), CONTENT.length);
+
+        // Then
+        assertTrue(backend.exists(StorageArea.PDFS, "ab/cd/book.pdf"));
+        assertFalse(backend.exists(StorageArea.IMAGES, "ab/cd/book.pdf"));
+        assertEquals(CONTENT.length, backend.contentLength(StorageArea.PDFS, "ab/cd/book.pdf"));
+        try (InputStream input = backend.get(StorageArea.PDFS, "ab/cd/book.pdf")) {
+            assertArrayEquals(CONTENT, input.readAllBytes());
+        }
+    }
+
+    @Test
+    void testGetRange_ShouldReturnRequestedSlice() throws IOException {
+        // Given
+        backend.put(StorageArea.PDFS, "book.pdf", new ByteArrayInputStream(CONTENT), CONTENT.length);
+
+        // When
+        byte[] slice;
+        try (InputStream input = backend.getRange(StorageArea.PDFS, "book.pdf", 2, 3)) {
+            slice = input.readAllBytes();
+        }
+
+        // Then
+        assertArrayEquals("234".getBytes(), slice);
+    }
+
+    @Test
+    void testList_ShouldReturnRelativeKeysWithoutTempFiles() throws IOException {
+        // Given
+        backend.put(StorageArea.IMAGES, "ab/cd/first.png", new ByteArrayInputStream(CONTENT), CONTENT.length);
+        backend.put(StorageArea.IMAGES, "ef/01/second.png", new ByteArrayInputStream(CONTENT), CONTENT.length);
+        Files.createDirectories(tempDir.resolve("images/.tmp"));
+        Files.write(tempDir.resolve("images/.tmp/put-1.part"), CONTENT);
+
+        // When
+        List<String> keys;
+        try (Stream<String> stream = backend.list(StorageArea.IMAGES)) {
+            keys = stream.sorted().toList();
+        }
+
+        // Then
+        assertEquals(List.of("ab/cd/first.png", "ef/01/second.png"), keys);
+    }
+
+    @Test
+    void testDelete_ShouldRemoveObject() throws IOException {
+        // Given
+        backend.put(StorageArea.IMAGES, "cover.png", new ByteArrayInputStream(CONTENT), CONTENT.length);
+
+        // When
+        backend.delete(StorageArea.IMAGES, "cover.png");
+
+        // Then
+        assertFalse(backend.exists(StorageArea.IMAGES, "cover.png"));
+        assertThrows(NoSuchFileException.class, () -> backend.get(StorageArea.IMAGES, "cover.png"));
+    }
+
+    @Test
+    void testResolve_LegacyAbsolutePath_ShouldBeUsedAsIs() throws IOException {
+        // Given
+        Path legacy = tempDir.resolve("legacy/Old_Cover.png");
+        Files.createDirectories(legacy.getParent());
+        Files.write(legacy, CONTENT);
+
+        // When & Then
+        assertTrue(backend.exists(StorageArea.IMAGES, legacy.toString()));
+        assertEquals(CONTENT.length, backend.contentLength(StorageArea.IMAGES, legacy.toString()));
+    }
+
+    @Test
+    void testResolve_KeyOutsideRoot_ShouldBeRejected() {
+        // When & Then
+        assertThrows(IOException.class, () -> backend.resolve(StorageArea.IMAGES, "../pdfs/book.pdf"));
+        assertFalse(backend.exists(StorageArea.IMAGES, "../pdfs/book.pdf"));
+    }
+}
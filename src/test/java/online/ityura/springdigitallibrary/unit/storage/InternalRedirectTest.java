@@ -0,0 +1,94 @@
+package online.ityura.springdigitallibrary.unit.storage;
+
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.storage.FileSystemStorageBackend;
+import online.ityura.springdigitallibrary.storage.InternalRedirect;
+import online.ityura.springdigitallibrary.storage.StorageBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class InternalRedirectTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileSystemStorageBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        backend = new FileSystemStorageBackend(tempDir.resolve("images").toString(), tempDir.resolve("pdfs").toString());
+    }
+
+    @Test
+    void testResolve_AccelRedirect_ShouldPrefixKeyWithAreaLocation() {
+        // Given
+        InternalRedirect redirect = new InternalRedirect(backend, true, "X-Accel-Redirect", "/internal/images", "/internal/pdf/");
+
+        // When & Then
+        assertEquals("/internal/pdf/ab/cd/abcd.pdf", redirect.resolve(StorageArea.PDFS, "ab/cd/abcd.pdf"));
+        assertEquals("/internal/images/My%20Cover.png", redirect.resolve(StorageArea.IMAGES, "My Cover.png"));
+    }
+
+    @Test
+    void testResolve_LegacyAbsolutePathInsideRoot_ShouldBeRelativized() {
+        // Given
+        InternalRedirect redirect = new InternalRedirect(backend, true, "X-Accel-Redirect", "/internal/images/", "/internal/pdf/");
+        String legacyPath = tempDir.resolve("images/Old_Cover.png").toString();
+
+        // When & Then
+        assertEquals("/internal/images/Old_Cover.png", redirect.resolve(StorageArea.IMAGES, legacyPath));
+        assertNull(redirect.resolve(StorageArea.IMAGES, tempDir.resolve("elsewhere/cover.png").toString()));
+    }
+
+    @Test
+    void testResolve_KeyWithParentSegment_ShouldFallBack() {
+        // Given
+        InternalRedirect redirect = new InternalRedirect(backend, true, "X-Accel-Redirect", "/internal/images/", "/internal/pdf/");
+
+        // When & Then
+        assertNull(redirect.resolve(StorageArea.IMAGES, "../pdfs/book.pdf"));
+    }
+
+    @Test
+    void testResolve_Sendfile_ShouldReturnAbsolutePath() {
+        // Given
+        InternalRedirect redirect = new InternalRedirect(backend, true, "x-sendfile", "/internal/images/", "/internal/pdf/");
+
+        // When & Then
+        assertEquals(InternalRedirect.X_SENDFILE, redirect.getHeaderName());
+        assertEquals(tempDir.resolve("pdfs/ab/cd/abcd.pdf").toAbsolutePath().normalize().toString(),
+                redirect.resolve(StorageArea.PDFS, "ab/cd/abcd.pdf"));
+    }
+
+    @Test
+    void testResolve_SendfileWithObjectStorage_ShouldFallBack() {
+        // Given
+        InternalRedirect redirect = new InternalRedirect(mock(StorageBackend.class), true, "X-Sendfile", "/internal/images/", "/internal/pdf/");
+
+        // When & Then
+        assertNull(redirect.resolve(StorageArea.PDFS, "ab/cd/abcd.pdf"));
+    }
+
+    @Test
+    void testResolve_Disabled_ShouldReturnNull() {
+        // Given
+        InternalRedirect redirect = new InternalRedirect(backend, false, "X-Accel-Redirect", "/internal/images/", "/internal/pdf/");
+
+        // When & Then
+        assertFalse(redirect.isEnabled());
+        assertNull(redirect.resolve(StorageArea.PDFS, "ab/cd/abcd.pdf"));
+    }
+
+    @Test
+    void testConstructor_UnknownHeader_ShouldBeRejected() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> new InternalRedirect(backend, true, "X-Custom", "/internal/images/", "/internal/pdf/"));
+    }
+}
@@ -0,0 +1,95 @@
+package online.ityura.springdigitallibrary.unit.storage;
+
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.storage.S3StorageBackend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.NoSuchFileException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class S3StorageBackendTest {
+
+    @Mock
+    private S3Client s3Client;
+
+    private S3StorageBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        backend = new S3StorageBackend(s3Client, "library", false);
+    }
+
+    @Test
+    void testPut_ShouldWriteUnderAreaPrefix() throws Exception {
+        // When
+        backend.put(StorageArea.IMAGES, "ab/cd/cover.png", new ByteArrayInputStream(new byte[]{1, 2, 3}), 3);
+
+        // Then
+        ArgumentCaptor<PutObjectRequest> captor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3Client).putObject(captor.capture(), any(RequestBody.class));
+        assertEquals("library", captor.getValue().bucket());
+        assertEquals("images/ab/cd/cover.png", captor.getValue().key());
+        assertEquals(3L, captor.getValue().contentLength());
+    }
+
+    @Test
+    void testGetRange_ShouldSendInclusiveRangeHeader() throws Exception {
+        // When
+        backend.getRange(StorageArea.PDFS, "ab/cd/book.pdf", 100, 50);
+
+        // Then
+        ArgumentCaptor<GetObjectRequest> captor = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3Client).getObject(captor.capture());
+        assertEquals("pdfs/ab/cd/book.pdf", captor.getValue().key());
+        assertEquals("bytes=100-149", captor.getValue().range());
+    }
+
+    @Test
+    void testGet_MissingKey_ShouldThrowNoSuchFile() {
+        // Given
+        when(s3Client.getObject(any(GetObjectRequest.class)))
+                .thenThrow(NoSuchKeyException.builder().message("missing").build());
+
+        // When & Then
+        assertThrows(NoSuchFileException.class, () -> backend.get(StorageArea.PDFS, "missing.pdf"));
+    }
+
+    @Test
+    void testContentLength_ShouldUseHeadObject() throws Exception {
+        // Given
+        when(s3Client.headObject(any(HeadObjectRequest.class)))
+                .thenReturn(HeadObjectResponse.builder().contentLength(2048L).build());
+
+        // When & Then
+        assertEquals(2048L, backend.contentLength(StorageArea.IMAGES, "cover.png"));
+        assertTrue(backend.exists(StorageArea.IMAGES, "cover.png"));
+    }
+
+    @Test
+    void testExists_HeadReturns404_ShouldBeFalse() {
+        // Given
+        when(s3Client.headObject(any(HeadObjectRequest.class)))
+                .thenThrow(S3Exception.builder().statusCode(404).message("Not Found").build());
+
+        // When & Then
+        assertFalse(backend.exists(StorageArea.IMAGES, "cover.png"));
+    }
+}
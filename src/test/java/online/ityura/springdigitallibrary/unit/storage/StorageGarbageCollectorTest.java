@@ -0,0 +1,173 @@
+package online.ityura.springdigitallibrary.unit.storage;
+
+import online.ityura.springdigitallibrary.dto.response.StorageGcReportResponse;
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.repository.BookRepository;
+import online.ityura.springdigitallibrary.repository.ContentBlobRepository;
+import online.ityura.springdigitallibrary.storage.ContentAddressedStore;
+import online.ityura.springdigitallibrary.storage.FileSystemStorageBackend;
+import online.ityura.springdigitallibrary.storage.StorageGarbageCollector;
+import online.ityura.springdigitallibrary.storage.StoredFileService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StorageGarbageCollectorTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes();
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private ContentBlobRepository contentBlobRepository;
+
+    @Mock
+    private ContentAddressedStore contentAddressedStore;
+
+    @Mock
+    private StoredFileService storedFileService;
+
+    @InjectMocks
+    private StorageGarbageCollector storageGarbageCollector;
+
+    private Path imagesRoot;
+
+    @BeforeEach
+    void setUp() {
+        imagesRoot = tempDir.resolve("images");
+        FileSystemStorageBackend backend = new FileSystemStorageBackend(imagesRoot.toString(), tempDir.resolve("pdfs").toString());
+        ReflectionTestUtils.setField(storageGarbageCollector, "storageBackend", backend);
+        ReflectionTestUtils.setField(storageGarbageCollector, "retention", Duration.ofDays(7));
+        ReflectionTestUtils.setField(storageGarbageCollector, "keepSuperseded", 1);
+        ReflectionTestUtils.setField(storageGarbageCollector, "batchSize", 100);
+        ReflectionTestUtils.setField(storageGarbageCollector, "batchPause", Duration.ZERO);
+    }
+
+    @Test
+    void testRun_ShouldDeleteOldOrphansAndKeepReferencedAndFreshFiles() throws IOException {
+        // Given
+        Path referenced = writeImage("ab/cd/referenced.png", 30);
+        Path legacyReferenced = writeImage("Legacy_Cover.png", 30);
+        Path oldOrphan = writeImage("ef/01/orphan.png", 30);
+        Path freshOrphan = writeImage("ef/02/fresh.png", 0);
+        when(bookRepository.findAllImagePaths()).thenReturn(List.of(legacyReferenced.toString()));
+        when(contentBlobRepository.findReferencedStorageKeys(StorageArea.IMAGES)).thenReturn(List.of("ab/cd/referenced.png"));
+
+        // When
+        StorageGcReportResponse report = storageGarbageCollector.run(false);
+
+        // Then
+        assertTrue(Files.exists(referenced));
+        assertTrue(Files.exists(legacyReferenced));
+        assertTrue(Files.exists(freshOrphan));
+        assertFalse(Files.exists(oldOrphan));
+        assertEquals(4L, report.getScannedObjects());
+        assertEquals(1L, report.getDeletedObjects());
+        assertEquals(1L, report.getRetainedObjects());
+        assertEquals((long) CONTENT.length, report.getReclaimedBytes());
+        verify(storedFileService).forget(StorageArea.IMAGES, "ef/01/orphan.png");
+        assertSame(report, storageGarbageCollector.getLastReport());
+    }
+
+    @Test
+    void testRun_SupersededCovers_ShouldKeepNewestVersions() throws IOException {
+        // Given
+        writeImage("Title.png", 30);
+        Path newest = writeImage("Title_1734000000003.png", 30);
+        Path older = writeImage("Title_1734000000002.png", 30);
+        Path oldest = writeImage("Title_1734000000001.png", 30);
+        when(bookRepository.findAllImagePaths()).thenReturn(List.of("Title.png"));
+
+        // When
+        StorageGcReportResponse report = storageGarbageCollector.run(false);
+
+        // Then
+        assertTrue(Files.exists(newest));
+        assertFalse(Files.exists(older));
+        assertFalse(Files.exists(oldest));
+        assertEquals(2L, report.getDeletedObjects());
+    }
+
+    @Test
+    void testRun_ImageVariants_ShouldLiveAsLongAsOriginal() throws IOException {
+        // Given
+        writeImage("ab/cd/live.png", 30);
+        Path liveVariant = writeImage("ab/cd/live_w320.png", 30);
+        Path orphanVariant = writeImage("ef/01/gone_w320.jpg", 30);
+        when(contentBlobRepository.findReferencedStorageKeys(StorageArea.IMAGES)).thenReturn(List.of("ab/cd/live.png"));
+
+        // When
+        StorageGcReportResponse report = storageGarbageCollector.run(false);
+
+        // Then
+        assertTrue(Files.exists(liveVariant));
+        assertFalse(Files.exists(orphanVariant));
+        assertEquals(1L, report.getDeletedObjects());
+    }
+
+    @Test
+    void testRun_DryRun_ShouldOnlyReport() throws IOException {
+        // Given
+        Path orphan = writeImage("ef/01/orphan.png", 30);
+
+        // When
+        StorageGcReportResponse report = storageGarbageCollector.run(true);
+
+        // Then
+        assertTrue(Files.exists(orphan));
+        assertTrue(report.getDryRun());
+        assertEquals(1L, report.getDeletedObjects());
+        verifyNoInteractions(storedFileService);
+    }
+
+    @Test
+    void testRun_UnreferencedBlob_ShouldBePurgedThroughStore() {
+        // Given
+        ContentBlob blob = ContentBlob.builder()
+                .id(7L)
+                .area(StorageArea.PDFS)
+                .storageKey("ab/cd/book.pdf")
+                .byteLength(2048L)
+                .refCount(0)
+                .build();
+        when(contentBlobRepository.findUnreferenced()).thenReturn(List.of(blob));
+        when(contentAddressedStore.purgeIfUnreferenced(7L)).thenReturn(true);
+
+        // When
+        StorageGcReportResponse report = storageGarbageCollector.run(false);
+
+        // Then
+        assertEquals(1L, report.getPurgedBlobs());
+        assertEquals(2048L, report.getReclaimedBytes());
+    }
+
+    private Path writeImage(String key, int ageDays) throws IOException {
+        Path path = imagesRoot.resolve(key);
+        Files.createDirectories(path.getParent());
+        Files.write(path, CONTENT);
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(Duration.ofDays(ageDays))));
+        return path;
+    }
+}
@@ -0,0 +1,165 @@
+package online.ityura.springdigitallibrary.unit.storage;
+
+import online.ityura.springdigitallibrary.cache.ImageByteCache;
+import online.ityura.springdigitallibrary.dto.response.StorageLayoutMigrationResponse;
+import online.ityura.springdigitallibrary.model.Book;
+import online.ityura.springdigitallibrary.model.ContentBlob;
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.repository.BookRepository;
+import online.ityura.springdigitallibrary.storage.ContentAddressedStore;
+import online.ityura.springdigitallibrary.storage.SpooledContent;
+import online.ityura.springdigitallibrary.storage.StorageBackend;
+import online.ityura.springdigitallibrary.storage.StorageLayoutMigration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StorageLayoutMigrationTest {
+
+    private static final String SHARDED_PDF = "cd/cd/" + "cd".repeat(32) + ".pdf";
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private ContentAddressedStore contentAddressedStore;
+
+    @Mock
+    private StorageBackend storageBackend;
+
+    @Mock
+    private ImageByteCache imageByteCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private StorageLayoutMigration storageLayoutMigration;
+
+    private Book testBook;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(storageLayoutMigration, "batchSize", 50);
+        ReflectionTestUtils.setField(storageLayoutMigration, "batchPause", Duration.ZERO);
+
+        testBook = Book.builder()
+                .id(1L)
+                .title("Old Book")
+                .imagePath("/opt/spring-digital-bookstore/images/Old_Book.png")
+                .pdfPath(SHARDED_PDF)
+                .build();
+    }
+
+    @Test
+    void testMigrate_LegacyImage_ShouldMoveToShardedKey() throws Exception {
+        // Given
+        String legacyPath = testBook.getImagePath();
+        Path spooledFile = Files.createFile(tempDir.resolve("spooled.part"));
+        SpooledContent spooled = new SpooledContent(spooledFile, "ab".repeat(32), 3, ".png");
+        ContentBlob blob = ContentBlob.builder()
+                .id(5L)
+                .area(StorageArea.IMAGES)
+                .sha256("ab".repeat(32))
+                .storageKey("ab/ab/" + "ab".repeat(32) + ".png")
+                .byteLength(3L)
+                .refCount(1)
+                .build();
+        when(bookRepository.findBatchAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(testBook));
+        when(storageBackend.get(StorageArea.IMAGES, legacyPath)).thenReturn(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        when(contentAddressedStore.spool(any(InputStream.class), eq(".png"))).thenReturn(spooled);
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testBook));
+        when(contentAddressedStore.store(StorageArea.IMAGES, spooled)).thenReturn(blob);
+
+        // When
+        StorageLayoutMigrationResponse report = storageLayoutMigration.migrate();
+
+        // Then
+        assertEquals(blob.getStorageKey(), testBook.getImagePath());
+        verify(bookRepository).save(testBook);
+        verify(imageByteCache).invalidate(1L);
+        // Старый файл не удаляется сразу: запросы со старым путем должны продолжать работать
+        verify(storageBackend, never()).delete(any(), any());
+        assertFalse(Files.exists(spooledFile));
+        assertEquals(1L, report.getScannedBooks());
+        assertEquals(1L, report.getMigratedFiles());
+        assertEquals(1L, report.getAlreadyShardedFiles());
+        assertTrue(report.getComplete());
+    }
+
+    @Test
+    void testMigrate_PathChangedConcurrently_ShouldSkip() throws Exception {
+        // Given
+        Path spooledFile = Files.createFile(tempDir.resolve("spooled.part"));
+        SpooledContent spooled = new SpooledContent(spooledFile, "ab".repeat(32), 3, ".png");
+        Book reloaded = Book.builder()
+                .id(1L)
+                .title("Old Book")
+                .imagePath("ef/ef/" + "ef".repeat(32) + ".png")
+                .build();
+        when(bookRepository.findBatchAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(testBook));
+        when(storageBackend.get(eq(StorageArea.IMAGES), anyString())).thenReturn(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        when(contentAddressedStore.spool(any(InputStream.class), eq(".png"))).thenReturn(spooled);
+        when(bookRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(reloaded));
+
+        // When
+        StorageLayoutMigrationResponse report = storageLayoutMigration.migrate();
+
+        // Then
+        verify(contentAddressedStore, never()).store(any(StorageArea.class), any(SpooledContent.class));
+        verify(bookRepository, never()).save(any());
+        assertEquals(1L, report.getSkippedFiles());
+        assertFalse(report.getComplete());
+    }
+
+    @Test
+    void testMigrate_MissingFile_ShouldBeCountedAndLeftAsIs() throws Exception {
+        // Given
+        String legacyPath = testBook.getImagePath();
+        when(bookRepository.findBatchAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(testBook));
+        when(storageBackend.get(StorageArea.IMAGES, legacyPath)).thenThrow(new NoSuchFileException(legacyPath));
+
+        // When
+        StorageLayoutMigrationResponse report = storageLayoutMigration.migrate();
+
+        // Then
+        assertEquals(legacyPath, testBook.getImagePath());
+        assertEquals(1L, report.getMissingFiles());
+        assertTrue(report.getComplete());
+        assertSame(report, storageLayoutMigration.getLastReport());
+    }
+
+    @Test
+    void testIsSharded_ShouldRecognizeContentAddressedKeys() {
+        // When & Then
+        assertTrue(StorageLayoutMigration.isSharded(SHARDED_PDF));
+        assertTrue(StorageLayoutMigration.isSharded("ab/ab/" + "ab".repeat(32)));
+        assertFalse(StorageLayoutMigration.isSharded("Old_Book.png"));
+        assertFalse(StorageLayoutMigration.isSharded("/opt/spring-digital-bookstore/pdf/Old_Book.pdf"));
+        assertFalse(StorageLayoutMigration.isSharded(null));
+    }
+}
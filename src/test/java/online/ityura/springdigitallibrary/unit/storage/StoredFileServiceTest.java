@@ -0,0 +1,86 @@
+package online.ityura.springdigitallibrary.unit.storage;
+
+import online.ityura.springdigitallibrary.model.StorageArea;
+import online.ityura.springdigitallibrary.repository.StoredFileRepository;
+import online.ityura.springdigitallibrary.storage.StoredFileService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StoredFileServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private StoredFileRepository storedFileRepository;
+
+    @InjectMocks
+    private StoredFileService storedFileService;
+
+    @Test
+    void testRecord_Image_ShouldStoreTypeAndDimensions() throws Exception {
+        // Given
+        Path image = tempDir.resolve("cover.png");
+        ImageIO.write(new BufferedImage(3, 2, BufferedImage.TYPE_INT_RGB), "png", image.toFile());
+        long length = Files.size(image);
+        when(storedFileRepository.existsByAreaAndStorageKey(StorageArea.IMAGES, "ab/cd/abcd.png")).thenReturn(false);
+
+        // When
+        storedFileService.record(StorageArea.IMAGES, "ab/cd/abcd.png", image, "ab".repeat(32), length);
+
+        // Then
+        verify(storedFileRepository).insertIfAbsent(eq("IMAGES"), eq("ab/cd/abcd.png"), eq("image/png"),
+                eq(length), eq("ab".repeat(32)), any(Instant.class), eq(3), eq(2));
+    }
+
+    @Test
+    void testRecord_Pdf_ShouldNotReadDimensions() throws Exception {
+        // Given
+        Path pdf = tempDir.resolve("book.pdf");
+        Files.write(pdf, "%PDF-1.7".getBytes());
+        when(storedFileRepository.existsByAreaAndStorageKey(StorageArea.PDFS, "ab/cd/abcd.pdf")).thenReturn(false);
+
+        // When
+        storedFileService.record(StorageArea.PDFS, "ab/cd/abcd.pdf", pdf, "cd".repeat(32), 8);
+
+        // Then
+        verify(storedFileRepository).insertIfAbsent(eq("PDFS"), eq("ab/cd/abcd.pdf"), eq("application/pdf"),
+                eq(8L), eq("cd".repeat(32)), any(Instant.class), isNull(), isNull());
+    }
+
+    @Test
+    void testRecord_AlreadyKnown_ShouldSkipInsert() {
+        // Given
+        when(storedFileRepository.existsByAreaAndStorageKey(StorageArea.IMAGES, "ab/cd/abcd.png")).thenReturn(true);
+
+        // When
+        storedFileService.record(StorageArea.IMAGES, "ab/cd/abcd.png", tempDir.resolve("missing.png"), "ab".repeat(32), 10);
+
+        // Then
+        verify(storedFileRepository, never()).insertIfAbsent(any(), any(), any(), anyLong(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testContentTypeOf_ShouldMapKnownExtensions() {
+        // When & Then
+        assertEquals("image/jpeg", StoredFileService.contentTypeOf(StorageArea.IMAGES, "ab/cd/abcd.JPG"));
+        assertEquals("image/webp", StoredFileService.contentTypeOf(StorageArea.IMAGES, "cover.webp"));
+        assertEquals("application/octet-stream", StoredFileService.contentTypeOf(StorageArea.IMAGES, "cover"));
+        assertEquals("application/pdf", StoredFileService.contentTypeOf(StorageArea.PDFS, "ab/cd/abcd"));
+    }
+}
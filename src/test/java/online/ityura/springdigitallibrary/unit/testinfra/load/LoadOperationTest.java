@@ -0,0 +1,79 @@
+package online.ityura.springdigitallibrary.unit.testinfra.load;
+
+import online.ityura.springdigitallibrary.testinfra.load.LoadOperation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadOperationTest {
+
+    @Test
+    void testParseMix_ValidMix_ShouldKeepOrderAndWeights() {
+        // When
+        Map<LoadOperation, Integer> mix = LoadOperation.parseMix("catalog:50, book:25,reviews:10 ,rate:5,review:10");
+
+        // Then
+        assertEquals(List.of(LoadOperation.CATALOG, LoadOperation.BOOK, LoadOperation.BOOK_REVIEWS,
+                LoadOperation.RATE, LoadOperation.REVIEW), List.copyOf(mix.keySet()));
+        assertEquals(List.of(50, 25, 10, 5, 10), List.copyOf(mix.values()));
+    }
+
+    @Test
+    void testParseMix_ZeroWeight_ShouldDropOperation() {
+        // When
+        Map<LoadOperation, Integer> mix = LoadOperation.parseMix("catalog:50,rate:0");
+
+        // Then
+        assertEquals(Map.of(LoadOperation.CATALOG, 50), mix);
+    }
+
+    @Test
+    void testParseMix_DuplicateOperation_ShouldMergeWeights() {
+        // When
+        Map<LoadOperation, Integer> mix = LoadOperation.parseMix("book:10,catalog:5,book:15");
+
+        // Then
+        assertEquals(List.of(LoadOperation.BOOK, LoadOperation.CATALOG), List.copyOf(mix.keySet()));
+        assertEquals(25, mix.get(LoadOperation.BOOK));
+    }
+
+    @Test
+    void testParseMix_UnknownOperation_ShouldThrow() {
+        // When
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> LoadOperation.parseMix("catalog:50,delete:5"));
+
+        // Then
+        assertTrue(exception.getMessage().contains("delete"));
+    }
+
+    @Test
+    void testParseMix_MalformedEntry_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> LoadOperation.parseMix("catalog"));
+        assertThrows(IllegalArgumentException.class, () -> LoadOperation.parseMix("catalog:1:2"));
+        assertThrows(NumberFormatException.class, () -> LoadOperation.parseMix("catalog:many"));
+    }
+
+    @Test
+    void testParseMix_NegativeWeight_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> LoadOperation.parseMix("catalog:50,book:-1"));
+    }
+
+    @Test
+    void testParseMix_NoPositiveWeights_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> LoadOperation.parseMix("catalog:0,book:0"));
+    }
+
+    @Test
+    void testStatuses_WriteOperations_ShouldTreat409AsConflictNotSuccess() {
+        // Then
+        assertEquals(201, LoadOperation.RATE.getSuccessStatus());
+        assertTrue(LoadOperation.RATE.getConflictStatuses().contains(409));
+        assertEquals(201, LoadOperation.REVIEW.getSuccessStatus());
+        assertTrue(LoadOperation.REVIEW.getConflictStatuses().contains(409));
+        assertTrue(LoadOperation.CATALOG.getConflictStatuses().isEmpty());
+    }
+}
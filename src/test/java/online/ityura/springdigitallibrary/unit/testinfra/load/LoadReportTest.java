@@ -0,0 +1,138 @@
+package online.ityura.springdigitallibrary.unit.testinfra.load;
+
+import online.ityura.springdigitallibrary.testinfra.load.LoadReport;
+import online.ityura.springdigitallibrary.testinfra.load.LoadReport.OperationStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadReportTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCompareWith_WithinThreshold_ShouldReportNothing() {
+        // Given
+        LoadReport baseline = report(stats("catalog", 1000, 0, 0, 100.0, 20.0));
+        LoadReport current = report(stats("catalog", 950, 0, 0, 95.0, 21.5));
+
+        // When
+        List<String> regressions = current.compareWith(baseline, 10);
+
+        // Then
+        assertTrue(regressions.isEmpty());
+    }
+
+    @Test
+    void testCompareWith_ThroughputDrop_ShouldReportRegression() {
+        // Given
+        LoadReport baseline = report(stats("catalog", 1000, 0, 0, 100.0, 20.0));
+        LoadReport current = report(stats("catalog", 800, 0, 0, 80.0, 20.0));
+
+        // When
+        List<String> regressions = current.compareWith(baseline, 10);
+
+        // Then
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.get(0).startsWith("catalog: throughput"));
+    }
+
+    @Test
+    void testCompareWith_P99Growth_ShouldReportRegression() {
+        // Given
+        LoadReport baseline = report(stats("book", 1000, 0, 0, 100.0, 20.0));
+        LoadReport current = report(stats("book", 1000, 0, 0, 100.0, 30.0));
+
+        // When
+        List<String> regressions = current.compareWith(baseline, 10);
+
+        // Then
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.get(0).startsWith("book: p99"));
+    }
+
+    @Test
+    void testCompareWith_ErrorRateGrowth_ShouldReportRegression() {
+        // Given
+        LoadReport baseline = report(stats("rate", 1000, 0, 5, 100.0, 20.0));
+        LoadReport current = report(stats("rate", 1000, 0, 30, 100.0, 20.0));
+
+        // When
+        List<String> regressions = current.compareWith(baseline, 10);
+
+        // Then
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.get(0).startsWith("rate: error rate"));
+    }
+
+    @Test
+    void testCompareWith_ConflictsGrowth_ShouldNotCountAsErrors() {
+        // Given
+        LoadReport baseline = report(stats("review", 1000, 10, 5, 100.0, 20.0));
+        LoadReport current = report(stats("review", 1000, 500, 5, 100.0, 20.0));
+
+        // When
+        List<String> regressions = current.compareWith(baseline, 10);
+
+        // Then
+        assertTrue(regressions.isEmpty());
+    }
+
+    @Test
+    void testCompareWith_OperationMissingInBaseline_ShouldBeSkipped() {
+        // Given
+        LoadReport baseline = report(stats("catalog", 1000, 0, 0, 100.0, 20.0));
+        LoadReport current = report(stats("catalog", 1000, 0, 0, 100.0, 20.0), stats("review", 10, 0, 10, 1.0, 500.0));
+
+        // When
+        List<String> regressions = current.compareWith(baseline, 10);
+
+        // Then
+        assertTrue(regressions.isEmpty());
+    }
+
+    @Test
+    void testCompareWith_ZeroBaseline_ShouldNotReportPercentChange() {
+        // Given
+        LoadReport baseline = report(stats("rate", 0, 0, 0, 0.0, 0.0));
+        LoadReport current = report(stats("rate", 1000, 0, 0, 100.0, 20.0));
+
+        // When
+        List<String> regressions = current.compareWith(baseline, 10);
+
+        // Then
+        assertTrue(regressions.isEmpty());
+    }
+
+    @Test
+    void testWriteAndRead_ShouldRoundTripReport() throws IOException {
+        // Given
+        LoadReport report = report(stats("rate", 1000, 40, 2, 100.0, 20.0));
+        Path path = tempDir.resolve("reports/load-report.json");
+
+        // When
+        report.write(path);
+        LoadReport read = LoadReport.read(path);
+
+        // Then
+        assertEquals(report, read);
+    }
+
+    private static LoadReport report(OperationStats... operations) {
+        return new LoadReport("2025-12-21T19:00:00Z", 60.0, Map.of("load.concurrency", "16"), List.of(operations));
+    }
+
+    private static OperationStats stats(String operation, long count, long conflicts, long errors,
+                                        double throughput, double p99Millis) {
+        return new OperationStats(operation, "GET /api/v1/books", count, conflicts, errors, throughput,
+                conflicts / 60.0, p99Millis / 4, p99Millis / 2, p99Millis / 1.5, p99Millis / 1.2, p99Millis,
+                p99Millis * 1.5, p99Millis * 2, p99Millis, p99Millis * 2, Map.of("200", count));
+    }
+}
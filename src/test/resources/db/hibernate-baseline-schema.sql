@@ -0,0 +1,68 @@
+-- Схема, которую создавал Hibernate (ddl-auto=update) до перехода на Flyway: ID на IDENTITY,
+-- имена ограничений сгенерированы Hibernate, таблиц content_blobs и stored_files еще нет.
+-- Нужна FlywayBaselineUpgradeTest, чтобы проверить путь обновления существующих баз.
+
+CREATE TABLE authors (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    created_at TIMESTAMP(6),
+    full_name  VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE users (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    nickname      VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    role          VARCHAR(255) NOT NULL CHECK (role IN ('USER', 'ADMIN')),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE books (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    deletion_locked BOOLEAN NOT NULL,
+    description     TEXT,
+    genre           VARCHAR(255),
+    image_path      VARCHAR(255),
+    pdf_path        VARCHAR(255),
+    published_year  INTEGER,
+    rating_avg      NUMERIC(4, 2) NOT NULL,
+    rating_count    INTEGER NOT NULL,
+    title           VARCHAR(255) NOT NULL,
+    updated_at      TIMESTAMP(6),
+    author_id       BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE reviews (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    text       TEXT NOT NULL,
+    updated_at TIMESTAMP(6),
+    book_id    BIGINT NOT NULL,
+    user_id    BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE ratings (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6),
+    value      SMALLINT NOT NULL,
+    book_id    BIGINT NOT NULL,
+    user_id    BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+ALTER TABLE IF EXISTS authors ADD CONSTRAINT UKi7ggfjmwc3yq5pd6muaw5xg1e UNIQUE (full_name);
+ALTER TABLE IF EXISTS users ADD CONSTRAINT UK6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email);
+ALTER TABLE IF EXISTS books ADD CONSTRAINT UKq2pr8jl4mw2ejxw4d9gxmkyu2 UNIQUE (title, author_id);
+ALTER TABLE IF EXISTS reviews ADD CONSTRAINT UKc5b4wsrnpyi9x9mpd1yj0ytax UNIQUE (book_id, user_id);
+ALTER TABLE IF EXISTS ratings ADD CONSTRAINT UK8j3vqmkjxpl39jbc2y1xqd1yw UNIQUE (book_id, user_id);
+ALTER TABLE IF EXISTS books ADD CONSTRAINT FKfjixh2vym2cvfj3ufxj91jem7 FOREIGN KEY (author_id) REFERENCES authors;
+ALTER TABLE IF EXISTS reviews ADD CONSTRAINT FK6a9k6xvev80se5rreqvuqr7f9 FOREIGN KEY (book_id) REFERENCES books;
+ALTER TABLE IF EXISTS reviews ADD CONSTRAINT FKcgy7qjc1r99dp117y9en6lxye FOREIGN KEY (user_id) REFERENCES users ON DELETE CASCADE;
+ALTER TABLE IF EXISTS ratings ADD CONSTRAINT FKb8ilvuixjrdyqe4ymbabwxsu6 FOREIGN KEY (book_id) REFERENCES books;
+ALTER TABLE IF EXISTS ratings ADD CONSTRAINT FKb3354ee2xxvdrbyq9f42jdayd FOREIGN KEY (user_id) REFERENCES users ON DELETE CASCADE;